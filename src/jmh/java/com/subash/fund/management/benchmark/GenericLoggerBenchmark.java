@@ -0,0 +1,73 @@
+package com.subash.fund.management.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.subash.fund.management.model.OrderResponse;
+import com.subash.fund.management.model.OrderView;
+import com.subash.fund.management.util.GenericLogger;
+import org.apache.logging.log4j.Logger;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link GenericLogger#logRequest} and {@link GenericLogger#logResponse} with redaction enabled.
+ * <p>
+ * The {@link Logger} is a stub that hands each message to the {@link Blackhole}, so the benchmark measures
+ * message building and serialization, not the appender.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GenericLoggerBenchmark {
+
+    private GenericLogger genericLogger;
+    private Logger logger;
+    private OrderView orderView;
+    private OrderResponse orderResponse;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        genericLogger = new GenericLogger(new ObjectMapper());
+        ReflectionTestUtils.setField(genericLogger, "logRequest", true);
+        ReflectionTestUtils.setField(genericLogger, "logResponse", true);
+        ReflectionTestUtils.setField(genericLogger, "sampleRate", 1.0);
+        ReflectionTestUtils.setField(genericLogger, "redactFields", List.of("password", "passwordHash"));
+        genericLogger.init();
+
+        logger = (Logger) Proxy.newProxyInstance(Logger.class.getClassLoader(), new Class<?>[]{Logger.class},
+                (proxy, method, args) -> {
+                    if (method.getReturnType() == boolean.class) {
+                        return true;
+                    }
+                    blackhole.consume(args);
+                    return null;
+                });
+
+        orderView = new OrderView();
+        orderView.setUsername("subish12396");
+        orderView.setFundId("749739330349");
+        orderView.setUnits(new BigDecimal("1000.000"));
+        orderView.setNav(new BigDecimal("127.8900"));
+
+        orderResponse = new OrderResponse();
+        orderResponse.setCode(5010);
+        orderResponse.setMessage("Order completed successfully");
+        orderResponse.setTotalValue(new BigDecimal("127890.0000000"));
+    }
+
+    @Benchmark
+    public void logRequest() {
+        genericLogger.logRequest(logger, "bench", "createOrder", "POST", orderView);
+    }
+
+    @Benchmark
+    public void logResponse() {
+        genericLogger.logResponse(logger, "bench", "201 CREATED", orderResponse);
+    }
+}
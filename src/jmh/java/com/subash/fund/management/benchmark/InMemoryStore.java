@@ -0,0 +1,172 @@
+package com.subash.fund.management.benchmark;
+
+import com.subash.fund.management.model.*;
+import com.subash.fund.management.repository.*;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-memory stand-in for the JPA repositories used by the order path, so that benchmarks measure the service
+ * logic rather than the database.
+ * <p>
+ * Repositories are {@link Proxy} instances answering only the methods the order path calls; any other call
+ * fails, which flags a benchmark that silently started to depend on more of the store.
+ * </p>
+ */
+final class InMemoryStore {
+
+    final Map<String, FundScript> funds = new HashMap<>();
+    final Map<String, User> users = new HashMap<>();
+    final Map<String, UserHolding> holdings = new HashMap<>();
+    final Map<String, FundNav> navs = new HashMap<>();
+    /**
+     * Holdings keyed by user ID and fund ID, as the guarded statements address them.
+     */
+    final Map<String, UserHolding> holdingsById = new HashMap<>();
+    long transactions;
+
+    final FundRepository fundRepository = proxy(FundRepository.class, (method, args) -> switch (method) {
+        case "findById" -> Optional.ofNullable(funds.get((String) args[0]));
+        case "findOrderContext" -> Optional.ofNullable(funds.get((String) args[0])).map(fund -> new OrderContext(fund,
+                users.get((String) args[1]), holdings.get(args[1] + "|" + fund.getFundId())));
+        case "subtractUnits" -> {
+            FundScript fund = funds.get((String) args[0]);
+            BigDecimal units = (BigDecimal) args[1];
+            if (fund == null || fund.getTotalUnits().compareTo(units) <= 0) {
+                yield 0;
+            }
+            fund.setTotalUnits(fund.getTotalUnits().subtract(units));
+            yield 1;
+        }
+        case "addUnits" -> {
+            FundScript fund = funds.get((String) args[0]);
+            fund.setTotalUnits(fund.getTotalUnits().add((BigDecimal) args[1]));
+            yield 1;
+        }
+        case "save" -> args[0];
+        default -> null;
+    });
+
+    final UserRepository userRepository = proxy(UserRepository.class, (method, args) -> switch (method) {
+        case "findByUsername" -> Optional.ofNullable(users.get((String) args[0]));
+        default -> null;
+    });
+
+    final UserHoldingRepository userHoldingRepository = proxy(UserHoldingRepository.class, (method, args) ->
+            switch (method) {
+                case "findByUserAndFund" -> Optional.ofNullable(
+                        holdings.get(((User) args[0]).getUsername() + "|" + ((FundScript) args[1]).getFundId()));
+                case "save" -> {
+                    UserHolding holding = (UserHolding) args[0];
+                    holdings.put(holding.getUser().getUsername() + "|" + holding.getFund().getFundId(), holding);
+                    yield holding;
+                }
+                case "addUnits" -> {
+                    UserHolding holding = holdingsById.get((Long) args[0] + "|" + args[1]);
+                    holding.setUnits(holding.getUnits().add((BigDecimal) args[2]));
+                    holding.setTotalValue(holding.getTotalValue().add((BigDecimal) args[3]));
+                    yield 1;
+                }
+                case "subtractUnits" -> {
+                    UserHolding holding = holdings.values().stream()
+                            .filter(candidate -> candidate.getId().equals(args[0])).findFirst().orElseThrow();
+                    BigDecimal units = (BigDecimal) args[1];
+                    if (holding.getUnits().compareTo(units) <= 0) {
+                        yield 0;
+                    }
+                    holding.setUnits(holding.getUnits().subtract(units));
+                    holding.setTotalValue(holding.getTotalValue().subtract((BigDecimal) args[2]));
+                    yield 1;
+                }
+                default -> null;
+            });
+
+    final TransactionRepository transactionRepository = proxy(TransactionRepository.class, (method, args) -> {
+        if (method.equals("save")) {
+            transactions++;
+            return args[0];
+        }
+        return null;
+    });
+
+    final FundNavRepository fundNavRepository = proxy(FundNavRepository.class, (method, args) -> switch (method) {
+        case "findByFundIdAndNavDate" -> Optional.ofNullable(navs.get(((FundScript) args[0]).getFundId()));
+        default -> null;
+    });
+
+    /**
+     * Creates a fund with today's NAV and a user holding units of it.
+     */
+    void seed(String fundId, String username, BigDecimal nav, BigDecimal fundUnits, BigDecimal heldUnits) {
+        FundScript fund = new FundScript();
+        fund.setFundId(fundId);
+        fund.setFundName("Benchmark Fund " + fundId);
+        fund.setTotalUnits(fundUnits);
+        funds.put(fundId, fund);
+
+        FundNav fundNav = new FundNav();
+        fundNav.setFundId(fund);
+        fundNav.setNav(nav);
+        fundNav.setNavDate(LocalDate.now());
+        navs.put(fundId, fundNav);
+
+        User user = new User();
+        user.setId((long) users.size() + 1);
+        user.setUsername(username);
+        user.setRole(Role.ROLE_USER);
+        users.put(username, user);
+
+        UserHolding holding = new UserHolding();
+        holding.setUser(user);
+        holding.setFund(fund);
+        holding.setUnits(heldUnits);
+        holding.setTotalValue(heldUnits.multiply(nav));
+        holding.setId((long) holdings.size() + 1);
+        holdings.put(username + "|" + fundId, holding);
+        holdingsById.put(user.getId() + "|" + fundId, holding);
+    }
+
+    /**
+     * Transactions are no-ops; the store has nothing to roll back.
+     */
+    final PlatformTransactionManager transactionManager = new PlatformTransactionManager() {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    };
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(String method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Object result = handler.handle(method.getName(), args);
+            if (result == null && !method.getName().equals("save")) {
+                throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            }
+            return result;
+        });
+    }
+}
@@ -0,0 +1,89 @@
+package com.subash.fund.management.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.subash.fund.management.mapper.FundMapper;
+import com.subash.fund.management.model.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link FundMapper} conversions and JSON (de)serialization of the order API payloads with an
+ * {@link ObjectMapper} configured like the application's ({@code non_null} inclusion).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MappingBenchmark {
+
+    private final FundMapper fundMapper = FundMapper.INSTANCE;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+    private FundView fundView;
+    private FundScript fundScript;
+    private OrderView orderView;
+    private OrderResponse orderResponse;
+    private byte[] orderViewJson;
+    private byte[] orderResponseJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        fundView = new FundView();
+        fundView.setFundId("749739330349");
+        fundView.setFundName("Benchmark Growth Fund");
+        fundView.setTotalUnits(new BigDecimal("1000000.000"));
+        fundView.setNav(new BigDecimal("127.8900"));
+        fundView.setNavDate(LocalDate.of(2025, 6, 14));
+        fundScript = fundMapper.fundViewToFundScript(fundView);
+
+        orderView = new OrderView();
+        orderView.setUsername("subish12396");
+        orderView.setFundId("749739330349");
+        orderView.setUnits(new BigDecimal("1000.000"));
+        orderView.setNav(new BigDecimal("127.8900"));
+
+        orderResponse = new OrderResponse();
+        orderResponse.setCode(5010);
+        orderResponse.setMessage("Order completed successfully");
+        orderResponse.setTotalValue(new BigDecimal("127890.0000000"));
+
+        orderViewJson = objectMapper.writeValueAsBytes(orderView);
+        orderResponseJson = objectMapper.writeValueAsBytes(orderResponse);
+    }
+
+    @Benchmark
+    public FundScript fundViewToFundScript() {
+        return fundMapper.fundViewToFundScript(fundView);
+    }
+
+    @Benchmark
+    public FundView fundScriptToFundView() {
+        return fundMapper.fundScriptToFundView(fundScript);
+    }
+
+    @Benchmark
+    public byte[] serializeOrderView() throws IOException {
+        return objectMapper.writeValueAsBytes(orderView);
+    }
+
+    @Benchmark
+    public OrderView deserializeOrderView() throws IOException {
+        return objectMapper.readValue(orderViewJson, OrderView.class);
+    }
+
+    @Benchmark
+    public byte[] serializeOrderResponse() throws IOException {
+        return objectMapper.writeValueAsBytes(orderResponse);
+    }
+
+    @Benchmark
+    public OrderResponse deserializeOrderResponse() throws IOException {
+        return objectMapper.readValue(orderResponseJson, OrderResponse.class);
+    }
+}
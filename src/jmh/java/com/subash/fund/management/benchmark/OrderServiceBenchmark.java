@@ -0,0 +1,83 @@
+package com.subash.fund.management.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.subash.fund.management.model.OrderResponse;
+import com.subash.fund.management.model.OrderView;
+import com.subash.fund.management.service.NavCache;
+import com.subash.fund.management.service.OptimisticRetry;
+import com.subash.fund.management.service.OrderEngine;
+import com.subash.fund.management.service.PortfolioIndex;
+import com.subash.fund.management.service.OrderServiceImpl;
+import com.subash.fund.management.service.TransactionJournal;
+import com.subash.fund.management.util.GenericLogger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link OrderServiceImpl#createOrder} for BUY and REDEEM orders against {@link InMemoryStore}.
+ * <p>
+ * The order engine is disabled and request/response logging on, as in the default configuration. Log events go to a discarding appender ({@code logback-test.xml}), so message building is
+ * measured but no I/O. Fund and holding units are large enough never to run out during a run.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OrderServiceBenchmark {
+
+    private static final String FUND_ID = "1000000001";
+    private static final String USERNAME = "bench_user";
+    private static final BigDecimal NAV = new BigDecimal("127.8900");
+
+    private OrderServiceImpl orderService;
+    private OrderView orderView;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        InMemoryStore store = new InMemoryStore();
+        BigDecimal plenty = new BigDecimal("1000000000000000");
+        store.seed(FUND_ID, USERNAME, NAV, plenty, plenty);
+
+        GenericLogger genericLogger = new GenericLogger(new ObjectMapper());
+        ReflectionTestUtils.setField(genericLogger, "logRequest", true);
+        ReflectionTestUtils.setField(genericLogger, "logResponse", true);
+        ReflectionTestUtils.setField(genericLogger, "sampleRate", 1.0);
+        genericLogger.init();
+
+        // Disabled, as its fields are not injected: orders are measured without the portfolio index
+        PortfolioIndex portfolioIndex = new PortfolioIndex(store.userRepository, store.userHoldingRepository, null,
+                null, new SimpleMeterRegistry());
+        // Disabled as well, so the NAV is read from the store on every order
+        NavCache navCache = new NavCache(store.fundNavRepository, null, null, null, null, new SimpleMeterRegistry());
+        OrderEngine orderEngine = new OrderEngine(store.fundRepository, store.userHoldingRepository,
+                store.transactionRepository, null, portfolioIndex, new SimpleMeterRegistry());
+
+        orderService = new OrderServiceImpl(store.fundRepository, store.userHoldingRepository,
+                store.transactionRepository, genericLogger, orderEngine, store.transactionManager,
+                new OptimisticRetry(new SimpleMeterRegistry(), 5, Duration.ofMillis(5), Duration.ofMillis(100)),
+                new TransactionJournal(null, null, store.transactionManager, new SimpleMeterRegistry()), portfolioIndex,
+                navCache);
+
+        orderView = new OrderView();
+        orderView.setUsername(USERNAME);
+        orderView.setFundId(FUND_ID);
+        orderView.setUnits(BigDecimal.ONE);
+        orderView.setNav(NAV);
+    }
+
+    @Benchmark
+    public ResponseEntity<OrderResponse> buy() throws Exception {
+        return orderService.createOrder("bench", "BUY", orderView);
+    }
+
+    @Benchmark
+    public ResponseEntity<OrderResponse> redeem() throws Exception {
+        return orderService.createOrder("bench", "REDEEM", orderView);
+    }
+}
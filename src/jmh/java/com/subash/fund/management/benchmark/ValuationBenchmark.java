@@ -0,0 +1,84 @@
+package com.subash.fund.management.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the {@link BigDecimal} arithmetic of order valuation and portfolio totals, with the equivalent
+ * fixed-point {@code long} arithmetic as a baseline.
+ * <p>
+ * Units carry 3 decimals and NAVs 4, as in the AMFI NAV file.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValuationBenchmark {
+
+    @Param({"100"})
+    public int holdings;
+
+    private BigDecimal[] units;
+    private BigDecimal[] navs;
+    private long[] unscaledUnits;
+    private long[] unscaledNavs;
+
+    @Setup
+    public void setUp() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        units = new BigDecimal[holdings];
+        navs = new BigDecimal[holdings];
+        unscaledUnits = new long[holdings];
+        unscaledNavs = new long[holdings];
+        for (int i = 0; i < holdings; i++) {
+            unscaledUnits[i] = random.nextLong(1_000, 10_000_000);
+            unscaledNavs[i] = random.nextLong(100_000, 50_000_000);
+            units[i] = BigDecimal.valueOf(unscaledUnits[i], 3);
+            navs[i] = BigDecimal.valueOf(unscaledNavs[i], 4);
+        }
+    }
+
+    /**
+     * Order amount: units × NAV, as in {@code OrderServiceImpl}.
+     */
+    @Benchmark
+    public BigDecimal orderAmount() {
+        return units[0].multiply(navs[0]);
+    }
+
+    /**
+     * Units bought for an amount: amount ÷ NAV rounded to 3 decimals.
+     */
+    @Benchmark
+    public BigDecimal unitsForAmount() {
+        return units[0].multiply(navs[0]).divide(navs[1], 3, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Portfolio value: Σ units × NAV.
+     */
+    @Benchmark
+    public BigDecimal portfolioValue() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < holdings; i++) {
+            total = total.add(units[i].multiply(navs[i]));
+        }
+        return total;
+    }
+
+    /**
+     * Portfolio value in fixed point (scale 7), the lower bound for {@link #portfolioValue()}.
+     */
+    @Benchmark
+    public long portfolioValueFixedPoint() {
+        long total = 0;
+        for (int i = 0; i < holdings; i++) {
+            total = Math.addExact(total, Math.multiplyExact(unscaledUnits[i], unscaledNavs[i]));
+        }
+        return total;
+    }
+}
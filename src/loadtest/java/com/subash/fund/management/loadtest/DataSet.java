@@ -0,0 +1,200 @@
+package com.subash.fund.management.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Funds, users and holdings seeded for a load test, and the consistency checks run after it.
+ * <p>
+ * The seeded units are also copied to {@code loadtest_seed_funds} and {@code loadtest_seed_holdings}, so that
+ * every check is a single query comparing the final state with the seed and the {@code transactions} table:
+ * <ul>
+ *     <li>units are conserved: for every fund, {@code total_units} plus the units held by all users equals
+ *     the seeded total</li>
+ *     <li>holdings match their history: seeded units plus BUY units minus REDEEM units of every user and fund
+ *     equals the held units, which catches lost updates that conservation alone would not</li>
+ *     <li>no holding and no fund has negative units</li>
+ *     <li>every acknowledged order ({@code 201}) has exactly one transaction</li>
+ * </ul>
+ * </p>
+ */
+final class DataSet {
+
+    static final String PASSWORD = "LoadTest#2025";
+    static final String ADMIN = "load_admin";
+
+    private static final long FIRST_FUND_ID = 1_000_000_000L;
+    private static final BigDecimal FUND_UNITS = new BigDecimal("1000000");
+    private static final BigDecimal HOLDING_UNITS = new BigDecimal("1000");
+    private static final int MAX_EXAMPLES = 10;
+
+    private final JdbcTemplate jdbc;
+    private final List<String> fundIds;
+    private final List<String> usernames;
+    private final Map<String, BigDecimal> navs;
+    private final Map<String, List<String>> holdings;
+
+    private DataSet(JdbcTemplate jdbc, List<String> fundIds, List<String> usernames, Map<String, BigDecimal> navs,
+                    Map<String, List<String>> holdings) {
+        this.jdbc = jdbc;
+        this.fundIds = fundIds;
+        this.usernames = usernames;
+        this.navs = navs;
+        this.holdings = holdings;
+    }
+
+    /**
+     * Seeds the schema created by the application with today's NAV for every fund.
+     *
+     * @param jdbc         template over the application's data source
+     * @param profile      size of the data set
+     * @param passwordHash hash of {@link #PASSWORD} shared by all users
+     * @return the seeded data set
+     */
+    static DataSet seed(JdbcTemplate jdbc, LoadProfile profile, String passwordHash) {
+        Random random = new Random(profile.seed());
+        LocalDate today = LocalDate.now();
+
+        List<String> fundIds = new ArrayList<>(profile.funds());
+        Map<String, BigDecimal> navs = new HashMap<>();
+        List<Object[]> fundRows = new ArrayList<>();
+        List<Object[]> navRows = new ArrayList<>();
+        for (int i = 0; i < profile.funds(); i++) {
+            String fundId = String.valueOf(FIRST_FUND_ID + i);
+            BigDecimal nav = BigDecimal.valueOf(1_000 + random.nextInt(49_000), 2);
+            fundIds.add(fundId);
+            navs.put(fundId, nav);
+            fundRows.add(new Object[]{fundId, "Load Test Fund " + i, FUND_UNITS});
+            navRows.add(new Object[]{fundId, nav, Date.valueOf(today)});
+        }
+        jdbc.batchUpdate("INSERT INTO funds_scripts (fund_id, fund_name, total_units) VALUES (?, ?, ?)", fundRows);
+        jdbc.batchUpdate("INSERT INTO fund_navs (fund_id, nav, nav_date) VALUES (?, ?, ?)", navRows);
+
+        List<String> usernames = new ArrayList<>(profile.users());
+        List<Object[]> userRows = new ArrayList<>();
+        userRows.add(new Object[]{ADMIN, passwordHash, "ROLE_ADMIN"});
+        for (int i = 0; i < profile.users(); i++) {
+            String username = String.format("load_user_%06d", i);
+            usernames.add(username);
+            userRows.add(new Object[]{username, passwordHash, "ROLE_USER"});
+        }
+        jdbc.batchUpdate("INSERT INTO users (username, password_hash, role) VALUES (?, ?, ?)", userRows);
+
+        Map<String, Long> userIds = new HashMap<>();
+        jdbc.query("SELECT id, username FROM users", rs -> {
+            userIds.put(rs.getString("username"), rs.getLong("id"));
+        });
+        Map<String, List<String>> holdings = new HashMap<>();
+        List<Object[]> holdingRows = new ArrayList<>();
+        for (String username : usernames) {
+            List<String> shuffled = new ArrayList<>(fundIds);
+            Collections.shuffle(shuffled, random);
+            List<String> held = List.copyOf(shuffled.subList(0, profile.holdingsPerUser()));
+            holdings.put(username, held);
+            for (String fundId : held) {
+                BigDecimal value = navs.get(fundId).multiply(HOLDING_UNITS).setScale(2, RoundingMode.HALF_UP);
+                holdingRows.add(new Object[]{userIds.get(username), fundId, HOLDING_UNITS, value});
+            }
+        }
+        jdbc.batchUpdate("INSERT INTO user_holdings (user_id, fund_id, units, total_value) VALUES (?, ?, ?, ?)",
+                holdingRows);
+
+        jdbc.execute("CREATE TABLE loadtest_seed_funds AS SELECT f.fund_id, f.total_units + COALESCE("
+                + "(SELECT SUM(h.units) FROM user_holdings h WHERE h.fund_id = f.fund_id), 0) AS units "
+                + "FROM funds_scripts f");
+        jdbc.execute("CREATE TABLE loadtest_seed_holdings AS SELECT user_id, fund_id, units FROM user_holdings");
+        return new DataSet(jdbc, List.copyOf(fundIds), List.copyOf(usernames), Map.copyOf(navs),
+                Map.copyOf(holdings));
+    }
+
+    /**
+     * Runs the consistency checks.
+     *
+     * @param acknowledgedOrders number of orders answered with {@code 201}, including the warm-up
+     * @return a description of every violation found; empty if the data is consistent
+     */
+    List<String> verify(long acknowledgedOrders) {
+        List<String> violations = new ArrayList<>();
+        jdbc.query("SELECT s.fund_id, s.units AS expected, f.total_units + COALESCE(h.units, 0) AS actual "
+                + "FROM loadtest_seed_funds s JOIN funds_scripts f ON f.fund_id = s.fund_id "
+                + "LEFT JOIN (SELECT fund_id, SUM(units) AS units FROM user_holdings GROUP BY fund_id) h "
+                + "ON h.fund_id = s.fund_id "
+                + "WHERE s.units <> f.total_units + COALESCE(h.units, 0) ORDER BY s.fund_id", rs -> {
+            add(violations, "Fund " + rs.getString("fund_id") + " units not conserved: expected "
+                    + rs.getBigDecimal("expected") + ", found " + rs.getBigDecimal("actual"));
+        });
+        jdbc.query("WITH expected AS (SELECT user_id, fund_id, SUM(units) AS units FROM ("
+                + "SELECT user_id, fund_id, units FROM loadtest_seed_holdings UNION ALL "
+                + "SELECT user_id, fund_id, CASE WHEN type = 'BUY' THEN units ELSE -units END FROM transactions"
+                + ") history GROUP BY user_id, fund_id) "
+                + "SELECT COALESCE(e.user_id, h.user_id) AS user_id, COALESCE(e.fund_id, h.fund_id) AS fund_id, "
+                + "COALESCE(e.units, 0) AS expected, COALESCE(h.units, 0) AS actual "
+                + "FROM expected e FULL JOIN user_holdings h ON h.user_id = e.user_id AND h.fund_id = e.fund_id "
+                + "WHERE COALESCE(e.units, 0) <> COALESCE(h.units, 0) ORDER BY 1, 2", rs -> {
+            add(violations, "Holding of user " + rs.getLong("user_id") + " in fund " + rs.getString("fund_id")
+                    + " disagrees with its transactions: expected " + rs.getBigDecimal("expected") + ", found "
+                    + rs.getBigDecimal("actual"));
+        });
+        Long negativeHoldings = jdbc.queryForObject("SELECT COUNT(*) FROM user_holdings WHERE units < 0", Long.class);
+        if (negativeHoldings != null && negativeHoldings > 0) {
+            violations.add(negativeHoldings + " holdings have negative units");
+        }
+        Long negativeFunds = jdbc.queryForObject("SELECT COUNT(*) FROM funds_scripts WHERE total_units < 0",
+                Long.class);
+        if (negativeFunds != null && negativeFunds > 0) {
+            violations.add(negativeFunds + " funds have negative units");
+        }
+        Long transactions = jdbc.queryForObject("SELECT COUNT(*) FROM transactions", Long.class);
+        if (transactions == null || transactions != acknowledgedOrders) {
+            violations.add(acknowledgedOrders + " orders acknowledged but " + transactions + " transactions recorded");
+        }
+        return violations;
+    }
+
+    private static void add(List<String> violations, String violation) {
+        if (violations.size() < MAX_EXAMPLES) {
+            violations.add(violation);
+        } else if (violations.size() == MAX_EXAMPLES) {
+            violations.add("...");
+        }
+    }
+
+    /**
+     * @return IDs of the seeded funds
+     */
+    List<String> fundIds() {
+        return fundIds;
+    }
+
+    /**
+     * @return usernames of the seeded users, excluding {@link #ADMIN}
+     */
+    List<String> usernames() {
+        return usernames;
+    }
+
+    /**
+     * @return today's NAV of every fund as seeded
+     */
+    Map<String, BigDecimal> navs() {
+        return navs;
+    }
+
+    /**
+     * @param username a seeded user
+     * @return funds the user held when seeded
+     */
+    List<String> holdings(String username) {
+        return holdings.get(username);
+    }
+}
@@ -0,0 +1,84 @@
+package com.subash.fund.management.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Latencies and outcomes of one operation, recorded by a single client thread.
+ * <p>
+ * Every sample is kept, so percentiles are exact; recorders of all clients are merged after the run.
+ * </p>
+ */
+final class LatencyRecorder {
+
+    private long[] nanos = new long[4096];
+    private int count;
+    private final Map<String, Long> outcomes = new TreeMap<>();
+
+    /**
+     * Records one request.
+     *
+     * @param latencyNanos time from sending the request to receiving the whole response
+     * @param outcome      HTTP status, with the response code for client errors (e.g. {@code 400/5005}), or
+     *                     {@code failed} if there was no response
+     */
+    void record(long latencyNanos, String outcome) {
+        if (count == nanos.length) {
+            nanos = Arrays.copyOf(nanos, count * 2);
+        }
+        nanos[count++] = latencyNanos;
+        outcomes.merge(outcome, 1L, Long::sum);
+    }
+
+    /**
+     * Adds the samples of another recorder to this one.
+     *
+     * @param other recorder of another client
+     */
+    void merge(LatencyRecorder other) {
+        if (count + other.count > nanos.length) {
+            nanos = Arrays.copyOf(nanos, count + other.count);
+        }
+        System.arraycopy(other.nanos, 0, nanos, count, other.count);
+        count += other.count;
+        other.outcomes.forEach((outcome, n) -> outcomes.merge(outcome, n, Long::sum));
+    }
+
+    /**
+     * Summarizes the samples for the report.
+     *
+     * @param seconds measured time, for the throughput
+     * @return count, throughput, latency percentiles in milliseconds and counts per outcome
+     */
+    Map<String, Object> summary(double seconds) {
+        long[] sorted = Arrays.copyOf(nanos, count);
+        Arrays.sort(sorted);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", count);
+        summary.put("throughputPerSecond", round(count / seconds));
+        summary.put("p50Millis", percentile(sorted, 0.50));
+        summary.put("p99Millis", percentile(sorted, 0.99));
+        summary.put("p999Millis", percentile(sorted, 0.999));
+        summary.put("maxMillis", sorted.length == 0 ? 0.0 : millis(sorted[sorted.length - 1]));
+        summary.put("outcomes", new LinkedHashMap<>(outcomes));
+        return summary;
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return millis(sorted[Math.max(0, Math.min(index, sorted.length - 1))]);
+    }
+
+    private static double millis(long nanos) {
+        return round(nanos / 1_000_000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000.0) / 1000.0;
+    }
+}
@@ -0,0 +1,58 @@
+package com.subash.fund.management.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Size of the seeded data set and shape of the generated traffic, read from {@code loadtest.*} system properties.
+ *
+ * @param funds            number of funds seeded ({@code loadtest.funds})
+ * @param users            number of users seeded ({@code loadtest.users})
+ * @param holdingsPerUser  funds each user initially holds ({@code loadtest.holdings-per-user})
+ * @param concurrency      number of clients sending requests back to back ({@code loadtest.concurrency})
+ * @param warmup           time before latencies are recorded ({@code loadtest.warmup})
+ * @param duration         measured time ({@code loadtest.duration})
+ * @param buyRatio         fraction of orders that are BUY orders, the rest are REDEEM ({@code loadtest.buy-ratio})
+ * @param navUpdateRatio   fraction of requests that are NAV updates ({@code loadtest.nav-update-ratio})
+ * @param maxUnits         orders are for 1 to {@code maxUnits} units ({@code loadtest.max-units})
+ * @param seed             random seed of the data set and the traffic ({@code loadtest.seed})
+ * @param reportFile       JSON report location ({@code loadtest.report})
+ * @param appArgs          extra application arguments, e.g. {@code --order.engine.enabled=true}
+ *                         ({@code loadtest.app-args}, space separated)
+ */
+record LoadProfile(int funds, int users, int holdingsPerUser, int concurrency, Duration warmup, Duration duration,
+                   double buyRatio, double navUpdateRatio, int maxUnits, long seed, String reportFile,
+                   List<String> appArgs) {
+
+    /**
+     * @return the profile described by the current system properties
+     */
+    static LoadProfile fromSystemProperties() {
+        String appArgs = System.getProperty("loadtest.app-args", "").trim();
+        LoadProfile profile = new LoadProfile(
+                Integer.getInteger("loadtest.funds", 20),
+                Integer.getInteger("loadtest.users", 200),
+                Integer.getInteger("loadtest.holdings-per-user", 3),
+                Integer.getInteger("loadtest.concurrency", 32),
+                duration("loadtest.warmup", "10s"),
+                duration("loadtest.duration", "60s"),
+                Double.parseDouble(System.getProperty("loadtest.buy-ratio", "0.5")),
+                Double.parseDouble(System.getProperty("loadtest.nav-update-ratio", "0.01")),
+                Integer.getInteger("loadtest.max-units", 10),
+                Long.getLong("loadtest.seed", 42L),
+                System.getProperty("loadtest.report", "target/loadtest-report.json"),
+                appArgs.isEmpty() ? List.of() : new ArrayList<>(Arrays.asList(appArgs.split("\\s+"))));
+        if (profile.holdingsPerUser > profile.funds) {
+            throw new IllegalArgumentException("loadtest.holdings-per-user must not exceed loadtest.funds");
+        }
+        return profile;
+    }
+
+    private static Duration duration(String property, String defaultValue) {
+        return DurationStyle.detectAndParse(System.getProperty(property, defaultValue));
+    }
+}
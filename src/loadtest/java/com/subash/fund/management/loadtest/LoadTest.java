@@ -0,0 +1,128 @@
+package com.subash.fund.management.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.subash.fund.management.FundManagementApplication;
+import com.subash.fund.management.service.TransactionJournal;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * End-to-end load test of the order API.
+ * <p>
+ * Starts an embedded PostgreSQL (a real server binary, no Docker needed), boots the application against it on a
+ * random port, seeds it with {@link DataSet}, runs {@link OrderTraffic} and then checks the data for consistency.
+ * Latency percentiles and throughput per operation are printed and written to {@code loadtest.report}; the
+ * process exits with status 1 if any consistency check fails. See {@link LoadProfile} for the parameters, e.g.
+ * </p>
+ * <pre>
+ * mvn -Ploadtest verify -DskipTests -Dloadtest.args="-Dloadtest.users=1000 -Dloadtest.concurrency=64
+ *     -Dloadtest.app-args=--order.engine.enabled=true"
+ * </pre>
+ * <p>
+ * Application logging defaults to {@code WARN} so that writing request logs does not dominate the results;
+ * pass {@code --logging.level.root=INFO} in {@code loadtest.app-args} to measure with it.
+ * </p>
+ */
+public final class LoadTest {
+
+    private static final Map<String, String> DEFAULT_APP_ARGS = Map.of(
+            "--server.port", "0",
+            "--logging.level.root", "WARN");
+
+    private LoadTest() {
+    }
+
+    /**
+     * Runs the load test.
+     *
+     * @param args ignored; parameters are system properties
+     * @throws Exception if the database or the application cannot be started
+     */
+    public static void main(String[] args) throws Exception {
+        LoadProfile profile = LoadProfile.fromSystemProperties();
+        boolean consistent;
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start()) {
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(FundManagementApplication.class)
+                    .run(applicationArgs(profile, postgres));
+            try {
+                String port = context.getEnvironment().getRequiredProperty("local.server.port");
+                String passwordHash = context.getBean(PasswordEncoder.class).encode(DataSet.PASSWORD);
+                DataSet dataSet = DataSet.seed(new JdbcTemplate(context.getBean(DataSource.class)), profile,
+                        passwordHash);
+
+                OrderTraffic traffic = new OrderTraffic("http://localhost:" + port, profile, dataSet);
+                Map<String, LatencyRecorder> recorders = traffic.run();
+                // Transaction rows written behind by the journal must be in the database before the checks
+                context.getBean(TransactionJournal.class).awaitFlushed(Duration.ofSeconds(60));
+                List<String> violations = dataSet.verify(traffic.acknowledgedOrders());
+                consistent = violations.isEmpty();
+                report(profile, recorders, traffic.acknowledgedOrders(), violations);
+            } finally {
+                context.close();
+            }
+        }
+        System.exit(consistent ? 0 : 1);
+    }
+
+    private static String[] applicationArgs(LoadProfile profile, EmbeddedPostgres postgres) {
+        List<String> args = new ArrayList<>();
+        args.add("--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres")
+                + "&reWriteBatchedInserts=true");
+        args.add("--spring.datasource.username=postgres");
+        args.add("--spring.datasource.password=");
+        // Repeating an argument would turn its value into a list, so defaults only apply when not overridden
+        DEFAULT_APP_ARGS.forEach((name, value) -> {
+            if (profile.appArgs().stream().noneMatch(arg -> arg.startsWith(name + "="))) {
+                args.add(name + "=" + value);
+            }
+        });
+        args.addAll(profile.appArgs());
+        return args.toArray(String[]::new);
+    }
+
+    private static void report(LoadProfile profile, Map<String, LatencyRecorder> recorders, long acknowledgedOrders,
+                               List<String> violations) throws Exception {
+        double seconds = profile.duration().toNanos() / 1e9;
+        Map<String, Object> operations = new LinkedHashMap<>();
+        LatencyRecorder orders = new LatencyRecorder();
+        recorders.forEach((operation, recorder) -> {
+            operations.put(operation, recorder.summary(seconds));
+            if (!OrderTraffic.NAV_UPDATE.equals(operation)) {
+                orders.merge(recorder);
+            }
+        });
+        operations.put("ORDERS", orders.summary(seconds));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("profile", profile);
+        report.put("operations", operations);
+        report.put("acknowledgedOrders", acknowledgedOrders);
+        report.put("consistent", violations.isEmpty());
+        report.put("violations", violations);
+
+        ObjectMapper mapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+                .enable(SerializationFeature.INDENT_OUTPUT);
+        File reportFile = new File(profile.reportFile());
+        if (reportFile.getParentFile() != null) {
+            reportFile.getParentFile().mkdirs();
+        }
+        mapper.writeValue(reportFile, report);
+        System.out.println(mapper.writeValueAsString(report));
+        System.out.println(violations.isEmpty() ? "Consistency checks passed"
+                : "Consistency checks FAILED: " + violations.size() + " violation(s)");
+        System.out.println("Report written to " + reportFile.getAbsolutePath());
+    }
+}
@@ -0,0 +1,193 @@
+package com.subash.fund.management.loadtest;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop traffic against a running application: each of {@code concurrency} clients sends its next request
+ * as soon as the previous one is answered.
+ * <p>
+ * A request is a NAV update ({@code PUT /v1/api/funds/{fundId}} as {@link DataSet#ADMIN}) with probability
+ * {@code navUpdateRatio}, otherwise an order ({@code POST /v1/api/funds/order}) by a random user: a BUY of any
+ * fund or a REDEEM of a fund the user was seeded with. Orders carry the NAV the client last saw for the fund, so
+ * orders racing a NAV update are rejected with {@code 400/5005}, as they would be in production. Latencies
+ * are recorded per operation after the warm-up; acknowledged orders are counted from the start for the
+ * transaction check.
+ * </p>
+ */
+final class OrderTraffic {
+
+    static final String BUY = "BUY";
+    static final String REDEEM = "REDEEM";
+    static final String NAV_UPDATE = "NAV_UPDATE";
+
+    private static final Pattern RESPONSE_CODE = Pattern.compile("\"code\"\\s*:\\s*(\\d+)");
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+    private final LoadProfile profile;
+    private final DataSet dataSet;
+    private final HttpClient client;
+    private final Map<String, BigDecimal> navs;
+    private final Map<String, String> authorizations = new ConcurrentHashMap<>();
+    private final LongAdder acknowledgedOrders = new LongAdder();
+
+    /**
+     * @param baseUrl URL of the running application, e.g. {@code http://localhost:8080}
+     * @param profile shape of the traffic
+     * @param dataSet the seeded data
+     */
+    OrderTraffic(String baseUrl, LoadProfile profile, DataSet dataSet) {
+        this.baseUrl = baseUrl;
+        this.profile = profile;
+        this.dataSet = dataSet;
+        this.client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5)).build();
+        this.navs = new ConcurrentHashMap<>(dataSet.navs());
+    }
+
+    /**
+     * Sends traffic for the warm-up and the measured duration, then waits for all clients to finish.
+     *
+     * @return merged recorder of every operation, keyed by {@link #BUY}, {@link #REDEEM} and {@link #NAV_UPDATE}
+     * @throws Exception if a client fails unexpectedly
+     */
+    Map<String, LatencyRecorder> run() throws Exception {
+        long start = System.nanoTime();
+        long measureFrom = start + profile.warmup().toNanos();
+        long until = measureFrom + profile.duration().toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(profile.concurrency());
+        try {
+            List<Future<Map<String, LatencyRecorder>>> clients = new ArrayList<>();
+            for (int i = 0; i < profile.concurrency(); i++) {
+                SplittableRandom random = new SplittableRandom(profile.seed() + i);
+                clients.add(executor.submit(() -> runClient(random, measureFrom, until)));
+            }
+            Map<String, LatencyRecorder> merged = recorders();
+            for (Future<Map<String, LatencyRecorder>> client : clients) {
+                client.get().forEach((operation, recorder) -> merged.get(operation).merge(recorder));
+            }
+            return merged;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return number of orders answered with {@code 201}, including the warm-up
+     */
+    long acknowledgedOrders() {
+        return acknowledgedOrders.sum();
+    }
+
+    private Map<String, LatencyRecorder> runClient(SplittableRandom random, long measureFrom, long until) {
+        Map<String, LatencyRecorder> recorders = recorders();
+        List<String> fundIds = dataSet.fundIds();
+        List<String> usernames = dataSet.usernames();
+        long now;
+        while ((now = System.nanoTime()) < until) {
+            String operation;
+            HttpRequest request;
+            if (random.nextDouble() < profile.navUpdateRatio()) {
+                operation = NAV_UPDATE;
+                request = navUpdate(fundIds.get(random.nextInt(fundIds.size())), random);
+            } else {
+                String username = usernames.get(random.nextInt(usernames.size()));
+                boolean buy = random.nextDouble() < profile.buyRatio();
+                List<String> candidates = buy ? fundIds : dataSet.holdings(username);
+                operation = buy ? BUY : REDEEM;
+                request = order(operation, username, candidates.get(random.nextInt(candidates.size())),
+                        1 + random.nextInt(profile.maxUnits()));
+            }
+            String outcome = send(operation, request);
+            if (now >= measureFrom) {
+                recorders.get(operation).record(System.nanoTime() - now, outcome);
+            }
+        }
+        return recorders;
+    }
+
+    private String send(String operation, HttpRequest request) {
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            int status = response.statusCode();
+            if (status == 201 && !NAV_UPDATE.equals(operation)) {
+                acknowledgedOrders.increment();
+            }
+            if (status >= 400 && status < 500) {
+                Matcher code = RESPONSE_CODE.matcher(response.body());
+                if (code.find()) {
+                    return status + "/" + code.group(1);
+                }
+            }
+            return String.valueOf(status);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "failed";
+        } catch (Exception e) {
+            return "failed";
+        }
+    }
+
+    private HttpRequest order(String orderType, String username, String fundId, int units) {
+        String body = "{\"username\":\"" + username + "\",\"fundId\":\"" + fundId + "\",\"units\":" + units
+                + ",\"nav\":" + navs.get(fundId).toPlainString() + "}";
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/v1/api/funds/order?orderType=" + orderType))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Authorization", authorization(username))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    /**
+     * Moves today's NAV of a fund by up to 2% and remembers it for later orders once the update is sent; orders
+     * already in flight with the old NAV may be rejected.
+     */
+    private HttpRequest navUpdate(String fundId, SplittableRandom random) {
+        BigDecimal change = BigDecimal.valueOf(0.98 + random.nextDouble() * 0.04);
+        BigDecimal nav = navs.get(fundId).multiply(change).setScale(2, RoundingMode.HALF_UP)
+                .max(new BigDecimal("0.10"));
+        navs.put(fundId, nav);
+        String body = "{\"nav\":" + nav.toPlainString() + ",\"navDate\":\"" + LocalDate.now() + "\"}";
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/v1/api/funds/" + fundId))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Authorization", authorization(DataSet.ADMIN))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private String authorization(String username) {
+        return authorizations.computeIfAbsent(username, name -> "Basic " + Base64.getEncoder()
+                .encodeToString((name + ":" + DataSet.PASSWORD).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static Map<String, LatencyRecorder> recorders() {
+        Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+        recorders.put(BUY, new LatencyRecorder());
+        recorders.put(REDEEM, new LatencyRecorder());
+        recorders.put(NAV_UPDATE, new LatencyRecorder());
+        return recorders;
+    }
+}
@@ -2,17 +2,20 @@ package com.subash.fund.management;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Entry point for the Fund Management microservice application.
  * <p>
  * This class bootstraps the Spring Boot application, enabling component scanning,
- * auto-configuration, and Spring application context setup.
+ * auto-configuration, and Spring application context setup. Scheduling is enabled for housekeeping tasks
+ * such as purging expired idempotency keys.
  * </p>
  *
  * <p>Use this class to run the application as a standalone Spring Boot app.</p>
  */
 @SpringBootApplication
+@EnableScheduling
 public class FundManagementApplication {
 
     /**
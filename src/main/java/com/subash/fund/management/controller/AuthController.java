@@ -0,0 +1,90 @@
+package com.subash.fund.management.controller;
+
+import com.subash.fund.management.model.LoginView;
+import com.subash.fund.management.model.TokenResponse;
+import com.subash.fund.management.security.TokenService;
+import com.subash.fund.management.util.GenericLogger;
+import jakarta.validation.Valid;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static com.subash.fund.management.util.Constants.*;
+
+/**
+ * REST controller exchanging user credentials for a bearer token.
+ * <p>
+ * Only available when {@code security.auth.mode=token}. The credentials are verified once here, after which
+ * the client sends {@code Authorization: Bearer <token>} and every request is authenticated by checking the
+ * token signature. The request body is not logged as it contains the password.
+ * </p>
+ *
+ * @see TokenService
+ */
+@RestController
+@RequestMapping("/v1/api/auth")
+@ConditionalOnProperty(name = "security.auth.mode", havingValue = "token")
+public class AuthController {
+
+    private static final Logger logger = LogManager.getLogger(AuthController.class);
+
+    private final AuthenticationManager authenticationManager;
+    private final TokenService tokenService;
+    private final GenericLogger genericLogger;
+
+    /**
+     * Constructs a new {@code AuthController}.
+     *
+     * @param authenticationManager manager verifying the credentials
+     * @param tokenService          service issuing the tokens
+     * @param genericLogger         utility for standardized logging
+     */
+    public AuthController(AuthenticationManager authenticationManager, TokenService tokenService,
+                          GenericLogger genericLogger) {
+        this.authenticationManager = authenticationManager;
+        this.tokenService = tokenService;
+        this.genericLogger = genericLogger;
+    }
+
+    /**
+     * Verifies the credentials and issues a token.
+     *
+     * @param loginView username and password
+     * @return {@link ResponseEntity} with the token, or {@code 401 UNAUTHORIZED} for invalid credentials
+     *
+     * @apiNote Endpoint: {@code POST /v1/api/auth/token}
+     */
+    @PostMapping("/token")
+    public ResponseEntity<TokenResponse> createToken(@Valid @RequestBody LoginView loginView) {
+        String uuid = GenericLogger.getUUID();
+        logger.info(LOG_MESSAGE + "Request received to create token for user : " + loginView.getUsername());
+        TokenResponse tokenResponse = new TokenResponse();
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(UsernamePasswordAuthenticationToken
+                    .unauthenticated(loginView.getUsername(), loginView.getPassword()));
+        } catch (AuthenticationException e) {
+            tokenResponse.setCode(INVALID_CREDENTIALS_CODE);
+            tokenResponse.setMessage(INVALID_CREDENTIALS);
+            genericLogger.logResponse(logger, uuid, HttpStatus.UNAUTHORIZED.toString(), tokenResponse);
+            return new ResponseEntity<>(tokenResponse, HttpStatus.UNAUTHORIZED);
+        }
+        tokenResponse.setAccessToken(tokenService.issue(authentication));
+        tokenResponse.setTokenType(TokenService.TOKEN_TYPE);
+        tokenResponse.setExpiresIn(tokenService.getTtl().toSeconds());
+        tokenResponse.setCode(TOKEN_CREATED_CODE);
+        tokenResponse.setMessage(TOKEN_CREATED);
+        logger.info(LOG_MESSAGE + "Token created for user : " + loginView.getUsername());
+        return new ResponseEntity<>(tokenResponse, HttpStatus.OK);
+    }
+}
@@ -4,23 +4,33 @@ package com.subash.fund.management.controller;
 import com.subash.fund.management.model.FundNavView;
 import com.subash.fund.management.model.FundResponse;
 import com.subash.fund.management.model.FundView;
+import com.subash.fund.management.model.NavSeriesResponse;
+import com.subash.fund.management.model.NavUploadResponse;
 import com.subash.fund.management.service.FundService;
+import com.subash.fund.management.service.NavImportService;
 import com.subash.fund.management.util.Constants;
 import com.subash.fund.management.util.GenericLogger;
 import jakarta.validation.Valid;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import static com.subash.fund.management.util.Constants.COMMA;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import static com.subash.fund.management.util.Constants.LOG_MESSAGE;
 
 /**
  * REST controller for managing fund-related operations.
  * <p>
- * This controller provides endpoints for registering a new fund and updating NAV for an existing fund.
+ * This controller provides endpoints for registering a new fund, updating NAV for an existing fund and reading its
+ * NAV history.
  * It uses {@link FundService} to perform the actual business logic and {@link GenericLogger} for standardized logging.
  * </p>
  */
@@ -31,17 +41,20 @@ public class FundController {
     private static final Logger logger = LogManager.getLogger(FundController.class);
 
     private final FundService fundService;
+    private final NavImportService navImportService;
     private final GenericLogger genericLogger;
 
 
     /**
      * Constructs a new {@code FundController} with the required service and logger components.
      *
-     * @param fundService   service handling fund operations
-     * @param genericLogger utility for standardized logging
+     * @param fundService      service handling fund operations
+     * @param navImportService service handling bulk NAV uploads
+     * @param genericLogger    utility for standardized logging
      */
-    public FundController(FundService fundService, GenericLogger genericLogger) {
+    public FundController(FundService fundService, NavImportService navImportService, GenericLogger genericLogger) {
         this.fundService = fundService;
+        this.navImportService = navImportService;
         this.genericLogger = genericLogger;
     }
 
@@ -56,13 +69,13 @@ public class FundController {
     @PostMapping("/funds")
     public ResponseEntity<FundResponse> createFund(@Valid @RequestBody FundView fundView) throws Exception {
         String uuid = GenericLogger.getUUID();
-        logger.info(uuid + COMMA + LOG_MESSAGE + "Request received to fund registration");
+        logger.info(LOG_MESSAGE + "Request received to fund registration");
         //Log request
         genericLogger.logRequest(logger, uuid, Constants.CREATE_FUND, Constants.POST_METHOD, fundView);
         ResponseEntity<FundResponse> fundResponse = fundService.createFund(uuid, fundView);
         //Log response
         genericLogger.logResponse(logger, uuid, HttpStatus.OK.name(), fundResponse);
-        logger.info(uuid + COMMA + LOG_MESSAGE + "Fund registration request completed");
+        logger.info(LOG_MESSAGE + "Fund registration request completed");
         return fundResponse;
     }
 
@@ -78,14 +91,73 @@ public class FundController {
     @PutMapping("/funds/{fundId}")
     public ResponseEntity<FundResponse> updateFund(@Valid @PathVariable("fundId") String fundId, @Valid @RequestBody FundNavView fundNavView) throws Exception {
         String uuid = GenericLogger.getUUID();
-        logger.info(uuid + COMMA + LOG_MESSAGE + "Request received to update fund");
+        logger.info(LOG_MESSAGE + "Request received to update fund");
         //Log request
         genericLogger.logRequest(logger, uuid, Constants.UPDATE_FUND, Constants.PUT_METHOD, fundNavView);
         ResponseEntity<FundResponse> fundResponse = fundService.updateFund(uuid, fundId, fundNavView);
         //Log response
         genericLogger.logResponse(logger, uuid, HttpStatus.OK.name(), fundResponse);
-        logger.info(uuid + COMMA + LOG_MESSAGE + "Fund update request completed");
+        logger.info(LOG_MESSAGE + "Fund update request completed");
         return fundResponse;
     }
 
+    /**
+     * Returns the NAV history of a fund, oldest first, or its NAV as of a date.
+     *
+     * @param fundId   the ID of the fund
+     * @param from     optional first NAV date of the range
+     * @param to       optional last NAV date of the range
+     * @param asOf     optional date of which only the latest NAV is returned
+     * @param interval optional downsampling period: {@code DAY} (default), {@code WEEK}, {@code MONTH} or {@code YEAR}
+     * @return {@link ResponseEntity} containing the NAVs and status
+     * @throws Exception if the NAV history cannot be read
+     * @apiNote Endpoint: {@code GET /v1/api/funds/{fundId}/navs}
+     */
+    @GetMapping("/funds/{fundId}/navs")
+    public ResponseEntity<NavSeriesResponse> getNavs(@PathVariable("fundId") String fundId,
+                                                     @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                     @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                     @RequestParam(value = "asOf", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf,
+                                                     @RequestParam(value = "interval", required = false) String interval)
+            throws Exception {
+        String uuid = GenericLogger.getUUID();
+        logger.info(LOG_MESSAGE + "Request received to read NAVs of fund : " + fundId);
+        //Log request
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("fundId", fundId);
+        request.put("from", from);
+        request.put("to", to);
+        request.put("asOf", asOf);
+        request.put("interval", interval);
+        genericLogger.logRequest(logger, uuid, Constants.GET_NAVS, Constants.GET_METHOD, request);
+        ResponseEntity<NavSeriesResponse> navSeriesResponse = fundService.getNavs(uuid, fundId, from, to, asOf, interval);
+        //Log response
+        genericLogger.logResponse(logger, uuid, navSeriesResponse.getStatusCode().toString(), navSeriesResponse);
+        logger.info(LOG_MESSAGE + "NAV history request completed for fund : " + fundId);
+        return navSeriesResponse;
+    }
+
+    /**
+     * Uploads an end-of-day NAV file and upserts the NAV of every listed fund.
+     * <p>
+     * The request body is streamed straight from the connection, so the file is never held in memory.
+     * The body is therefore not request-logged.
+     * </p>
+     *
+     * @param navFile the NAV file content (AMFI semicolon file or {@code fundId,nav,navDate} CSV)
+     * @return {@link ResponseEntity} containing the upload summary and HTTP status
+     * @throws Exception if the upload fails
+     * @apiNote Endpoint: {@code POST /v1/api/funds/navs:upload}
+     */
+    @PostMapping(value = "/funds/navs:upload",
+            consumes = {MediaType.TEXT_PLAIN_VALUE, "text/csv", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<NavUploadResponse> uploadNavs(InputStream navFile) throws Exception {
+        String uuid = GenericLogger.getUUID();
+        logger.info(LOG_MESSAGE + "Request received to upload fund NAVs");
+        ResponseEntity<NavUploadResponse> navUploadResponse = navImportService.importNavs(uuid, navFile);
+        //Log response
+        genericLogger.logResponse(logger, uuid, HttpStatus.OK.name(), navUploadResponse);
+        logger.info(LOG_MESSAGE + "NAV upload request completed");
+        return navUploadResponse;
+    }
 }
@@ -1,7 +1,8 @@
 package com.subash.fund.management.controller;
 
-import com.subash.fund.management.model.OrderResponse;
-import com.subash.fund.management.model.OrderView;
+import com.subash.fund.management.model.*;
+import com.subash.fund.management.service.IdempotencyStore;
+import com.subash.fund.management.service.OrderBatchService;
 import com.subash.fund.management.service.OrderService;
 import com.subash.fund.management.util.Constants;
 import com.subash.fund.management.util.GenericLogger;
@@ -10,6 +11,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
@@ -31,18 +33,25 @@ public class OrderController {
     private static final Logger logger = LogManager.getLogger(OrderController.class);
 
     private final OrderService orderService;
+    private final OrderBatchService orderBatchService;
     private final GenericLogger genericLogger;
+    private final IdempotencyStore idempotencyStore;
 
 
     /**
-     * Constructs a new {@code OrderController} with the given service and logger.
+     * Constructs a new {@code OrderController} with the given services and logger.
      *
-     * @param orderService   service responsible for order processing
-     * @param genericLogger  utility for standardized logging
+     * @param orderService       service responsible for order processing
+     * @param orderBatchService  service responsible for batch order processing
+     * @param genericLogger      utility for standardized logging
+     * @param idempotencyStore   dedupe store of orders submitted with an {@code Idempotency-Key}
      */
-    public OrderController(OrderService orderService, GenericLogger genericLogger) {
+    public OrderController(OrderService orderService, OrderBatchService orderBatchService, GenericLogger genericLogger,
+                           IdempotencyStore idempotencyStore) {
         this.orderService = orderService;
+        this.orderBatchService = orderBatchService;
         this.genericLogger = genericLogger;
+        this.idempotencyStore = idempotencyStore;
     }
 
     /**
@@ -51,16 +60,23 @@ public class OrderController {
      * This method validates that the authenticated user matches the username in the request
      * before processing the order. If the validation fails, the response is {@code 403 FORBIDDEN}.
      * </p>
+     * <p>
+     * With an {@code Idempotency-Key} header the order is placed at most once per user and key: retries with the
+     * same key get the original response, see {@link IdempotencyStore}.
+     * </p>
      *
-     * @param orderType the type of order to create (e.g., "BUY", "SELL")
-     * @param orderView the order request payload containing user and fund details
+     * @param orderType      the type of order to create (e.g., "BUY", "SELL")
+     * @param idempotencyKey optional key identifying the order across retries
+     * @param orderView      the order request payload containing user and fund details
      * @return {@link ResponseEntity} containing order processing response and status
      * @throws Exception if order creation fails internally
      *
      * @apiNote Endpoint: {@code POST /v1/api/funds/order}
      */
     @PostMapping("/order")
-    public ResponseEntity<OrderResponse> createOrder(@Valid @RequestParam("orderType") String orderType, @Valid @RequestBody OrderView orderView) throws Exception {
+    public ResponseEntity<OrderResponse> createOrder(@Valid @RequestParam("orderType") String orderType,
+                                                     @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                                     @Valid @RequestBody OrderView orderView) throws Exception {
         String authenticatedUsername = SecurityContextHolder.getContext().getAuthentication().getName();
 
         if (!authenticatedUsername.equals(orderView.getUsername())) {
@@ -71,13 +87,55 @@ public class OrderController {
         }
 
         String uuid = GenericLogger.getUUID();
-        logger.info(uuid + COMMA + LOG_MESSAGE + "Request received to created order for Type : " + orderType);
+        logger.info(LOG_MESSAGE + "Request received to created order for Type : " + orderType);
         //Log request
         genericLogger.logRequest(logger, uuid, Constants.CREATE_ORDER, Constants.POST_METHOD, orderView);
-        ResponseEntity<OrderResponse> orderResponse = orderService.createOrder(uuid, orderType, orderView);
+        ResponseEntity<OrderResponse> orderResponse = idempotencyKey == null
+                ? orderService.createOrder(uuid, orderType, orderView)
+                : idempotencyStore.execute(authenticatedUsername, idempotencyKey, orderType, orderView,
+                () -> orderService.createOrder(uuid, orderType, orderView));
         //Log response
         genericLogger.logResponse(logger, uuid, orderResponse.getStatusCode().toString(), orderResponse);
-        logger.info(uuid + COMMA + LOG_MESSAGE + "Order creation request completed for Type : " + orderType);
+        logger.info(LOG_MESSAGE + "Order creation request completed for Type : " + orderType);
         return orderResponse;
     }
+
+    /**
+     * Creates a batch of orders (e.g., a SIP run) in one request.
+     * <p>
+     * Users may only submit orders for themselves, while admins (distributors) may submit orders for any user.
+     * If a non-admin batch contains an order for another user, the whole batch is rejected with
+     * {@code 403 FORBIDDEN}. Otherwise every order is processed and reported individually.
+     * </p>
+     *
+     * @param batchOrderView the orders to create, each with its order type
+     * @return {@link ResponseEntity} containing one result per order and status
+     * @throws Exception if batch processing fails internally
+     *
+     * @apiNote Endpoint: {@code POST /v1/api/funds/orders:batch}
+     */
+    @PostMapping("/orders:batch")
+    public ResponseEntity<BatchOrderResponse> createOrders(@Valid @RequestBody BatchOrderView batchOrderView) throws Exception {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean admin = authentication.getAuthorities().stream()
+                .anyMatch(authority -> Role.ROLE_ADMIN.name().equals(authority.getAuthority()));
+
+        if (!admin && batchOrderView.getOrders().stream()
+                .anyMatch(item -> !authentication.getName().equals(item.getOrder().getUsername()))) {
+            BatchOrderResponse batchOrderResponse = new BatchOrderResponse();
+            batchOrderResponse.setMessage(ACCESS_DENIED);
+            batchOrderResponse.setCode(ACCESS_DENIED_CODE);
+            return new ResponseEntity<>(batchOrderResponse, HttpStatus.FORBIDDEN);
+        }
+
+        String uuid = GenericLogger.getUUID();
+        logger.info(LOG_MESSAGE + "Request received to create batch of " + batchOrderView.getOrders().size() + " orders");
+        //Log request
+        genericLogger.logRequest(logger, uuid, Constants.CREATE_ORDERS, Constants.POST_METHOD, batchOrderView);
+        ResponseEntity<BatchOrderResponse> batchOrderResponse = orderBatchService.createOrders(uuid, batchOrderView);
+        //Log response
+        genericLogger.logResponse(logger, uuid, batchOrderResponse.getStatusCode().toString(), batchOrderResponse);
+        logger.info(LOG_MESSAGE + "Batch order request completed");
+        return batchOrderResponse;
+    }
 }
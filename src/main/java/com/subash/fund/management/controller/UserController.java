@@ -0,0 +1,277 @@
+package com.subash.fund.management.controller;
+
+import com.subash.fund.management.model.PortfolioResponse;
+import com.subash.fund.management.model.ReturnsResponse;
+import com.subash.fund.management.model.Role;
+import com.subash.fund.management.model.TransactionHistoryResponse;
+import com.subash.fund.management.service.PortfolioService;
+import com.subash.fund.management.service.ReturnsService;
+import com.subash.fund.management.service.StatementService;
+import com.subash.fund.management.service.TransactionHistoryService;
+import com.subash.fund.management.util.Constants;
+import com.subash.fund.management.util.GenericLogger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.subash.fund.management.util.Constants.*;
+
+/**
+ * REST controller for reading the data of a user.
+ * <p>
+ * Users may only read their own data, while admins (support staff) may read any user's.
+ * </p>
+ */
+@RestController
+@RequestMapping("/v1/api/users")
+public class UserController {
+
+    private static final Logger logger = LogManager.getLogger(UserController.class);
+
+    private final TransactionHistoryService transactionHistoryService;
+    private final PortfolioService portfolioService;
+    private final ReturnsService returnsService;
+    private final StatementService statementService;
+    private final GenericLogger genericLogger;
+
+    /**
+     * Constructs a new {@code UserController} with the given services and logger.
+     *
+     * @param transactionHistoryService service reading the transaction history
+     * @param portfolioService          service valuing the holdings
+     * @param returnsService            service computing the returns of the holdings
+     * @param statementService          service exporting the transaction statements
+     * @param genericLogger             utility for standardized logging
+     */
+    public UserController(TransactionHistoryService transactionHistoryService, PortfolioService portfolioService,
+                          ReturnsService returnsService, StatementService statementService,
+                          GenericLogger genericLogger) {
+        this.transactionHistoryService = transactionHistoryService;
+        this.portfolioService = portfolioService;
+        this.returnsService = returnsService;
+        this.statementService = statementService;
+        this.genericLogger = genericLogger;
+    }
+
+    /**
+     * Returns the transactions of a user, newest first, one page at a time.
+     * <p>
+     * The first page is requested without a cursor; each page carries the {@code nextCursor} of the following
+     * one, absent on the last page.
+     * </p>
+     *
+     * @param username the user whose transactions are returned
+     * @param fundId   optional fund filter
+     * @param type     optional transaction type filter ({@code BUY} or {@code REDEEM})
+     * @param limit    optional page size, capped at {@code transaction.history.max-page-size}
+     * @param cursor   optional cursor of the page
+     * @return {@link ResponseEntity} containing the page and status
+     * @throws Exception if the history cannot be read
+     *
+     * @apiNote Endpoint: {@code GET /v1/api/users/{username}/transactions}
+     */
+    @GetMapping("/{username}/transactions")
+    public ResponseEntity<TransactionHistoryResponse> getTransactions(@PathVariable("username") String username,
+                                                                      @RequestParam(value = "fundId", required = false) String fundId,
+                                                                      @RequestParam(value = "type", required = false) String type,
+                                                                      @RequestParam(value = "limit", required = false) Integer limit,
+                                                                      @RequestParam(value = "cursor", required = false) String cursor)
+            throws Exception {
+        if (!isAllowed(username)) {
+            TransactionHistoryResponse transactionHistoryResponse = new TransactionHistoryResponse();
+            transactionHistoryResponse.setMessage(TRANSACTIONS_ACCESS_DENIED);
+            transactionHistoryResponse.setCode(ACCESS_DENIED_CODE);
+            return new ResponseEntity<>(transactionHistoryResponse, HttpStatus.FORBIDDEN);
+        }
+
+        String uuid = GenericLogger.getUUID();
+        logger.info(LOG_MESSAGE + "Request received to read transactions of user : " + username);
+        //Log request
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("username", username);
+        request.put("fundId", fundId);
+        request.put("type", type);
+        request.put("limit", limit);
+        request.put("cursor", cursor);
+        genericLogger.logRequest(logger, uuid, Constants.GET_TRANSACTIONS, Constants.GET_METHOD, request);
+        ResponseEntity<TransactionHistoryResponse> transactionHistoryResponse =
+                transactionHistoryService.getTransactions(uuid, username, fundId, type, limit, cursor);
+        //Log response
+        genericLogger.logResponse(logger, uuid, transactionHistoryResponse.getStatusCode().toString(),
+                transactionHistoryResponse);
+        logger.info(LOG_MESSAGE + "Transaction history request completed for user : " + username);
+        return transactionHistoryResponse;
+    }
+
+    /**
+     * Returns the holdings of a user marked to the latest NAV of each fund.
+     *
+     * @param username the user whose portfolio is returned
+     * @return {@link ResponseEntity} containing the portfolio and status
+     * @throws Exception if the portfolio cannot be read
+     *
+     * @apiNote Endpoint: {@code GET /v1/api/users/{username}/portfolio}
+     */
+    @GetMapping("/{username}/portfolio")
+    public ResponseEntity<PortfolioResponse> getPortfolio(@PathVariable("username") String username) throws Exception {
+        if (!isAllowed(username)) {
+            PortfolioResponse portfolioResponse = new PortfolioResponse();
+            portfolioResponse.setMessage(PORTFOLIO_ACCESS_DENIED);
+            portfolioResponse.setCode(ACCESS_DENIED_CODE);
+            return new ResponseEntity<>(portfolioResponse, HttpStatus.FORBIDDEN);
+        }
+
+        String uuid = GenericLogger.getUUID();
+        logger.info(LOG_MESSAGE + "Request received to read portfolio of user : " + username);
+        //Log request
+        genericLogger.logRequest(logger, uuid, Constants.GET_PORTFOLIO, Constants.GET_METHOD,
+                Map.of("username", username));
+        ResponseEntity<PortfolioResponse> portfolioResponse = portfolioService.getPortfolio(uuid, username);
+        //Log response
+        genericLogger.logResponse(logger, uuid, portfolioResponse.getStatusCode().toString(), portfolioResponse);
+        logger.info(LOG_MESSAGE + "Portfolio request completed for user : " + username);
+        return portfolioResponse;
+    }
+
+    /**
+     * Returns the absolute return, annualized return and XIRR of each holding of a user and of their portfolio.
+     *
+     * @param username the user whose returns are computed
+     * @return {@link ResponseEntity} containing the returns and status
+     * @throws Exception if the returns cannot be computed
+     *
+     * @apiNote Endpoint: {@code GET /v1/api/users/{username}/returns}
+     */
+    @GetMapping("/{username}/returns")
+    public ResponseEntity<ReturnsResponse> getReturns(@PathVariable("username") String username) throws Exception {
+        if (!isAllowed(username)) {
+            ReturnsResponse returnsResponse = new ReturnsResponse();
+            returnsResponse.setMessage(RETURNS_ACCESS_DENIED);
+            returnsResponse.setCode(ACCESS_DENIED_CODE);
+            return new ResponseEntity<>(returnsResponse, HttpStatus.FORBIDDEN);
+        }
+
+        String uuid = GenericLogger.getUUID();
+        logger.info(LOG_MESSAGE + "Request received to compute returns of user : " + username);
+        //Log request
+        genericLogger.logRequest(logger, uuid, Constants.GET_RETURNS, Constants.GET_METHOD,
+                Map.of("username", username));
+        ResponseEntity<ReturnsResponse> returnsResponse = returnsService.getReturns(uuid, username);
+        //Log response
+        genericLogger.logResponse(logger, uuid, returnsResponse.getStatusCode().toString(), returnsResponse);
+        logger.info(LOG_MESSAGE + "Returns request completed for user : " + username);
+        return returnsResponse;
+    }
+
+    /**
+     * Exports the transactions of a user over a date range, streamed as CSV or NDJSON while they are read.
+     *
+     * @param username the user whose transactions are exported
+     * @param fundId   optional fund filter
+     * @param from     optional first day, {@code statement.default-months} before {@code to} by default
+     * @param to       optional last day, today by default
+     * @param format   optional format, {@code csv} (default) or {@code ndjson}
+     * @return {@link ResponseEntity} streaming the statement, or a JSON error
+     * @throws Exception if the user cannot be read
+     *
+     * @apiNote Endpoint: {@code GET /v1/api/users/{username}/statement}
+     */
+    @GetMapping("/{username}/statement")
+    public ResponseEntity<StreamingResponseBody> getStatement(@PathVariable("username") String username,
+                                                              @RequestParam(value = "fundId", required = false) String fundId,
+                                                              @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                              @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                              @RequestParam(value = "format", required = false) String format)
+            throws Exception {
+        if (!isAllowed(username)) {
+            return statementService.accessDenied(STATEMENT_ACCESS_DENIED);
+        }
+
+        String uuid = GenericLogger.getUUID();
+        logger.info(LOG_MESSAGE + "Request received to export statement of user : " + username);
+        //Log request
+        genericLogger.logRequest(logger, uuid, Constants.GET_STATEMENT, Constants.GET_METHOD,
+                statementRequest(username, fundId, from, to, format));
+        ResponseEntity<StreamingResponseBody> statementResponse =
+                statementService.getStatement(uuid, username, fundId, from, to, format);
+        //Log response
+        genericLogger.logResponse(logger, uuid, statementResponse.getStatusCode().toString(),
+                statementResponse.getHeaders());
+        logger.info(LOG_MESSAGE + "Statement export started for user : " + username);
+        return statementResponse;
+    }
+
+    /**
+     * Exports the transactions of all users over a date range, ordered by user, for admins only.
+     *
+     * @param fundId optional fund filter
+     * @param from   optional first day, {@code statement.default-months} before {@code to} by default
+     * @param to     optional last day, today by default
+     * @param format optional format, {@code csv} (default) or {@code ndjson}
+     * @return {@link ResponseEntity} streaming the statement, or a JSON error
+     * @throws Exception if the statement cannot be exported
+     *
+     * @apiNote Endpoint: {@code GET /v1/api/users/statement}
+     */
+    @GetMapping("/statement")
+    public ResponseEntity<StreamingResponseBody> getAllStatements(@RequestParam(value = "fundId", required = false) String fundId,
+                                                                  @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                  @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                  @RequestParam(value = "format", required = false) String format)
+            throws Exception {
+        if (!isAdmin()) {
+            return statementService.accessDenied(STATEMENT_ACCESS_DENIED);
+        }
+
+        String uuid = GenericLogger.getUUID();
+        logger.info(LOG_MESSAGE + "Request received to export statement of all users");
+        //Log request
+        genericLogger.logRequest(logger, uuid, Constants.GET_ALL_STATEMENTS, Constants.GET_METHOD,
+                statementRequest(null, fundId, from, to, format));
+        ResponseEntity<StreamingResponseBody> statementResponse =
+                statementService.getStatement(uuid, null, fundId, from, to, format);
+        //Log response
+        genericLogger.logResponse(logger, uuid, statementResponse.getStatusCode().toString(),
+                statementResponse.getHeaders());
+        logger.info(LOG_MESSAGE + "Statement export started for all users");
+        return statementResponse;
+    }
+
+    /**
+     * Parameters of a statement request, for the request log.
+     */
+    private static Map<String, Object> statementRequest(String username, String fundId, LocalDate from,
+                                                        LocalDate to, String format) {
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("username", username);
+        request.put("fundId", fundId);
+        request.put("from", from);
+        request.put("to", to);
+        request.put("format", format);
+        return request;
+    }
+
+    /**
+     * Users may read their own data, admins any user's.
+     */
+    private static boolean isAllowed(String username) {
+        return SecurityContextHolder.getContext().getAuthentication().getName().equals(username) || isAdmin();
+    }
+
+    /**
+     * Admins (support staff) may read the data of all users.
+     */
+    private static boolean isAdmin() {
+        return SecurityContextHolder.getContext().getAuthentication().getAuthorities().stream()
+                .anyMatch(authority -> Role.ROLE_ADMIN.name().equals(authority.getAuthority()));
+    }
+}
@@ -3,6 +3,7 @@ package com.subash.fund.management.mapper;
 import com.subash.fund.management.model.FundScript;
 import com.subash.fund.management.model.FundView;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
 /**
@@ -37,6 +38,7 @@ public interface FundMapper {
      * @param fundView the fund view model to convert
      * @return the converted fund entity
      */
+    @Mapping(target = "version", ignore = true)
     FundScript fundViewToFundScript(FundView fundView);
 
     /**
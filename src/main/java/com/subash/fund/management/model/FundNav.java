@@ -6,6 +6,8 @@ import lombok.Data;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
+import static com.subash.fund.management.util.Constants.ID_ALLOCATION_SIZE;
+
 /**
  * Entity class representing the Net Asset Value (NAV) details of a fund.
  * <p>
@@ -33,7 +35,8 @@ public class FundNav {
      * Primary key identifier for the NAV entry.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "fund_navs_seq")
+    @SequenceGenerator(name = "fund_navs_seq", sequenceName = "fund_navs_seq", allocationSize = ID_ALLOCATION_SIZE)
     @Column(name = "id", updatable = false, nullable = false)
     private Long id;
 
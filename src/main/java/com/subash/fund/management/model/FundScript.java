@@ -4,7 +4,9 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 
@@ -49,4 +51,12 @@ public class FundScript {
     @Column(name = "total_units", nullable = false)
     private BigDecimal totalUnits;
 
+    /**
+     * Optimistic lock version, incremented by every update of the fund, including the guarded unit updates.
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
 }
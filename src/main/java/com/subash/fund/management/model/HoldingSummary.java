@@ -0,0 +1,21 @@
+package com.subash.fund.management.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Read model of a {@link UserHolding}, projected by
+ * {@link com.subash.fund.management.repository.UserHoldingRepository#findSummariesByUserId} and
+ * {@link com.subash.fund.management.repository.UserHoldingRepository#findAllSummaries}.
+ * <p>
+ * Holds the columns of the {@code user_holdings} row and the username, so that neither the {@link User} nor the
+ * {@link FundScript} entity is loaded.
+ * </p>
+ *
+ * @param userId     the user ID
+ * @param username   the username
+ * @param fundId     the fund ID
+ * @param units      the units held
+ * @param totalValue the amount invested in the units held
+ */
+public record HoldingSummary(Long userId, String username, String fundId, BigDecimal units, BigDecimal totalValue) {
+}
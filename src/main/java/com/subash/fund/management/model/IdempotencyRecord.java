@@ -0,0 +1,81 @@
+package com.subash.fund.management.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Entity class recording an order submitted with an {@code Idempotency-Key} header, and its response.
+ * <p>
+ * This class is mapped to the {@code idempotency_keys} table. A row is claimed (inserted without a status) before
+ * the order is processed, so that only one request per user and key can process it, and completed with the
+ * response afterwards, so that retries of the request get the same response without placing the order again.
+ * </p>
+ *
+ * @see com.subash.fund.management.service.IdempotencyStore
+ */
+@Entity
+@Table(name = "idempotency_keys",
+        uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_keys_username_key",
+                columnNames = {"username", "idempotency_key"}))
+@Data
+public class IdempotencyRecord {
+
+    /**
+     * Primary key identifier for the record.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", updatable = false, nullable = false)
+    private Long id;
+
+    /**
+     * The user who submitted the order; keys are unique per user.
+     */
+    @Column(name = "username", nullable = false)
+    private String username;
+
+    /**
+     * The {@code Idempotency-Key} header chosen by the client.
+     */
+    @Column(name = "idempotency_key", nullable = false)
+    private String idempotencyKey;
+
+    /**
+     * Hash of the order type and payload, to detect a key reused for a different order.
+     */
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    /**
+     * HTTP status of the response; {@code null} while the order is being processed.
+     */
+    @Column(name = "status")
+    private Integer status;
+
+    /**
+     * Response code of the {@link OrderResponse}.
+     */
+    @Column(name = "code")
+    private Integer code;
+
+    /**
+     * Response message of the {@link OrderResponse}.
+     */
+    @Column(name = "message")
+    private String message;
+
+    /**
+     * Total value of the {@link OrderResponse}, for BUY orders.
+     */
+    @Column(name = "total_value")
+    private BigDecimal totalValue;
+
+    /**
+     * When the key was claimed; the record expires {@code idempotency.ttl} later.
+     */
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
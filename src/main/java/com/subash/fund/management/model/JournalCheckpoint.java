@@ -0,0 +1,44 @@
+package com.subash.fund.management.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity class recording how far the transaction journal of a node has been written to the database.
+ * <p>
+ * This class is mapped to the {@code transaction_journal_checkpoints} table. The checkpoint is updated in the same
+ * database transaction as the {@link Transaction} rows it covers, so after a crash the journal replays exactly
+ * the records that were not inserted yet.
+ * </p>
+ *
+ * @see com.subash.fund.management.service.TransactionJournal
+ */
+@Entity
+@Table(name = "transaction_journal_checkpoints")
+@Data
+public class JournalCheckpoint {
+
+    /**
+     * Identifies the journal, generated when its directory is first used.
+     */
+    @Id
+    @Column(name = "node_id", updatable = false, nullable = false)
+    private String nodeId;
+
+    /**
+     * Sequence number of the last journal record inserted into {@code transactions}.
+     */
+    @Column(name = "flushed_sequence", nullable = false)
+    private Long flushedSequence;
+
+    /**
+     * When the checkpoint was last advanced.
+     */
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,20 @@
+package com.subash.fund.management.model;
+
+import java.time.LocalDate;
+
+/**
+ * A row of the transaction ledger, read without loading the {@link Transaction} entity. Quantities are in
+ * hundredths, the scale of the {@code NUMERIC(38, 2)} columns.
+ *
+ * @param userId the user ID
+ * @param fundId the fund ID
+ * @param redeem {@code true} for a {@code REDEEM}, {@code false} for a {@code BUY}
+ * @param units  units bought or redeemed, in hundredths
+ * @param nav    NAV of the transaction, in hundredths
+ * @param amount amount paid or received, in hundredths
+ * @param date   the date of the transaction
+ * @see com.subash.fund.management.repository.ReturnsRepository#forEachEntry
+ */
+public record LedgerEntry(long userId, String fundId, boolean redeem, long units, long nav, long amount,
+                          LocalDate date) {
+}
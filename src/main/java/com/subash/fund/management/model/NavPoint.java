@@ -0,0 +1,15 @@
+package com.subash.fund.management.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * The NAV of a fund on a date, read without loading the {@link FundNav} entity.
+ *
+ * @param fundId  the fund ID
+ * @param navDate the date of the NAV
+ * @param nav     the NAV
+ * @see com.subash.fund.management.repository.NavBatchRepository#findLatestNavs
+ */
+public record NavPoint(String fundId, LocalDate navDate, BigDecimal nav) {
+}
@@ -0,0 +1,38 @@
+package com.subash.fund.management.model;
+
+/**
+ * Read model of everything an order needs to be validated and applied. The fund, user and holding are loaded in
+ * one query by {@link com.subash.fund.management.repository.FundRepository#findOrderContext}, the NAV from
+ * {@link com.subash.fund.management.service.NavCache}.
+ * <p>
+ * The fund is always present; the other parts are {@code null} when missing: an unknown username, no NAV for
+ * the requested date, or no holding yet (first BUY of the fund by the user). The fund, user and holding are
+ * managed, so they can be updated and saved as if each had been loaded by its own repository; the NAV is not.
+ * </p>
+ *
+ * @param fund        the fund being ordered
+ * @param user        the ordering user, or {@code null} if the username is unknown
+ * @param fundNav     the fund's NAV of the requested date, or {@code null} if none was recorded
+ * @param userHolding the user's holding of the fund, or {@code null} if the user holds none
+ */
+public record OrderContext(FundScript fund, User user, FundNav fundNav, UserHolding userHolding) {
+
+    /**
+     * Creates the context loaded by the query, without its NAV.
+     *
+     * @param fund        the fund being ordered
+     * @param user        the ordering user, or {@code null} if the username is unknown
+     * @param userHolding the user's holding of the fund, or {@code null} if the user holds none
+     */
+    public OrderContext(FundScript fund, User user, UserHolding userHolding) {
+        this(fund, user, null, userHolding);
+    }
+
+    /**
+     * @param fundNav the fund's NAV of the requested date, or {@code null} if none was recorded
+     * @return this context with the given NAV
+     */
+    public OrderContext withFundNav(FundNav fundNav) {
+        return new OrderContext(fund, user, fundNav, userHolding);
+    }
+}
@@ -0,0 +1,25 @@
+package com.subash.fund.management.model;
+
+import java.time.LocalDate;
+
+/**
+ * Returns of a holding, or of a whole portfolio, computed from the transaction ledger. Amounts are in hundredths;
+ * returns are fractions ({@code 0.125} for 12.5%) and {@code null} where undefined.
+ *
+ * @param fundId           the fund, or {@code null} for a portfolio
+ * @param units            units held, in hundredths; {@code 0} for a portfolio
+ * @param nav              NAV the units are valued at, in hundredths; {@code 0} for a portfolio
+ * @param invested         total amount bought
+ * @param redeemed         total amount redeemed
+ * @param currentValue     value of the units held
+ * @param since            date of the first transaction
+ * @param absoluteReturn   {@code (currentValue + redeemed - invested) / invested}, {@code null} if nothing was bought
+ * @param annualizedReturn absolute return compounded per year since the first transaction (CAGR), {@code null}
+ *                         within the first year
+ * @param xirr             annual rate at which the cash flows and the current value net to zero, {@code null} if
+ *                         there is none
+ * @see com.subash.fund.management.service.ReturnsCalculator
+ */
+public record Returns(String fundId, long units, long nav, long invested, long redeemed, long currentValue,
+                      LocalDate since, Double absoluteReturn, Double annualizedReturn, Double xirr) {
+}
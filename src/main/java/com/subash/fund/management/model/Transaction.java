@@ -6,6 +6,8 @@ import lombok.Data;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+import static com.subash.fund.management.util.Constants.ID_ALLOCATION_SIZE;
+
 /**
  * Entity class representing a transaction performed by a user on a mutual fund.
  * <p>
@@ -22,10 +24,17 @@ import java.time.LocalDateTime;
  * Example: User buys 100 units of HDFC Equity Fund at NAV ₹123.45 on 2024-06-15.
  * </p>
  *
+ * <p>
+ * The table is range-partitioned by month on {@code timestamp}, and its primary key is {@code (id, timestamp)}:
+ * IDs are unique because they all come from {@code transactions_seq}. Queries should bound {@code timestamp} so
+ * that only the partitions of that range are scanned.
+ * </p>
+ *
  * @see User
  * @see FundScript
  * @see com.subash.fund.management.model.OrderView
  * @see com.subash.fund.management.model.OrderResponse
+ * @see com.subash.fund.management.service.TransactionPartitionManager
  */
 @Entity
 @Table(name = "transactions")
@@ -36,7 +45,8 @@ public class Transaction {
      * Primary key identifier for the transaction record.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = ID_ALLOCATION_SIZE)
     @Column(name = "id", updatable = false, nullable = false)
     private Long id;
 
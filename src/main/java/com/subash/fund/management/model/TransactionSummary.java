@@ -0,0 +1,24 @@
+package com.subash.fund.management.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read model of a {@link Transaction} in the history of a user, projected by
+ * {@link com.subash.fund.management.repository.TransactionRepository#findHistory}.
+ * <p>
+ * Holds the columns of the {@code transactions} row only: the fund is its ID, so neither the {@link User} nor the
+ * {@link FundScript} is loaded.
+ * </p>
+ *
+ * @param id        the transaction ID
+ * @param fundId    the fund ID
+ * @param type      {@code BUY} or {@code REDEEM}
+ * @param units     the units bought or redeemed
+ * @param nav       the NAV the order was placed at
+ * @param amount    units × NAV
+ * @param timestamp when the order was placed
+ */
+public record TransactionSummary(Long id, String fundId, String type, BigDecimal units, BigDecimal nav,
+                                 BigDecimal amount, LocalDateTime timestamp) {
+}
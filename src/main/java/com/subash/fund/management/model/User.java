@@ -1,15 +1,20 @@
 package com.subash.fund.management.model;
 
+import com.subash.fund.management.security.UserCacheEvictionListener;
 import jakarta.persistence.*;
 import lombok.Data;
 
+import static com.subash.fund.management.util.Constants.ID_ALLOCATION_SIZE;
+
 /**
  * Entity class representing a user record in the {@code users} table.
  * <p>
  * This class is used to persist user details such as credentials and contact information.
+ * Changes evict the user's cached authentications through {@link UserCacheEvictionListener}.
  */
 @Entity
 @Table(name = "users")
+@EntityListeners(UserCacheEvictionListener.class)
 @Data
 public class User {
 
@@ -18,7 +23,8 @@ public class User {
      * Auto-generated by the database.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = ID_ALLOCATION_SIZE)
     @Column(name = "id", updatable = false, nullable = false)
     private Long id;
 
@@ -2,9 +2,12 @@ package com.subash.fund.management.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 
+import static com.subash.fund.management.util.Constants.ID_ALLOCATION_SIZE;
+
 
 /**
  * Entity class representing a user's holdings in a mutual fund.
@@ -39,7 +42,8 @@ public class UserHolding {
      * Primary key identifier for the user holding record.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_holdings_seq")
+    @SequenceGenerator(name = "user_holdings_seq", sequenceName = "user_holdings_seq", allocationSize = ID_ALLOCATION_SIZE)
     @Column(name = "id", updatable = false, nullable = false)
     private Long id;
 
@@ -70,4 +74,12 @@ public class UserHolding {
     @Column(name = "total_value", nullable = false)
     private BigDecimal totalValue;
 
+    /**
+     * Optimistic lock version, incremented by every update of the holding, including the guarded unit updates.
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
 }
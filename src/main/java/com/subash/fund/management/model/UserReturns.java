@@ -0,0 +1,14 @@
+package com.subash.fund.management.model;
+
+import java.time.LocalDate;
+
+/**
+ * Returns of the portfolio of a user on a valuation date, as stored by the nightly batch.
+ *
+ * @param userId        the user ID
+ * @param valuationDate the date the holdings are valued on
+ * @param returns       the returns of the portfolio
+ * @see com.subash.fund.management.repository.ReturnsRepository#upsert
+ */
+public record UserReturns(long userId, LocalDate valuationDate, Returns returns) {
+}
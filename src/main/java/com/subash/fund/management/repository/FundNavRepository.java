@@ -3,9 +3,13 @@ package com.subash.fund.management.repository;
 import com.subash.fund.management.model.FundNav;
 import com.subash.fund.management.model.FundScript;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 
@@ -35,4 +39,22 @@ public interface FundNavRepository extends JpaRepository<FundNav, Long> {
      * @return An {@link Optional} containing the {@link FundNav} entry if found, or empty if not.
      */
     Optional<FundNav> findByFundIdAndNavDate(FundScript fundId, LocalDate date);
+
+    /**
+     * Fetches the NAV entries of several funds for one NAV date.
+     *
+     * @param fundIds The funds for which the NAV is being queried.
+     * @param date    The NAV date to look up.
+     * @return The NAV entries found; funds without a NAV on that date are absent.
+     */
+    List<FundNav> findByFundIdInAndNavDate(Collection<FundScript> fundIds, LocalDate date);
+
+    /**
+     * Fetches the NAV entries of all funds for one NAV date, together with their funds in the same query.
+     *
+     * @param date The NAV date to look up.
+     * @return The NAV entries recorded on that date.
+     */
+    @Query("select n from FundNav n join fetch n.fundId where n.navDate = :navDate")
+    List<FundNav> findByNavDate(@Param("navDate") LocalDate date);
 }
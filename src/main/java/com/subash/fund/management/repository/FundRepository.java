@@ -1,9 +1,18 @@
 package com.subash.fund.management.repository;
 
 import com.subash.fund.management.model.FundScript;
+import com.subash.fund.management.model.OrderContext;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+
 
 /**
  * Repository interface for managing {@link FundScript} entities.
@@ -22,4 +31,58 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface FundRepository extends JpaRepository<FundScript, String> {
+
+    /**
+     * Returns which of the given fund IDs exist, without loading the fund entities.
+     *
+     * @param fundIds the fund IDs to check
+     * @return the subset of {@code fundIds} present in {@code funds_scripts}
+     */
+    @Query("select f.fundId from FundScript f where f.fundId in :fundIds")
+    Set<String> findExistingFundIds(@Param("fundIds") Collection<String> fundIds);
+
+    /**
+     * Loads the fund, user and existing holding of an order in a single round trip.
+     * <p>
+     * The holding is joined on its unique key ({@code user_id, fund_id}), so at most one row is returned. Its
+     * eager associations resolve to the fund and user loaded by the same row rather than to additional queries.
+     * The NAV is not joined: orders read it from {@link com.subash.fund.management.service.NavCache}.
+     * </p>
+     *
+     * @param fundId   the ordered fund
+     * @param username the ordering user
+     * @return the order context without its NAV, or empty if the fund does not exist
+     */
+    @Query("select new com.subash.fund.management.model.OrderContext(f, u, h) from FundScript f "
+            + "left join User u on u.username = :username "
+            + "left join UserHolding h on h.user = u and h.fund = f "
+            + "where f.fundId = :fundId")
+    Optional<OrderContext> findOrderContext(@Param("fundId") String fundId, @Param("username") String username);
+
+    /**
+     * Takes units out of a fund if it has more than requested, in one guarded statement.
+     * <p>
+     * The check and the update are a single {@code UPDATE}, so concurrent orders can neither oversell the fund
+     * nor overwrite each other's balance.
+     * </p>
+     *
+     * @param fundId the fund
+     * @param units  the units to take
+     * @return {@code 1} if the units were taken, {@code 0} if the fund does not have more than {@code units}
+     */
+    @Modifying
+    @Query("update versioned FundScript f set f.totalUnits = f.totalUnits - :units "
+            + "where f.fundId = :fundId and f.totalUnits > :units")
+    int subtractUnits(@Param("fundId") String fundId, @Param("units") BigDecimal units);
+
+    /**
+     * Returns units to a fund, relative to its current balance.
+     *
+     * @param fundId the fund
+     * @param units  the units to return
+     * @return {@code 1} if the fund exists
+     */
+    @Modifying
+    @Query("update versioned FundScript f set f.totalUnits = f.totalUnits + :units where f.fundId = :fundId")
+    int addUnits(@Param("fundId") String fundId, @Param("units") BigDecimal units);
 }
@@ -0,0 +1,106 @@
+package com.subash.fund.management.repository;
+
+import com.subash.fund.management.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository interface for managing {@link IdempotencyRecord} entities.
+ * <p>
+ * The writes are single statements in their own transaction: a key is claimed before its order is processed and
+ * completed or released after, independently of the order's transaction.
+ * </p>
+ *
+ * @see com.subash.fund.management.service.IdempotencyStore
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    /**
+     * Fetches the record of a user's key.
+     *
+     * @param username       the user
+     * @param idempotencyKey the key
+     * @return the record, if the key was claimed
+     */
+    Optional<IdempotencyRecord> findByUsernameAndIdempotencyKey(String username, String idempotencyKey);
+
+    /**
+     * Claims a key for processing, unless it is already claimed.
+     *
+     * @param username       the user
+     * @param idempotencyKey the key
+     * @param requestHash    hash of the order
+     * @param now            the claim time
+     * @return {@code 1} if the key was claimed, {@code 0} if a record of the key exists
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (username, idempotency_key, request_hash, created_at) "
+            + "VALUES (:username, :idempotencyKey, :requestHash, :now) "
+            + "ON CONFLICT (username, idempotency_key) DO NOTHING", nativeQuery = true)
+    int claim(@Param("username") String username, @Param("idempotencyKey") String idempotencyKey,
+              @Param("requestHash") String requestHash, @Param("now") LocalDateTime now);
+
+    /**
+     * Claims a key whose record has expired but was not purged yet.
+     *
+     * @param username       the user
+     * @param idempotencyKey the key
+     * @param requestHash    hash of the order
+     * @param now            the claim time
+     * @param expiredBefore  records created before this time have expired
+     * @return {@code 1} if the key was claimed, {@code 0} if its record has not expired
+     */
+    @Transactional
+    @Modifying
+    @Query("update IdempotencyRecord r set r.requestHash = :requestHash, r.status = null, r.code = null, "
+            + "r.message = null, r.totalValue = null, r.createdAt = :now "
+            + "where r.username = :username and r.idempotencyKey = :idempotencyKey and r.createdAt < :expiredBefore")
+    int reclaimExpired(@Param("username") String username, @Param("idempotencyKey") String idempotencyKey,
+                       @Param("requestHash") String requestHash, @Param("now") LocalDateTime now,
+                       @Param("expiredBefore") LocalDateTime expiredBefore);
+
+    /**
+     * Stores the response of a claimed key.
+     *
+     * @return the number of records updated
+     */
+    @Transactional
+    @Modifying
+    @Query("update IdempotencyRecord r set r.status = :status, r.code = :code, r.message = :message, "
+            + "r.totalValue = :totalValue where r.username = :username and r.idempotencyKey = :idempotencyKey")
+    int complete(@Param("username") String username, @Param("idempotencyKey") String idempotencyKey,
+                 @Param("status") Integer status, @Param("code") Integer code, @Param("message") String message,
+                 @Param("totalValue") BigDecimal totalValue);
+
+    /**
+     * Releases a claimed key whose order was not processed, so that it can be retried.
+     *
+     * @return the number of records deleted
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.username = :username and r.idempotencyKey = :idempotencyKey "
+            + "and r.status is null")
+    int release(@Param("username") String username, @Param("idempotencyKey") String idempotencyKey);
+
+    /**
+     * Deletes the expired records.
+     *
+     * @param expiredBefore records created before this time have expired
+     * @return the number of records deleted
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.createdAt < :expiredBefore")
+    int deleteExpired(@Param("expiredBefore") LocalDateTime expiredBefore);
+}
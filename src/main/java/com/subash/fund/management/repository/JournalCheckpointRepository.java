@@ -0,0 +1,36 @@
+package com.subash.fund.management.repository;
+
+import com.subash.fund.management.model.JournalCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository interface for managing {@link JournalCheckpoint} entities.
+ *
+ * @see com.subash.fund.management.service.TransactionJournal
+ */
+@Repository
+public interface JournalCheckpointRepository extends JpaRepository<JournalCheckpoint, String> {
+
+    /**
+     * Advances the checkpoint of a journal, creating it on the first flush. Must be called in the transaction
+     * that inserts the flushed rows.
+     *
+     * @param nodeId          the journal
+     * @param flushedSequence sequence number of the last inserted record
+     * @param now             the flush time
+     * @return the number of rows inserted or updated, always {@code 1}
+     */
+    @Modifying
+    @Query(value = "INSERT INTO transaction_journal_checkpoints (node_id, flushed_sequence, updated_at) "
+            + "VALUES (:nodeId, :flushedSequence, :now) "
+            + "ON CONFLICT (node_id) DO UPDATE SET flushed_sequence = EXCLUDED.flushed_sequence, "
+            + "updated_at = EXCLUDED.updated_at", nativeQuery = true)
+    int saveFlushedSequence(@Param("nodeId") String nodeId, @Param("flushedSequence") long flushedSequence,
+                            @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,142 @@
+package com.subash.fund.management.repository;
+
+import com.subash.fund.management.model.FundNav;
+import com.subash.fund.management.model.NavPoint;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * JDBC repository for bulk NAV reads and writes on the {@code fund_navs} table.
+ * <p>
+ * NAVs are upserted with {@code INSERT ... ON CONFLICT (fund_id, nav_date) DO UPDATE}, relying on the unique
+ * constraint declared on {@link FundNav}, and sent with JDBC statement batching in groups of
+ * {@code nav.import.jdbc-batch-size}. The caller must not pass two rows for the same fund and date in one call,
+ * as PostgreSQL rejects a statement that updates the same row twice.
+ * </p>
+ * <p>
+ * The latest NAV of many funds is read in one statement, with one backward probe of the
+ * {@code (fund_id, nav_date)} unique index per fund. The NAV history is streamed in the order of that index,
+ * fetched from a cursor in groups of {@code nav.series.fetch-size} rows.
+ * </p>
+ *
+ * @see FundNav
+ * @see FundNavRepository
+ */
+@Repository
+public class NavBatchRepository {
+
+    private static final String UPSERT_NAV = "INSERT INTO fund_navs (fund_id, nav, nav_date) VALUES (?, ?, ?) "
+            + "ON CONFLICT (fund_id, nav_date) DO UPDATE SET nav = EXCLUDED.nav";
+
+    private static final String FIND_LATEST_NAVS = "SELECT f.fund_id, n.nav_date, n.nav FROM funds_scripts f "
+            + "CROSS JOIN LATERAL (SELECT nav_date, nav FROM fund_navs WHERE fund_id = f.fund_id "
+            + "ORDER BY nav_date DESC LIMIT 1) n";
+
+    private static final String FIND_NAVS = "SELECT fund_id, nav_date, nav FROM fund_navs";
+
+    private static final RowMapper<NavPoint> NAV_POINT_MAPPER = NavBatchRepository::navPoint;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${nav.import.jdbc-batch-size:1000}")
+    private int batchSize;
+
+    @Value("${nav.series.fetch-size:10000}")
+    private int fetchSize;
+
+    /**
+     * Constructs the repository with the shared {@link JdbcTemplate}.
+     *
+     * @param jdbcTemplate template bound to the application data source
+     */
+    public NavBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts or updates the NAV of each fund and date.
+     *
+     * @param fundNavs NAV rows, unique by fund and date; only the fund ID of {@link FundNav#getFundId()} is used
+     * @return number of rows inserted or updated
+     */
+    public int upsert(Collection<FundNav> fundNavs) {
+        int[][] counts = jdbcTemplate.batchUpdate(UPSERT_NAV, fundNavs, batchSize, (ps, fundNav) -> {
+            ps.setString(1, fundNav.getFundId().getFundId());
+            ps.setBigDecimal(2, fundNav.getNav());
+            ps.setDate(3, Date.valueOf(fundNav.getNavDate()));
+        });
+        // Rewritten batches report SUCCESS_NO_INFO (-2) instead of a row count
+        return Arrays.stream(counts).flatMapToInt(Arrays::stream).map(count -> count < 0 ? 1 : count).sum();
+    }
+
+    /**
+     * Reads the latest NAV of each fund.
+     *
+     * @param fundIds the funds, or {@code null} for all funds
+     * @return the latest NAV of each fund having one
+     */
+    public List<NavPoint> findLatestNavs(Collection<String> fundIds) {
+        if (fundIds == null) {
+            return jdbcTemplate.query(FIND_LATEST_NAVS, NAV_POINT_MAPPER);
+        }
+        if (fundIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(FIND_LATEST_NAVS + " WHERE f.fund_id = ANY (?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", fundIds.toArray())), NAV_POINT_MAPPER);
+    }
+
+    /**
+     * Passes the NAV history of one fund, or of all funds, to a consumer in {@code (fund_id, nav_date)} order.
+     * Runs in a read-only transaction, which PostgreSQL requires to fetch from a cursor instead of reading the
+     * whole result at once.
+     *
+     * @param fundId   the fund, or {@code null} for all funds
+     * @param consumer receives each NAV
+     */
+    @Transactional(readOnly = true)
+    public void forEachNav(String fundId, Consumer<NavPoint> consumer) {
+        String sql = FIND_NAVS + (fundId == null ? "" : " WHERE fund_id = ?") + " ORDER BY fund_id, nav_date";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setFetchSize(fetchSize);
+            if (fundId != null) {
+                ps.setString(1, fundId);
+            }
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(navPoint(rs, 0)));
+    }
+
+    /**
+     * Reads the NAVs of one date.
+     *
+     * @param navDate the NAV date
+     * @param fundId  the fund, or {@code null} for all funds
+     * @return the NAVs recorded on that date
+     */
+    public List<NavPoint> findNavs(LocalDate navDate, String fundId) {
+        if (fundId == null) {
+            return jdbcTemplate.query(FIND_NAVS + " WHERE nav_date = ?", NAV_POINT_MAPPER, Date.valueOf(navDate));
+        }
+        return jdbcTemplate.query(FIND_NAVS + " WHERE nav_date = ? AND fund_id = ?", NAV_POINT_MAPPER,
+                Date.valueOf(navDate), fundId);
+    }
+
+    private static NavPoint navPoint(ResultSet rs, int rowNum) throws SQLException {
+        return new NavPoint(rs.getString(1), rs.getDate(2).toLocalDate(), rs.getBigDecimal(3));
+    }
+}
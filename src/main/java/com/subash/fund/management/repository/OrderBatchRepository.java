@@ -0,0 +1,135 @@
+package com.subash.fund.management.repository;
+
+import com.subash.fund.management.model.Transaction;
+import com.subash.fund.management.util.Constants.OrderType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JDBC repository that writes the results of a batch of orders with JDBC statement batching.
+ * <p>
+ * Spring Data {@code save()} merges and dirty-checks every entity before Hibernate batches its statements;
+ * a batch of orders already knows exactly which columns change. Each order is one statement, relative to the
+ * stored balances and guarded like the single order path, so orders committed by other requests meanwhile are
+ * never overwritten:
+ * <ul>
+ *     <li>a {@code BUY} takes the units from the fund only if it keeps more than them, and adds them to the
+ *     holding, creating it with {@code ON CONFLICT (user_id, fund_id)} so a concurrent first buy does not fail
+ *     the batch</li>
+ *     <li>a {@code REDEEM} takes the units from the holding only if it has more than them, and returns them to
+ *     the fund</li>
+ * </ul>
+ * Both bump {@code version}, so orders in optimistic mode see the change. The statements are sent with
+ * {@link JdbcTemplate#batchUpdate} in groups of {@code order.batch.jdbc-batch-size}, in request order: a guard
+ * sees the orders before it. The update count of each statement tells whether the order was applied.
+ * </p>
+ *
+ * <p>
+ * Inserts leave the ID to the column default, which draws from the same sequence as Hibernate.
+ * Must be called inside the caller's transaction; {@code JpaTransactionManager} exposes the same
+ * connection to {@link JdbcTemplate}.
+ * </p>
+ *
+ * @see FundRepository
+ * @see UserHoldingRepository
+ * @see TransactionRepository
+ */
+@Repository
+public class OrderBatchRepository {
+
+    private static final String BUY = "WITH fund AS (UPDATE funds_scripts SET total_units = total_units - ?, "
+            + "version = version + 1 WHERE fund_id = ? AND total_units > ? RETURNING fund_id) "
+            + "INSERT INTO user_holdings (user_id, fund_id, units, total_value) SELECT ?, fund_id, ?, ? FROM fund "
+            + "ON CONFLICT (user_id, fund_id) DO UPDATE SET units = user_holdings.units + EXCLUDED.units, "
+            + "total_value = user_holdings.total_value + EXCLUDED.total_value, version = user_holdings.version + 1";
+    private static final String REDEEM = "WITH holding AS (UPDATE user_holdings SET units = units - ?, "
+            + "total_value = total_value - ?, version = version + 1 "
+            + "WHERE user_id = ? AND fund_id = ? AND units > ? RETURNING fund_id) "
+            + "UPDATE funds_scripts SET total_units = total_units + ?, version = version + 1 "
+            + "WHERE fund_id IN (SELECT fund_id FROM holding)";
+    private static final String INSERT_TRANSACTION =
+            "INSERT INTO transactions (user_id, fund_id, type, units, nav, amount, timestamp) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${order.batch.jdbc-batch-size:1000}")
+    private int batchSize;
+
+    /**
+     * Constructs the repository with the shared {@link JdbcTemplate}.
+     *
+     * @param jdbcTemplate template bound to the application data source
+     */
+    public OrderBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Applies the unit changes of the orders to the funds and holdings, in order.
+     *
+     * @param orders the transactions of the orders, {@code BUY} or {@code REDEEM}, with their units and amount
+     * @return for each order, {@code true} if it was applied, {@code false} if the fund ({@code BUY}) or the
+     * holding ({@code REDEEM}) does not have more than its units
+     */
+    public boolean[] applyOrders(List<Transaction> orders) {
+        boolean[] applied = new boolean[orders.size()];
+        int from = 0;
+        while (from < orders.size()) {
+            // Consecutive orders of one type share a statement; a change of type starts the next batch
+            String type = orders.get(from).getType();
+            int to = from + 1;
+            while (to < orders.size() && orders.get(to).getType().equals(type)) {
+                to++;
+            }
+            boolean redeem = OrderType.REDEEM.name().equals(type);
+            int[][] counts = jdbcTemplate.batchUpdate(redeem ? REDEEM : BUY, orders.subList(from, to), batchSize,
+                    (ps, order) -> {
+                        if (redeem) {
+                            ps.setBigDecimal(1, order.getUnits());
+                            ps.setBigDecimal(2, order.getAmount());
+                            ps.setLong(3, order.getUser().getId());
+                            ps.setString(4, order.getFund().getFundId());
+                            ps.setBigDecimal(5, order.getUnits());
+                            ps.setBigDecimal(6, order.getUnits());
+                        } else {
+                            ps.setBigDecimal(1, order.getUnits());
+                            ps.setString(2, order.getFund().getFundId());
+                            ps.setBigDecimal(3, order.getUnits());
+                            ps.setLong(4, order.getUser().getId());
+                            ps.setBigDecimal(5, order.getUnits());
+                            ps.setBigDecimal(6, order.getAmount());
+                        }
+                    });
+            int index = from;
+            for (int[] chunk : counts) {
+                for (int count : chunk) {
+                    applied[index++] = count > 0;
+                }
+            }
+            from = to;
+        }
+        return applied;
+    }
+
+    /**
+     * Inserts the transaction history rows.
+     *
+     * @param transactions new transactions, in order of execution
+     */
+    public void insertTransactions(Collection<Transaction> transactions) {
+        jdbcTemplate.batchUpdate(INSERT_TRANSACTION, transactions, batchSize, (ps, transaction) -> {
+            ps.setLong(1, transaction.getUser().getId());
+            ps.setString(2, transaction.getFund().getFundId());
+            ps.setString(3, transaction.getType());
+            ps.setBigDecimal(4, transaction.getUnits());
+            ps.setBigDecimal(5, transaction.getNav());
+            ps.setBigDecimal(6, transaction.getAmount());
+            ps.setTimestamp(7, Timestamp.valueOf(transaction.getTimestamp()));
+        });
+    }
+}
@@ -0,0 +1,162 @@
+package com.subash.fund.management.repository;
+
+import com.subash.fund.management.model.LedgerEntry;
+import com.subash.fund.management.model.Returns;
+import com.subash.fund.management.model.UserReturns;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * JDBC repository reading the transaction ledger for the returns computations, and writing their results to the
+ * {@code user_returns} table.
+ * <p>
+ * The ledger is streamed in the order of the {@code (user_id, "timestamp", id)} index of every partition, fetched
+ * from a cursor in groups of {@code returns.fetch-size} rows, and decoded to {@link LedgerEntry} records in
+ * hundredths without loading the {@code Transaction} entities. Results are upserted with JDBC statement batching
+ * in groups of {@code returns.batch.jdbc-batch-size}.
+ * </p>
+ *
+ * @see TransactionRepository
+ * @see com.subash.fund.management.service.ReturnsBatch
+ */
+@Repository
+public class ReturnsRepository {
+
+    private static final String FIND_ENTRIES =
+            "SELECT user_id, fund_id, type, units, nav, amount, \"timestamp\" FROM transactions";
+
+    private static final String FIND_USER_ID_RANGE = "SELECT min(id), max(id) FROM users";
+
+    private static final String TRY_LOCK = "SELECT pg_try_advisory_xact_lock(?)";
+
+    private static final String UPSERT_RETURNS = "INSERT INTO user_returns (user_id, valuation_date, invested, "
+            + "redeemed, current_value, since, absolute_return, annualized_return, xirr, computed_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, now()) ON CONFLICT (user_id) DO UPDATE SET "
+            + "valuation_date = EXCLUDED.valuation_date, invested = EXCLUDED.invested, "
+            + "redeemed = EXCLUDED.redeemed, current_value = EXCLUDED.current_value, since = EXCLUDED.since, "
+            + "absolute_return = EXCLUDED.absolute_return, annualized_return = EXCLUDED.annualized_return, "
+            + "xirr = EXCLUDED.xirr, computed_at = EXCLUDED.computed_at";
+
+    /**
+     * Ledger columns are {@code NUMERIC(38, 2)}.
+     */
+    private static final int SCALE = 2;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${returns.fetch-size:10000}")
+    private int fetchSize;
+
+    @Value("${returns.batch.jdbc-batch-size:1000}")
+    private int batchSize;
+
+    /**
+     * Constructs the repository with the shared {@link JdbcTemplate}.
+     *
+     * @param jdbcTemplate template bound to the application data source
+     */
+    public ReturnsRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Passes the ledger of one user to a consumer, oldest first. Runs in a read-only transaction, which
+     * PostgreSQL requires to fetch from a cursor instead of reading the whole result at once.
+     *
+     * @param userId   the user
+     * @param consumer receives each entry
+     */
+    @Transactional(readOnly = true)
+    public void forEachEntry(long userId, Consumer<LedgerEntry> consumer) {
+        query(FIND_ENTRIES + " WHERE user_id = ? ORDER BY \"timestamp\", id", consumer, userId);
+    }
+
+    /**
+     * Passes the ledgers of the users of an ID range to a consumer, user by user, each oldest first.
+     *
+     * @param fromUserId the first user ID, inclusive
+     * @param toUserId   the last user ID, exclusive
+     * @param consumer   receives each entry
+     */
+    @Transactional(readOnly = true)
+    public void forEachEntry(long fromUserId, long toUserId, Consumer<LedgerEntry> consumer) {
+        query(FIND_ENTRIES + " WHERE user_id >= ? AND user_id < ? ORDER BY user_id, \"timestamp\", id", consumer,
+                fromUserId, toUserId);
+    }
+
+    /**
+     * Reads the lowest and highest user IDs.
+     *
+     * @return the two IDs, or {@code null} if there is no user
+     */
+    public long[] findUserIdRange() {
+        return jdbcTemplate.queryForObject(FIND_USER_ID_RANGE, (rs, rowNum) -> {
+            long min = rs.getLong(1);
+            return rs.wasNull() ? null : new long[]{min, rs.getLong(2)};
+        });
+    }
+
+    /**
+     * Takes a PostgreSQL advisory lock until the end of the caller's transaction, without waiting.
+     *
+     * @param key the lock key
+     * @return {@code true} if the lock was taken, {@code false} if another session holds it
+     */
+    public boolean tryLock(long key) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(TRY_LOCK, Boolean.class, key));
+    }
+
+    /**
+     * Inserts or replaces the returns of each user.
+     *
+     * @param userReturns the returns, at most one per user
+     */
+    public void upsert(Collection<UserReturns> userReturns) {
+        jdbcTemplate.batchUpdate(UPSERT_RETURNS, userReturns, batchSize, (ps, userReturn) -> {
+            Returns returns = userReturn.returns();
+            ps.setLong(1, userReturn.userId());
+            ps.setDate(2, Date.valueOf(userReturn.valuationDate()));
+            ps.setBigDecimal(3, BigDecimal.valueOf(returns.invested(), SCALE));
+            ps.setBigDecimal(4, BigDecimal.valueOf(returns.redeemed(), SCALE));
+            ps.setBigDecimal(5, BigDecimal.valueOf(returns.currentValue(), SCALE));
+            ps.setObject(6, returns.since() == null ? null : Date.valueOf(returns.since()), Types.DATE);
+            ps.setObject(7, returns.absoluteReturn(), Types.DOUBLE);
+            ps.setObject(8, returns.annualizedReturn(), Types.DOUBLE);
+            ps.setObject(9, returns.xirr(), Types.DOUBLE);
+        });
+    }
+
+    private void query(String sql, Consumer<LedgerEntry> consumer, long... userIds) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < userIds.length; i++) {
+                ps.setLong(i + 1, userIds[i]);
+            }
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(ledgerEntry(rs)));
+    }
+
+    private static LedgerEntry ledgerEntry(ResultSet rs) throws SQLException {
+        return new LedgerEntry(rs.getLong(1), rs.getString(2), "REDEEM".equals(rs.getString(3)),
+                hundredths(rs.getBigDecimal(4)), hundredths(rs.getBigDecimal(5)), hundredths(rs.getBigDecimal(6)),
+                rs.getTimestamp(7).toLocalDateTime().toLocalDate());
+    }
+
+    private static long hundredths(BigDecimal value) {
+        return value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
@@ -0,0 +1,81 @@
+package com.subash.fund.management.repository;
+
+import com.subash.fund.management.model.TransactionSummary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * JDBC repository streaming transactions for statement exports.
+ * <p>
+ * Rows are fetched from a server-side cursor in groups of {@code statement.fetch-size} and passed on one by one,
+ * so an export holds one group of rows in memory whatever its size. The {@code "timestamp"} bounds prune the
+ * partitions outside the range, and rows come in the order of the {@code (user_id, "timestamp", id)} index of
+ * each partition, so PostgreSQL starts sending them without sorting the range first.
+ * </p>
+ *
+ * @see TransactionRepository
+ * @see com.subash.fund.management.service.StatementService
+ */
+@Repository
+public class StatementRepository {
+
+    private static final String FIND_TRANSACTIONS = "SELECT id, user_id, fund_id, type, units, nav, amount, "
+            + "\"timestamp\" FROM transactions WHERE \"timestamp\" >= ? AND \"timestamp\" < ?";
+
+    private static final String ORDER_BY = " ORDER BY user_id, \"timestamp\", id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${statement.fetch-size:1000}")
+    private int fetchSize;
+
+    /**
+     * Constructs the repository with the shared {@link JdbcTemplate}.
+     *
+     * @param jdbcTemplate template bound to the application data source
+     */
+    public StatementRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Passes the transactions of a time range to a consumer, user by user and oldest first. Runs in a read-only
+     * transaction, which PostgreSQL requires to fetch from a cursor instead of reading the whole result at once.
+     *
+     * @param userId   the user, or {@code null} for all users
+     * @param fundId   the fund, or {@code null} for all funds
+     * @param from     start of the range, inclusive
+     * @param to       end of the range, exclusive
+     * @param consumer receives each transaction with the ID of its user
+     */
+    @Transactional(readOnly = true)
+    public void forEachTransaction(Long userId, String fundId, LocalDateTime from, LocalDateTime to,
+                                   ObjLongConsumer<TransactionSummary> consumer) {
+        String sql = FIND_TRANSACTIONS + (userId == null ? "" : " AND user_id = ?")
+                + (fundId == null ? "" : " AND fund_id = ?") + ORDER_BY;
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setFetchSize(fetchSize);
+            int index = 1;
+            ps.setTimestamp(index++, Timestamp.valueOf(from));
+            ps.setTimestamp(index++, Timestamp.valueOf(to));
+            if (userId != null) {
+                ps.setLong(index++, userId);
+            }
+            if (fundId != null) {
+                ps.setString(index, fundId);
+            }
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(new TransactionSummary(rs.getLong(1), rs.getString(3),
+                rs.getString(4), rs.getBigDecimal(5), rs.getBigDecimal(6), rs.getBigDecimal(7),
+                rs.getTimestamp(8).toLocalDateTime()), rs.getLong(2)));
+    }
+}
@@ -0,0 +1,125 @@
+package com.subash.fund.management.repository;
+
+import com.subash.fund.management.model.Transaction;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * JDBC repository of the monthly partitions of the {@code transactions} table.
+ * <p>
+ * {@link Transaction} rows are stored in a table range-partitioned on {@code timestamp} (migration {@code V4}):
+ * one partition {@code transactions_YYYY_MM} per month, plus {@code transactions_legacy} holding the rows written
+ * before the table was partitioned. This repository lists, creates and archives them; the DDL runs on the
+ * connection of the caller, outside JPA.
+ * </p>
+ *
+ * @see com.subash.fund.management.service.TransactionPartitionManager
+ */
+@Repository
+public class TransactionPartitionRepository {
+
+    private static final String FIND_PARTITIONS = "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) "
+            + "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+            + "WHERE i.inhparent = 'transactions'::regclass";
+
+    /**
+     * Range bound of a partition, e.g. {@code FOR VALUES FROM ('2026-10-01 00:00:00') TO ('2026-11-01 00:00:00')}.
+     */
+    private static final Pattern RANGE_BOUND =
+            Pattern.compile("FROM \\((?:'([^']*)'|MINVALUE)\\) TO \\((?:'([^']*)'|MAXVALUE)\\)");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructs the repository with the shared {@link JdbcTemplate}.
+     *
+     * @param jdbcTemplate template bound to the application data source
+     */
+    public TransactionPartitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Lists the partitions attached to {@code transactions}.
+     *
+     * @return the partitions, in no particular order
+     */
+    public List<Partition> findPartitions() {
+        return jdbcTemplate.query(FIND_PARTITIONS, (rs, rowNum) -> {
+            Matcher bound = RANGE_BOUND.matcher(rs.getString(2));
+            if (!bound.find()) {
+                // The default partition, which has no bounds
+                return new Partition(rs.getString(1), null, null);
+            }
+            return new Partition(rs.getString(1), timestamp(bound.group(1)), timestamp(bound.group(2)));
+        });
+    }
+
+    /**
+     * Creates the partition of a month, unless it exists.
+     *
+     * @param month the month
+     */
+    public void createPartition(YearMonth month) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + quote(partitionName(month))
+                + " PARTITION OF transactions FOR VALUES FROM ('" + month.atDay(1) + "') TO ('"
+                + month.plusMonths(1).atDay(1) + "')");
+    }
+
+    /**
+     * Detaches a partition from {@code transactions} and moves it to the archive schema, where its rows stay
+     * available to reporting until it is dropped or exported.
+     * <p>
+     * Detaching locks {@code transactions} only for the duration of a catalog update, but has to wait for running
+     * queries on it: it gives up after {@code lockTimeout} rather than holding up the orders queued behind it.
+     * </p>
+     *
+     * @param name          the partition
+     * @param archiveSchema the schema archived partitions are moved to
+     * @param lockTimeout   PostgreSQL lock timeout, e.g. {@code 5s}
+     */
+    @Transactional
+    public void archivePartition(String name, String archiveSchema, String lockTimeout) {
+        jdbcTemplate.execute("SET LOCAL lock_timeout = '" + lockTimeout.replace("'", "''") + "'");
+        jdbcTemplate.execute("ALTER TABLE transactions DETACH PARTITION " + quote(name));
+        jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + quote(archiveSchema));
+        jdbcTemplate.execute("ALTER TABLE " + quote(name) + " SET SCHEMA " + quote(archiveSchema));
+    }
+
+    /**
+     * Name of the partition of a month, e.g. {@code transactions_2026_10}.
+     *
+     * @param month the month
+     * @return the table name
+     */
+    public static String partitionName(YearMonth month) {
+        return String.format(Locale.ROOT, "transactions_%04d_%02d", month.getYear(), month.getMonthValue());
+    }
+
+    private static LocalDateTime timestamp(String value) {
+        return value == null ? null : Timestamp.valueOf(value).toLocalDateTime();
+    }
+
+    private static String quote(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * A partition of {@code transactions} and the range of timestamps it holds.
+     *
+     * @param name the table name
+     * @param from first timestamp of the range, {@code null} if unbounded
+     * @param to   end of the range (exclusive), {@code null} if unbounded
+     */
+    public record Partition(String name, LocalDateTime from, LocalDateTime to) {
+    }
+}
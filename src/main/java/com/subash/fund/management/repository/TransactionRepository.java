@@ -1,9 +1,16 @@
 package com.subash.fund.management.repository;
 
 import com.subash.fund.management.model.Transaction;
+import com.subash.fund.management.model.TransactionSummary;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 
 /**
  * Repository interface for managing {@link Transaction} entities.
@@ -21,11 +28,44 @@ import org.springframework.stereotype.Repository;
  * </ul>
  * </p>
  *
+ * <p>
+ * The table is partitioned by month on {@code timestamp}; queries should include a {@code timestamp} range so that
+ * PostgreSQL prunes the partitions outside it, and finding or updating a row by ID alone scans every partition.
+ * </p>
+ *
  * @see Transaction
+ * @see TransactionPartitionRepository
  * @see org.springframework.data.jpa.repository.JpaRepository
  * @see org.springframework.stereotype.Repository
  */
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
+    /**
+     * Finds a page of the transactions of a user, newest first, seeking past the last row of the previous page.
+     * <p>
+     * The rows come from the {@code (user_id, timestamp, id)} index starting at the cursor, so every page costs
+     * the same whatever its depth. {@code timestamp <= :beforeTimestamp} is redundant with the keyset condition
+     * but lets PostgreSQL prune the partitions after the cursor. {@code fundId} and {@code type} are ignored when
+     * {@code null}.
+     * </p>
+     *
+     * @param userId          the user
+     * @param beforeTimestamp timestamp of the last row of the previous page
+     * @param beforeId        ID of the last row of the previous page
+     * @param fundId          the fund to filter on, or {@code null}
+     * @param type            the transaction type to filter on, or {@code null}
+     * @param limit           maximum number of rows
+     * @return the transactions ordered by timestamp and ID, descending
+     */
+    @Query("select new com.subash.fund.management.model.TransactionSummary(t.id, t.fund.fundId, t.type, t.units, "
+            + "t.nav, t.amount, t.timestamp) from Transaction t "
+            + "where t.user.id = :userId and t.timestamp <= :beforeTimestamp "
+            + "and (t.timestamp < :beforeTimestamp or t.id < :beforeId) "
+            + "and (:fundId is null or t.fund.fundId = :fundId) and (:type is null or t.type = :type) "
+            + "order by t.timestamp desc, t.id desc")
+    List<TransactionSummary> findHistory(@Param("userId") Long userId,
+                                         @Param("beforeTimestamp") LocalDateTime beforeTimestamp,
+                                         @Param("beforeId") long beforeId, @Param("fundId") String fundId,
+                                         @Param("type") String type, Limit limit);
 }
@@ -1,11 +1,17 @@
 package com.subash.fund.management.repository;
 
 import com.subash.fund.management.model.FundScript;
+import com.subash.fund.management.model.HoldingSummary;
 import com.subash.fund.management.model.User;
 import com.subash.fund.management.model.UserHolding;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -34,4 +40,58 @@ import java.util.Optional;
 public interface UserHoldingRepository extends JpaRepository<UserHolding, Long> {
     Optional<UserHolding> findByUserAndFund(User user, FundScript fund);
 
+    /**
+     * Fetches every holding of a user as a read model.
+     *
+     * @param userId the user
+     * @return the holdings of the user across all funds
+     */
+    @Query("select new com.subash.fund.management.model.HoldingSummary(h.user.id, h.user.username, h.fund.fundId, "
+            + "h.units, h.totalValue) from UserHolding h where h.user.id = :userId")
+    List<HoldingSummary> findSummariesByUserId(@Param("userId") Long userId);
+
+    /**
+     * Fetches every holding of every user as a read model, ordered by user.
+     *
+     * @return all holdings
+     */
+    @Query("select new com.subash.fund.management.model.HoldingSummary(h.user.id, h.user.username, h.fund.fundId, "
+            + "h.units, h.totalValue) from UserHolding h order by h.user.id")
+    List<HoldingSummary> findAllSummaries();
+
+    /**
+     * Adds units and value to a user's holding of a fund, creating the holding on the first buy.
+     * <p>
+     * A single upsert on the {@code (user_id, fund_id)} unique key, relative to the stored balance, so concurrent
+     * buys neither lose updates nor fail on a duplicate first holding.
+     * </p>
+     *
+     * @param userId the user
+     * @param fundId the fund
+     * @param units  the units bought
+     * @param value  the value of the units bought
+     * @return the number of rows inserted or updated, always {@code 1}
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_holdings (user_id, fund_id, units, total_value) "
+            + "VALUES (:userId, :fundId, :units, :value) "
+            + "ON CONFLICT (user_id, fund_id) DO UPDATE SET units = user_holdings.units + EXCLUDED.units, "
+            + "total_value = user_holdings.total_value + EXCLUDED.total_value, version = user_holdings.version + 1",
+            nativeQuery = true)
+    int addUnits(@Param("userId") Long userId, @Param("fundId") String fundId, @Param("units") BigDecimal units,
+                 @Param("value") BigDecimal value);
+
+    /**
+     * Takes units and value out of a holding if it has more units than requested, in one guarded statement.
+     *
+     * @param holdingId the holding
+     * @param units     the units redeemed
+     * @param value     the value of the units redeemed
+     * @return {@code 1} if the units were taken, {@code 0} if the holding does not have more than {@code units}
+     */
+    @Modifying
+    @Query("update versioned UserHolding h set h.units = h.units - :units, h.totalValue = h.totalValue - :value "
+            + "where h.id = :holdingId and h.units > :units")
+    int subtractUnits(@Param("holdingId") Long holdingId, @Param("units") BigDecimal units,
+                      @Param("value") BigDecimal value);
 }
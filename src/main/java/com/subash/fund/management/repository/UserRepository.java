@@ -4,6 +4,8 @@ import com.subash.fund.management.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -21,4 +23,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return an {@link Optional} containing the {@link User} if found, or empty if not found
      */
     Optional<User> findByUsername(String username);
+
+    /**
+     * Retrieves all users whose username is in the given collection.
+     *
+     * @param usernames the usernames to search for
+     * @return the matching users; unknown usernames are simply absent
+     */
+    List<User> findByUsernameIn(Collection<String> usernames);
 }
@@ -0,0 +1,128 @@
+package com.subash.fund.management.security;
+
+import com.subash.fund.management.util.ExpiringCache;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * {@link AuthenticationProvider} that remembers successfully verified HTTP Basic credentials.
+ * <p>
+ * Verifying a password with BCrypt costs tens of milliseconds of CPU, and every HTTP Basic request sends the
+ * password again. Once the delegate has verified a username and password, the resulting user is cached under an
+ * HMAC-SHA256 of both, so repeating the same credentials within the TTL costs one HMAC and one map lookup:
+ * <ul>
+ *     <li>the HMAC key is random per process, and neither the password nor an unkeyed hash of it is stored</li>
+ *     <li>failed attempts are never cached and always go through the delegate</li>
+ *     <li>{@link #evict(String)} drops a user from both this cache and the delegate's {@link UserCache}; it is
+ *     called by {@link UserCacheEvictionListener} when a user's password or role changes</li>
+ * </ul>
+ * Changes made to the {@code users} table outside this application are picked up when the entry expires.
+ * </p>
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    /**
+     * Separator so that ("ab", "c") and ("a", "bc") do not collide.
+     */
+    private static final byte[] SEPARATOR = {0};
+
+    private final AuthenticationProvider delegate;
+    private final UserCache userCache;
+    private final ExpiringCache<String, UserDetails> verified;
+    private final boolean enabled;
+    private final HmacSigner signer;
+
+    /**
+     * Creates the provider.
+     *
+     * @param delegate  provider performing the actual password verification
+     * @param userCache user cache of the delegate, evicted together with the verified credentials
+     * @param ttl       time verified credentials stay valid
+     * @param maxSize   maximum number of cached credentials
+     * @param enabled   whether to cache at all; when {@code false} every request goes to the delegate
+     */
+    public CachingAuthenticationProvider(AuthenticationProvider delegate, UserCache userCache, Duration ttl,
+                                         int maxSize, boolean enabled) {
+        this.delegate = delegate;
+        this.userCache = userCache;
+        this.verified = new ExpiringCache<>(ttl, maxSize);
+        this.enabled = enabled;
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.signer = new HmacSigner(secret);
+    }
+
+    /**
+     * Authenticates from the cache, falling back to the delegate.
+     *
+     * @param authentication the username/password authentication request
+     * @return a fully authenticated token
+     * @throws AuthenticationException if the delegate rejects the credentials
+     */
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        if (!enabled || authentication.getCredentials() == null) {
+            return delegate.authenticate(authentication);
+        }
+        String username = authentication.getName();
+        String key = key(username, authentication.getCredentials().toString());
+        UserDetails user = verified.get(key);
+        if (user != null) {
+            return authenticated(user);
+        }
+        Authentication result = delegate.authenticate(authentication);
+        if (result != null && result.getPrincipal() instanceof UserDetails principal) {
+            verified.put(key, principal);
+        }
+        return result;
+    }
+
+    /**
+     * @param authentication the authentication type
+     * @return {@code true} for username/password authentication
+     */
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+
+    /**
+     * Forgets everything cached for a user, so that the next request is verified against the database.
+     *
+     * @param username the username
+     */
+    public void evict(String username) {
+        verified.removeIf((key, user) -> user.getUsername().equals(username));
+        if (userCache != null) {
+            userCache.removeUserFromCache(username);
+        }
+    }
+
+    /**
+     * @return number of cached credentials
+     */
+    public int size() {
+        return verified.size();
+    }
+
+    private String key(String username, String password) {
+        return Base64.getEncoder().encodeToString(signer.sign(username.getBytes(StandardCharsets.UTF_8), SEPARATOR,
+                password.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * A new token per request, since callers attach request details to it.
+     */
+    private static Authentication authenticated(UserDetails user) {
+        return UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities());
+    }
+}
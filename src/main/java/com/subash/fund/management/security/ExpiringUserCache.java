@@ -0,0 +1,55 @@
+package com.subash.fund.management.security;
+
+import com.subash.fund.management.util.ExpiringCache;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+
+/**
+ * {@link UserCache} backed by an {@link ExpiringCache}.
+ * <p>
+ * Used by the {@link org.springframework.security.authentication.dao.DaoAuthenticationProvider} so that a
+ * credential cache miss (e.g. the first request with a new password) does not have to query the {@code users}
+ * table again. The provider reloads the user from the database when the cached password hash does not match.
+ * </p>
+ */
+public class ExpiringUserCache implements UserCache {
+
+    private final ExpiringCache<String, UserDetails> users;
+
+    /**
+     * Creates the cache.
+     *
+     * @param ttl     time a user stays cached after it was loaded
+     * @param maxSize maximum number of cached users
+     */
+    public ExpiringUserCache(Duration ttl, int maxSize) {
+        this.users = new ExpiringCache<>(ttl, maxSize);
+    }
+
+    /**
+     * @param username the username
+     * @return the cached user, or {@code null}
+     */
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        return users.get(username);
+    }
+
+    /**
+     * @param user the user to cache
+     */
+    @Override
+    public void putUserInCache(UserDetails user) {
+        users.put(user.getUsername(), user);
+    }
+
+    /**
+     * @param username the username to evict
+     */
+    @Override
+    public void removeUserFromCache(String username) {
+        users.remove(username);
+    }
+}
@@ -0,0 +1,56 @@
+package com.subash.fund.management.security;
+
+import com.subash.fund.management.util.BoundedPool;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+
+/**
+ * HMAC-SHA256 over a fixed key, safe for concurrent use.
+ * <p>
+ * {@link Mac} instances are not thread-safe and costly to create, so initialized instances are pooled and
+ * shared by all threads, platform or virtual.
+ * </p>
+ */
+class HmacSigner {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAX_IDLE = 64;
+
+    private final BoundedPool<Mac> macs;
+
+    /**
+     * @param key the HMAC key
+     */
+    HmacSigner(byte[] key) {
+        SecretKeySpec secretKey = new SecretKeySpec(key, ALGORITHM);
+        this.macs = new BoundedPool<>(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(secretKey);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        }, MAX_IDLE);
+    }
+
+    /**
+     * Computes the HMAC of the concatenated parts.
+     *
+     * @param parts the message, in parts
+     * @return the 32 byte HMAC
+     */
+    byte[] sign(byte[]... parts) {
+        Mac mac = macs.acquire();
+        try {
+            for (byte[] part : parts) {
+                mac.update(part);
+            }
+            return mac.doFinal();
+        } finally {
+            macs.release(mac);
+        }
+    }
+}
@@ -1,23 +1,36 @@
 package com.subash.fund.management.security;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+
+import java.time.Duration;
 
 /**
  * Security configuration class for the application.
  * <p>
  * Sets up HTTP security rules, authentication manager, and password encoder.
- * Uses HTTP Basic authentication and role-based access control.
+ * Uses HTTP Basic authentication and role-based access control. Verified credentials are cached by
+ * {@link CachingAuthenticationProvider} so that BCrypt and the user lookup run once per user and TTL rather than
+ * once per request.
+ * <p>
+ * With {@code security.auth.mode=token}, clients can instead exchange their credentials once at
+ * {@code POST /v1/api/auth/token} for a signed token, verified by {@link TokenAuthenticationFilter} without any
+ * database access; HTTP Basic stays available in that mode.
+ * </p>
  */
 @Configuration
 @EnableWebSecurity
@@ -26,6 +39,16 @@ public class SecurityConfig {
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
 
+    @Autowired(required = false)
+    private TokenService tokenService;
+
+    @Value("${security.auth-cache.enabled:true}")
+    private boolean authCacheEnabled;
+    @Value("${security.auth-cache.ttl:5m}")
+    private Duration authCacheTtl;
+    @Value("${security.auth-cache.max-size:10000}")
+    private int authCacheMaxSize;
+
     /**
      * Defines the password encoder bean used for encoding and validating passwords.
      * BCrypt is used for secure one-way password hashing.
@@ -37,6 +60,27 @@ public class SecurityConfig {
         return new BCryptPasswordEncoder();
     }
 
+    /**
+     * Defines the authentication provider used by HTTP Basic: a {@link DaoAuthenticationProvider} verifying
+     * passwords against {@link CustomUserDetailsService}, with a {@link ExpiringUserCache}, wrapped by a
+     * {@link CachingAuthenticationProvider}.
+     *
+     * @param passwordEncoder encoder used to verify passwords
+     * @return the caching {@link CachingAuthenticationProvider}
+     */
+    @Bean
+    public CachingAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
+        DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider(customUserDetailsService);
+        daoAuthenticationProvider.setPasswordEncoder(passwordEncoder);
+        ExpiringUserCache userCache = null;
+        if (authCacheEnabled) {
+            userCache = new ExpiringUserCache(authCacheTtl, authCacheMaxSize);
+            daoAuthenticationProvider.setUserCache(userCache);
+        }
+        return new CachingAuthenticationProvider(daoAuthenticationProvider, userCache, authCacheTtl,
+                authCacheMaxSize, authCacheEnabled);
+    }
+
     /**
      * Configures the security filter chain to enforce endpoint access rules and authentication.
      *
@@ -46,7 +90,11 @@ public class SecurityConfig {
      *   <li>Allows unrestricted access to Swagger/OpenAPI documentation</li>
      *   <li>Restricts fund management endpoints to ADMIN users</li>
      *   <li>Restricts fund order placement to USER role</li>
+     *   <li>Allows batch order placement to USER (own orders) and ADMIN (any user) roles</li>
+     *   <li>Restricts the statement export of all users to ADMIN users</li>
+     *   <li>Allows unauthenticated access to the token endpoint</li>
      *   <li>Requires authentication for all other requests</li>
+     *   <li>In token mode, authenticates bearer tokens before HTTP Basic and creates no sessions</li>
      * </ul>
      *
      * @param http the {@link HttpSecurity} object provided by Spring Security
@@ -61,13 +109,23 @@ public class SecurityConfig {
                                 "/v3/api-docs/**",
                                 "/swagger-ui/**",
                                 "/swagger-ui.html").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/v1/api/auth/token").permitAll()
                         .requestMatchers(HttpMethod.POST, "/v1/api/funds").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.PUT, "/v1/api/funds").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/v1/api/funds/navs:upload").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.POST, "/v1/api/funds/order").hasRole("USER")
+                        .requestMatchers(HttpMethod.POST, "/v1/api/funds/orders:batch").hasAnyRole("USER", "ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/v1/api/users/statement").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/v1/api/users/**").hasAnyRole("USER", "ADMIN")
                         .anyRequest().authenticated()
                 )
                 .httpBasic(Customizer.withDefaults());
 
+        if (tokenService != null) {
+            http.sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                    .addFilterBefore(new TokenAuthenticationFilter(tokenService), BasicAuthenticationFilter.class);
+        }
+
         return http.build();
     }
 
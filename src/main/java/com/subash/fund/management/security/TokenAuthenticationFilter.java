@@ -0,0 +1,66 @@
+package com.subash.fund.management.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Authenticates requests carrying an {@code Authorization: Bearer <token>} header issued by
+ * {@link TokenService}.
+ * <p>
+ * Requests without a bearer token pass through unchanged, so HTTP Basic keeps working. A present but invalid
+ * or expired token is rejected with {@code 401} and {@code WWW-Authenticate: Bearer error="invalid_token"}.
+ * </p>
+ */
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String PREFIX = TokenService.TOKEN_TYPE + " ";
+
+    private final TokenService tokenService;
+
+    /**
+     * Constructs the filter.
+     *
+     * @param tokenService service verifying the tokens
+     */
+    public TokenAuthenticationFilter(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    /**
+     * Sets the security context from a valid bearer token.
+     *
+     * @param request     the request
+     * @param response    the response
+     * @param filterChain the remaining filters
+     * @throws ServletException if a later filter fails
+     * @throws IOException      if a later filter fails
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, PREFIX, 0, PREFIX.length())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        Authentication authentication = tokenService.verify(header.substring(PREFIX.length()).trim());
+        if (authentication == null) {
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, TokenService.TOKEN_TYPE + " error=\"invalid_token\"");
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(authentication);
+        SecurityContextHolder.setContext(context);
+        filterChain.doFilter(request, response);
+    }
+}
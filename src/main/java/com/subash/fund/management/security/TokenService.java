@@ -0,0 +1,162 @@
+package com.subash.fund.management.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.subash.fund.management.util.Constants.LOG_MESSAGE;
+
+/**
+ * Issues and verifies the bearer tokens of the {@code token} authentication mode.
+ * <p>
+ * Tokens are JWTs signed with HMAC-SHA256 ({@code HS256}) carrying the username ({@code sub}), the role
+ * ({@code role}) and the expiry ({@code exp}), so any node sharing {@code security.token.secret} verifies them
+ * without BCrypt or a {@code users} query. Only the fixed {@code HS256} header is accepted.
+ * </p>
+ * <p>
+ * Without a configured secret a random one is generated at startup; tokens are then only valid on this node
+ * until it restarts.
+ * </p>
+ *
+ * @see TokenAuthenticationFilter
+ */
+@Component
+@ConditionalOnProperty(name = "security.auth.mode", havingValue = "token")
+public class TokenService {
+
+    private static final Logger logger = LogManager.getLogger(TokenService.class);
+
+    /**
+     * Scheme of the {@code Authorization} header and {@code tokenType} of the login response.
+     */
+    public static final String TOKEN_TYPE = "Bearer";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final String HEADER = ENCODER.encodeToString(
+            "{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HmacSigner signer;
+    private final Duration ttl;
+    private final Clock clock;
+
+    /**
+     * Creates the service from configuration.
+     *
+     * @param secret base64 encoded HMAC key of at least 32 bytes, shared by all nodes; random when empty
+     * @param ttl    token lifetime
+     */
+    @Autowired
+    public TokenService(@Value("${security.token.secret:}") String secret,
+                        @Value("${security.token.ttl:15m}") Duration ttl) {
+        this(secret, ttl, Clock.systemUTC());
+    }
+
+    /**
+     * Creates the service reading time from the given clock.
+     *
+     * @param secret base64 encoded HMAC key of at least 32 bytes; random when empty
+     * @param ttl    token lifetime
+     * @param clock  clock used for issue and expiry times
+     */
+    TokenService(String secret, Duration ttl, Clock clock) {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            logger.warn(LOG_MESSAGE + "security.token.secret is not set, tokens are only valid on this node until restart");
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+        } else {
+            keyBytes = Base64.getDecoder().decode(secret.trim());
+            if (keyBytes.length < 32) {
+                throw new IllegalStateException("security.token.secret must be at least 32 bytes");
+            }
+        }
+        this.signer = new HmacSigner(keyBytes);
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    /**
+     * Issues a token for an authenticated user.
+     *
+     * @param authentication the authenticated user; its first authority is used as role
+     * @return the signed token
+     */
+    public String issue(Authentication authentication) {
+        long now = clock.instant().getEpochSecond();
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", authentication.getName());
+        claims.put("role", authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority).findFirst().orElse(null));
+        claims.put("iat", now);
+        claims.put("exp", now + ttl.toSeconds());
+        try {
+            String content = HEADER + "." + ENCODER.encodeToString(objectMapper.writeValueAsBytes(claims));
+            return content + "." + ENCODER.encodeToString(sign(content));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Verifies the signature and expiry of a token.
+     *
+     * @param token the token from the {@code Authorization} header
+     * @return the authenticated user carried by the token, or {@code null} if the token is invalid or expired
+     */
+    public Authentication verify(String token) {
+        int firstDot = token.indexOf('.');
+        int lastDot = token.lastIndexOf('.');
+        if (firstDot <= 0 || lastDot == firstDot || !HEADER.equals(token.substring(0, firstDot))) {
+            return null;
+        }
+        try {
+            String content = token.substring(0, lastDot);
+            byte[] signature = DECODER.decode(token.substring(lastDot + 1));
+            if (!MessageDigest.isEqual(signature, sign(content))) {
+                return null;
+            }
+            JsonNode claims = objectMapper.readTree(DECODER.decode(token.substring(firstDot + 1, lastDot)));
+            if (claims.path("exp").asLong() <= clock.instant().getEpochSecond()
+                    || !claims.hasNonNull("sub") || !claims.hasNonNull("role")) {
+                return null;
+            }
+            return UsernamePasswordAuthenticationToken.authenticated(claims.get("sub").asText(), null,
+                    List.of(new SimpleGrantedAuthority(claims.get("role").asText())));
+        } catch (IllegalArgumentException | IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return token lifetime
+     */
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    private byte[] sign(String content) {
+        return signer.sign(content.getBytes(StandardCharsets.US_ASCII));
+    }
+}
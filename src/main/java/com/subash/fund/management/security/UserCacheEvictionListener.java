@@ -0,0 +1,43 @@
+package com.subash.fund.management.security;
+
+import com.subash.fund.management.model.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener on {@link User} that evicts cached authentications when a user is updated or deleted,
+ * so that a password or role change takes effect on the next request.
+ * <p>
+ * The provider is looked up lazily: entity listeners are created with the {@code EntityManagerFactory}, before
+ * the security configuration.
+ * </p>
+ *
+ * @see CachingAuthenticationProvider#evict(String)
+ */
+@Component
+public class UserCacheEvictionListener {
+
+    private final ObjectProvider<CachingAuthenticationProvider> authenticationProvider;
+
+    /**
+     * Constructs the listener.
+     *
+     * @param authenticationProvider provider holding the cached authentications
+     */
+    public UserCacheEvictionListener(ObjectProvider<CachingAuthenticationProvider> authenticationProvider) {
+        this.authenticationProvider = authenticationProvider;
+    }
+
+    /**
+     * Evicts the user after an update or delete.
+     *
+     * @param user the changed user
+     */
+    @PostUpdate
+    @PostRemove
+    public void evict(User user) {
+        authenticationProvider.ifAvailable(provider -> provider.evict(user.getUsername()));
+    }
+}
@@ -3,12 +3,15 @@ package com.subash.fund.management.service;
 import com.subash.fund.management.model.FundNavView;
 import com.subash.fund.management.model.FundResponse;
 import com.subash.fund.management.model.FundView;
+import com.subash.fund.management.model.NavSeriesResponse;
 import org.springframework.http.ResponseEntity;
 
+import java.time.LocalDate;
+
 /**
  * Service interface for handling business logic related to mutual fund operations.
  * <p>
- * Provides methods to create and update mutual fund data. Each method accepts a unique identifier
+ * Provides methods to create and update mutual fund data and to read the NAV history of a fund. Each method accepts a unique identifier
  * (usually for traceability/logging), and corresponding request models to perform the operations.
  * </p>
  *
@@ -48,4 +51,20 @@ public interface FundService {
      */
     ResponseEntity<FundResponse> updateFund(String uuid, String fundId, FundNavView fundNavView) throws Exception;
 
+    /**
+     * Reads the NAV history of a fund, or its NAV as of a date.
+     *
+     * @param uuid     A unique identifier for logging or traceability
+     * @param fundId   The unique ID of the fund
+     * @param from     First NAV date of the range, or {@code null} for the first NAV
+     * @param to       Last NAV date of the range, or {@code null} for the last NAV
+     * @param asOf     Date of which the latest NAV is returned instead of a range, or {@code null}
+     * @param interval Period of which the last NAV is kept ({@code DAY}, {@code WEEK}, {@code MONTH} or
+     *                 {@code YEAR}), or {@code null} for every NAV
+     * @return A {@link ResponseEntity} containing the NAVs and status
+     * @throws Exception if the NAV history cannot be read
+     */
+    ResponseEntity<NavSeriesResponse> getNavs(String uuid, String fundId, LocalDate from, LocalDate to,
+                                              LocalDate asOf, String interval) throws Exception;
+
 }
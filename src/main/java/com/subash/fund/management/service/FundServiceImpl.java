@@ -12,6 +12,10 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Locale;
 import java.util.Optional;
 
 import static com.subash.fund.management.util.Constants.*;
@@ -23,6 +27,7 @@ import static com.subash.fund.management.util.Constants.*;
  * <ul>
  *     <li>Registering new mutual funds</li>
  *     <li>Updating NAV (Net Asset Value) for existing funds</li>
+ *     <li>Reading the NAV history of a fund from {@link NavSeries}</li>
  *     <li>Logging and exception handling</li>
  * </ul>
  * <p>
@@ -42,10 +47,17 @@ public class FundServiceImpl implements FundService {
 
     private static final Logger logger = LogManager.getLogger(FundServiceImpl.class);
 
+    /**
+     * NAV column is {@code NUMERIC(38, 2)}.
+     */
+    private static final int SCALE = 2;
+
     private final FundRepository fundRepository;
 
     private final FundNavRepository fundNavRepository;
     private final GenericLogger genericLogger;
+    private final NavCache navCache;
+    private final NavSeries navSeries;
 
 
     /**
@@ -54,11 +66,16 @@ public class FundServiceImpl implements FundService {
      * @param fundRepository    Repository for fund scripts
      * @param fundNavRepository Repository for fund NAVs
      * @param genericLogger     Utility logger for request/response logging
+     * @param navCache          Cache of NAVs, refreshed on every NAV write
+     * @param navSeries         In-memory NAV history of every fund
      */
-    public FundServiceImpl(FundRepository fundRepository, FundNavRepository fundNavRepository, GenericLogger genericLogger) {
+    public FundServiceImpl(FundRepository fundRepository, FundNavRepository fundNavRepository, GenericLogger genericLogger,
+                           NavCache navCache, NavSeries navSeries) {
         this.fundRepository = fundRepository;
         this.fundNavRepository = fundNavRepository;
         this.genericLogger = genericLogger;
+        this.navCache = navCache;
+        this.navSeries = navSeries;
     }
 
     /**
@@ -74,7 +91,7 @@ public class FundServiceImpl implements FundService {
      */
     @Override
     public ResponseEntity<FundResponse> createFund(String uuid, FundView fundView) throws Exception {
-        logger.info(uuid + COMMA + LOG_MESSAGE + "Processing create funds request");
+        logger.info(LOG_MESSAGE + "Processing create funds request");
         FundResponse fundResponse = new FundResponse();
         try {
 
@@ -92,8 +109,9 @@ public class FundServiceImpl implements FundService {
                 FundNav fundNav = new FundNav();
                 fundNav.setFundId(fundScript);
                 fundNav.setNavDate(fundView.getNavDate());
-                fundNav.setNav(fundView.getNav());
+                fundNav.setNav(columnScale(fundView.getNav()));
                 fundNavRepository.save(fundNav);
+                navCache.put(fundScript.getFundId(), fundNav.getNavDate(), fundNav.getNav());
 
                 fundResponse.setCode(CREATE_RECORD_SUCCESS_CODE);
                 fundResponse.setMessage(CREATE_RECORD_SUCCESS);
@@ -103,7 +121,7 @@ public class FundServiceImpl implements FundService {
             genericLogger.logResponse(logger, uuid, "ERROR", Constants.API_PROCESSED_FAILURE);
             throw new Exception(e);
         }
-        logger.info(uuid + COMMA + LOG_MESSAGE + "Create fund request processed");
+        logger.info(LOG_MESSAGE + "Create fund request processed");
         return new ResponseEntity<>(fundResponse, HttpStatus.CREATED);
     }
 
@@ -120,17 +138,20 @@ public class FundServiceImpl implements FundService {
      */
     @Override
     public ResponseEntity<FundResponse> updateFund(String uuid, String fundId, FundNavView fundNavView) throws Exception {
-        logger.info(uuid + COMMA + LOG_MESSAGE + "Processing create funds request");
+        logger.info(LOG_MESSAGE + "Processing create funds request");
         FundResponse fundResponse = new FundResponse();
         try {
             Optional<FundScript> fundScriptOptional = fundRepository.findById(fundId);
-            FundNav fundNav = new FundNav();
 
             if (fundScriptOptional.isPresent()) {
+                // Correcting the NAV of a date updates its row instead of violating the unique constraint
+                FundNav fundNav = fundNavRepository.findByFundIdAndNavDate(fundScriptOptional.get(),
+                        fundNavView.getNavDate()).orElseGet(FundNav::new);
                 fundNav.setFundId(fundScriptOptional.get());
                 fundNav.setNavDate(fundNavView.getNavDate());
-                fundNav.setNav(fundNavView.getNav());
+                fundNav.setNav(columnScale(fundNavView.getNav()));
                 fundNavRepository.save(fundNav);
+                navCache.put(fundId, fundNav.getNavDate(), fundNav.getNav());
                 fundResponse.setCode(UPDATE_RECORD_SUCCESS_CODE);
                 fundResponse.setMessage(UPDATE_RECORD_SUCCESS);
             } else {
@@ -143,7 +164,89 @@ public class FundServiceImpl implements FundService {
             genericLogger.logResponse(logger, uuid, "ERROR", Constants.API_PROCESSED_FAILURE);
             throw new Exception(e);
         }
-        logger.info(uuid + COMMA + LOG_MESSAGE + "Create fund request processed");
+        logger.info(LOG_MESSAGE + "Create fund request processed");
         return new ResponseEntity<>(fundResponse, HttpStatus.CREATED);
     }
+
+    /**
+     * Reads the NAVs of a fund from memory.
+     * <p>
+     * Without {@code asOf}, the NAVs between {@code from} and {@code to} are returned, keeping the last NAV of
+     * each interval; with {@code asOf}, only the latest NAV on or before that date. A fund without any NAV, which
+     * includes an unknown fund, returns a {@code RECORD_NOT_FOUND} response.
+     *
+     * @param uuid     Unique identifier for request tracking
+     * @param fundId   ID of the fund
+     * @param from     First NAV date of the range, or {@code null}
+     * @param to       Last NAV date of the range, or {@code null}
+     * @param asOf     Date of which the latest NAV is returned, or {@code null}
+     * @param interval Downsampling period, or {@code null} for every NAV
+     * @return {@link ResponseEntity} containing the NAVs, or the reason they cannot be read
+     * @throws Exception if the NAV history cannot be loaded
+     */
+    @Override
+    public ResponseEntity<NavSeriesResponse> getNavs(String uuid, String fundId, LocalDate from, LocalDate to,
+                                                     LocalDate asOf, String interval) throws Exception {
+        logger.info(LOG_MESSAGE + "Reading NAVs of fund " + fundId);
+        NavSeriesResponse navSeriesResponse = new NavSeriesResponse();
+        try {
+            NavSeries.Interval period = parseInterval(interval);
+            if (period == null || from != null && to != null && from.isAfter(to)) {
+                navSeriesResponse.setCode(INVALID_NAV_QUERY_CODE);
+                navSeriesResponse.setMessage(INVALID_NAV_QUERY);
+                return new ResponseEntity<>(navSeriesResponse, HttpStatus.BAD_REQUEST);
+            }
+            NavSeries.Series series = navSeries.find(fundId);
+            if (series.size() == 0) {
+                navSeriesResponse.setCode(RECORD_NOT_FOUND_CODE);
+                navSeriesResponse.setMessage(RECORD_NOT_FOUND);
+                return new ResponseEntity<>(navSeriesResponse, HttpStatus.NOT_FOUND);
+            }
+
+            int[] indexes;
+            if (asOf != null) {
+                int index = series.floor(asOf);
+                indexes = index < 0 ? new int[0] : new int[]{index};
+            } else {
+                int first = from == null ? 0 : series.ceiling(from);
+                int last = to == null ? series.size() - 1 : series.floor(to);
+                indexes = series.sample(first, last, period);
+                navSeriesResponse.setInterval(period.name());
+            }
+            navSeriesResponse.setFundId(fundId);
+            for (int index : indexes) {
+                navSeriesResponse.addNavsItem(new FundNavView().nav(series.nav(index)).navDate(series.navDate(index)));
+            }
+            logger.info(LOG_MESSAGE + "Read " + indexes.length + " NAVs of fund " + fundId);
+        } catch (Exception e) {
+            // Logger error response
+            genericLogger.logResponse(logger, uuid, "ERROR", Constants.API_PROCESSED_FAILURE);
+            throw new Exception(e);
+        }
+        navSeriesResponse.setCode(NAVS_RETRIEVED_CODE);
+        navSeriesResponse.setMessage(NAVS_RETRIEVED);
+        return new ResponseEntity<>(navSeriesResponse, HttpStatus.OK);
+    }
+
+    /**
+     * @return the interval, {@code DAY} if absent, or {@code null} if unknown
+     */
+    private static NavSeries.Interval parseInterval(String interval) {
+        if (interval == null) {
+            return NavSeries.Interval.DAY;
+        }
+        try {
+            return NavSeries.Interval.valueOf(interval.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Rounds a NAV as the database stores it, so that the cached NAV, which orders are validated against, is the
+     * one every node reads back.
+     */
+    private static BigDecimal columnScale(BigDecimal nav) {
+        return nav == null ? null : nav.setScale(SCALE, RoundingMode.HALF_UP);
+    }
 }
@@ -0,0 +1,201 @@
+package com.subash.fund.management.service;
+
+import com.subash.fund.management.model.IdempotencyRecord;
+import com.subash.fund.management.model.OrderResponse;
+import com.subash.fund.management.model.OrderView;
+import com.subash.fund.management.repository.IdempotencyRecordRepository;
+import com.subash.fund.management.util.ExpiringCache;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+
+import static com.subash.fund.management.util.Constants.*;
+
+/**
+ * Dedupe store of orders submitted with an {@code Idempotency-Key} header.
+ * <p>
+ * Clients retry {@code POST /v1/api/funds/order} on timeouts; with the same key, a retry gets the response of the
+ * original order (with {@code Idempotent-Replayed: true}) instead of placing the order again:
+ * <ul>
+ *     <li>responses are kept in a bounded in-memory cache, so a replay on the same node is a map lookup</li>
+ *     <li>the {@code idempotency_keys} table is the fallback for other nodes and restarts, and serializes
+ *     concurrent requests with the same key: the key is claimed with an insert before the order is processed,
+ *     a second request finding the claim gets {@code 409} until the response is stored</li>
+ *     <li>keys are scoped to the user; a key reused with a different order type or payload gets {@code 422}</li>
+ *     <li>only final responses are stored (2xx, and 4xx other than {@code 409}/{@code 429}); on an exception or
+ *     a retryable response the claim is released so that the client can retry with the same key</li>
+ *     <li>records expire {@code idempotency.ttl} after the claim and are purged every
+ *     {@code idempotency.purge-interval}</li>
+ * </ul>
+ * If the node stops between processing the order and storing its response, the key stays claimed until it
+ * expires: retries get {@code 409} rather than risking a second order.
+ * </p>
+ */
+@Component
+public class IdempotencyStore {
+
+    private static final Logger logger = LogManager.getLogger(IdempotencyStore.class);
+
+    /**
+     * Maximum length of a key, as stored.
+     */
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final Duration ttl;
+    private final ExpiringCache<Scope, StoredResponse> responses;
+
+    /**
+     * Creates the store.
+     *
+     * @param idempotencyRecordRepository repository of the persistent records
+     * @param ttl                         time a key is remembered after its order was submitted
+     * @param cacheMaxSize                maximum number of responses kept in memory
+     */
+    public IdempotencyStore(IdempotencyRecordRepository idempotencyRecordRepository,
+                            @Value("${idempotency.ttl:24h}") Duration ttl,
+                            @Value("${idempotency.cache.max-size:100000}") int cacheMaxSize) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.ttl = ttl;
+        this.responses = new ExpiringCache<>(ttl, cacheMaxSize);
+    }
+
+    /**
+     * Processes an order at most once per user and key.
+     *
+     * @param username       the authenticated user
+     * @param idempotencyKey the {@code Idempotency-Key} header
+     * @param orderType      the order type
+     * @param orderView      the order
+     * @param order          processes the order
+     * @return the response of the order, or of the original order if the key was already used
+     * @throws Exception if processing the order fails
+     */
+    public ResponseEntity<OrderResponse> execute(String username, String idempotencyKey, String orderType,
+                                                 OrderView orderView, Callable<ResponseEntity<OrderResponse>> order)
+            throws Exception {
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            return reject(IDEMPOTENCY_KEY_INVALID_CODE, IDEMPOTENCY_KEY_INVALID, HttpStatus.BAD_REQUEST);
+        }
+        Scope scope = new Scope(username, idempotencyKey);
+        String requestHash = requestHash(orderType, orderView);
+        StoredResponse cached = responses.get(scope);
+        if (cached != null) {
+            return replay(cached, requestHash);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (idempotencyRecordRepository.claim(username, idempotencyKey, requestHash, now) == 0
+                && idempotencyRecordRepository.reclaimExpired(username, idempotencyKey, requestHash, now,
+                now.minus(ttl)) == 0) {
+            IdempotencyRecord record = idempotencyRecordRepository
+                    .findByUsernameAndIdempotencyKey(username, idempotencyKey).orElse(null);
+            if (record != null && !record.getRequestHash().equals(requestHash)) {
+                return reject(IDEMPOTENCY_KEY_REUSED_CODE, IDEMPOTENCY_KEY_REUSED, HttpStatus.UNPROCESSABLE_ENTITY);
+            }
+            if (record == null || record.getStatus() == null) {
+                // Being processed by another request, or purged just now: either way retrying is safe
+                return reject(IDEMPOTENCY_KEY_IN_PROGRESS_CODE, IDEMPOTENCY_KEY_IN_PROGRESS, HttpStatus.CONFLICT);
+            }
+            StoredResponse stored = new StoredResponse(record.getRequestHash(), record.getStatus(), record.getCode(),
+                    record.getMessage(), record.getTotalValue());
+            responses.put(scope, stored);
+            return replay(stored, requestHash);
+        }
+
+        ResponseEntity<OrderResponse> response;
+        try {
+            response = order.call();
+        } catch (Exception e) {
+            idempotencyRecordRepository.release(username, idempotencyKey);
+            throw e;
+        }
+        if (!isFinal(response.getStatusCode()) || response.getBody() == null) {
+            idempotencyRecordRepository.release(username, idempotencyKey);
+            return response;
+        }
+        OrderResponse body = response.getBody();
+        idempotencyRecordRepository.complete(username, idempotencyKey, response.getStatusCode().value(),
+                body.getCode(), body.getMessage(), body.getTotalValue());
+        responses.put(scope, new StoredResponse(requestHash, response.getStatusCode().value(), body.getCode(),
+                body.getMessage(), body.getTotalValue()));
+        return response;
+    }
+
+    /**
+     * Deletes the expired records.
+     */
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval:1h}",
+            initialDelayString = "${idempotency.purge-interval:1h}")
+    public void purgeExpired() {
+        int deleted = idempotencyRecordRepository.deleteExpired(LocalDateTime.now().minus(ttl));
+        logger.info(LOG_MESSAGE + "Purged " + deleted + " expired idempotency keys");
+    }
+
+    /**
+     * A response is final if repeating the order would give the same response; conflicts and throttling are not.
+     */
+    private static boolean isFinal(HttpStatusCode status) {
+        return status.is2xxSuccessful() || (status.is4xxClientError()
+                && status.value() != HttpStatus.CONFLICT.value()
+                && status.value() != HttpStatus.TOO_MANY_REQUESTS.value());
+    }
+
+    private static ResponseEntity<OrderResponse> replay(StoredResponse stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            return reject(IDEMPOTENCY_KEY_REUSED_CODE, IDEMPOTENCY_KEY_REUSED, HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+        OrderResponse orderResponse = new OrderResponse();
+        orderResponse.setCode(stored.code());
+        orderResponse.setMessage(stored.message());
+        orderResponse.setTotalValue(stored.totalValue());
+        return ResponseEntity.status(stored.status()).header(IDEMPOTENT_REPLAYED_HEADER, "true").body(orderResponse);
+    }
+
+    private static ResponseEntity<OrderResponse> reject(Integer code, String message, HttpStatus status) {
+        OrderResponse orderResponse = new OrderResponse();
+        orderResponse.setCode(code);
+        orderResponse.setMessage(message);
+        return new ResponseEntity<>(orderResponse, status);
+    }
+
+    /**
+     * SHA-256 of the order type and payload; numbers are normalized so that {@code 10} and {@code 10.0} match.
+     */
+    static String requestHash(String orderType, OrderView orderView) {
+        String request = orderType.toUpperCase(Locale.ROOT) + '\n' + orderView.getFundId() + '\n'
+                + plain(orderView.getUnits()) + '\n' + plain(orderView.getNav());
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(request.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String plain(BigDecimal value) {
+        return value == null ? "" : value.stripTrailingZeros().toPlainString();
+    }
+
+    private record Scope(String username, String idempotencyKey) {
+    }
+
+    private record StoredResponse(String requestHash, int status, Integer code, String message,
+                                  BigDecimal totalValue) {
+    }
+}
@@ -0,0 +1,352 @@
+package com.subash.fund.management.service;
+
+import com.subash.fund.management.model.FundNav;
+import com.subash.fund.management.model.FundScript;
+import com.subash.fund.management.model.NavPoint;
+import com.subash.fund.management.repository.FundNavRepository;
+import com.subash.fund.management.repository.NavBatchRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.subash.fund.management.util.Constants.LOG_MESSAGE;
+
+/**
+ * Read-through cache of fund NAVs keyed by fund ID and NAV date.
+ * <p>
+ * A NAV changes at most once a day per fund, yet is read far more often. This cache answers NAV lookups from
+ * memory, orders included ({@link OrderServiceImpl}):
+ * <ul>
+ *     <li>NAVs are stored as an unscaled {@code long} plus scale instead of {@link FundNav} entities, and a
+ *     missing NAV is cached as well, so repeated lookups of a fund without today's NAV do not hit the database</li>
+ *     <li>it is populated by every NAV write ({@link FundServiceImpl}, {@link NavImportServiceImpl}) and
+ *     preloaded with today's NAVs when the application is ready</li>
+ *     <li>NAV writes are announced to the other nodes on the {@value #CHANNEL} channel of {@link PgNotifications};
+ *     every node evicts the entry</li>
+ *     <li>hits and misses are published as the {@code nav.cache.requests} meter, tagged {@code result=hit|miss}</li>
+ * </ul>
+ * Only the current and previous day are retained. The latest NAV of every fund, whatever its date, is kept
+ * as well for valuations ({@link #findLatest}); it is preloaded for all funds and evicted by a NAV write of the
+ * same or a later date on another node.
+ * </p>
+ * <p>
+ * Every NAV write, local or announced by another node, is passed on to the NAV history of {@link NavSeries} and
+ * published as a {@link NavChangedEvent}, also when the cache is disabled.
+ * </p>
+ *
+ * @see FundNavRepository#findByFundIdAndNavDate
+ */
+@Component
+public class NavCache {
+
+    private static final Logger logger = LogManager.getLogger(NavCache.class);
+
+    /**
+     * PostgreSQL notification channel used for cross-node invalidation.
+     */
+    static final String CHANNEL = "nav_updates";
+
+    /**
+     * Marker for "no NAV on that date".
+     */
+    private static final CachedNav MISSING = new CachedNav(0, Integer.MIN_VALUE);
+
+    /**
+     * Fund ID placeholder in a notification that invalidates a whole day.
+     */
+    private static final String ALL_FUNDS = "*";
+
+    private final FundNavRepository fundNavRepository;
+    private final NavBatchRepository navBatchRepository;
+    private final PgNotifications pgNotifications;
+    private final ApplicationEventPublisher eventPublisher;
+    private final NavSeries navSeries;
+    private final Counter hits;
+    private final Counter misses;
+
+    /**
+     * Epoch day to (fund ID to NAV).
+     */
+    private final Map<Long, Map<String, CachedNav>> days = new ConcurrentHashMap<>();
+
+    /**
+     * Fund ID to its latest NAV.
+     */
+    private final Map<String, LatestNav> latest = new ConcurrentHashMap<>();
+
+    /**
+     * Bumped by every eviction; a database read is only cached if no eviction happened meanwhile.
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Value("${nav.cache.enabled:true}")
+    private boolean enabled;
+    @Value("${nav.cache.invalidation.enabled:true}")
+    private boolean invalidationEnabled;
+
+    /**
+     * Constructor to inject required dependencies.
+     *
+     * @param fundNavRepository  Repository for fund NAVs
+     * @param navBatchRepository Repository for the latest NAVs of many funds
+     * @param pgNotifications    Cross-node notifications used for invalidations
+     * @param eventPublisher     Publisher of the {@link NavChangedEvent}s
+     * @param navSeries          NAV history, kept in step with the writes
+     * @param meterRegistry      Registry for the hit/miss metrics
+     */
+    public NavCache(FundNavRepository fundNavRepository, NavBatchRepository navBatchRepository,
+                    PgNotifications pgNotifications, ApplicationEventPublisher eventPublisher, NavSeries navSeries,
+                    MeterRegistry meterRegistry) {
+        this.fundNavRepository = fundNavRepository;
+        this.navBatchRepository = navBatchRepository;
+        this.pgNotifications = pgNotifications;
+        this.eventPublisher = eventPublisher;
+        this.navSeries = navSeries;
+        this.hits = Counter.builder("nav.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("nav.cache.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("nav.cache.size", days, cache -> cache.values().stream().mapToInt(Map::size).sum())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Preloads today's NAVs and the latest NAV of every fund, and starts listening for invalidations from other
+     * nodes.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        if (invalidationEnabled) {
+            pgNotifications.subscribe(CHANNEL, this::onNotification, this::clear);
+        }
+        LocalDate today = LocalDate.now();
+        fundNavRepository.findByNavDate(today)
+                .forEach(fundNav -> store(fundNav.getFundId().getFundId(), today, fundNav.getNav()));
+        navBatchRepository.findLatestNavs(null).forEach(nav -> storeLatest(nav.fundId(), nav.navDate(), nav.nav()));
+        logger.info(LOG_MESSAGE + "NAV cache preloaded with " + size() + " NAVs for " + today + " and the latest NAV of "
+                + latest.size() + " funds");
+    }
+
+    /**
+     * Drop-in replacement for {@link FundNavRepository#findByFundIdAndNavDate} served from memory.
+     *
+     * @param fundScript The fund for which the NAV is being queried.
+     * @param date       The NAV date to look up.
+     * @return the NAV of the fund on that date; the returned {@link FundNav} is not a managed entity
+     */
+    public Optional<FundNav> find(FundScript fundScript, LocalDate date) {
+        if (!enabled) {
+            return fundNavRepository.findByFundIdAndNavDate(fundScript, date);
+        }
+        Map<String, CachedNav> day = days.get(date.toEpochDay());
+        CachedNav cached = day == null ? null : day.get(fundScript.getFundId());
+        if (cached != null) {
+            hits.increment();
+            return cached == MISSING ? Optional.empty() : Optional.of(cached.toFundNav(fundScript, date));
+        }
+        misses.increment();
+        long version = invalidations.get();
+        Optional<FundNav> fundNav = fundNavRepository.findByFundIdAndNavDate(fundScript, date);
+        if (version == invalidations.get()) {
+            // Never overwrite a value put by a concurrent NAV write
+            day(date).putIfAbsent(fundScript.getFundId(), fundNav.map(nav -> of(nav.getNav())).orElse(MISSING));
+        }
+        return fundNav;
+    }
+
+    /**
+     * Returns the latest NAV of each fund, loading the funds not in memory with one query.
+     *
+     * @param fundIds the funds
+     * @return fund ID to its latest NAV; funds without any NAV are absent
+     */
+    public Map<String, NavPoint> findLatest(Collection<String> fundIds) {
+        Map<String, NavPoint> navs = new HashMap<>();
+        if (!enabled) {
+            navBatchRepository.findLatestNavs(fundIds).forEach(nav -> navs.put(nav.fundId(), nav));
+            return navs;
+        }
+        List<String> missing = new ArrayList<>();
+        for (String fundId : fundIds) {
+            LatestNav cached = latest.get(fundId);
+            if (cached == null) {
+                missing.add(fundId);
+            } else if (cached.nav() != MISSING) {
+                navs.put(fundId, cached.toNavPoint(fundId));
+            }
+        }
+        hits.increment(fundIds.size() - missing.size());
+        if (missing.isEmpty()) {
+            return navs;
+        }
+        misses.increment(missing.size());
+        long version = invalidations.get();
+        List<NavPoint> loaded = navBatchRepository.findLatestNavs(missing);
+        loaded.forEach(nav -> navs.put(nav.fundId(), nav));
+        if (version == invalidations.get()) {
+            loaded.forEach(nav -> storeLatest(nav.fundId(), nav.navDate(), nav.nav()));
+            for (String fundId : missing) {
+                latest.putIfAbsent(fundId, new LatestNav(Long.MIN_VALUE, MISSING));
+            }
+        }
+        return navs;
+    }
+
+    /**
+     * Records a NAV that has just been written to the database and tells the other nodes to evict it.
+     *
+     * @param fundId  the fund ID
+     * @param navDate the NAV date
+     * @param nav     the new NAV
+     */
+    public void put(String fundId, LocalDate navDate, BigDecimal nav) {
+        if (enabled) {
+            store(fundId, navDate, nav);
+            if (invalidationEnabled) {
+                pgNotifications.publish(CHANNEL, fundId + "|" + navDate.toEpochDay());
+            }
+        }
+        navSeries.put(fundId, navDate, nav);
+        eventPublisher.publishEvent(new NavChangedEvent(List.of(fundId)));
+    }
+
+    /**
+     * Records a bulk of NAVs that have just been written to the database. Other nodes are told to drop every
+     * cached NAV of the affected dates with one notification per date instead of one per fund.
+     *
+     * @param fundNavs the NAVs written; only the fund ID of {@link FundNav#getFundId()} is used
+     */
+    public void putAll(Collection<FundNav> fundNavs) {
+        Set<String> fundIds = new LinkedHashSet<>();
+        fundNavs.forEach(fundNav -> fundIds.add(fundNav.getFundId().getFundId()));
+        if (enabled) {
+            Set<Long> epochDays = new HashSet<>();
+            for (FundNav fundNav : fundNavs) {
+                store(fundNav.getFundId().getFundId(), fundNav.getNavDate(), fundNav.getNav());
+                epochDays.add(fundNav.getNavDate().toEpochDay());
+            }
+            if (invalidationEnabled) {
+                for (Long epochDay : epochDays) {
+                    pgNotifications.publish(CHANNEL, ALL_FUNDS + "|" + epochDay);
+                }
+            }
+        }
+        navSeries.putAll(fundNavs);
+        eventPublisher.publishEvent(new NavChangedEvent(fundIds));
+    }
+
+    /**
+     * @return number of cached entries, including cached misses
+     */
+    public int size() {
+        return days.values().stream().mapToInt(Map::size).sum();
+    }
+
+    private void store(String fundId, LocalDate navDate, BigDecimal nav) {
+        day(navDate).put(fundId, of(nav));
+        storeLatest(fundId, navDate, nav);
+    }
+
+    /**
+     * Replaces the latest NAV of the fund unless a later one is known.
+     */
+    private void storeLatest(String fundId, LocalDate navDate, BigDecimal nav) {
+        LatestNav latestNav = new LatestNav(navDate.toEpochDay(), of(nav));
+        latest.merge(fundId, latestNav, (current, written) -> current.epochDay() > written.epochDay() ? current : written);
+    }
+
+    private void evict(String fundId, long epochDay) {
+        invalidations.incrementAndGet();
+        if (ALL_FUNDS.equals(fundId)) {
+            days.remove(epochDay);
+            latest.values().removeIf(latestNav -> latestNav.epochDay() <= epochDay);
+            return;
+        }
+        Map<String, CachedNav> day = days.get(epochDay);
+        if (day != null) {
+            day.remove(fundId);
+        }
+        latest.computeIfPresent(fundId, (key, latestNav) -> latestNav.epochDay() <= epochDay ? null : latestNav);
+    }
+
+    /**
+     * Handles a notification {@code fundId|epochDay} of another node.
+     */
+    private void onNotification(String payload) {
+        String[] parts = payload.split("\\|");
+        if (parts.length == 2) {
+            long epochDay = Long.parseLong(parts[1]);
+            evict(parts[0], epochDay);
+            String fundId = ALL_FUNDS.equals(parts[0]) ? null : parts[0];
+            navSeries.reload(fundId, LocalDate.ofEpochDay(epochDay));
+            eventPublisher.publishEvent(new NavChangedEvent(fundId == null ? null : List.of(fundId)));
+        }
+    }
+
+    /**
+     * Drops everything, as notifications may have been missed.
+     */
+    private void clear() {
+        invalidations.incrementAndGet();
+        days.clear();
+        latest.clear();
+        navSeries.clear();
+    }
+
+    private Map<String, CachedNav> day(LocalDate date) {
+        long epochDay = date.toEpochDay();
+        Map<String, CachedNav> day = days.get(epochDay);
+        if (day == null) {
+            // Only yesterday and today are hot; older days are dropped when a new day starts
+            long oldest = LocalDate.now().toEpochDay() - 1;
+            days.keySet().removeIf(cachedDay -> cachedDay < oldest);
+            day = days.computeIfAbsent(epochDay, key -> new ConcurrentHashMap<>());
+        }
+        return day;
+    }
+
+    private static CachedNav of(BigDecimal nav) {
+        if (nav == null) {
+            return MISSING;
+        }
+        return new CachedNav(nav.unscaledValue().longValueExact(), nav.scale());
+    }
+
+    /**
+     * NAV stored as unscaled value and scale, i.e. {@code unscaled × 10^-scale}.
+     */
+    private record CachedNav(long unscaled, int scale) {
+
+        private FundNav toFundNav(FundScript fundScript, LocalDate date) {
+            FundNav fundNav = new FundNav();
+            fundNav.setFundId(fundScript);
+            fundNav.setNavDate(date);
+            fundNav.setNav(BigDecimal.valueOf(unscaled, scale));
+            return fundNav;
+        }
+    }
+
+    /**
+     * Latest NAV of a fund and its date as epoch day.
+     */
+    private record LatestNav(long epochDay, CachedNav nav) {
+
+        private NavPoint toNavPoint(String fundId) {
+            return new NavPoint(fundId, LocalDate.ofEpochDay(epochDay), BigDecimal.valueOf(nav.unscaled(), nav.scale()));
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.subash.fund.management.service;
+
+import java.util.Collection;
+
+/**
+ * Published by {@link NavCache} when NAVs were written, on this node or, as told by a notification, on another
+ * one. Listeners that depend on the committed NAVs should use
+ * {@link org.springframework.transaction.event.TransactionalEventListener}.
+ *
+ * @param fundIds the funds whose NAVs were written, or {@code null} if any fund may have changed
+ * @see PortfolioIndex#onNavChanged
+ */
+public record NavChangedEvent(Collection<String> fundIds) {
+}
@@ -0,0 +1,69 @@
+package com.subash.fund.management.service;
+
+import com.subash.fund.management.model.NavUploadResponse;
+import com.subash.fund.management.util.CorrelationId;
+import com.subash.fund.management.util.GenericLogger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.subash.fund.management.util.Constants.LOG_MESSAGE;
+
+/**
+ * Command line entry point for the bulk NAV import.
+ * <p>
+ * Runs {@link NavImportService#importNavs} once at startup when the application is started with
+ * {@code --nav.import.file=<path>}, e.g. from an end-of-day scheduler:
+ * <pre>
+ *     java -jar fund-management.jar --nav.import.file=/data/NAVAll.txt
+ * </pre>
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "nav.import.file")
+public class NavImportRunner implements ApplicationRunner {
+
+    private static final Logger logger = LogManager.getLogger(NavImportRunner.class);
+
+    private final NavImportService navImportService;
+
+    @Value("${nav.import.file}")
+    private String navFile;
+
+    /**
+     * Constructs the runner with the NAV import service.
+     *
+     * @param navImportService service performing the import
+     */
+    public NavImportRunner(NavImportService navImportService) {
+        this.navImportService = navImportService;
+    }
+
+    /**
+     * Imports the configured NAV file.
+     *
+     * @param args application arguments (unused, the file comes from {@code nav.import.file})
+     * @throws Exception if the file cannot be read or imported
+     */
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        String uuid = GenericLogger.getUUID();
+        CorrelationId.set(uuid);
+        logger.info(LOG_MESSAGE + "Importing NAV file " + navFile);
+        try (InputStream inputStream = Files.newInputStream(Path.of(navFile))) {
+            NavUploadResponse navUploadResponse = navImportService.importNavs(uuid, inputStream).getBody();
+            logger.info(LOG_MESSAGE + "NAV file " + navFile + " imported: "
+                    + navUploadResponse.getUpserted() + " upserted, " + navUploadResponse.getRejected() + " rejected");
+        } finally {
+            CorrelationId.clear();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.subash.fund.management.service;
+
+import com.subash.fund.management.model.NavUploadResponse;
+import org.springframework.http.ResponseEntity;
+
+import java.io.InputStream;
+
+/**
+ * Service interface for bulk ingestion of end-of-day NAV files.
+ * <p>
+ * Supports the AMFI semicolon separated NAV file
+ * ({@code Scheme Code;ISIN Div Payout/ISIN Growth;ISIN Div Reinvestment;Scheme Name;Net Asset Value;Date})
+ * and a plain {@code fundId,nav,navDate} CSV. Header lines, section titles and blank lines are skipped.
+ * </p>
+ *
+ * @author Subash
+ * @see FundService#updateFund
+ * @see com.subash.fund.management.model.NavUploadResponse
+ */
+public interface NavImportService {
+
+    /**
+     * Reads the NAV file line by line and upserts the NAV of every known fund.
+     *
+     * @param uuid    A unique identifier for logging or traceability
+     * @param navFile The NAV file content; read incrementally and not closed by this method
+     * @return A {@link ResponseEntity} containing the number of upserted, rejected and skipped lines
+     * @throws Exception if the file cannot be read or the NAVs cannot be written
+     */
+    ResponseEntity<NavUploadResponse> importNavs(String uuid, InputStream navFile) throws Exception;
+}
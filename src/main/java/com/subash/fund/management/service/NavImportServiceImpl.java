@@ -0,0 +1,229 @@
+package com.subash.fund.management.service;
+
+import com.subash.fund.management.model.FundNav;
+import com.subash.fund.management.model.FundScript;
+import com.subash.fund.management.model.NavUploadResponse;
+import com.subash.fund.management.repository.FundRepository;
+import com.subash.fund.management.repository.NavBatchRepository;
+import com.subash.fund.management.util.Constants;
+import com.subash.fund.management.util.GenericLogger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+import static com.subash.fund.management.util.Constants.*;
+
+/**
+ * Implementation of {@link NavImportService} that streams a NAV file into {@code fund_navs}.
+ * <p>
+ * The file is read one line at a time and parsed rows are collected into chunks of
+ * {@code nav.import.chunk-size}. For every chunk the fund IDs are validated with one query against
+ * {@link FundScript} and the NAVs of known funds are upserted with one JDBC batch, so memory use is bounded by
+ * the chunk size whatever the file size.
+ * </p>
+ *
+ * @author Subash
+ * @see NavImportService
+ * @see NavBatchRepository
+ */
+@Service
+public class NavImportServiceImpl implements NavImportService {
+
+    private static final Logger logger = LogManager.getLogger(NavImportServiceImpl.class);
+
+    /**
+     * Date format of the AMFI NAV file, e.g. {@code 14-Jun-2025}.
+     */
+    private static final DateTimeFormatter AMFI_DATE = new DateTimeFormatterBuilder()
+            .parseCaseInsensitive().appendPattern("dd-MMM-yyyy").toFormatter(Locale.ENGLISH);
+
+    /**
+     * Maximum number of rejected lines reported back in the response.
+     */
+    private static final int MAX_REPORTED_ERRORS = 20;
+
+    /**
+     * NAV column is {@code NUMERIC(38, 2)}.
+     */
+    private static final int SCALE = 2;
+
+    private final FundRepository fundRepository;
+    private final NavBatchRepository navBatchRepository;
+    private final GenericLogger genericLogger;
+    private final NavCache navCache;
+
+    @Value("${nav.import.chunk-size:1000}")
+    private int chunkSize;
+
+    /**
+     * Constructor to inject required dependencies.
+     *
+     * @param fundRepository     Repository for fund scripts
+     * @param navBatchRepository JDBC repository for NAV upserts
+     * @param genericLogger      Utility logger for request/response logging
+     * @param navCache           Cache of NAVs, refreshed with the imported NAVs
+     */
+    public NavImportServiceImpl(FundRepository fundRepository, NavBatchRepository navBatchRepository,
+                                GenericLogger genericLogger, NavCache navCache) {
+        this.fundRepository = fundRepository;
+        this.navBatchRepository = navBatchRepository;
+        this.genericLogger = genericLogger;
+        this.navCache = navCache;
+    }
+
+    /**
+     * Streams the NAV file, validating and upserting it chunk by chunk.
+     *
+     * @param uuid    Unique identifier for request tracking
+     * @param navFile NAV file content
+     * @return {@link ResponseEntity} with the import summary
+     * @throws Exception if reading the file or writing the NAVs fails
+     */
+    @Override
+    public ResponseEntity<NavUploadResponse> importNavs(String uuid, InputStream navFile) throws Exception {
+        logger.info(LOG_MESSAGE + "Processing NAV upload request");
+        NavUploadResponse navUploadResponse = new NavUploadResponse();
+        int lines = 0;
+        int upserted = 0;
+        int rejected = 0;
+        int skipped = 0;
+        List<String> errors = new ArrayList<>();
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(navFile, StandardCharsets.UTF_8));
+            // Keyed by fund and date so that a repeated row in a chunk keeps the last NAV
+            Map<String, FundNav> chunk = new LinkedHashMap<>();
+            Map<String, Integer> chunkLines = new HashMap<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines++;
+                String[] fields = line.split(line.indexOf(';') >= 0 ? ";" : ",", -1);
+                if (fields.length < 3 || !isFundId(fields[0].trim())) {
+                    skipped++;
+                    continue;
+                }
+                try {
+                    FundNav fundNav = parse(fields);
+                    String key = fundNav.getFundId().getFundId() + "|" + fundNav.getNavDate();
+                    if (chunk.put(key, fundNav) != null) {
+                        skipped++;
+                    }
+                    chunkLines.put(key, lines);
+                } catch (IllegalArgumentException | DateTimeParseException e) {
+                    rejected++;
+                    report(errors, lines, e.getMessage());
+                    continue;
+                }
+                if (chunk.size() >= chunkSize) {
+                    int written = writeChunk(chunk, chunkLines, errors);
+                    upserted += written;
+                    rejected += chunk.size() - written;
+                    chunk.clear();
+                    chunkLines.clear();
+                }
+            }
+            int written = writeChunk(chunk, chunkLines, errors);
+            upserted += written;
+            rejected += chunk.size() - written;
+        } catch (Exception e) {
+            // Logger error response
+            genericLogger.logResponse(logger, uuid, "ERROR", Constants.API_PROCESSED_FAILURE);
+            throw new Exception(e);
+        }
+        navUploadResponse.setLines(lines);
+        navUploadResponse.setUpserted(upserted);
+        navUploadResponse.setRejected(rejected);
+        navUploadResponse.setSkipped(skipped);
+        navUploadResponse.setErrors(errors);
+        navUploadResponse.setCode(NAV_UPLOAD_SUCCESS_CODE);
+        navUploadResponse.setMessage(NAV_UPLOAD_SUCCESS);
+        logger.info(LOG_MESSAGE + "NAV upload request processed: " + lines + " lines, "
+                + upserted + " upserted, " + rejected + " rejected, " + skipped + " skipped");
+        return new ResponseEntity<>(navUploadResponse, HttpStatus.OK);
+    }
+
+    /**
+     * Validates the fund IDs of the chunk in one query and upserts the NAVs of known funds.
+     *
+     * @return number of NAV rows written
+     */
+    private int writeChunk(Map<String, FundNav> chunk, Map<String, Integer> chunkLines, List<String> errors) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        Set<String> fundIds = new HashSet<>();
+        chunk.values().forEach(fundNav -> fundIds.add(fundNav.getFundId().getFundId()));
+        Set<String> existing = fundRepository.findExistingFundIds(fundIds);
+        List<FundNav> known = new ArrayList<>(chunk.size());
+        chunk.forEach((key, fundNav) -> {
+            if (existing.contains(fundNav.getFundId().getFundId())) {
+                known.add(fundNav);
+            } else {
+                report(errors, chunkLines.get(key), RECORD_NOT_FOUND);
+            }
+        });
+        if (!known.isEmpty()) {
+            navBatchRepository.upsert(known);
+            navCache.putAll(known);
+        }
+        return known.size();
+    }
+
+    /**
+     * Parses an AMFI line (NAV and date in the 5th and 6th field) or a {@code fundId,nav,navDate} CSV line.
+     */
+    private static FundNav parse(String[] fields) {
+        boolean amfi = fields.length >= 6;
+        String navField = (amfi ? fields[4] : fields[1]).trim();
+        String dateField = (amfi ? fields[5] : fields[2]).trim();
+        BigDecimal nav;
+        try {
+            // Rounded as the column stores it, e.g. an AMFI NAV of 23.4567 to 23.46, before it is cached
+            nav = new BigDecimal(navField).setScale(SCALE, RoundingMode.HALF_UP);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid NAV '" + navField + "'");
+        }
+        if (nav.signum() <= 0) {
+            throw new IllegalArgumentException("Invalid NAV '" + navField + "'");
+        }
+        FundScript fundScript = new FundScript();
+        fundScript.setFundId(fields[0].trim());
+        FundNav fundNav = new FundNav();
+        fundNav.setFundId(fundScript);
+        fundNav.setNav(nav);
+        fundNav.setNavDate(amfi ? LocalDate.parse(dateField, AMFI_DATE) : LocalDate.parse(dateField));
+        return fundNav;
+    }
+
+    private static boolean isFundId(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void report(List<String> errors, int line, String reason) {
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add("Line " + line + ": " + reason);
+        }
+    }
+}
@@ -0,0 +1,436 @@
+package com.subash.fund.management.service;
+
+import com.subash.fund.management.model.FundNav;
+import com.subash.fund.management.model.NavPoint;
+import com.subash.fund.management.repository.NavBatchRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static com.subash.fund.management.util.Constants.LOG_MESSAGE;
+
+/**
+ * In-memory NAV history of every fund, stored column-wise for range and point-in-time queries.
+ * <p>
+ * The NAVs of a fund are one immutable {@link Series}: an {@code int[]} of epoch days, ascending, and a parallel
+ * {@code long[]} of NAVs in hundredths (the scale of {@code fund_navs.nav}), that is 12 bytes per NAV instead of a
+ * {@link FundNav} entity and its {@code FundScript} per row.
+ * </p>
+ * <ul>
+ *     <li>all NAVs are streamed from {@code fund_navs} at startup when {@code nav.series.preload} is set; otherwise,
+ *     or for a fund dropped since, on its first query</li>
+ *     <li>every NAV write reaches it through {@link NavCache}. A NAV later than the last of the fund is appended in
+ *     place, in amortized constant time, as readers never look past the size of their snapshot; an earlier date,
+ *     or a correction, copies the series</li>
+ *     <li>a NAV written on another node is read back from the database, by fund and date as announced by the
+ *     {@code nav_updates} notification of {@link NavCache}</li>
+ * </ul>
+ *
+ * @see NavBatchRepository#forEachNav
+ */
+@Component
+public class NavSeries {
+
+    private static final Logger logger = LogManager.getLogger(NavSeries.class);
+
+    /**
+     * NAV columns are {@code NUMERIC(38, 2)}.
+     */
+    private static final int SCALE = 2;
+
+    private final NavBatchRepository navBatchRepository;
+
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented before every change, so that a load racing with a NAV write is not cached.
+     */
+    private final AtomicLong modifications = new AtomicLong();
+
+    @Value("${nav.series.enabled:true}")
+    private boolean enabled;
+
+    @Value("${nav.series.preload:true}")
+    private boolean preload;
+
+    /**
+     * Constructor to inject required dependencies.
+     *
+     * @param navBatchRepository Repository streaming the NAV history
+     * @param meterRegistry      Registry for the size metric
+     */
+    public NavSeries(NavBatchRepository navBatchRepository, MeterRegistry meterRegistry) {
+        this.navBatchRepository = navBatchRepository;
+        Gauge.builder("nav.series.points", series, funds -> funds.values().stream().mapToLong(Series::size).sum())
+                .description("NAVs held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads the NAV history of every fund.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || !preload) {
+            return;
+        }
+        long version = modifications.get();
+        Loader loader = new Loader(loaded -> insert(loaded.fundId, loaded.build(), version));
+        navBatchRepository.forEachNav(null, loader);
+        loader.flush();
+        logger.info(LOG_MESSAGE + "NAV series preloaded with " + loader.total + " NAVs of " + series.size()
+                + " funds");
+    }
+
+    /**
+     * Returns the NAV history of a fund, loading it on a miss, or on every call when the store is disabled.
+     *
+     * @param fundId the fund
+     * @return the NAVs of the fund, empty if it has none or does not exist
+     */
+    public Series find(String fundId) {
+        Series cached = enabled ? series.get(fundId) : null;
+        if (cached != null) {
+            return cached;
+        }
+        long version = modifications.get();
+        // Only the rows of one fund are read, so the series is complete once they are
+        Loader loader = new Loader(loaded -> {
+        });
+        navBatchRepository.forEachNav(fundId, loader);
+        Series loaded = loader.current == null ? Series.EMPTY : loader.current.build();
+        // Unknown funds are not cached, so that arbitrary IDs cannot fill the memory
+        if (enabled && loaded.size() > 0) {
+            insert(fundId, loaded, version);
+        }
+        return loaded;
+    }
+
+    /**
+     * Records a NAV that has just been written to the database.
+     *
+     * @param fundId  the fund ID
+     * @param navDate the NAV date
+     * @param nav     the new NAV
+     */
+    public void put(String fundId, LocalDate navDate, BigDecimal nav) {
+        if (!enabled) {
+            return;
+        }
+        modifications.incrementAndGet();
+        // A fund not in memory is loaded with the NAV on its next query
+        series.computeIfPresent(fundId, (key, current) ->
+                current.merge(new int[]{epochDay(navDate)}, new long[]{hundredths(nav)}, 1));
+    }
+
+    /**
+     * Records a bulk of NAVs that have just been written to the database, merging the NAVs of each fund at once.
+     *
+     * @param fundNavs the NAVs written, at most one per fund and date; only the fund ID of
+     *                 {@link FundNav#getFundId()} is used
+     */
+    public void putAll(Collection<FundNav> fundNavs) {
+        if (!enabled) {
+            return;
+        }
+        Map<String, List<FundNav>> byFund = new HashMap<>();
+        for (FundNav fundNav : fundNavs) {
+            byFund.computeIfAbsent(fundNav.getFundId().getFundId(), fundId -> new ArrayList<>()).add(fundNav);
+        }
+        modifications.incrementAndGet();
+        byFund.forEach((fundId, navs) -> {
+            navs.sort(Comparator.comparing(FundNav::getNavDate));
+            int[] days = new int[navs.size()];
+            long[] values = new long[navs.size()];
+            for (int i = 0; i < navs.size(); i++) {
+                days[i] = epochDay(navs.get(i).getNavDate());
+                values[i] = hundredths(navs.get(i).getNav());
+            }
+            series.computeIfPresent(fundId, (key, current) -> current.merge(days, values, days.length));
+        });
+    }
+
+    /**
+     * Reads back the NAVs written by another node on a date.
+     *
+     * @param fundId  the fund, or {@code null} if any fund may have changed
+     * @param navDate the NAV date
+     */
+    public void reload(String fundId, LocalDate navDate) {
+        if (!enabled || fundId != null && !series.containsKey(fundId)) {
+            return;
+        }
+        for (NavPoint nav : navBatchRepository.findNavs(navDate, fundId)) {
+            put(nav.fundId(), nav.navDate(), nav.nav());
+        }
+    }
+
+    /**
+     * Drops every series, as writes of other nodes may have been missed.
+     */
+    public void clear() {
+        modifications.incrementAndGet();
+        series.clear();
+    }
+
+    /**
+     * Caches a loaded series unless a NAV was written since {@code version}.
+     */
+    private void insert(String fundId, Series loaded, long version) {
+        series.compute(fundId, (key, current) ->
+                current != null || version != modifications.get() ? current : loaded);
+    }
+
+    private static int epochDay(LocalDate date) {
+        return Math.toIntExact(date.toEpochDay());
+    }
+
+    private static long hundredths(BigDecimal value) {
+        return value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Builds the series of consecutive rows of the same fund, passing each completed one on.
+     */
+    private static final class Loader implements Consumer<NavPoint> {
+
+        private final Consumer<Builder> completed;
+        private Builder current;
+        private long total;
+
+        private Loader(Consumer<Builder> completed) {
+            this.completed = completed;
+        }
+
+        @Override
+        public void accept(NavPoint nav) {
+            if (current != null && !current.fundId.equals(nav.fundId())) {
+                completed.accept(current);
+                current = null;
+            }
+            if (current == null) {
+                current = new Builder(nav.fundId());
+            }
+            current.add(epochDay(nav.navDate()), hundredths(nav.nav()));
+            total++;
+        }
+
+        private void flush() {
+            if (current != null) {
+                completed.accept(current);
+            }
+        }
+    }
+
+    /**
+     * Growable arrays of the NAVs of one fund, read in ascending date order.
+     */
+    private static final class Builder {
+
+        private final String fundId;
+        private int[] days = new int[64];
+        private long[] navs = new long[64];
+        private int size;
+
+        private Builder(String fundId) {
+            this.fundId = fundId;
+        }
+
+        private void add(int day, long nav) {
+            if (size == days.length) {
+                days = Arrays.copyOf(days, size * 2);
+                navs = Arrays.copyOf(navs, size * 2);
+            }
+            days[size] = day;
+            navs[size] = nav;
+            size++;
+        }
+
+        private Series build() {
+            return new Series(Arrays.copyOf(days, size), Arrays.copyOf(navs, size), size);
+        }
+    }
+
+    /**
+     * Period over which a series is downsampled to the last NAV of the period.
+     */
+    public enum Interval {
+        DAY, WEEK, MONTH, YEAR;
+
+        /**
+         * @return the epoch day starting the period after the one of {@code epochDay}; weeks start on Monday
+         */
+        long nextPeriod(long epochDay) {
+            return switch (this) {
+                case DAY -> epochDay + 1;
+                // 1970-01-01, epoch day 0, is a Thursday
+                case WEEK -> epochDay + 7 - Math.floorMod(epochDay + 3, 7);
+                case MONTH -> LocalDate.ofEpochDay(epochDay).withDayOfMonth(1).plusMonths(1).toEpochDay();
+                case YEAR -> LocalDate.ofEpochDay(epochDay).withDayOfYear(1).plusYears(1).toEpochDay();
+            };
+        }
+    }
+
+    /**
+     * Immutable NAV history of a fund, ascending by date. Series created by appends share their arrays: the
+     * elements below {@code size} never change.
+     */
+    public static final class Series {
+
+        private static final Series EMPTY = new Series(new int[0], new long[0], 0);
+
+        private final int[] days;
+        private final long[] navs;
+        private final int size;
+
+        private Series(int[] days, long[] navs, int size) {
+            this.days = days;
+            this.navs = navs;
+            this.size = size;
+        }
+
+        /**
+         * Copy with NAVs added or replaced. Appends in place when every new date is after the last one and the
+         * arrays have room, which only the latest series of a fund ever does.
+         *
+         * @param newDays  epoch days, ascending and distinct
+         * @param newNavs  NAVs in hundredths
+         * @param count    number of NAVs to merge
+         */
+        private Series merge(int[] newDays, long[] newNavs, int count) {
+            if (size == 0 || newDays[0] > days[size - 1]) {
+                int[] appendedDays = days;
+                long[] appendedNavs = navs;
+                if (size + count > days.length) {
+                    int capacity = Math.max(size + count, size + (size >> 1));
+                    appendedDays = Arrays.copyOf(days, capacity);
+                    appendedNavs = Arrays.copyOf(navs, capacity);
+                }
+                System.arraycopy(newDays, 0, appendedDays, size, count);
+                System.arraycopy(newNavs, 0, appendedNavs, size, count);
+                return new Series(appendedDays, appendedNavs, size + count);
+            }
+            int[] mergedDays = new int[size + count];
+            long[] mergedNavs = new long[size + count];
+            int i = 0;
+            int j = 0;
+            int merged = 0;
+            while (i < size || j < count) {
+                if (j == count || i < size && days[i] < newDays[j]) {
+                    mergedDays[merged] = days[i];
+                    mergedNavs[merged++] = navs[i++];
+                } else {
+                    if (i < size && days[i] == newDays[j]) {
+                        i++;
+                    }
+                    mergedDays[merged] = newDays[j];
+                    mergedNavs[merged++] = newNavs[j++];
+                }
+            }
+            return new Series(mergedDays, mergedNavs, merged);
+        }
+
+        /**
+         * @return the number of NAVs
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @param index position of the NAV, {@code 0} being the oldest
+         * @return the NAV date
+         */
+        public LocalDate navDate(int index) {
+            return LocalDate.ofEpochDay(days[checkIndex(index)]);
+        }
+
+        /**
+         * @param index position of the NAV, {@code 0} being the oldest
+         * @return the NAV
+         */
+        public BigDecimal nav(int index) {
+            return BigDecimal.valueOf(navs[checkIndex(index)], SCALE);
+        }
+
+        /**
+         * @param date the date
+         * @return the position of the latest NAV on or before the date, or {@code -1} if there is none
+         */
+        public int floor(LocalDate date) {
+            return lowerBound(0, size, date.toEpochDay() + 1) - 1;
+        }
+
+        /**
+         * @param date the date
+         * @return the position of the earliest NAV on or after the date, or {@link #size()} if there is none
+         */
+        public int ceiling(LocalDate date) {
+            return lowerBound(0, size, date.toEpochDay());
+        }
+
+        /**
+         * Downsamples a range to the last NAV of each period holding one, jumping from period to period by binary
+         * search, so the cost grows with the number of periods rather than of NAVs.
+         *
+         * @param from     position of the first NAV of the range
+         * @param to       position of the last NAV of the range, inclusive
+         * @param interval the period
+         * @return the positions of the NAVs kept, ascending
+         */
+        public int[] sample(int from, int to, Interval interval) {
+            if (from > to) {
+                return new int[0];
+            }
+            if (interval == Interval.DAY) {
+                // At most one NAV per date
+                int[] positions = new int[to - from + 1];
+                Arrays.setAll(positions, index -> from + index);
+                return positions;
+            }
+            int[] positions = new int[to - from + 1];
+            int count = 0;
+            for (int index = from; index <= to; ) {
+                int last = lowerBound(index, to + 1, interval.nextPeriod(days[index])) - 1;
+                positions[count++] = last;
+                index = last + 1;
+            }
+            return Arrays.copyOf(positions, count);
+        }
+
+        /**
+         * @return the first position in {@code [from, to)} whose date is on or after {@code epochDay}, or
+         * {@code to}
+         */
+        private int lowerBound(int from, int to, long epochDay) {
+            int low = from;
+            int high = to;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (days[middle] < epochDay) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private int checkIndex(int index) {
+            return Objects.checkIndex(index, size);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.subash.fund.management.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static com.subash.fund.management.util.Constants.LOG_MESSAGE;
+
+/**
+ * Bounded, jittered retry of optimistic order transactions, with contention metrics per fund.
+ * <p>
+ * Used by {@link OrderServiceImpl} when {@code order.concurrency.mode=optimistic}. An attempt that fails with an
+ * {@link OptimisticLockingFailureException} (a {@code @Version} check failed because another order updated the
+ * fund or holding first) is retried up to {@code order.concurrency.max-attempts} attempts in total. Before each
+ * retry it sleeps a random time between zero and an exponentially growing bound ({@code backoff},
+ * doubling per retry, capped at {@code max-backoff}), so that orders that collided do not collide again in
+ * lockstep.
+ * </p>
+ * <p>
+ * Published meters, tagged with {@code fund}:
+ * <ul>
+ *     <li>{@code order.contention.attempts} and {@code order.contention.conflicts}: their ratio is the conflict
+ *     rate of the fund</li>
+ *     <li>{@code order.contention.retries}: distribution of retries per order</li>
+ *     <li>{@code order.contention.exhausted}: orders given up after the last attempt</li>
+ * </ul>
+ * </p>
+ */
+@Component
+public class OptimisticRetry {
+
+    private static final Logger logger = LogManager.getLogger(OptimisticRetry.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long backoffNanos;
+    private final long maxBackoffNanos;
+
+    /**
+     * Creates the retry policy.
+     *
+     * @param meterRegistry registry for the contention meters
+     * @param maxAttempts   attempts per order, including the first
+     * @param backoff       upper bound of the sleep before the first retry
+     * @param maxBackoff    upper bound of the sleep before any retry
+     */
+    public OptimisticRetry(MeterRegistry meterRegistry,
+                           @Value("${order.concurrency.max-attempts:5}") int maxAttempts,
+                           @Value("${order.concurrency.backoff:5ms}") Duration backoff,
+                           @Value("${order.concurrency.max-backoff:100ms}") Duration maxBackoff) {
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffNanos = backoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+    }
+
+    /**
+     * Runs an attempt, retrying it while it fails with an optimistic lock conflict.
+     *
+     * @param fundId  the fund the attempt updates, used as meter tag
+     * @param attempt the attempt, given its number starting at 1; must run in its own transaction
+     * @param <T>     result type
+     * @return the result of the first attempt that did not conflict
+     * @throws OptimisticLockingFailureException if the last attempt conflicted as well
+     */
+    public <T> T execute(String fundId, IntFunction<T> attempt) {
+        for (int number = 1; ; number++) {
+            Counter.builder("order.contention.attempts").tag("fund", fundId).register(meterRegistry).increment();
+            try {
+                T result = attempt.apply(number);
+                retries(fundId).record(number - 1);
+                return result;
+            } catch (OptimisticLockingFailureException e) {
+                Counter.builder("order.contention.conflicts").tag("fund", fundId).register(meterRegistry)
+                        .increment();
+                if (number >= maxAttempts) {
+                    retries(fundId).record(number - 1);
+                    Counter.builder("order.contention.exhausted").tag("fund", fundId).register(meterRegistry)
+                            .increment();
+                    logger.info(LOG_MESSAGE + "Giving up order on fund " + fundId + " after " + number
+                            + " conflicting attempts");
+                    throw e;
+                }
+                sleep(number);
+            }
+        }
+    }
+
+    private DistributionSummary retries(String fundId) {
+        return DistributionSummary.builder("order.contention.retries").tag("fund", fundId).register(meterRegistry);
+    }
+
+    /**
+     * Sleeps a random time up to the backoff bound of the given retry ("full jitter").
+     */
+    private void sleep(int retry) {
+        long bound = Math.min(maxBackoffNanos, backoffNanos << Math.min(retry - 1, 30));
+        if (bound <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OptimisticLockingFailureException("Interrupted while waiting to retry", e);
+        }
+    }
+}
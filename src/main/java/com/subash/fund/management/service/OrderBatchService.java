@@ -0,0 +1,31 @@
+package com.subash.fund.management.service;
+
+import com.subash.fund.management.model.BatchOrderResponse;
+import com.subash.fund.management.model.BatchOrderView;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Service interface for placing many mutual fund orders in a single request.
+ * <p>
+ * Intended for bulk submissions such as systematic investment plan (SIP) runs, where a distributor
+ * submits a large list of BUY/REDEEM orders at once. Each order is validated and executed with the same
+ * rules as {@link OrderService#createOrder}, and a result is returned for every order in request order.
+ * </p>
+ *
+ * @author Subash
+ * @see OrderService
+ * @see com.subash.fund.management.model.BatchOrderView
+ * @see com.subash.fund.management.model.BatchOrderResponse
+ */
+public interface OrderBatchService {
+
+    /**
+     * Places every order of the batch.
+     *
+     * @param uuid           Unique identifier for the request (used for logging and tracing)
+     * @param batchOrderView The orders to place, each with its order type
+     * @return A {@link ResponseEntity} containing one result per order and the HTTP status code
+     * @throws Exception if the batch cannot be processed; no order of the batch is persisted in that case
+     */
+    ResponseEntity<BatchOrderResponse> createOrders(String uuid, BatchOrderView batchOrderView) throws Exception;
+}
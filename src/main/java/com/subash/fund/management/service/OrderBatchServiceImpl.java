@@ -0,0 +1,246 @@
+package com.subash.fund.management.service;
+
+import com.subash.fund.management.model.*;
+import com.subash.fund.management.repository.*;
+import com.subash.fund.management.util.Constants;
+import com.subash.fund.management.util.GenericLogger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import static com.subash.fund.management.util.Constants.*;
+
+/**
+ * Implementation of {@link OrderBatchService} that executes a list of orders in one database transaction.
+ * <p>
+ * Instead of the four lookups and three saves per order of {@link OrderServiceImpl}, the batch:
+ * <ul>
+ *     <li>resolves users, funds and today's NAVs with set-based {@code IN} queries, chunked by
+ *     {@code order.batch.lookup-chunk-size}</li>
+ *     <li>applies the valid orders in request order through {@link OrderBatchRepository} JDBC batches, one
+ *     guarded statement relative to the stored balances per order, so an order without enough units is
+ *     rejected alone and orders committed meanwhile by other requests are kept</li>
+ *     <li>inserts the transactions of the applied orders</li>
+ * </ul>
+ * When {@link OrderEngine} is enabled, validated orders are handed to the engine lanes instead.
+ *
+ * @author Subash
+ * @see OrderBatchService
+ * @see OrderServiceImpl
+ */
+@Service
+public class OrderBatchServiceImpl implements OrderBatchService {
+    private static final Logger logger = LogManager.getLogger(OrderBatchServiceImpl.class);
+
+    private final FundRepository fundRepository;
+    private final FundNavRepository fundNavRepository;
+    private final UserRepository userRepository;
+    private final OrderBatchRepository orderBatchRepository;
+    private final GenericLogger genericLogger;
+    private final OrderEngine orderEngine;
+    private final PortfolioIndex portfolioIndex;
+
+    @Value("${order.batch.lookup-chunk-size:1000}")
+    private int lookupChunkSize;
+
+    /**
+     * Constructor-based dependency injection for batch order processing.
+     */
+    public OrderBatchServiceImpl(FundRepository fundRepository, FundNavRepository fundNavRepository,
+                                 UserRepository userRepository,
+                                 OrderBatchRepository orderBatchRepository, GenericLogger genericLogger,
+                                 OrderEngine orderEngine, PortfolioIndex portfolioIndex) {
+        this.fundRepository = fundRepository;
+        this.fundNavRepository = fundNavRepository;
+        this.userRepository = userRepository;
+        this.orderBatchRepository = orderBatchRepository;
+        this.genericLogger = genericLogger;
+        this.orderEngine = orderEngine;
+        this.portfolioIndex = portfolioIndex;
+    }
+
+    /**
+     * Processes every order of the batch and returns one result per order.
+     *
+     * @param uuid           Unique identifier for tracking the request.
+     * @param batchOrderView Orders to process, each with its order type.
+     * @return {@link ResponseEntity} containing per-order status and message.
+     * @throws Exception if any step of batch processing fails; the whole batch is rolled back.
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public ResponseEntity<BatchOrderResponse> createOrders(String uuid, BatchOrderView batchOrderView) throws Exception {
+        List<BatchOrderItem> orders = batchOrderView.getOrders();
+        logger.info(LOG_MESSAGE + "Processing batch order request of " + orders.size() + " orders");
+        BatchOrderResponse batchOrderResponse = new BatchOrderResponse();
+        try {
+            OrderBatch batch = load(orders);
+            logger.info(LOG_MESSAGE + "Resolved " + batch.users.size() + " users and "
+                    + batch.funds.size() + " funds");
+
+            List<CompletableFuture<ResponseEntity<OrderResponse>>> results = new ArrayList<>(orders.size());
+            for (BatchOrderItem item : orders) {
+                OrderType orderType = OrderType.valueOf(item.getOrderType());
+                ResponseEntity<OrderResponse> rejected = batch.validate(item.getOrder());
+                if (rejected != null) {
+                    results.add(CompletableFuture.completedFuture(rejected));
+                } else if (orderEngine.isEnabled()) {
+                    OrderView orderView = item.getOrder();
+                    results.add(orderEngine.submit(uuid, orderType, batch.users.get(orderView.getUsername()),
+                            batch.navs.get(orderView.getFundId()), orderView));
+                } else {
+                    // Completed once the database applied it
+                    batch.add(results.size(), orderType, item.getOrder());
+                    results.add(null);
+                }
+            }
+            if (!batch.orders.isEmpty()) {
+                boolean[] applied = orderBatchRepository.applyOrders(batch.orders);
+                List<Transaction> transactions = new ArrayList<>(batch.orders.size());
+                for (int i = 0; i < applied.length; i++) {
+                    Transaction order = batch.orders.get(i);
+                    results.set(batch.indexes.get(i), CompletableFuture.completedFuture(
+                            applied[i] ? OrderBatch.completed(order) : OrderBatch.insufficient(order)));
+                    if (applied[i]) {
+                        transactions.add(order);
+                    }
+                }
+                orderBatchRepository.insertTransactions(transactions);
+                portfolioIndex.recordAll(transactions);
+                logger.info(LOG_MESSAGE + "Applied " + transactions.size() + " of " + batch.orders.size()
+                        + " orders");
+            }
+            for (int index = 0; index < results.size(); index++) {
+                ResponseEntity<OrderResponse> result = results.get(index).get();
+                batchOrderResponse.addResultsItem(new BatchOrderResult()
+                        .index(index)
+                        .status(result.getStatusCode().value())
+                        .response(result.getBody()));
+            }
+        } catch (Exception e) {
+            // Logger error response
+            genericLogger.logResponse(logger, uuid, "ERROR", Constants.API_PROCESSED_FAILURE);
+            throw new Exception(e);
+        }
+        batchOrderResponse.setCode(BATCH_ORDER_COMPLETED_CODE);
+        batchOrderResponse.setMessage(BATCH_ORDER_COMPLETED);
+        return new ResponseEntity<>(batchOrderResponse, HttpStatus.CREATED);
+    }
+
+    /**
+     * Resolves the users, funds and today's NAVs referenced by the batch. The loaded entities are never changed:
+     * the balances are only written through {@link OrderBatchRepository}.
+     */
+    private OrderBatch load(List<BatchOrderItem> orders) {
+        OrderBatch batch = new OrderBatch();
+        LocalDate today = LocalDate.now();
+        List<String> usernames = orders.stream().map(item -> item.getOrder().getUsername()).distinct().toList();
+        for (List<String> chunk : chunks(usernames)) {
+            userRepository.findByUsernameIn(chunk).forEach(user -> batch.users.put(user.getUsername(), user));
+        }
+        List<String> fundIds = orders.stream().map(item -> item.getOrder().getFundId()).distinct().toList();
+        for (List<String> chunk : chunks(fundIds)) {
+            List<FundScript> fundScripts = fundRepository.findAllById(chunk);
+            if (fundScripts.isEmpty()) {
+                continue;
+            }
+            fundScripts.forEach(fundScript -> batch.funds.put(fundScript.getFundId(), fundScript));
+            fundNavRepository.findByFundIdInAndNavDate(fundScripts, today)
+                    .forEach(fundNav -> batch.navs.put(fundNav.getFundId().getFundId(), fundNav));
+        }
+        return batch;
+    }
+
+    private <T> List<List<T>> chunks(List<T> values) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += lookupChunkSize) {
+            chunks.add(values.subList(from, Math.min(values.size(), from + lookupChunkSize)));
+        }
+        return chunks;
+    }
+
+    /**
+     * Working state of one batch: the resolved reference data and the valid orders to apply.
+     */
+    private static final class OrderBatch {
+        private final Map<String, User> users = new HashMap<>();
+        private final Map<String, FundScript> funds = new HashMap<>();
+        private final Map<String, FundNav> navs = new HashMap<>();
+
+        /**
+         * Transaction of each valid order, in request order, and the index of the order in the batch.
+         */
+        private final List<Transaction> orders = new ArrayList<>();
+        private final List<Integer> indexes = new ArrayList<>();
+
+        /**
+         * Applies the same checks as the single order API.
+         *
+         * @return the rejection response, or {@code null} when the order can be executed
+         */
+        private ResponseEntity<OrderResponse> validate(OrderView orderView) {
+            // Validate Username
+            if (!users.containsKey(orderView.getUsername())) {
+                return reject(USER_RECORD_NOT_FOUND_CODE, USER_RECORD_NOT_FOUND);
+            }
+            // Validate FundId
+            if (!funds.containsKey(orderView.getFundId())) {
+                return reject(RECORD_NOT_FOUND_CODE, RECORD_NOT_FOUND);
+            }
+            // Validate Nav amount
+            FundNav fundNav = navs.get(orderView.getFundId());
+            if (fundNav == null || orderView.getNav() == null || fundNav.getNav().compareTo(orderView.getNav()) != 0) {
+                return reject(FUND_NAV_VALUE_CODE, FUND_NAV_VALUE);
+            }
+            return null;
+        }
+
+        /**
+         * Queues a valid order, valued at today's NAV.
+         */
+        private void add(int index, OrderType orderType, OrderView orderView) {
+            BigDecimal units = orderView.getUnits();
+            Transaction transaction = new Transaction();
+            transaction.setUser(users.get(orderView.getUsername()));
+            transaction.setFund(funds.get(orderView.getFundId()));
+            transaction.setType(orderType.name());
+            transaction.setNav(orderView.getNav());
+            transaction.setUnits(units);
+            transaction.setAmount(navs.get(orderView.getFundId()).getNav().multiply(units));
+            orders.add(transaction);
+            indexes.add(index);
+        }
+
+        private static ResponseEntity<OrderResponse> completed(Transaction order) {
+            OrderResponse orderResponse = new OrderResponse();
+            if (OrderType.BUY.name().equals(order.getType())) {
+                orderResponse.setTotalValue(order.getAmount());
+            }
+            orderResponse.setCode(ORDER_COMPLETED_CODE);
+            orderResponse.setMessage(ORDER_COMPLETED);
+            return new ResponseEntity<>(orderResponse, HttpStatus.CREATED);
+        }
+
+        private static ResponseEntity<OrderResponse> insufficient(Transaction order) {
+            return OrderType.REDEEM.name().equals(order.getType())
+                    ? reject(INSUFFICIENT_UNITS_USER_CODE, INSUFFICIENT_UNITS_USER)
+                    : reject(INSUFFICIENT_UNITS_FUNDS_CODE, INSUFFICIENT_UNITS_FUNDS);
+        }
+
+        private static ResponseEntity<OrderResponse> reject(Integer code, String message) {
+            OrderResponse orderResponse = new OrderResponse();
+            orderResponse.setCode(code);
+            orderResponse.setMessage(message);
+            return new ResponseEntity<>(orderResponse, HttpStatus.BAD_REQUEST);
+        }
+    }
+}
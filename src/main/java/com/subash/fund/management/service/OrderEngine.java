@@ -0,0 +1,533 @@
+package com.subash.fund.management.service;
+
+import com.subash.fund.management.model.*;
+import com.subash.fund.management.repository.FundRepository;
+import com.subash.fund.management.repository.TransactionRepository;
+import com.subash.fund.management.repository.UserHoldingRepository;
+import com.subash.fund.management.util.Constants.OrderType;
+import com.subash.fund.management.util.CorrelationId;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.subash.fund.management.util.Constants.*;
+
+/**
+ * In-memory order engine that serializes mutual fund orders per fund on single-writer lanes.
+ * <p>
+ * Every fund is pinned to exactly one lane ({@code floorMod(fundId.hashCode(), lanes)}). A lane is a dedicated
+ * thread that owns the authoritative {@code totalUnits} of its funds and the holdings of every user trading them,
+ * so concurrent orders on the same fund never lose updates and never queue on a database row lock. Funds are
+ * spread across lanes, so independent funds are processed in parallel on all cores.
+ * </p>
+ *
+ * <p>
+ * An order is acknowledged as soon as the lane has applied it in memory. After each drained batch the lane
+ * flushes the changed {@link FundScript} and {@link UserHolding} rows together with the new {@link Transaction}
+ * rows in a single database transaction; a failed flush keeps the changes dirty and is retried on the next cycle.
+ * Each book also keeps the changes not yet flushed as deltas. When a flush fails because a row was changed outside
+ * the engine (a stale {@code @Version}, or a holding inserted meanwhile), the dirty books are reloaded from the
+ * database and their deltas applied again on top, and the clean books are dropped. After
+ * {@code order.engine.max-flush-retries} failed flushes in a row the lane is stuck: it answers its orders with
+ * {@code 503} instead of acknowledging changes it cannot save, until a flush succeeds again. The
+ * {@code order.engine.lanes.stuck} gauge counts the stuck lanes.
+ * </p>
+ *
+ * <p>
+ * A lane caches at most {@code order.engine.max-books} funds and {@code order.engine.max-holdings-per-book}
+ * holdings per fund; once flushed, the least recently used books and the holdings of oversized books are evicted
+ * and loaded again on their next order.
+ * </p>
+ *
+ * <p>
+ * The engine assumes it is the only writer of {@code funds_scripts.total_units} and {@code user_holdings} while
+ * enabled, i.e. one application node owns the order flow. It is switched on with
+ * {@code order.engine.enabled=true}; otherwise {@link OrderServiceImpl} processes orders directly.
+ * </p>
+ *
+ * @see OrderServiceImpl
+ */
+@Component
+public class OrderEngine {
+
+    private static final Logger logger = LogManager.getLogger(OrderEngine.class);
+
+    /**
+     * Upper bound a lane waits for new orders before it retries pending flushes.
+     */
+    private static final long IDLE_POLL_MS = 50;
+
+    private final FundRepository fundRepository;
+    private final UserHoldingRepository userHoldingRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final PortfolioIndex portfolioIndex;
+    private final Counter flushFailures;
+
+    @Value("${order.engine.enabled:false}")
+    private boolean enabled;
+    @Value("${order.engine.lanes:0}")
+    private int laneCount;
+    @Value("${order.engine.queue-capacity:65536}")
+    private int queueCapacity;
+    @Value("${order.engine.batch-size:512}")
+    private int batchSize;
+    @Value("${order.engine.max-flush-retries:5}")
+    private int maxFlushRetries;
+    @Value("${order.engine.max-books:10000}")
+    private int maxBooks;
+    @Value("${order.engine.max-holdings-per-book:100000}")
+    private int maxHoldingsPerBook;
+
+    private Lane[] lanes;
+
+    /**
+     * Constructor to inject required dependencies.
+     *
+     * @param fundRepository        Repository for fund scripts
+     * @param userHoldingRepository Repository for user holdings
+     * @param transactionRepository Repository for transaction history
+     * @param transactionManager    Transaction manager used by the lane flushes
+     * @param portfolioIndex        Index of the holdings, updated by the committed flushes
+     * @param meterRegistry         Registry for the flush failure and stuck lane metrics
+     */
+    public OrderEngine(FundRepository fundRepository, UserHoldingRepository userHoldingRepository,
+                       TransactionRepository transactionRepository, PlatformTransactionManager transactionManager,
+                       PortfolioIndex portfolioIndex, MeterRegistry meterRegistry) {
+        this.fundRepository = fundRepository;
+        this.userHoldingRepository = userHoldingRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.portfolioIndex = portfolioIndex;
+        this.flushFailures = Counter.builder("order.engine.flush.failures")
+                .description("Lane flushes rolled back, retried on the next cycle")
+                .register(meterRegistry);
+        Gauge.builder("order.engine.lanes.stuck", this, OrderEngine::stuckLanes)
+                .description("Lanes answering orders with 503 until their changes can be flushed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts one lane thread per configured lane (defaults to the number of available processors).
+     */
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        int count = laneCount > 0 ? laneCount : Runtime.getRuntime().availableProcessors();
+        lanes = new Lane[count];
+        for (int i = 0; i < count; i++) {
+            lanes[i] = new Lane(i);
+            lanes[i].thread.start();
+        }
+        logger.info(LOG_MESSAGE + "Order engine started with " + count + " lanes");
+    }
+
+    /**
+     * Stops accepting orders, drains every lane and flushes the remaining changes.
+     */
+    @PreDestroy
+    public void stop() {
+        if (lanes == null) {
+            return;
+        }
+        for (Lane lane : lanes) {
+            lane.running = false;
+        }
+        for (Lane lane : lanes) {
+            try {
+                lane.thread.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        logger.info(LOG_MESSAGE + "Order engine stopped");
+    }
+
+    /**
+     * @return the number of lanes whose flushes failed {@code order.engine.max-flush-retries} times in a row
+     */
+    int stuckLanes() {
+        Lane[] current = lanes;
+        if (current == null) {
+            return 0;
+        }
+        int stuck = 0;
+        for (Lane lane : current) {
+            if (lane.stuck) {
+                stuck++;
+            }
+        }
+        return stuck;
+    }
+
+    /**
+     * @return {@code true} when orders should be routed through the engine
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Hands an already validated order to the lane owning its fund.
+     *
+     * @param uuid      Unique identifier for tracking the request
+     * @param orderType BUY or REDEEM
+     * @param user      The user placing the order
+     * @param fundNav   Today's NAV of the fund
+     * @param orderView Order details (fund ID and units)
+     * @return future completed by the lane once the order is applied, or with {@code 503} while the lane is stuck
+     */
+    public CompletableFuture<ResponseEntity<OrderResponse>> submit(String uuid, OrderType orderType, User user,
+                                                                   FundNav fundNav, OrderView orderView) {
+        OrderCommand command = new OrderCommand(uuid, orderType, user, fundNav.getNav(), orderView);
+        Lane lane = lanes[Math.floorMod(orderView.getFundId().hashCode(), lanes.length)];
+        if (lane.stuck) {
+            command.result.complete(laneUnavailable());
+        } else if (!lane.running || !lane.queue.offer(command)) {
+            command.result.completeExceptionally(
+                    new IllegalStateException("Order lane " + lane.index + " is not accepting orders"));
+        }
+        return command.result;
+    }
+
+    /**
+     * Answer to the orders of a stuck lane.
+     */
+    private static ResponseEntity<OrderResponse> laneUnavailable() {
+        OrderResponse orderResponse = new OrderResponse();
+        orderResponse.setCode(SERVICE_BUSY_CODE);
+        orderResponse.setMessage(ORDER_LANE_UNAVAILABLE);
+        return new ResponseEntity<>(orderResponse, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * An order waiting for its lane.
+     */
+    private record OrderCommand(String uuid, OrderType orderType, User user, BigDecimal nav, OrderView orderView,
+                                CompletableFuture<ResponseEntity<OrderResponse>> result) {
+        OrderCommand(String uuid, OrderType orderType, User user, BigDecimal nav, OrderView orderView) {
+            this(uuid, orderType, user, nav, orderView, new CompletableFuture<>());
+        }
+    }
+
+    /**
+     * Lane-owned state of one fund: its script and the holdings of the users that traded it.
+     * A {@code null} holding means the user is known to hold no units yet.
+     */
+    private static final class FundBook {
+        private final FundScript fund;
+        private final Map<Long, UserHolding> holdings = new HashMap<>();
+        /**
+         * Changes of the dirty holdings since the last flush, by user ID.
+         */
+        private final Map<Long, Delta> dirtyHoldings = new HashMap<>();
+        /**
+         * Change of the fund's units since the last flush.
+         */
+        private BigDecimal unitsDelta = BigDecimal.ZERO;
+
+        private FundBook(FundScript fund) {
+            this.fund = fund;
+        }
+    }
+
+    /**
+     * Change of a holding since the last flush, applied again to the stored row when the book is reloaded.
+     */
+    private static final class Delta {
+        private BigDecimal units = BigDecimal.ZERO;
+        private BigDecimal totalValue = BigDecimal.ZERO;
+    }
+
+    /**
+     * Single-writer lane. Only {@link #thread} touches {@link #books} and the pending flush state.
+     */
+    private final class Lane implements Runnable {
+        private final int index;
+        private final Thread thread;
+        private final BlockingQueue<OrderCommand> queue = new ArrayBlockingQueue<>(queueCapacity);
+        /**
+         * Books in access order, the least recently used first.
+         */
+        private final Map<String, FundBook> books = new LinkedHashMap<>(16, 0.75f, true);
+        private final Set<FundBook> dirtyBooks = new LinkedHashSet<>();
+        private final List<Transaction> pendingTransactions = new ArrayList<>();
+        private volatile boolean running = true;
+        private volatile boolean stuck;
+        private int failedFlushes;
+
+        private Lane(int index) {
+            this.index = index;
+            this.thread = new Thread(this, "order-lane-" + index);
+        }
+
+        @Override
+        public void run() {
+            List<OrderCommand> batch = new ArrayList<>(batchSize);
+            while (running || !queue.isEmpty()) {
+                try {
+                    OrderCommand first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                    if (first != null) {
+                        batch.add(first);
+                        queue.drainTo(batch, batchSize - 1);
+                        for (OrderCommand command : batch) {
+                            apply(command);
+                        }
+                        batch.clear();
+                    }
+                    flush();
+                } catch (InterruptedException e) {
+                    running = false;
+                }
+            }
+            flush();
+        }
+
+        private void apply(OrderCommand command) {
+            if (stuck) {
+                command.result().complete(laneUnavailable());
+                return;
+            }
+            try {
+                FundBook book = books.computeIfAbsent(command.orderView().getFundId(), fundId ->
+                        new FundBook(fundRepository.findById(fundId)
+                                .orElseThrow(() -> new IllegalStateException(RECORD_NOT_FOUND))));
+                ResponseEntity<OrderResponse> response = command.orderType() == OrderType.REDEEM
+                        ? redeem(book, command) : buy(book, command);
+                command.result().complete(response);
+            } catch (RuntimeException e) {
+                // Lane threads serve many requests, so the request's ID is only set while logging for it
+                CorrelationId.set(command.uuid());
+                try {
+                    logger.error(LOG_MESSAGE + "Order lane " + index + " failed to apply order", e);
+                } finally {
+                    CorrelationId.clear();
+                }
+                command.result().completeExceptionally(e);
+            }
+        }
+
+        private UserHolding holding(FundBook book, User user) {
+            if (!book.holdings.containsKey(user.getId())) {
+                book.holdings.put(user.getId(), userHoldingRepository.findByUserAndFund(user, book.fund).orElse(null));
+            }
+            return book.holdings.get(user.getId());
+        }
+
+        private ResponseEntity<OrderResponse> redeem(FundBook book, OrderCommand command) {
+            OrderResponse orderResponse = new OrderResponse();
+            BigDecimal units = command.orderView().getUnits();
+            UserHolding userHolding = holding(book, command.user());
+            if (userHolding == null || userHolding.getUnits().compareTo(units) <= 0) {
+                orderResponse.setCode(INSUFFICIENT_UNITS_USER_CODE);
+                orderResponse.setMessage(INSUFFICIENT_UNITS_USER);
+                return new ResponseEntity<>(orderResponse, HttpStatus.BAD_REQUEST);
+            }
+            BigDecimal unitValue = command.nav().multiply(units);
+            userHolding.setUnits(userHolding.getUnits().subtract(units));
+            userHolding.setTotalValue(userHolding.getTotalValue().subtract(unitValue));
+            book.fund.setTotalUnits(book.fund.getTotalUnits().add(units));
+            record(book, command, unitValue, units.negate(), unitValue.negate());
+
+            orderResponse.setCode(ORDER_COMPLETED_CODE);
+            orderResponse.setMessage(ORDER_COMPLETED);
+            return new ResponseEntity<>(orderResponse, HttpStatus.CREATED);
+        }
+
+        private ResponseEntity<OrderResponse> buy(FundBook book, OrderCommand command) {
+            OrderResponse orderResponse = new OrderResponse();
+            BigDecimal units = command.orderView().getUnits();
+            if (book.fund.getTotalUnits().compareTo(units) <= 0) {
+                orderResponse.setCode(INSUFFICIENT_UNITS_FUNDS_CODE);
+                orderResponse.setMessage(INSUFFICIENT_UNITS_FUNDS);
+                return new ResponseEntity<>(orderResponse, HttpStatus.BAD_REQUEST);
+            }
+            BigDecimal totalValue = command.nav().multiply(units);
+            UserHolding userHolding = holding(book, command.user());
+            if (userHolding == null) {
+                // 1st time buy order creates record in UserHolding.
+                userHolding = new UserHolding();
+                userHolding.setUser(command.user());
+                userHolding.setFund(book.fund);
+                userHolding.setUnits(units);
+                userHolding.setTotalValue(totalValue);
+                book.holdings.put(command.user().getId(), userHolding);
+            } else {
+                userHolding.setUnits(userHolding.getUnits().add(units));
+                userHolding.setTotalValue(userHolding.getTotalValue().add(totalValue));
+            }
+            book.fund.setTotalUnits(book.fund.getTotalUnits().subtract(units));
+            record(book, command, totalValue, units, totalValue);
+
+            orderResponse.setTotalValue(totalValue);
+            orderResponse.setCode(ORDER_COMPLETED_CODE);
+            orderResponse.setMessage(ORDER_COMPLETED);
+            return new ResponseEntity<>(orderResponse, HttpStatus.CREATED);
+        }
+
+        /**
+         * Marks the fund and holding dirty, keeps their changes and queues the transaction history row.
+         *
+         * @param units      units added to the holding, taken from the fund
+         * @param totalValue value added to the holding
+         */
+        private void record(FundBook book, OrderCommand command, BigDecimal amount, BigDecimal units,
+                            BigDecimal totalValue) {
+            Delta delta = book.dirtyHoldings.computeIfAbsent(command.user().getId(), userId -> new Delta());
+            delta.units = delta.units.add(units);
+            delta.totalValue = delta.totalValue.add(totalValue);
+            book.unitsDelta = book.unitsDelta.subtract(units);
+            dirtyBooks.add(book);
+
+            Transaction transaction = new Transaction();
+            transaction.setUser(command.user());
+            transaction.setFund(book.fund);
+            transaction.setType(command.orderType().name());
+            transaction.setNav(command.orderView().getNav());
+            transaction.setUnits(command.orderView().getUnits());
+            transaction.setAmount(amount);
+            pendingTransactions.add(transaction);
+        }
+
+        /**
+         * Writes every dirty fund, holding and pending transaction in one database transaction.
+         */
+        private void flush() {
+            if (dirtyBooks.isEmpty() && pendingTransactions.isEmpty()) {
+                return;
+            }
+            List<UserHolding> insertedHoldings = new ArrayList<>();
+            List<Runnable> versionUpdates = new ArrayList<>();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (FundBook book : dirtyBooks) {
+                        FundScript savedFund = fundRepository.save(book.fund);
+                        versionUpdates.add(() -> book.fund.setVersion(savedFund.getVersion()));
+                        for (Long userId : book.dirtyHoldings.keySet()) {
+                            UserHolding userHolding = book.holdings.get(userId);
+                            if (userHolding.getId() == null) {
+                                insertedHoldings.add(userHolding);
+                            }
+                            UserHolding savedHolding = userHoldingRepository.save(userHolding);
+                            versionUpdates.add(() -> userHolding.setVersion(savedHolding.getVersion()));
+                        }
+                    }
+                    transactionRepository.saveAll(pendingTransactions);
+                    portfolioIndex.recordAll(pendingTransactions);
+                });
+                // Merged copies got the incremented versions at commit; the lane's instances need them for the
+                // next flush
+                versionUpdates.forEach(Runnable::run);
+                for (FundBook book : dirtyBooks) {
+                    book.dirtyHoldings.clear();
+                    book.unitsDelta = BigDecimal.ZERO;
+                }
+                dirtyBooks.clear();
+                pendingTransactions.clear();
+                if (stuck) {
+                    logger.info(LOG_MESSAGE + "Order lane " + index + " flushed after " + failedFlushes
+                            + " failures, accepting orders again");
+                }
+                failedFlushes = 0;
+                stuck = false;
+                evict();
+            } catch (RuntimeException e) {
+                // Rolled back: forget identifiers and versions assigned by the failed inserts so the retry inserts
+                // again.
+                insertedHoldings.forEach(userHolding -> {
+                    userHolding.setId(null);
+                    userHolding.setVersion(null);
+                });
+                pendingTransactions.forEach(transaction -> transaction.setId(null));
+                flushFailures.increment();
+                failedFlushes++;
+                if (stuck) {
+                    // Already reported with its cause; a stuck lane retries every cycle
+                    logger.error(LOG_MESSAGE + "Order lane " + index + " flush failed " + failedFlushes
+                            + " times: " + e.getMessage());
+                } else {
+                    logger.error(LOG_MESSAGE + "Order lane " + index + " flush failed " + failedFlushes
+                            + " times, retrying on next cycle", e);
+                }
+                if (e instanceof OptimisticLockingFailureException || e instanceof DataIntegrityViolationException) {
+                    reload();
+                }
+                if (!stuck && failedFlushes >= maxFlushRetries) {
+                    stuck = true;
+                    logger.error(LOG_MESSAGE + "Order lane " + index + " is stuck, rejecting its orders until a "
+                            + "flush succeeds");
+                }
+            }
+        }
+
+        /**
+         * Replaces the cached rows, changed outside the engine, by the stored ones: the dirty books get their
+         * deltas applied again on top, the clean books are dropped and loaded again on their next order.
+         */
+        private void reload() {
+            try {
+                books.values().removeIf(book -> !dirtyBooks.contains(book));
+                for (FundBook book : dirtyBooks) {
+                    FundScript stored = fundRepository.findById(book.fund.getFundId())
+                            .orElseThrow(() -> new IllegalStateException(RECORD_NOT_FOUND));
+                    book.fund.setTotalUnits(stored.getTotalUnits().add(book.unitsDelta));
+                    book.fund.setVersion(stored.getVersion());
+                    book.holdings.keySet().retainAll(book.dirtyHoldings.keySet());
+                    for (Map.Entry<Long, Delta> entry : book.dirtyHoldings.entrySet()) {
+                        UserHolding userHolding = book.holdings.get(entry.getKey());
+                        Optional<UserHolding> storedHolding =
+                                userHoldingRepository.findByUserAndFund(userHolding.getUser(), book.fund);
+                        userHolding.setId(storedHolding.map(UserHolding::getId).orElse(null));
+                        userHolding.setVersion(storedHolding.map(UserHolding::getVersion).orElse(null));
+                        userHolding.setUnits(storedHolding.map(UserHolding::getUnits).orElse(BigDecimal.ZERO)
+                                .add(entry.getValue().units));
+                        userHolding.setTotalValue(storedHolding.map(UserHolding::getTotalValue)
+                                .orElse(BigDecimal.ZERO).add(entry.getValue().totalValue));
+                    }
+                }
+                logger.info(LOG_MESSAGE + "Order lane " + index + " reloaded " + dirtyBooks.size()
+                        + " funds changed outside the engine");
+            } catch (RuntimeException e) {
+                logger.error(LOG_MESSAGE + "Order lane " + index + " failed to reload its funds", e);
+            }
+        }
+
+        /**
+         * Bounds the cache once everything is flushed: drops the least recently used books beyond
+         * {@code order.engine.max-books} and the holdings of books beyond {@code order.engine.max-holdings-per-book}.
+         */
+        private void evict() {
+            Iterator<FundBook> eldest = books.values().iterator();
+            for (int excess = books.size() - maxBooks; excess > 0; excess--) {
+                eldest.next();
+                eldest.remove();
+            }
+            for (FundBook book : books.values()) {
+                if (book.holdings.size() > maxHoldingsPerBook) {
+                    book.holdings.clear();
+                }
+            }
+        }
+    }
+}
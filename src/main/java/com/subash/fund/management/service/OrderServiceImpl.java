@@ -6,9 +6,14 @@ import com.subash.fund.management.util.Constants;
 import com.subash.fund.management.util.GenericLogger;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -28,34 +33,61 @@ import static com.subash.fund.management.util.Constants.*;
  *     <li>REDEEM – Redeems fund units and credits the user.</li>
  * </ul>
  * <p>
- * All actions are logged and validated against the current NAV for the fund.
+ * All actions are logged and validated against the current NAV for the fund, read from {@link NavCache}. The
+ * user, fund and existing holding are read in a single query ({@link FundRepository#findOrderContext}). Units are
+ * then moved with guarded,
+ * relative {@code UPDATE}s whose affected-row count decides whether the fund or holding had enough units, so
+ * concurrent orders are correct without row locks held across statements or optimistic retries. With
+ * {@code order.concurrency.mode=optimistic} the loaded rows are updated instead, relying on their {@code @Version}
+ * and retrying conflicts with {@link OptimisticRetry}.
+ * When {@link OrderEngine} is enabled, validated orders are applied by the engine lane owning the fund
+ * instead of being written here. With {@link TransactionJournal} enabled, the transaction history row is
+ * journaled just before commit and inserted in the background.
  *
  * @author Subash
  */
 @Service
 public class OrderServiceImpl implements OrderService {
     private static final Logger logger = LogManager.getLogger(OrderServiceImpl.class);
+    private static final String OPTIMISTIC_MODE = "optimistic";
 
     private final FundRepository fundRepository;
-    private final FundNavRepository fundNavRepository;
     private final UserHoldingRepository userHoldingRepository;
-    private final UserRepository userRepository;
 
     private final TransactionRepository transactionRepository;
     private final GenericLogger genericLogger;
+    private final OrderEngine orderEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final OptimisticRetry optimisticRetry;
+    private final TransactionJournal transactionJournal;
+    private final PortfolioIndex portfolioIndex;
+    private final NavCache navCache;
+
+    /**
+     * {@code order.concurrency.mode}: {@value #OPTIMISTIC_MODE} for version checks with retries, anything else
+     * (default {@code atomic}) for guarded relative updates.
+     */
+    @Value("${order.concurrency.mode:atomic}")
+    private String concurrencyMode;
 
     /**
      * Constructor-based dependency injection for order processing.
      */
-    public OrderServiceImpl(FundRepository fundRepository,
-                            FundNavRepository fundNavRepository, UserHoldingRepository userHoldingRepository,
-                            UserRepository userRepository, TransactionRepository transactionRepository, GenericLogger genericLogger) {
+    public OrderServiceImpl(FundRepository fundRepository, UserHoldingRepository userHoldingRepository,
+                            TransactionRepository transactionRepository, GenericLogger genericLogger,
+                            OrderEngine orderEngine, PlatformTransactionManager transactionManager,
+                            OptimisticRetry optimisticRetry, TransactionJournal transactionJournal,
+                            PortfolioIndex portfolioIndex, NavCache navCache) {
         this.fundRepository = fundRepository;
-        this.fundNavRepository = fundNavRepository;
-        this.userRepository = userRepository;
         this.userHoldingRepository = userHoldingRepository;
         this.transactionRepository = transactionRepository;
         this.genericLogger = genericLogger;
+        this.orderEngine = orderEngine;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.optimisticRetry = optimisticRetry;
+        this.transactionJournal = transactionJournal;
+        this.portfolioIndex = portfolioIndex;
+        this.navCache = navCache;
     }
 
     /**
@@ -69,44 +101,50 @@ public class OrderServiceImpl implements OrderService {
      */
     @Override
     public ResponseEntity<OrderResponse> createOrder(String uuid, String orderType, OrderView orderView) throws Exception {
-        logger.info(uuid + COMMA + LOG_MESSAGE + "Processing create order request");
+        logger.info(LOG_MESSAGE + "Processing create order request");
         OrderResponse orderResponse = new OrderResponse();
         try {
-            Optional<User> userOptional = userRepository.findByUsername(orderView.getUsername());
-            Optional<FundScript> fundOptional = fundRepository.findById(orderView.getFundId());
+            // User, fund and the existing holding in one round trip
+            Optional<OrderContext> contextOptional = fundRepository.findOrderContext(orderView.getFundId(),
+                    orderView.getUsername());
             // Validate Username
-            if (userOptional.isEmpty()) {
+            if (contextOptional.isPresent() && contextOptional.get().user() == null) {
                 orderResponse.setCode(USER_RECORD_NOT_FOUND_CODE);
                 orderResponse.setMessage(USER_RECORD_NOT_FOUND);
                 return new ResponseEntity<>(orderResponse, HttpStatus.BAD_REQUEST);
             }
             // Validate FundId
-            if (fundOptional.isEmpty()) {
+            if (contextOptional.isEmpty()) {
                 orderResponse.setCode(RECORD_NOT_FOUND_CODE);
                 orderResponse.setMessage(RECORD_NOT_FOUND);
                 return new ResponseEntity<>(orderResponse, HttpStatus.BAD_REQUEST);
             }
-            // Validate Nav amount
-            Optional<FundNav> fundNavOptional = fundNavRepository.findByFundIdAndNavDate(fundOptional.get(), LocalDate.now());
-            if (fundNavOptional.isPresent()) {
-                FundNav fundNav = fundNavOptional.get();
-                if (!fundNav.getNav().equals(orderView.getNav())) {
-                    orderResponse.setCode(FUND_NAV_VALUE_CODE);
-                    orderResponse.setMessage(FUND_NAV_VALUE);
-                    return new ResponseEntity<>(orderResponse, HttpStatus.BAD_REQUEST);
-                }
+            // Validate Nav amount against today's NAV, served from memory
+            FundNav fundNav = navCache.find(contextOptional.get().fund(), LocalDate.now()).orElse(null);
+            OrderContext context = contextOptional.get().withFundNav(fundNav);
+            // Compared by value, as the batch path does: 23.4 and 23.40 are the same NAV
+            if (fundNav == null || orderView.getNav() == null
+                    || fundNav.getNav().compareTo(orderView.getNav()) != 0) {
+                orderResponse.setCode(FUND_NAV_VALUE_CODE);
+                orderResponse.setMessage(FUND_NAV_VALUE);
+                return new ResponseEntity<>(orderResponse, HttpStatus.BAD_REQUEST);
+            }
+            if (orderEngine.isEnabled()) {
+                // Fund units and holdings are owned by the engine lane of this fund
+                logger.info(LOG_MESSAGE + "Routing " + orderType + " Order to order engine");
+                OrderType type = orderType.equalsIgnoreCase(OrderType.REDEEM.name()) ? OrderType.REDEEM : OrderType.BUY;
+                return orderEngine.submit(uuid, type, context.user(), fundNav, orderView).get();
             }
-            Optional<UserHolding> userHoldingOptional = userHoldingRepository.findByUserAndFund(userOptional.get(), fundOptional.get());
-
-            FundScript fundScript = fundOptional.get();
-            FundNav fundNav = fundNavOptional.get();
-            logger.info(uuid + COMMA + LOG_MESSAGE + "Initiated " + orderType + " Order");
-            if (orderType.equalsIgnoreCase(OrderType.REDEEM.name())) {
-                // Process REDEEM Order
-                return redeemOrder(uuid, userHoldingOptional, fundScript, fundNav, orderView);
+            logger.info(LOG_MESSAGE + "Initiated " + orderType + " Order");
+            if (OPTIMISTIC_MODE.equalsIgnoreCase(concurrencyMode)) {
+                return optimisticOrder(uuid, orderType, context, orderView);
             }
-            // Process buyOrder
-            return buyOrder(uuid, userHoldingOptional, fundScript, fundNav, userOptional.get(), orderView);
+            // Units, holding and history change together or not at all
+            return transactionTemplate.execute(status -> orderType.equalsIgnoreCase(OrderType.REDEEM.name())
+                    // Process REDEEM Order
+                    ? redeemOrder(uuid, context, orderView)
+                    // Process buyOrder
+                    : buyOrder(uuid, context, orderView));
         } catch (Exception e) {
             // Logger error response
             genericLogger.logResponse(logger, uuid, "ERROR", Constants.API_PROCESSED_FAILURE);
@@ -115,93 +153,175 @@ public class OrderServiceImpl implements OrderService {
     }
 
     /**
-     * Processes a redeem order by deducting units from user's holdings and updating the fund.
+     * Processes a redeem order by deducting units from user's holdings and returning them to the fund.
+     * <p>
+     * The holding is only reduced if it still has more units than requested when the statement runs, so a
+     * concurrent redeem cannot take the same units twice.
+     * </p>
      */
-    private ResponseEntity<OrderResponse> redeemOrder(String uuid, Optional<UserHolding> userHoldingOptional, FundScript fundScript, FundNav fundNav, OrderView orderView) {
+    private ResponseEntity<OrderResponse> redeemOrder(String uuid, OrderContext context, OrderView orderView) {
         OrderResponse orderResponse = new OrderResponse();
-        if (userHoldingOptional.isEmpty() || userHoldingOptional.get().getUnits().compareTo(orderView.getUnits()) <= 0) {
+        UserHolding userHolding = context.userHolding();
+        BigDecimal unitValue = context.fundNav().getNav().multiply(orderView.getUnits());
+        // Reduce units and totalValue in userHolding table
+        if (userHolding == null
+                || userHoldingRepository.subtractUnits(userHolding.getId(), orderView.getUnits(), unitValue) == 0) {
             // Bad request - If insufficient units on redeem request
             orderResponse.setCode(INSUFFICIENT_UNITS_USER_CODE);
             orderResponse.setMessage(INSUFFICIENT_UNITS_USER);
             return new ResponseEntity<>(orderResponse, HttpStatus.BAD_REQUEST);
         }
-        logger.info(uuid + COMMA + LOG_MESSAGE + "Record Available in UserHolding");
-        UserHolding userHolding = userHoldingOptional.get();
-        // Reduce units count in userHolding table
-        userHolding.setUnits(userHolding.getUnits().subtract(orderView.getUnits()));
-        // Reduce totalValue in userHolding table
-        BigDecimal unitValue = fundNav.getNav().multiply(orderView.getUnits());
-        userHolding.setTotalValue(userHolding.getTotalValue().subtract(unitValue));
+        logger.info(LOG_MESSAGE + "Record Updated UserHolding");
+        // Add totalUnit count to fundScript table
+        fundRepository.addUnits(context.fund().getFundId(), orderView.getUnits());
+        logger.info(LOG_MESSAGE + "Record Updated FundScripts");
+        orderResponse.setCode(ORDER_COMPLETED_CODE);
+        orderResponse.setMessage(ORDER_COMPLETED);
+
+        // Create an entry in Transaction table
+        saveTransactionHistory(context.fund(), context.user(), orderView, unitValue, "REDEEM");
+        logger.info(LOG_MESSAGE + "Record Saved Transaction");
+        return new ResponseEntity<>(orderResponse, HttpStatus.CREATED);
+    }
+
+    /**
+     * Processes a buy order by taking units from the fund and adding them to user's holdings.
+     * <p>
+     * The fund is only reduced if it still has more units than requested when the statement runs, and the
+     * holding is created or increased by a single upsert, so concurrent buys cannot oversell the fund or lose
+     * each other's units.
+     * </p>
+     */
+    private ResponseEntity<OrderResponse> buyOrder(String uuid, OrderContext context, OrderView orderView) {
+        OrderResponse orderResponse = new OrderResponse();
+        String fundId = context.fund().getFundId();
+        // Reduce totalUnit count from fundScript table
+        if (fundRepository.subtractUnits(fundId, orderView.getUnits()) == 0) {
+            // Bad request - If insufficient units on buy request
+            orderResponse.setCode(INSUFFICIENT_UNITS_FUNDS_CODE);
+            orderResponse.setMessage(INSUFFICIENT_UNITS_FUNDS);
+            return new ResponseEntity<>(orderResponse, HttpStatus.BAD_REQUEST);
+        }
+        logger.info(LOG_MESSAGE + "Record Updated FundScripts");
+        // Add units and totalValue in userHolding table; 1st time buy order creates the record
+        BigDecimal totalValue = context.fundNav().getNav().multiply(orderView.getUnits());
+        userHoldingRepository.addUnits(context.user().getId(), fundId, orderView.getUnits(), totalValue);
+        logger.info(LOG_MESSAGE + "Record Saved UserHolding");
+        orderResponse.setTotalValue(totalValue);
+        orderResponse.setCode(ORDER_COMPLETED_CODE);
+        orderResponse.setMessage(ORDER_COMPLETED);
 
+        // Create an entry in Transaction table
+        saveTransactionHistory(context.fund(), context.user(), orderView, totalValue, "BUY");
+        logger.info(LOG_MESSAGE + "Record Saved Transaction");
+        return new ResponseEntity<>(orderResponse, HttpStatus.CREATED);
+    }
+
+    /**
+     * Processes an order in optimistic mode: the loaded fund and holding are changed and saved, and their
+     * {@code @Version} checks detect orders that updated them in the meantime. Such an attempt is rolled back and
+     * retried on freshly loaded rows by {@link OptimisticRetry}; once it gives up the order is answered with
+     * {@code 409 CONFLICT}.
+     */
+    private ResponseEntity<OrderResponse> optimisticOrder(String uuid, String orderType, OrderContext context,
+                                                         OrderView orderView) {
+        boolean redeem = orderType.equalsIgnoreCase(OrderType.REDEEM.name());
+        try {
+            return optimisticRetry.execute(context.fund().getFundId(), attempt -> transactionTemplate.execute(status -> {
+                OrderContext current = context;
+                if (attempt > 1) {
+                    // Reload the rows the conflicting order changed; the order keeps the NAV it was validated with
+                    current = fundRepository.findOrderContext(orderView.getFundId(), orderView.getUsername())
+                            .orElseThrow().withFundNav(context.fundNav());
+                }
+                return redeem ? redeemVersioned(uuid, current, orderView) : buyVersioned(uuid, current, orderView);
+            }));
+        } catch (OptimisticLockingFailureException e) {
+            OrderResponse orderResponse = new OrderResponse();
+            orderResponse.setCode(ORDER_CONFLICT_CODE);
+            orderResponse.setMessage(ORDER_CONFLICT);
+            return new ResponseEntity<>(orderResponse, HttpStatus.CONFLICT);
+        }
+    }
 
-        // Add totalUnit count from fundScript table
+    /**
+     * Optimistic mode redeem: deducts units from the loaded holding and returns them to the loaded fund.
+     */
+    private ResponseEntity<OrderResponse> redeemVersioned(String uuid, OrderContext context, OrderView orderView) {
+        OrderResponse orderResponse = new OrderResponse();
+        UserHolding userHolding = context.userHolding();
+        if (userHolding == null || userHolding.getUnits().compareTo(orderView.getUnits()) <= 0) {
+            // Bad request - If insufficient units on redeem request
+            orderResponse.setCode(INSUFFICIENT_UNITS_USER_CODE);
+            orderResponse.setMessage(INSUFFICIENT_UNITS_USER);
+            return new ResponseEntity<>(orderResponse, HttpStatus.BAD_REQUEST);
+        }
+        BigDecimal unitValue = context.fundNav().getNav().multiply(orderView.getUnits());
+        userHolding.setUnits(userHolding.getUnits().subtract(orderView.getUnits()));
+        userHolding.setTotalValue(userHolding.getTotalValue().subtract(unitValue));
+        FundScript fundScript = context.fund();
         fundScript.setTotalUnits(fundScript.getTotalUnits().add(orderView.getUnits()));
         userHoldingRepository.save(userHolding);
-        logger.info(uuid + COMMA + LOG_MESSAGE + "Record Saved UserHolding");
         fundRepository.save(fundScript);
-        logger.info(uuid + COMMA + LOG_MESSAGE + "Record Saved FundScripts");
+        logger.info(LOG_MESSAGE + "Record Saved UserHolding and FundScripts");
         orderResponse.setCode(ORDER_COMPLETED_CODE);
         orderResponse.setMessage(ORDER_COMPLETED);
 
         // Create an entry in Transaction table
-        saveTransactionHistory(fundScript, userHolding.getUser(), orderView, unitValue, "REDEEM");
-        logger.info(uuid + COMMA + LOG_MESSAGE + "Record Saved Transaction");
+        saveTransactionHistory(fundScript, context.user(), orderView, unitValue, "REDEEM");
+        logger.info(LOG_MESSAGE + "Record Saved Transaction");
         return new ResponseEntity<>(orderResponse, HttpStatus.CREATED);
     }
 
     /**
-     * Processes a buy order by adding units to user's holdings and updating the fund.
+     * Optimistic mode buy: takes units from the loaded fund and adds them to the loaded or a new holding.
      */
-    private ResponseEntity<OrderResponse> buyOrder(String uuid, Optional<UserHolding> userHoldingOptional, FundScript fundScript, FundNav fundNav, User user, OrderView orderView) {
+    private ResponseEntity<OrderResponse> buyVersioned(String uuid, OrderContext context, OrderView orderView) {
         OrderResponse orderResponse = new OrderResponse();
-        UserHolding userHolding;
-        BigDecimal totalValue;
-        if (userHoldingOptional.isPresent()) {
-            logger.info(uuid + COMMA + LOG_MESSAGE + "Record Available in UserHolding");
-            userHolding = userHoldingOptional.get();
+        FundScript fundScript = context.fund();
+        if (fundScript.getTotalUnits().compareTo(orderView.getUnits()) <= 0) {
             // Bad request - If insufficient units on buy request
-            if (fundScript.getTotalUnits().compareTo(orderView.getUnits()) <= 0) {
-                orderResponse.setCode(INSUFFICIENT_UNITS_FUNDS_CODE);
-                orderResponse.setMessage(INSUFFICIENT_UNITS_FUNDS);
-                return new ResponseEntity<>(orderResponse, HttpStatus.BAD_REQUEST);
-            }
-            // Add units count in userHolding table
-            userHolding.setUnits(userHolding.getUnits().add(orderView.getUnits()));
-            // Add totalValue in userHolding table
-            totalValue = fundNav.getNav().multiply(orderView.getUnits());
-            userHolding.setTotalValue(userHolding.getTotalValue().add(totalValue));
-            // Reduce totalUnit count from fundScript table
-            fundScript.setTotalUnits(fundScript.getTotalUnits().subtract(orderView.getUnits()));
-
-        } else {
-            logger.info(uuid + COMMA + LOG_MESSAGE + "Creating New Record in UserHolding");
+            orderResponse.setCode(INSUFFICIENT_UNITS_FUNDS_CODE);
+            orderResponse.setMessage(INSUFFICIENT_UNITS_FUNDS);
+            return new ResponseEntity<>(orderResponse, HttpStatus.BAD_REQUEST);
+        }
+        BigDecimal totalValue = context.fundNav().getNav().multiply(orderView.getUnits());
+        UserHolding userHolding = context.userHolding();
+        if (userHolding == null) {
             // 1st time buy order creates record in UserHolding.
             userHolding = new UserHolding();
-            userHolding.setUser(user);
+            userHolding.setUser(context.user());
             userHolding.setFund(fundScript);
             userHolding.setUnits(orderView.getUnits());
-            totalValue = fundNav.getNav().multiply(orderView.getUnits());
             userHolding.setTotalValue(totalValue);
-            // Reduce totalUnit count from fundScript table
-            fundScript.setTotalUnits(fundScript.getTotalUnits().subtract(orderView.getUnits()));
-
+            try {
+                // Flushed here, as the insert is otherwise deferred to the commit and its conflict not caught
+                userHoldingRepository.saveAndFlush(userHolding);
+            } catch (DataIntegrityViolationException e) {
+                // A concurrent first buy created the holding; retry against it
+                throw new OptimisticLockingFailureException("Holding created by a concurrent order", e);
+            }
+        } else {
+            userHolding.setUnits(userHolding.getUnits().add(orderView.getUnits()));
+            userHolding.setTotalValue(userHolding.getTotalValue().add(totalValue));
+            userHoldingRepository.save(userHolding);
         }
-        userHoldingRepository.save(userHolding);
-        logger.info(uuid + COMMA + LOG_MESSAGE + "Record Saved UserHolding");
+        fundScript.setTotalUnits(fundScript.getTotalUnits().subtract(orderView.getUnits()));
         fundRepository.save(fundScript);
-        logger.info(uuid + COMMA + LOG_MESSAGE + "Record Saved FundScripts");
+        logger.info(LOG_MESSAGE + "Record Saved UserHolding and FundScripts");
         orderResponse.setTotalValue(totalValue);
         orderResponse.setCode(ORDER_COMPLETED_CODE);
         orderResponse.setMessage(ORDER_COMPLETED);
 
         // Create an entry in Transaction table
-        saveTransactionHistory(fundScript, user, orderView, totalValue, "BUY");
-        logger.info(uuid + COMMA + LOG_MESSAGE + "Record Saved Transaction");
+        saveTransactionHistory(fundScript, context.user(), orderView, totalValue, "BUY");
+        logger.info(LOG_MESSAGE + "Record Saved Transaction");
         return new ResponseEntity<>(orderResponse, HttpStatus.CREATED);
     }
 
     /**
-     * Records the transaction into the transaction table.
+     * Records the transaction into the transaction table, through the journal when it is enabled, and the
+     * holding change into the {@link PortfolioIndex}.
      */
     private void saveTransactionHistory(FundScript fundScript, User user, OrderView orderView, BigDecimal amount, String orderType) {
         Transaction transaction = new Transaction();
@@ -211,7 +331,12 @@ public class OrderServiceImpl implements OrderService {
         transaction.setNav(orderView.getNav());
         transaction.setUnits(orderView.getUnits());
         transaction.setAmount(amount);
-        transactionRepository.save(transaction);
+        if (transactionJournal.isEnabled()) {
+            transactionJournal.append(transaction);
+        } else {
+            transactionRepository.save(transaction);
+        }
+        portfolioIndex.record(transaction);
     }
 
 }
@@ -0,0 +1,154 @@
+package com.subash.fund.management.service;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static com.subash.fund.management.util.Constants.LOG_MESSAGE;
+
+/**
+ * Cross-node notifications over PostgreSQL {@code LISTEN}/{@code NOTIFY}, used by the in-memory caches to tell
+ * the other nodes which entries a write made stale.
+ * <p>
+ * One dedicated connection, opened on the first subscription, listens on every subscribed channel. Payloads are
+ * prefixed with the ID of the publishing node so that a node ignores its own notifications. On a connection
+ * failure the listener reconnects and runs the {@code onReconnect} callback of every subscription, as
+ * notifications may have been missed meanwhile.
+ * </p>
+ *
+ * @see NavCache
+ * @see PortfolioIndex
+ */
+@Component
+public class PgNotifications {
+
+    private static final Logger logger = LogManager.getLogger(PgNotifications.class);
+
+    private static final long RECONNECT_DELAY_MS = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+
+    /**
+     * Identifies this node so that it ignores its own notifications.
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+
+    private volatile boolean running = true;
+    private Thread listener;
+
+    /**
+     * Constructor to inject required dependencies.
+     *
+     * @param jdbcTemplate Template used to publish notifications
+     * @param dataSource   Data source providing the dedicated {@code LISTEN} connection
+     */
+    public PgNotifications(JdbcTemplate jdbcTemplate, DataSource dataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Subscribes to a channel, starting the listener on the first subscription.
+     *
+     * @param channel     the channel, a lower case identifier
+     * @param handler     receives the payload of each notification published by another node
+     * @param onReconnect runs after the listener reconnected
+     */
+    public synchronized void subscribe(String channel, Consumer<String> handler, Runnable onReconnect) {
+        subscriptions.put(channel, new Subscription(handler, onReconnect));
+        if (listener == null) {
+            listener = new Thread(this::listen, "pg-notifications-listener");
+            listener.setDaemon(true);
+            listener.start();
+        }
+    }
+
+    /**
+     * Publishes a notification to the other nodes; it is delivered when the current transaction commits.
+     *
+     * @param channel the channel
+     * @param payload the payload
+     */
+    public void publish(String channel, String payload) {
+        jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", String.class, channel, nodeId + "|" + payload);
+    }
+
+    /**
+     * Stops the listener.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    /**
+     * Listens on a dedicated connection, reconnecting on failure. Channels subscribed after the connection was
+     * opened are listened on within a second.
+     */
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                Set<String> listening = new HashSet<>();
+                while (running) {
+                    for (String channel : subscriptions.keySet()) {
+                        if (listening.add(channel)) {
+                            try (Statement statement = connection.createStatement()) {
+                                statement.execute("LISTEN " + channel);
+                            }
+                            logger.info(LOG_MESSAGE + "Listening on channel " + channel);
+                        }
+                    }
+                    PGNotification[] notifications = pgConnection.getNotifications((int) TimeUnit.SECONDS.toMillis(1));
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        Subscription subscription = subscriptions.get(notification.getName());
+                        String payload = notification.getParameter();
+                        int separator = payload.indexOf('|');
+                        if (subscription != null && separator > 0 && !nodeId.equals(payload.substring(0, separator))) {
+                            subscription.handler().accept(payload.substring(separator + 1));
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                logger.error(LOG_MESSAGE + "Notification listener failed, reconnecting", e);
+                subscriptions.values().forEach(subscription -> subscription.onReconnect().run());
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private record Subscription(Consumer<String> handler, Runnable onReconnect) {
+    }
+}
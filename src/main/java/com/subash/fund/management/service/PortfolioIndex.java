@@ -0,0 +1,720 @@
+package com.subash.fund.management.service;
+
+import com.subash.fund.management.model.HoldingSummary;
+import com.subash.fund.management.model.NavPoint;
+import com.subash.fund.management.model.Transaction;
+import com.subash.fund.management.model.User;
+import com.subash.fund.management.repository.UserHoldingRepository;
+import com.subash.fund.management.repository.UserRepository;
+import com.subash.fund.management.util.ConcurrentLongMap;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.subash.fund.management.util.Constants.LOG_MESSAGE;
+
+/**
+ * In-memory index of the holdings of every user and their market value, kept current by the order and NAV writes.
+ * <p>
+ * The holdings of a user are one immutable {@link Holdings} snapshot: parallel arrays of fund IDs, units, invested
+ * amounts and the NAV each holding is valued at, in hundredths (the scale of the columns), plus the total market
+ * value. Snapshots are held in a {@link ConcurrentLongMap} keyed by user ID, so a lookup allocates nothing and never
+ * blocks on a writer. A reverse index lists the users holding each fund.
+ * </p>
+ * <ul>
+ *     <li>all holdings are loaded at startup when {@code portfolio.index.preload} is set; otherwise, or for a
+ *     user evicted since, on the first lookup</li>
+ *     <li>every order path passes its new {@link Transaction}s to {@link #record}; the change of the holding,
+ *     which is the transaction's units and amount, is applied to a copy of the snapshot once the database
+ *     transaction commits</li>
+ *     <li>a NAV write ({@link NavChangedEvent}) revalues the holders of the fund only, found through the reverse
+ *     index: the market value of each moves by {@code units × (new NAV − old NAV)}. The funds of a bulk NAV
+ *     import are revalued in parallel on a fork-join pool of {@code portfolio.revaluation.parallelism} threads
+ *     (default: one per processor). The revaluation is handed to the pool, so the thread publishing the NAV
+ *     (a request, or the {@link PgNotifications} listener) does not wait for it; lookups return the previous
+ *     value until it is done</li>
+ *     <li>the other nodes are told of order writes on the {@value #CHANNEL} channel of {@link PgNotifications} and
+ *     evict the users, who are reloaded on their next lookup; NAV writes reach them through {@link NavCache}</li>
+ * </ul>
+ * <p>
+ * Market values are kept per user only: a node holds the users it has loaded since their last change on another
+ * node, so a per-fund total would cover only part of the holders. A revaluation logs the change of the total value
+ * it applied instead.
+ * </p>
+ * <p>
+ * A balance or value beyond the range of a {@code long} in hundredths cannot be indexed: the lookup of such a user
+ * fails.
+ * </p>
+ *
+ * @see PortfolioService
+ */
+@Component
+public class PortfolioIndex {
+
+    private static final Logger logger = LogManager.getLogger(PortfolioIndex.class);
+
+    static final String CHANNEL = "portfolio_updates";
+
+    /**
+     * Holding and NAV columns are {@code NUMERIC(38, 2)}.
+     */
+    private static final int SCALE = 2;
+
+    /**
+     * Keeps a notification payload of user IDs below the 8000 byte limit of PostgreSQL.
+     */
+    private static final int MAX_PAYLOAD_LENGTH = 7000;
+
+    private final UserRepository userRepository;
+    private final UserHoldingRepository userHoldingRepository;
+    private final NavCache navCache;
+    private final PgNotifications pgNotifications;
+    private final Timer revaluations;
+    private final Counter revaluedHoldings;
+
+    private final ConcurrentLongMap<Holdings> holdings = new ConcurrentLongMap<>();
+    private final Map<String, Long> userIds = new ConcurrentHashMap<>();
+
+    /**
+     * Fund ID to the users holding it. May list users that are no longer in memory, never misses one that is.
+     */
+    private final Map<String, ConcurrentLongMap<Boolean>> holders = new ConcurrentHashMap<>();
+
+    /**
+     * Fund ID to the NAV its holdings are valued at.
+     */
+    private final Map<String, FundNav> fundNavs = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented before every change of the index, so that a load racing with a change is not cached.
+     */
+    private final AtomicLong modifications = new AtomicLong();
+
+    private ForkJoinPool revaluationPool;
+
+    @Value("${portfolio.index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${portfolio.index.preload:true}")
+    private boolean preload;
+
+    @Value("${portfolio.index.invalidation.enabled:true}")
+    private boolean invalidationEnabled;
+
+    @Value("${portfolio.revaluation.parallelism:0}")
+    private int revaluationParallelism;
+
+    /**
+     * Constructor to inject required dependencies.
+     *
+     * @param userRepository        Repository resolving usernames
+     * @param userHoldingRepository Repository for user holdings
+     * @param navCache              Cache of the latest NAVs
+     * @param pgNotifications       Cross-node notifications used for invalidations
+     * @param meterRegistry         Registry for the size and revaluation metrics
+     */
+    public PortfolioIndex(UserRepository userRepository, UserHoldingRepository userHoldingRepository,
+                          NavCache navCache, PgNotifications pgNotifications, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.userHoldingRepository = userHoldingRepository;
+        this.navCache = navCache;
+        this.pgNotifications = pgNotifications;
+        Gauge.builder("portfolio.index.size", holdings, ConcurrentLongMap::size)
+                .description("Users whose holdings are in memory")
+                .register(meterRegistry);
+        this.revaluations = Timer.builder("portfolio.revaluation")
+                .description("Revaluations of the holders of funds whose NAV changed")
+                .register(meterRegistry);
+        this.revaluedHoldings = Counter.builder("portfolio.revaluation.holdings")
+                .description("Holdings revalued at a new NAV")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads the holdings of every user and starts listening for changes made by other nodes.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        if (invalidationEnabled) {
+            pgNotifications.subscribe(CHANNEL, this::onNotification, this::clear);
+        }
+        if (!preload) {
+            return;
+        }
+        long version = modifications.get();
+        Map<Long, List<HoldingSummary>> byUser = new LinkedHashMap<>();
+        Set<String> fundIds = new HashSet<>();
+        for (HoldingSummary summary : userHoldingRepository.findAllSummaries()) {
+            byUser.computeIfAbsent(summary.userId(), userId -> new ArrayList<>()).add(summary);
+            fundIds.add(summary.fundId());
+        }
+        loadNavs(fundIds);
+        byUser.forEach((userId, summaries) -> {
+            userIds.put(summaries.get(0).username(), userId);
+            try {
+                insert(userId, Holdings.of(summaries, fundNavs), version);
+            } catch (ArithmeticException e) {
+                logger.error(LOG_MESSAGE + "Holdings of user " + userId + " exceed the portfolio index range");
+            }
+        });
+        logger.info(LOG_MESSAGE + "Portfolio index preloaded with the holdings of " + holdings.size() + " users");
+    }
+
+    /**
+     * Stops the revaluation threads.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (revaluationPool != null) {
+            revaluationPool.shutdownNow();
+        }
+    }
+
+    /**
+     * Resolves a username, from memory once it was resolved.
+     *
+     * @param username the username
+     * @return the user ID, or empty if there is no such user
+     */
+    public Optional<Long> findUserId(String username) {
+        Long userId = userIds.get(username);
+        if (userId != null) {
+            return Optional.of(userId);
+        }
+        Optional<Long> found = userRepository.findByUsername(username).map(User::getId);
+        if (enabled) {
+            found.ifPresent(id -> userIds.put(username, id));
+        }
+        return found;
+    }
+
+    /**
+     * Returns the holdings of a user, loading them on a miss, or on every call when the index is disabled.
+     *
+     * @param userId the user
+     * @return the holdings, empty if the user has none
+     * @throws ArithmeticException if a balance or value of the user exceeds the index range
+     */
+    public Holdings find(long userId) {
+        Holdings cached = enabled ? holdings.get(userId) : null;
+        if (cached != null) {
+            return cached;
+        }
+        long version = modifications.get();
+        List<HoldingSummary> summaries = userHoldingRepository.findSummariesByUserId(userId);
+        List<String> fundIds = summaries.stream().map(HoldingSummary::fundId).toList();
+        if (!enabled) {
+            Map<String, FundNav> navs = new HashMap<>();
+            navCache.findLatest(fundIds).forEach((fundId, nav) -> navs.put(fundId, FundNav.of(nav)));
+            return Holdings.of(summaries, navs);
+        }
+        loadNavs(fundIds);
+        Holdings loaded = Holdings.of(summaries, fundNavs);
+        insert(userId, loaded, version);
+        return loaded;
+    }
+
+    /**
+     * Applies the holding change of a new transaction once the current database transaction commits, and tells
+     * the other nodes.
+     *
+     * @param transaction the transaction, with its user, fund, type, units, NAV and amount set
+     */
+    public void record(Transaction transaction) {
+        recordAll(List.of(transaction));
+    }
+
+    /**
+     * Applies the holding changes of new transactions once the current database transaction commits, and tells
+     * the other nodes.
+     *
+     * @param transactions the transactions, with their user, fund, type, units, NAV and amount set
+     */
+    public void recordAll(Collection<Transaction> transactions) {
+        if (!enabled || transactions.isEmpty()) {
+            return;
+        }
+        if (invalidationEnabled) {
+            publish(transactions);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<Transaction> committed = List.copyOf(transactions);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(committed);
+                }
+            });
+        } else {
+            apply(transactions);
+        }
+    }
+
+    /**
+     * Hands the revaluation of the holders of the funds whose NAV was written to the revaluation pool, once the
+     * NAV is committed, without waiting for it.
+     *
+     * @param event the funds whose NAV was written
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNavChanged(NavChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Collection<String> fundIds = event.fundIds() == null ? List.copyOf(holders.keySet()) : event.fundIds();
+        try {
+            revaluationPool().execute(() -> revalue(fundIds));
+        } catch (RejectedExecutionException e) {
+            logger.warn(LOG_MESSAGE + "Portfolio revaluation skipped, the index is stopping");
+        }
+    }
+
+    /**
+     * Values the holders of each fund at its latest NAV, in parallel across funds. Runs on the revaluation pool.
+     */
+    private void revalue(Collection<String> fundIds) {
+        try {
+            revalueNow(fundIds);
+        } catch (RuntimeException e) {
+            // The holders keep their previous value until the next NAV write or reload
+            logger.error(LOG_MESSAGE + "Portfolio revaluation failed", e);
+        }
+    }
+
+    private void revalueNow(Collection<String> fundIds) {
+        List<String> held = fundIds.stream().filter(holders::containsKey).toList();
+        if (held.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<String> changed = new ArrayList<>();
+        navCache.findLatest(held).forEach((fundId, nav) -> {
+            FundNav latest = FundNav.of(nav);
+            // A correction of the same date replaces the NAV, an older date does not
+            FundNav valued = fundNavs.merge(fundId, latest, (current, written) ->
+                    written.epochDay() >= current.epochDay() ? written : current);
+            if (valued == latest) {
+                changed.add(fundId);
+            }
+        });
+        if (changed.isEmpty()) {
+            return;
+        }
+        // Loads that read the previous NAVs are not cached
+        modifications.incrementAndGet();
+        LongAdder revalued = new LongAdder();
+        LongAdder valueChange = new LongAdder();
+        // Forks into the pool this runs on
+        new Revaluation(changed, 0, changed.size(), revalued, valueChange).invoke();
+        revaluations.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        revaluedHoldings.increment(revalued.sum());
+        logger.info(LOG_MESSAGE + "Revalued " + revalued.sum() + " holdings of " + changed.size()
+                + " funds, market value change " + BigDecimal.valueOf(valueChange.sum(), SCALE));
+    }
+
+    /**
+     * Values every holder of a fund at the fund's current NAV.
+     */
+    private void revalueFund(String fundId, LongAdder revalued, LongAdder valueChange) {
+        ConcurrentLongMap<Boolean> fundHolders = holders.get(fundId);
+        FundNav nav = fundNavs.get(fundId);
+        if (fundHolders == null || nav == null) {
+            return;
+        }
+        fundHolders.forEachKey(userId -> {
+            try {
+                holdings.compute(userId, current -> {
+                    if (current == null) {
+                        return null;
+                    }
+                    Holdings next = current.revalue(fundId, nav);
+                    if (next != current) {
+                        revalued.increment();
+                        valueChange.add(next.marketValue - current.marketValue);
+                    }
+                    return next;
+                });
+            } catch (ArithmeticException e) {
+                // Reloaded, and rejected, on the next lookup
+                holdings.remove(userId);
+            }
+        });
+    }
+
+    private synchronized ForkJoinPool revaluationPool() {
+        if (revaluationPool == null) {
+            revaluationPool = new ForkJoinPool(revaluationParallelism > 0 ? revaluationParallelism
+                    : Runtime.getRuntime().availableProcessors());
+        }
+        return revaluationPool;
+    }
+
+    /**
+     * Loads the latest NAV of the funds not valued yet.
+     */
+    private void loadNavs(Collection<String> fundIds) {
+        List<String> missing = fundIds.stream().filter(fundId -> !fundNavs.containsKey(fundId)).distinct().toList();
+        if (!missing.isEmpty()) {
+            navCache.findLatest(missing).forEach((fundId, nav) -> fundNavs.putIfAbsent(fundId, FundNav.of(nav)));
+        }
+    }
+
+    /**
+     * Caches loaded holdings unless the index changed since {@code version}. The user is listed as a holder of
+     * its funds first, so that a revaluation running meanwhile cannot miss it.
+     */
+    private void insert(long userId, Holdings loaded, long version) {
+        for (String fundId : loaded.fundIds) {
+            addHolder(fundId, userId);
+        }
+        holdings.compute(userId, current -> current != null || version != modifications.get() ? current : loaded);
+    }
+
+    private void addHolder(String fundId, long userId) {
+        holders.computeIfAbsent(fundId, key -> new ConcurrentLongMap<>()).put(userId, Boolean.TRUE);
+    }
+
+    private void apply(Collection<Transaction> transactions) {
+        modifications.incrementAndGet();
+        for (Transaction transaction : transactions) {
+            long userId = transaction.getUser().getId();
+            if (holdings.get(userId) == null) {
+                continue;
+            }
+            String fundId = transaction.getFund().getFundId();
+            boolean redeem = "REDEEM".equalsIgnoreCase(transaction.getType());
+            BigDecimal units = redeem ? transaction.getUnits().negate() : transaction.getUnits();
+            BigDecimal amount = redeem ? transaction.getAmount().negate() : transaction.getAmount();
+            try {
+                // The first holding of a fund is valued at the fund's NAV, or else at the order's
+                FundNav nav = fundNavs.computeIfAbsent(fundId, key ->
+                        new FundNav(hundredths(transaction.getNav()), LocalDate.now().toEpochDay()));
+                addHolder(fundId, userId);
+                holdings.compute(userId, current -> current == null ? null
+                        : current.add(fundId, hundredths(units), hundredths(amount), nav));
+            } catch (ArithmeticException e) {
+                // Reloaded, and rejected, on the next lookup
+                holdings.remove(userId);
+            }
+        }
+    }
+
+    /**
+     * Publishes the IDs of the users of the transactions, comma separated; delivered when the transaction
+     * commits.
+     */
+    private void publish(Collection<Transaction> transactions) {
+        StringBuilder payload = new StringBuilder();
+        Set<Long> published = new HashSet<>();
+        for (Transaction transaction : transactions) {
+            Long userId = transaction.getUser().getId();
+            if (!published.add(userId)) {
+                continue;
+            }
+            if (payload.length() > MAX_PAYLOAD_LENGTH) {
+                pgNotifications.publish(CHANNEL, payload.toString());
+                payload.setLength(0);
+            }
+            if (!payload.isEmpty()) {
+                payload.append(',');
+            }
+            payload.append(userId);
+        }
+        pgNotifications.publish(CHANNEL, payload.toString());
+    }
+
+    /**
+     * Evicts the users changed by another node.
+     */
+    private void onNotification(String payload) {
+        modifications.incrementAndGet();
+        for (String value : payload.split(",")) {
+            long userId = Long.parseLong(value);
+            Holdings removed = holdings.remove(userId);
+            if (removed == null) {
+                continue;
+            }
+            for (String fundId : removed.fundIds) {
+                ConcurrentLongMap<Boolean> fundHolders = holders.get(fundId);
+                if (fundHolders != null) {
+                    fundHolders.remove(userId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops every user and NAV, as notifications may have been missed.
+     */
+    private void clear() {
+        modifications.incrementAndGet();
+        holdings.clear();
+        holders.clear();
+        fundNavs.clear();
+    }
+
+    private static long hundredths(BigDecimal value) {
+        return value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Splits the funds to revalue in halves until one fund is left per task.
+     */
+    private final class Revaluation extends RecursiveAction {
+
+        private final List<String> fundIds;
+        private final int from;
+        private final int to;
+        private final LongAdder revalued;
+        private final LongAdder valueChange;
+
+        private Revaluation(List<String> fundIds, int from, int to, LongAdder revalued, LongAdder valueChange) {
+            this.fundIds = fundIds;
+            this.from = from;
+            this.to = to;
+            this.revalued = revalued;
+            this.valueChange = valueChange;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                revalueFund(fundIds.get(from), revalued, valueChange);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Revaluation(fundIds, from, middle, revalued, valueChange),
+                    new Revaluation(fundIds, middle, to, revalued, valueChange));
+        }
+    }
+
+    /**
+     * NAV of a fund in hundredths and its date as epoch day.
+     */
+    record FundNav(long nav, long epochDay) {
+
+        static FundNav of(NavPoint navPoint) {
+            return new FundNav(hundredths(navPoint.nav()), navPoint.navDate().toEpochDay());
+        }
+    }
+
+    /**
+     * Immutable holdings of a user, sorted by fund ID. Units, amounts and NAVs are in hundredths.
+     */
+    public static final class Holdings {
+
+        /**
+         * NAV of a holding whose fund has none; the holding is valued at the amount invested.
+         */
+        public static final long NO_NAV = Long.MIN_VALUE;
+
+        private static final Holdings EMPTY = new Holdings(new String[0], new long[0], new long[0], new long[0],
+                new long[0], 0);
+
+        private final String[] fundIds;
+        private final long[] units;
+        private final long[] invested;
+        private final long[] navs;
+        private final long[] navDays;
+        private final long marketValue;
+
+        private Holdings(String[] fundIds, long[] units, long[] invested, long[] navs, long[] navDays,
+                         long marketValue) {
+            this.fundIds = fundIds;
+            this.units = units;
+            this.invested = invested;
+            this.navs = navs;
+            this.navDays = navDays;
+            this.marketValue = marketValue;
+        }
+
+        static Holdings of(List<HoldingSummary> summaries, Map<String, FundNav> fundNavs) {
+            if (summaries.isEmpty()) {
+                return EMPTY;
+            }
+            List<HoldingSummary> sorted = new ArrayList<>(summaries);
+            sorted.sort(Comparator.comparing(HoldingSummary::fundId));
+            int size = sorted.size();
+            String[] fundIds = new String[size];
+            long[] units = new long[size];
+            long[] invested = new long[size];
+            long[] navs = new long[size];
+            long[] navDays = new long[size];
+            long marketValue = 0;
+            for (int i = 0; i < size; i++) {
+                HoldingSummary summary = sorted.get(i);
+                FundNav nav = fundNavs.get(summary.fundId());
+                fundIds[i] = summary.fundId();
+                units[i] = hundredths(summary.units());
+                invested[i] = hundredths(summary.totalValue());
+                navs[i] = nav == null ? NO_NAV : nav.nav();
+                navDays[i] = nav == null ? 0 : nav.epochDay();
+                marketValue = Math.addExact(marketValue, value(units[i], invested[i], navs[i]));
+            }
+            return new Holdings(fundIds, units, invested, navs, navDays, marketValue);
+        }
+
+        /**
+         * Value of a holding in hundredths: units × NAV rounded half up, or the amount invested without a NAV.
+         */
+        private static long value(long units, long invested, long nav) {
+            if (nav == NO_NAV) {
+                return invested;
+            }
+            long product = Math.multiplyExact(units, nav);
+            return (product + (product < 0 ? -50 : 50)) / 100;
+        }
+
+        /**
+         * Copy with the units and invested amount of a fund changed, adding the fund valued at {@code nav} if it
+         * is not held.
+         */
+        private Holdings add(String fundId, long unitsDelta, long investedDelta, FundNav nav) {
+            int index = Arrays.binarySearch(fundIds, fundId);
+            if (index < 0) {
+                int insertion = -index - 1;
+                return new Holdings(insert(fundIds, insertion, fundId), insert(units, insertion, unitsDelta),
+                        insert(invested, insertion, investedDelta), insert(navs, insertion, nav.nav()),
+                        insert(navDays, insertion, nav.epochDay()),
+                        Math.addExact(marketValue, value(unitsDelta, investedDelta, nav.nav())));
+            }
+            long[] newUnits = units.clone();
+            long[] newInvested = invested.clone();
+            newUnits[index] = Math.addExact(units[index], unitsDelta);
+            newInvested[index] = Math.addExact(invested[index], investedDelta);
+            long change = value(newUnits[index], newInvested[index], navs[index])
+                    - value(units[index], invested[index], navs[index]);
+            return new Holdings(fundIds, newUnits, newInvested, navs, navDays, Math.addExact(marketValue, change));
+        }
+
+        /**
+         * Copy with the holding of a fund valued at a new NAV: the market value moves by
+         * {@code units × (new NAV − old NAV)}. Returns this snapshot if the fund is not held or already valued at
+         * that NAV.
+         */
+        private Holdings revalue(String fundId, FundNav nav) {
+            int index = Arrays.binarySearch(fundIds, fundId);
+            if (index < 0 || navs[index] == nav.nav() && navDays[index] == nav.epochDay()) {
+                return this;
+            }
+            long change = value(units[index], invested[index], nav.nav())
+                    - value(units[index], invested[index], navs[index]);
+            long[] newNavs = navs.clone();
+            long[] newNavDays = navDays.clone();
+            newNavs[index] = nav.nav();
+            newNavDays[index] = nav.epochDay();
+            return new Holdings(fundIds, units, invested, newNavs, newNavDays, Math.addExact(marketValue, change));
+        }
+
+        private static String[] insert(String[] values, int index, String value) {
+            String[] inserted = new String[values.length + 1];
+            System.arraycopy(values, 0, inserted, 0, index);
+            inserted[index] = value;
+            System.arraycopy(values, index, inserted, index + 1, values.length - index);
+            return inserted;
+        }
+
+        private static long[] insert(long[] values, int index, long value) {
+            long[] inserted = new long[values.length + 1];
+            System.arraycopy(values, 0, inserted, 0, index);
+            inserted[index] = value;
+            System.arraycopy(values, index, inserted, index + 1, values.length - index);
+            return inserted;
+        }
+
+        /**
+         * @return the number of funds held
+         */
+        public int size() {
+            return fundIds.length;
+        }
+
+        /**
+         * @return the fund IDs, sorted; the array must not be modified
+         */
+        public String[] fundIds() {
+            return fundIds;
+        }
+
+        /**
+         * @param index position of the fund, in {@link #fundIds()} order
+         * @return the fund ID
+         */
+        public String fundId(int index) {
+            return fundIds[index];
+        }
+
+        /**
+         * @param index position of the fund, in {@link #fundIds()} order
+         * @return the units held, in hundredths
+         */
+        public long units(int index) {
+            return units[index];
+        }
+
+        /**
+         * @param index position of the fund, in {@link #fundIds()} order
+         * @return the amount invested in the units held, in hundredths
+         */
+        public long invested(int index) {
+            return invested[index];
+        }
+
+        /**
+         * @param index position of the fund, in {@link #fundIds()} order
+         * @return the NAV the holding is valued at, in hundredths, or {@link #NO_NAV}
+         */
+        public long nav(int index) {
+            return navs[index];
+        }
+
+        /**
+         * @param index position of the fund, in {@link #fundIds()} order
+         * @return the date of {@link #nav(int)}, or {@code null} without a NAV
+         */
+        public LocalDate navDate(int index) {
+            return navs[index] == NO_NAV ? null : LocalDate.ofEpochDay(navDays[index]);
+        }
+
+        /**
+         * @param index position of the fund, in {@link #fundIds()} order
+         * @return the market value of the holding, in hundredths
+         */
+        public long value(int index) {
+            return value(units[index], invested[index], navs[index]);
+        }
+
+        /**
+         * @return the market value of all holdings, in hundredths
+         */
+        public long marketValue() {
+            return marketValue;
+        }
+    }
+}
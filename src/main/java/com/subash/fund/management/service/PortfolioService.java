@@ -0,0 +1,27 @@
+package com.subash.fund.management.service;
+
+import com.subash.fund.management.model.PortfolioResponse;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Service interface for valuing the holdings of a user.
+ * <p>
+ * Every holding is marked to the latest NAV of its fund, whatever its date, and compared with the amount invested
+ * in it.
+ * </p>
+ *
+ * @author Subash
+ * @see com.subash.fund.management.model.PortfolioResponse
+ */
+public interface PortfolioService {
+
+    /**
+     * Returns the holdings of a user and their current value.
+     *
+     * @param uuid     Unique identifier for the request (used for logging and tracing)
+     * @param username The user whose portfolio is returned
+     * @return A {@link ResponseEntity} containing the portfolio and the HTTP status code
+     * @throws Exception if the portfolio cannot be read
+     */
+    ResponseEntity<PortfolioResponse> getPortfolio(String uuid, String username) throws Exception;
+}
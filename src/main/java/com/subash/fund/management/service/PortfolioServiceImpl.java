@@ -0,0 +1,99 @@
+package com.subash.fund.management.service;
+
+import com.subash.fund.management.model.PortfolioHolding;
+import com.subash.fund.management.model.PortfolioResponse;
+import com.subash.fund.management.service.PortfolioIndex.Holdings;
+import com.subash.fund.management.util.Constants;
+import com.subash.fund.management.util.GenericLogger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static com.subash.fund.management.util.Constants.*;
+
+/**
+ * Implementation of {@link PortfolioService} reading from memory only.
+ * <p>
+ * The user ID, the holdings and their values come from {@link PortfolioIndex}, which revalues them on every NAV
+ * write and loads what it misses, so the database is only read for a user not seen since startup or since it was
+ * changed on another node. Values are rounded half up to two decimals, like the stored holdings. A holding of a
+ * fund without any NAV has no {@code nav} and is valued at the amount invested.
+ * </p>
+ *
+ * @author Subash
+ * @see PortfolioService
+ */
+@Service
+public class PortfolioServiceImpl implements PortfolioService {
+    private static final Logger logger = LogManager.getLogger(PortfolioServiceImpl.class);
+
+    private static final int SCALE = 2;
+
+    private final PortfolioIndex portfolioIndex;
+    private final GenericLogger genericLogger;
+
+    /**
+     * Constructor-based dependency injection for the portfolio.
+     */
+    public PortfolioServiceImpl(PortfolioIndex portfolioIndex, GenericLogger genericLogger) {
+        this.portfolioIndex = portfolioIndex;
+        this.genericLogger = genericLogger;
+    }
+
+    /**
+     * Values the holdings of the user at the latest NAVs.
+     *
+     * @param uuid     Unique identifier for tracking the request.
+     * @param username The user whose portfolio is returned.
+     * @return {@link ResponseEntity} containing the portfolio, or the reason it cannot be read.
+     * @throws Exception if the holdings or NAVs cannot be loaded.
+     */
+    @Override
+    public ResponseEntity<PortfolioResponse> getPortfolio(String uuid, String username) throws Exception {
+        logger.info(LOG_MESSAGE + "Reading portfolio of user " + username);
+        PortfolioResponse portfolioResponse = new PortfolioResponse();
+        try {
+            Optional<Long> userId = portfolioIndex.findUserId(username);
+            if (userId.isEmpty()) {
+                portfolioResponse.setCode(USER_RECORD_NOT_FOUND_CODE);
+                portfolioResponse.setMessage(USER_RECORD_NOT_FOUND);
+                return new ResponseEntity<>(portfolioResponse, HttpStatus.NOT_FOUND);
+            }
+            Holdings holdings = portfolioIndex.find(userId.get());
+
+            long totalInvested = 0;
+            for (int i = 0; i < holdings.size(); i++) {
+                long nav = holdings.nav(i);
+                long invested = holdings.invested(i);
+                long value = holdings.value(i);
+                portfolioResponse.addHoldingsItem(new PortfolioHolding()
+                        .fundId(holdings.fundId(i))
+                        .units(BigDecimal.valueOf(holdings.units(i), SCALE))
+                        .nav(nav == Holdings.NO_NAV ? null : BigDecimal.valueOf(nav, SCALE))
+                        .navDate(holdings.navDate(i))
+                        .invested(BigDecimal.valueOf(invested, SCALE))
+                        .currentValue(BigDecimal.valueOf(value, SCALE))
+                        .gain(BigDecimal.valueOf(Math.subtractExact(value, invested), SCALE)));
+                totalInvested = Math.addExact(totalInvested, invested);
+            }
+            portfolioResponse.setUsername(username);
+            portfolioResponse.setInvested(BigDecimal.valueOf(totalInvested, SCALE));
+            portfolioResponse.setCurrentValue(BigDecimal.valueOf(holdings.marketValue(), SCALE));
+            portfolioResponse.setGain(BigDecimal.valueOf(Math.subtractExact(holdings.marketValue(), totalInvested),
+                    SCALE));
+            logger.info(LOG_MESSAGE + "Valued " + holdings.size() + " holdings of user " + username);
+        } catch (Exception e) {
+            // Logger error response
+            genericLogger.logResponse(logger, uuid, "ERROR", Constants.API_PROCESSED_FAILURE);
+            throw new Exception(e);
+        }
+        portfolioResponse.setCode(PORTFOLIO_RETRIEVED_CODE);
+        portfolioResponse.setMessage(PORTFOLIO_RETRIEVED);
+        return new ResponseEntity<>(portfolioResponse, HttpStatus.OK);
+    }
+}
@@ -0,0 +1,258 @@
+package com.subash.fund.management.service;
+
+import com.subash.fund.management.model.LedgerEntry;
+import com.subash.fund.management.model.NavPoint;
+import com.subash.fund.management.model.UserReturns;
+import com.subash.fund.management.repository.NavBatchRepository;
+import com.subash.fund.management.repository.ReturnsRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static com.subash.fund.management.util.Constants.LOG_MESSAGE;
+
+/**
+ * Nightly computation of the returns of every user's portfolio into the {@code user_returns} table.
+ * <p>
+ * Runs on {@code returns.batch.cron} (01:30 by default) on one node only: the run holds a PostgreSQL advisory
+ * lock for its duration, and the other nodes skip it. The latest NAV of every fund is read once. The user IDs are
+ * then cut into slices of {@code returns.batch.slice-size} IDs, computed by a pool of
+ * {@code returns.batch.parallelism} threads: each streams the ledger of its slice from its own cursor, user by
+ * user, feeding one reused {@link ReturnsCalculator}, and upserts the returns of the slice. The database reads
+ * and the computations of the slices thus overlap, and a worker holds the results of one slice at most, whatever
+ * the number of users. A failed slice is logged and left to the next run, as is a user whose amounts exceed the
+ * range of a {@code long} in hundredths.
+ * </p>
+ * <p>
+ * Each worker holds a connection while it streams its slice, so the number of threads is capped at half the
+ * connection pool. These connections are taken outside the API concurrency limit, which reserves them.
+ * </p>
+ *
+ * @see ReturnsRepository
+ */
+@Component
+public class ReturnsBatch {
+
+    private static final Logger logger = LogManager.getLogger(ReturnsBatch.class);
+
+    /**
+     * Key of the advisory lock of the batch, {@code "returns"} in ASCII.
+     */
+    static final long LOCK_KEY = 0x72657475726e73L;
+
+    private final ReturnsRepository returnsRepository;
+    private final NavBatchRepository navBatchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer runs;
+    private final Counter users;
+
+    @Value("${returns.batch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${returns.batch.parallelism:2}")
+    private int parallelism;
+
+    @Value("${returns.batch.slice-size:10000}")
+    private int sliceSize;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int connectionPoolSize;
+
+    /**
+     * Constructor to inject required dependencies.
+     *
+     * @param returnsRepository  Repository of the ledger and of the returns
+     * @param navBatchRepository Repository reading the latest NAVs
+     * @param transactionManager Transaction manager holding the advisory lock for the run
+     * @param meterRegistry      Registry for the run metrics
+     */
+    public ReturnsBatch(ReturnsRepository returnsRepository, NavBatchRepository navBatchRepository,
+                        PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.returnsRepository = returnsRepository;
+        this.navBatchRepository = navBatchRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.runs = Timer.builder("returns.batch")
+                .description("Runs of the returns batch")
+                .register(meterRegistry);
+        this.users = Counter.builder("returns.batch.users")
+                .description("Users whose returns were computed by the batch")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Computes the returns of every user, unless another node is running the batch.
+     */
+    @Scheduled(cron = "${returns.batch.cron:0 30 1 * * *}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Boolean ran = transactionTemplate.execute(status -> {
+                if (!returnsRepository.tryLock(LOCK_KEY)) {
+                    return false;
+                }
+                computeAll(LocalDate.now());
+                return true;
+            });
+            if (!Boolean.TRUE.equals(ran)) {
+                logger.info(LOG_MESSAGE + "Returns batch skipped, running on another node");
+            }
+        } catch (Exception e) {
+            logger.error(LOG_MESSAGE + "Returns batch failed", e);
+        }
+    }
+
+    /**
+     * Returns the number of worker threads of a run.
+     *
+     * @param parallelism        the configured parallelism, {@code 0} for one per processor
+     * @param connectionPoolSize the size of the connection pool
+     * @return the number of threads, at least one and at most half the connection pool
+     */
+    public static int threads(int parallelism, int connectionPoolSize) {
+        return Math.max(1, Math.min(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(),
+                connectionPoolSize / 2));
+    }
+
+    /**
+     * Computes and stores the returns of every user having transactions.
+     *
+     * @param valuationDate the date the holdings are valued on
+     * @return the number of users computed
+     */
+    public long computeAll(LocalDate valuationDate) {
+        long start = System.nanoTime();
+        long[] userIdRange = returnsRepository.findUserIdRange();
+        if (userIdRange == null) {
+            return 0;
+        }
+        Map<String, NavPoint> navs = new HashMap<>();
+        navBatchRepository.findLatestNavs(null).forEach(nav -> navs.put(nav.fundId(), nav));
+
+        int threads = threads(parallelism, connectionPoolSize);
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "returns-batch-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long computed = 0;
+        int failed = 0;
+        try {
+            List<Future<Integer>> slices = new ArrayList<>();
+            for (long from = userIdRange[0]; from <= userIdRange[1]; from += sliceSize) {
+                long to = Math.min(from + sliceSize, userIdRange[1] + 1);
+                long sliceFrom = from;
+                slices.add(executor.submit(() -> computeSlice(sliceFrom, to, valuationDate, navs)));
+            }
+            for (Future<Integer> slice : slices) {
+                try {
+                    computed += slice.get();
+                } catch (ExecutionException e) {
+                    failed++;
+                    logger.error(LOG_MESSAGE + "Failed to compute a slice of the returns batch", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error(LOG_MESSAGE + "Returns batch interrupted");
+        } finally {
+            executor.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - start;
+        runs.record(elapsed, TimeUnit.NANOSECONDS);
+        users.increment(computed);
+        logger.info(LOG_MESSAGE + "Computed the returns of " + computed + " users on " + threads + " threads in "
+                + TimeUnit.NANOSECONDS.toMillis(elapsed) + " ms, " + failed + " slices failed");
+        return computed;
+    }
+
+    /**
+     * Computes and stores the returns of the users of an ID range.
+     *
+     * @return the number of users computed
+     */
+    private int computeSlice(long fromUserId, long toUserId, LocalDate valuationDate, Map<String, NavPoint> navs) {
+        Slice slice = new Slice(valuationDate, navs);
+        returnsRepository.forEachEntry(fromUserId, toUserId, slice);
+        slice.complete();
+        returnsRepository.upsert(slice.results);
+        return slice.results.size();
+    }
+
+    /**
+     * Feeds the ledger of a slice to a calculator, completing a user when the entries of the next one start.
+     */
+    private static final class Slice implements Consumer<LedgerEntry> {
+
+        private final ReturnsCalculator calculator = new ReturnsCalculator();
+        private final List<UserReturns> results = new ArrayList<>();
+        private final LocalDate valuationDate;
+        private final Map<String, NavPoint> navs;
+        private long userId;
+
+        /**
+         * Set when the amounts of the current user exceed the range of the calculator.
+         */
+        private boolean skipped;
+
+        private Slice(LocalDate valuationDate, Map<String, NavPoint> navs) {
+            this.valuationDate = valuationDate;
+            this.navs = navs;
+        }
+
+        @Override
+        public void accept(LedgerEntry entry) {
+            if (entry.userId() != userId) {
+                complete();
+                userId = entry.userId();
+                skipped = false;
+            }
+            if (skipped) {
+                return;
+            }
+            try {
+                calculator.add(entry);
+            } catch (ArithmeticException e) {
+                skip(e);
+            }
+        }
+
+        private void complete() {
+            if (!skipped && !calculator.isEmpty()) {
+                try {
+                    results.add(new UserReturns(userId, valuationDate, calculator.portfolio(valuationDate, navs)));
+                } catch (ArithmeticException e) {
+                    skip(e);
+                }
+            }
+            calculator.clear();
+        }
+
+        private void skip(ArithmeticException e) {
+            skipped = true;
+            logger.error(LOG_MESSAGE + "Skipped the returns of user " + userId + ", beyond the range of the batch", e);
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.subash.fund.management.service;
+
+import com.subash.fund.management.model.LedgerEntry;
+import com.subash.fund.management.model.NavPoint;
+import com.subash.fund.management.model.Returns;
+
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Computes the returns of the holdings of one user from their transaction ledger.
+ * <p>
+ * The ledger entries of the user are {@link #add added} one by one, in the order they are streamed: each fund
+ * keeps its units, the amounts bought and redeemed and its cash flows, summed per day — a {@code BUY} is an
+ * outflow, a {@code REDEEM} an inflow. On valuation, the units held are marked to the latest NAV of the fund, or to
+ * the NAV of its last transaction if the fund has none, and the current value closes the cash flows as an inflow
+ * on the valuation date. From these:
+ * <ul>
+ *     <li>the absolute return is {@code (currentValue + redeemed - invested) / invested}</li>
+ *     <li>the annualized return (CAGR) compounds it over the years since the first transaction, from one year
+ *     on</li>
+ *     <li>the XIRR is the annual rate at which the cash flows, discounted by {@code (1 + rate)^(days / 365)},
+ *     net to zero: Newton's method from 10%, falling back to bisection when it does not converge</li>
+ * </ul>
+ * The portfolio is computed the same way over the cash flows of all funds. Amounts are in hundredths, the scale
+ * of the columns, summed without {@code BigDecimal} arithmetic. A calculator is not thread-safe; the batch
+ * reuses one per worker thread, {@link #clear() cleared} between users.
+ * </p>
+ *
+ * @see ReturnsService
+ * @see ReturnsBatch
+ */
+public final class ReturnsCalculator {
+
+    static final double DAYS_PER_YEAR = 365;
+
+    private static final int SCALE = 2;
+    private static final double INITIAL_RATE = 0.1;
+    /**
+     * Precision of the rate, relative above 100%.
+     */
+    private static final double TOLERANCE = 1e-10;
+    private static final int MAX_ITERATIONS = 100;
+
+    /**
+     * Bounds of the bisection: a loss of 99.9999% a year, and a gain of about 10^9 times a year.
+     */
+    private static final double MIN_RATE = -0.999999;
+    private static final double MAX_RATE = 1e9;
+
+    private final Map<String, Position> positions = new HashMap<>();
+    private final Flows flows = new Flows();
+
+    /**
+     * Adds a ledger entry of the user.
+     *
+     * @param entry the entry
+     */
+    public void add(LedgerEntry entry) {
+        Position position = positions.computeIfAbsent(entry.fundId(), Position::new);
+        int day = Math.toIntExact(entry.date().toEpochDay());
+        long amount = entry.redeem() ? entry.amount() : -entry.amount();
+        position.units = Math.addExact(position.units, entry.redeem() ? -entry.units() : entry.units());
+        if (entry.redeem()) {
+            position.redeemed = Math.addExact(position.redeemed, entry.amount());
+        } else {
+            position.invested = Math.addExact(position.invested, entry.amount());
+        }
+        position.nav = entry.nav();
+        position.flows.add(day, amount);
+        flows.add(day, amount);
+    }
+
+    /**
+     * @return {@code true} if no entry was added
+     */
+    public boolean isEmpty() {
+        return positions.isEmpty();
+    }
+
+    /**
+     * @return the funds of the entries added
+     */
+    public Set<String> fundIds() {
+        return positions.keySet();
+    }
+
+    /**
+     * Computes the returns of each fund of the ledger, including those fully redeemed.
+     *
+     * @param valuationDate the date the units held are valued on
+     * @param navs          the latest NAV of the funds, by fund ID
+     * @return the returns of each fund, sorted by fund ID
+     */
+    public List<Returns> holdings(LocalDate valuationDate, Map<String, NavPoint> navs) {
+        List<Returns> holdings = new ArrayList<>(positions.size());
+        for (Position position : positions.values()) {
+            long nav = nav(position, navs);
+            long value = value(position.units, nav);
+            holdings.add(returns(position.fundId, position.units, nav, position.invested, position.redeemed, value,
+                    position.flows, valuationDate));
+        }
+        holdings.sort(Comparator.comparing(Returns::fundId));
+        return holdings;
+    }
+
+    /**
+     * Computes the returns of the whole ledger.
+     *
+     * @param valuationDate the date the units held are valued on
+     * @param navs          the latest NAV of the funds, by fund ID
+     * @return the returns of the portfolio
+     */
+    public Returns portfolio(LocalDate valuationDate, Map<String, NavPoint> navs) {
+        long invested = 0;
+        long redeemed = 0;
+        long value = 0;
+        for (Position position : positions.values()) {
+            invested = Math.addExact(invested, position.invested);
+            redeemed = Math.addExact(redeemed, position.redeemed);
+            value = Math.addExact(value, value(position.units, nav(position, navs)));
+        }
+        return returns(null, 0, 0, invested, redeemed, value, flows, valuationDate);
+    }
+
+    /**
+     * Forgets the entries added, keeping the allocated capacity for the next user.
+     */
+    public void clear() {
+        positions.clear();
+        flows.clear();
+    }
+
+    private static Returns returns(String fundId, long units, long nav, long invested, long redeemed, long value,
+                                   Flows flows, LocalDate valuationDate) {
+        if (flows.size == 0) {
+            return new Returns(fundId, units, nav, invested, redeemed, value, null, null, null, null);
+        }
+        LocalDate since = LocalDate.ofEpochDay(flows.firstDay());
+        Double absoluteReturn = null;
+        Double annualizedReturn = null;
+        if (invested > 0) {
+            double growth = (double) (value + redeemed) / invested;
+            absoluteReturn = growth - 1;
+            long days = valuationDate.toEpochDay() - flows.firstDay();
+            if (days >= DAYS_PER_YEAR) {
+                annualizedReturn = Math.pow(growth, DAYS_PER_YEAR / days) - 1;
+            }
+        }
+        int valuationDay = Math.toIntExact(valuationDate.toEpochDay());
+        return new Returns(fundId, units, nav, invested, redeemed, value, since, absoluteReturn, annualizedReturn,
+                xirr(flows, valuationDay, value));
+    }
+
+    /**
+     * @return the latest NAV of the fund in hundredths, or the NAV of its last transaction if it has none
+     */
+    private static long nav(Position position, Map<String, NavPoint> navs) {
+        NavPoint nav = navs.get(position.fundId);
+        if (nav == null) {
+            return position.nav;
+        }
+        return nav.nav().setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Value of the units held in hundredths: units × NAV rounded half up, and nothing once fully redeemed.
+     */
+    private static long value(long units, long nav) {
+        if (units <= 0) {
+            return 0;
+        }
+        long product = Math.multiplyExact(units, nav);
+        return (product + 50) / 100;
+    }
+
+    /**
+     * XIRR of the cash flows closed by the current value on the valuation day.
+     *
+     * @return the rate, or {@code null} if the flows do not both pay in and out, or no rate nets them to zero
+     */
+    static Double xirr(Flows flows, int valuationDay, long value) {
+        int size = flows.size;
+        int[] days = Arrays.copyOf(flows.days, size + 1);
+        double[] amounts = new double[size + 1];
+        boolean inflow = value > 0;
+        boolean outflow = false;
+        for (int i = 0; i < size; i++) {
+            amounts[i] = flows.amounts[i];
+            inflow |= flows.amounts[i] > 0;
+            outflow |= flows.amounts[i] < 0;
+        }
+        days[size] = valuationDay;
+        amounts[size] = value;
+        if (!inflow || !outflow) {
+            return null;
+        }
+        int first = flows.firstDay();
+        double[] years = new double[size + 1];
+        for (int i = 0; i <= size; i++) {
+            years[i] = (days[i] - first) / DAYS_PER_YEAR;
+        }
+
+        double rate = INITIAL_RATE;
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            double npv = 0;
+            double derivative = 0;
+            for (int i = 0; i <= size; i++) {
+                double discounted = amounts[i] * Math.pow(1 + rate, -years[i]);
+                npv += discounted;
+                derivative -= years[i] * discounted / (1 + rate);
+            }
+            if (derivative == 0 || !Double.isFinite(npv) || !Double.isFinite(derivative)) {
+                break;
+            }
+            double next = rate - npv / derivative;
+            if (next <= -1) {
+                // Stay within the domain, halfway to -100%
+                next = (rate - 1) / 2;
+            }
+            if (Math.abs(next - rate) < TOLERANCE * Math.max(1, Math.abs(next))) {
+                return next;
+            }
+            rate = next;
+        }
+        return bisect(years, amounts);
+    }
+
+    /**
+     * Bisects the rate between {@link #MIN_RATE} and the first power of two above it where the net present value
+     * changes sign.
+     */
+    private static Double bisect(double[] years, double[] amounts) {
+        double low = MIN_RATE;
+        double lowNpv = npv(years, amounts, low);
+        double high = 1;
+        while (Math.signum(npv(years, amounts, high)) == Math.signum(lowNpv)) {
+            high *= 2;
+            if (high > MAX_RATE) {
+                return null;
+            }
+        }
+        while (high - low > TOLERANCE * Math.max(1, high)) {
+            double middle = (low + high) / 2;
+            double npv = npv(years, amounts, middle);
+            if (npv == 0) {
+                return middle;
+            }
+            if (Math.signum(npv) == Math.signum(lowNpv)) {
+                low = middle;
+                lowNpv = npv;
+            } else {
+                high = middle;
+            }
+        }
+        return (low + high) / 2;
+    }
+
+    private static double npv(double[] years, double[] amounts, double rate) {
+        double npv = 0;
+        for (int i = 0; i < years.length; i++) {
+            npv += amounts[i] * Math.pow(1 + rate, -years[i]);
+        }
+        return npv;
+    }
+
+    /**
+     * Ledger totals of a fund, in hundredths.
+     */
+    private static final class Position {
+
+        private final String fundId;
+        private final Flows flows = new Flows();
+        private long units;
+        private long invested;
+        private long redeemed;
+
+        /**
+         * NAV of the last transaction.
+         */
+        private long nav;
+
+        private Position(String fundId) {
+            this.fundId = fundId;
+        }
+    }
+
+    /**
+     * Net cash flow of each day, in hundredths, in the order the days were added.
+     */
+    static final class Flows {
+
+        private int[] days = new int[8];
+        private long[] amounts = new long[8];
+        private int size;
+
+        /**
+         * Adds a cash flow, summed with the previous one if on the same day.
+         */
+        void add(int day, long amount) {
+            if (size > 0 && days[size - 1] == day) {
+                amounts[size - 1] = Math.addExact(amounts[size - 1], amount);
+                return;
+            }
+            if (size == days.length) {
+                days = Arrays.copyOf(days, size * 2);
+                amounts = Arrays.copyOf(amounts, size * 2);
+            }
+            days[size] = day;
+            amounts[size] = amount;
+            size++;
+        }
+
+        /**
+         * @return the earliest day, as entries of the same timestamp may be streamed in any fund order
+         */
+        int firstDay() {
+            int first = days[0];
+            for (int i = 1; i < size; i++) {
+                first = Math.min(first, days[i]);
+            }
+            return first;
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.subash.fund.management.service;
+
+import com.subash.fund.management.model.ReturnsResponse;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Service interface for the returns of a user's holdings.
+ * <p>
+ * Returns are computed from the transaction ledger of the user, with the units held valued at the latest NAV of
+ * each fund: absolute return, annualized return (CAGR) and XIRR, per fund and for the whole portfolio.
+ * </p>
+ *
+ * @author Subash
+ * @see com.subash.fund.management.model.ReturnsResponse
+ */
+public interface ReturnsService {
+
+    /**
+     * Returns the returns of each holding of a user and of their portfolio.
+     *
+     * @param uuid     Unique identifier for the request (used for logging and tracing)
+     * @param username The user whose returns are computed
+     * @return A {@link ResponseEntity} containing the returns and the HTTP status code
+     * @throws Exception if the ledger or NAVs cannot be read
+     */
+    ResponseEntity<ReturnsResponse> getReturns(String uuid, String username) throws Exception;
+}
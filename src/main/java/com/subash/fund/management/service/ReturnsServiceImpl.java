@@ -0,0 +1,132 @@
+package com.subash.fund.management.service;
+
+import com.subash.fund.management.model.HoldingReturn;
+import com.subash.fund.management.model.NavPoint;
+import com.subash.fund.management.model.Returns;
+import com.subash.fund.management.model.ReturnsResponse;
+import com.subash.fund.management.repository.ReturnsRepository;
+import com.subash.fund.management.util.Constants;
+import com.subash.fund.management.util.GenericLogger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.subash.fund.management.util.Constants.*;
+
+/**
+ * Implementation of {@link ReturnsService} streaming the ledger of the user into a {@link ReturnsCalculator}.
+ * <p>
+ * The user ID comes from {@link PortfolioIndex} and the latest NAVs from {@link NavCache}, so the database is
+ * read once, for the ledger. Holdings are valued today; returns are converted to percentages rounded half up to
+ * two decimals. A user without transactions has no holdings and no returns.
+ * </p>
+ *
+ * @author Subash
+ * @see ReturnsService
+ */
+@Service
+public class ReturnsServiceImpl implements ReturnsService {
+    private static final Logger logger = LogManager.getLogger(ReturnsServiceImpl.class);
+
+    private static final int SCALE = 2;
+
+    private final ReturnsRepository returnsRepository;
+    private final PortfolioIndex portfolioIndex;
+    private final NavCache navCache;
+    private final GenericLogger genericLogger;
+
+    /**
+     * Constructor-based dependency injection for the returns.
+     */
+    public ReturnsServiceImpl(ReturnsRepository returnsRepository, PortfolioIndex portfolioIndex, NavCache navCache,
+                              GenericLogger genericLogger) {
+        this.returnsRepository = returnsRepository;
+        this.portfolioIndex = portfolioIndex;
+        this.navCache = navCache;
+        this.genericLogger = genericLogger;
+    }
+
+    /**
+     * Computes the returns of the holdings of the user at the latest NAVs.
+     *
+     * @param uuid     Unique identifier for tracking the request.
+     * @param username The user whose returns are computed.
+     * @return {@link ResponseEntity} containing the returns, or the reason they cannot be computed.
+     * @throws Exception if the ledger or NAVs cannot be read.
+     */
+    @Override
+    public ResponseEntity<ReturnsResponse> getReturns(String uuid, String username) throws Exception {
+        logger.info(LOG_MESSAGE + "Computing returns of user " + username);
+        ReturnsResponse returnsResponse = new ReturnsResponse();
+        try {
+            Optional<Long> userId = portfolioIndex.findUserId(username);
+            if (userId.isEmpty()) {
+                returnsResponse.setCode(USER_RECORD_NOT_FOUND_CODE);
+                returnsResponse.setMessage(USER_RECORD_NOT_FOUND);
+                return new ResponseEntity<>(returnsResponse, HttpStatus.NOT_FOUND);
+            }
+            ReturnsCalculator calculator = new ReturnsCalculator();
+            returnsRepository.forEachEntry(userId.get(), calculator::add);
+            Map<String, NavPoint> navs = navCache.findLatest(calculator.fundIds());
+            LocalDate valuationDate = LocalDate.now();
+
+            for (Returns holding : calculator.holdings(valuationDate, navs)) {
+                returnsResponse.addHoldingsItem(new HoldingReturn()
+                        .fundId(holding.fundId())
+                        .units(BigDecimal.valueOf(holding.units(), SCALE))
+                        .nav(BigDecimal.valueOf(holding.nav(), SCALE))
+                        .invested(BigDecimal.valueOf(holding.invested(), SCALE))
+                        .redeemed(BigDecimal.valueOf(holding.redeemed(), SCALE))
+                        .currentValue(BigDecimal.valueOf(holding.currentValue(), SCALE))
+                        .gain(gain(holding))
+                        .since(holding.since())
+                        .absoluteReturn(percent(holding.absoluteReturn()))
+                        .annualizedReturn(percent(holding.annualizedReturn()))
+                        .xirr(percent(holding.xirr())));
+            }
+            Returns portfolio = calculator.portfolio(valuationDate, navs);
+            returnsResponse.setUsername(username);
+            returnsResponse.setValuationDate(valuationDate);
+            returnsResponse.setInvested(BigDecimal.valueOf(portfolio.invested(), SCALE));
+            returnsResponse.setRedeemed(BigDecimal.valueOf(portfolio.redeemed(), SCALE));
+            returnsResponse.setCurrentValue(BigDecimal.valueOf(portfolio.currentValue(), SCALE));
+            returnsResponse.setGain(gain(portfolio));
+            returnsResponse.setSince(portfolio.since());
+            returnsResponse.setAbsoluteReturn(percent(portfolio.absoluteReturn()));
+            returnsResponse.setAnnualizedReturn(percent(portfolio.annualizedReturn()));
+            returnsResponse.setXirr(percent(portfolio.xirr()));
+            logger.info(LOG_MESSAGE + "Computed returns of " + calculator.fundIds().size() + " funds of user "
+                    + username);
+        } catch (Exception e) {
+            // Logger error response
+            genericLogger.logResponse(logger, uuid, "ERROR", Constants.API_PROCESSED_FAILURE);
+            throw new Exception(e);
+        }
+        returnsResponse.setCode(RETURNS_RETRIEVED_CODE);
+        returnsResponse.setMessage(RETURNS_RETRIEVED);
+        return new ResponseEntity<>(returnsResponse, HttpStatus.OK);
+    }
+
+    private static BigDecimal gain(Returns returns) {
+        return BigDecimal.valueOf(Math.subtractExact(Math.addExact(returns.currentValue(), returns.redeemed()),
+                returns.invested()), SCALE);
+    }
+
+    /**
+     * Converts a fraction to a percentage rounded half up to two decimals.
+     */
+    private static BigDecimal percent(Double fraction) {
+        if (fraction == null) {
+            return null;
+        }
+        return BigDecimal.valueOf(fraction).movePointRight(2).setScale(SCALE, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,42 @@
+package com.subash.fund.management.service;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+/**
+ * Service interface for exporting the transactions of a user, or of all users, as a statement file.
+ * <p>
+ * A statement covers whole days and is written as CSV or NDJSON (one JSON object per line) while the rows are
+ * read, so its size is not bounded by memory.
+ * </p>
+ *
+ * @author Subash
+ */
+public interface StatementService {
+
+    /**
+     * Streams the transactions of a date range.
+     *
+     * @param uuid     Unique identifier for the request (used for logging and tracing)
+     * @param username The user whose transactions are exported, or {@code null} for all users
+     * @param fundId   Optional fund filter
+     * @param from     First day of the statement, or {@code null} for {@code statement.default-months} before
+     *                 {@code to}
+     * @param to       Last day of the statement, or {@code null} for today
+     * @param format   {@code csv} (default) or {@code ndjson}
+     * @return A {@link ResponseEntity} streaming the statement, or a JSON error
+     * @throws Exception if the user cannot be read
+     */
+    ResponseEntity<StreamingResponseBody> getStatement(String uuid, String username, String fundId, LocalDate from,
+                                                       LocalDate to, String format) throws Exception;
+
+    /**
+     * Answers a statement request the caller is not allowed to make.
+     *
+     * @param message the reason of the denial
+     * @return A {@link ResponseEntity} with status {@code 403} and a JSON error
+     */
+    ResponseEntity<StreamingResponseBody> accessDenied(String message);
+}
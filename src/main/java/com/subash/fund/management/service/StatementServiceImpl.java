@@ -0,0 +1,414 @@
+package com.subash.fund.management.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.subash.fund.management.model.ErrorResponse;
+import com.subash.fund.management.model.TransactionSummary;
+import com.subash.fund.management.repository.StatementRepository;
+import com.subash.fund.management.util.Constants;
+import com.subash.fund.management.util.GenericLogger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ObjLongConsumer;
+
+import static com.subash.fund.management.util.Constants.*;
+
+/**
+ * Implementation of {@link StatementService} writing each row to the response as it is read from the cursor of
+ * {@link StatementRepository}.
+ * <p>
+ * The statement is a {@link StreamingResponseBody}, written on a Spring MVC async thread after the request thread
+ * returned: the heap holds one fetch of rows and the buffer of the writer, whatever the number of rows. A client
+ * that disconnects aborts the query. A failure after the first rows were sent can no longer change the status;
+ * the connection is closed without completing the response, so the client sees a truncated transfer rather than
+ * a short statement.
+ * </p>
+ * <p>
+ * Each export holds a database connection for its duration, outside the request concurrency limit, so at most
+ * {@code statement.max-concurrent} run at once; others are answered with {@code 503} and {@code Retry-After}. The
+ * permit is taken by the request thread, so that a busy export can still be refused, and released once by the
+ * export or, if the body never ran, when the async request completes, times out or fails.
+ * </p>
+ *
+ * @author Subash
+ * @see StatementService
+ */
+@Service
+public class StatementServiceImpl implements StatementService {
+    private static final Logger logger = LogManager.getLogger(StatementServiceImpl.class);
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final String CSV_HEADER = "id,user_id,fund_id,type,units,nav,amount,timestamp\n";
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    /**
+     * Key of the async interceptor releasing the permit of an export whose body never ran.
+     */
+    static final String PERMIT_INTERCEPTOR = StatementServiceImpl.class.getName() + ".permit";
+
+    private final StatementRepository statementRepository;
+    private final PortfolioIndex portfolioIndex;
+    private final ObjectMapper objectMapper;
+    private final GenericLogger genericLogger;
+    private final Semaphore exports;
+
+    @Value("${statement.default-months:12}")
+    private int defaultMonths;
+
+    /**
+     * Constructor-based dependency injection for the statements.
+     */
+    public StatementServiceImpl(StatementRepository statementRepository, PortfolioIndex portfolioIndex,
+                                ObjectMapper objectMapper, GenericLogger genericLogger,
+                                @Value("${statement.max-concurrent:2}") int maxConcurrent) {
+        this.statementRepository = statementRepository;
+        this.portfolioIndex = portfolioIndex;
+        this.objectMapper = objectMapper;
+        this.genericLogger = genericLogger;
+        this.exports = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * Validates the query, resolves the user and returns the body streaming the statement.
+     *
+     * @param uuid     Unique identifier for tracking the request.
+     * @param username The user whose transactions are exported, or {@code null} for all users.
+     * @param fundId   Optional fund filter.
+     * @param from     First day of the statement, or {@code null} for the default range.
+     * @param to       Last day of the statement, or {@code null} for today.
+     * @param format   {@code csv} or {@code ndjson}, {@code csv} if {@code null}.
+     * @return {@link ResponseEntity} streaming the statement, or the reason it cannot be exported.
+     * @throws Exception if the user cannot be read.
+     */
+    @Override
+    public ResponseEntity<StreamingResponseBody> getStatement(String uuid, String username, String fundId,
+                                                              LocalDate from, LocalDate to, String format)
+            throws Exception {
+        String owner = username == null ? "all users" : "user " + username;
+        logger.info(LOG_MESSAGE + "Exporting statement of " + owner);
+        Format statementFormat = Format.parse(format);
+        LocalDate last = to == null ? LocalDate.now() : to;
+        LocalDate first = from == null ? last.minusMonths(defaultMonths) : from;
+        if (statementFormat == null || first.isAfter(last)) {
+            return error(HttpStatus.BAD_REQUEST, INVALID_STATEMENT_QUERY_CODE, INVALID_STATEMENT_QUERY);
+        }
+        Long userId = null;
+        try {
+            if (username != null) {
+                Optional<Long> found = portfolioIndex.findUserId(username);
+                if (found.isEmpty()) {
+                    return error(HttpStatus.NOT_FOUND, USER_RECORD_NOT_FOUND_CODE, USER_RECORD_NOT_FOUND);
+                }
+                userId = found.get();
+            }
+        } catch (Exception e) {
+            // Logger error response
+            genericLogger.logResponse(logger, uuid, "ERROR", Constants.API_PROCESSED_FAILURE);
+            throw new Exception(e);
+        }
+        if (!exports.tryAcquire()) {
+            logger.info(LOG_MESSAGE + "Statement of " + owner + " rejected, " + exports.availablePermits()
+                    + " exports available");
+            ResponseEntity<StreamingResponseBody> busy = error(HttpStatus.SERVICE_UNAVAILABLE, SERVICE_BUSY_CODE,
+                    SERVICE_BUSY);
+            return ResponseEntity.status(busy.getStatusCode()).headers(busy.getHeaders())
+                    .header(HttpHeaders.RETRY_AFTER, "1").body(busy.getBody());
+        }
+
+        String filename = "statement-" + (username == null ? "all" : username) + "-" + first + "-" + last + "."
+                + statementFormat.extension;
+        Long exportedUserId = userId;
+        ExportPermit permit = new ExportPermit();
+        releaseOnCompletion(permit);
+        StreamingResponseBody body = out -> {
+            if (!permit.start()) {
+                logger.info(LOG_MESSAGE + "Statement of " + owner + " not exported, the request already completed");
+                return;
+            }
+            try {
+                export(out, exportedUserId, fundId, first, last, statementFormat, owner);
+            } finally {
+                permit.release();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(statementFormat.mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build()
+                        .toString())
+                .body(body);
+    }
+
+    /**
+     * Answers with {@code 403} and an {@link ErrorResponse}.
+     *
+     * @param message the reason of the denial
+     * @return {@link ResponseEntity} with the JSON error
+     */
+    @Override
+    public ResponseEntity<StreamingResponseBody> accessDenied(String message) {
+        return error(HttpStatus.FORBIDDEN, ACCESS_DENIED_CODE, message);
+    }
+
+    /**
+     * Releases the permit when the async request of the current thread completes, including after a timeout or an
+     * error, unless the body started and releases it itself. Outside a request, only the body releases it.
+     */
+    private void releaseOnCompletion(ExportPermit permit) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return;
+        }
+        WebAsyncUtils.getAsyncManager(servletAttributes.getRequest()).registerCallableInterceptor(PERMIT_INTERCEPTOR,
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+                        permit.releaseUnlessStarted();
+                    }
+                });
+    }
+
+    /**
+     * Writes the statement, on the async thread.
+     */
+    private void export(OutputStream out, Long userId, String fundId, LocalDate first, LocalDate last,
+                        Format format, String owner) throws IOException {
+        long start = System.nanoTime();
+        RowWriter writer = format == Format.CSV ? new CsvWriter(out) : new NdjsonWriter(objectMapper, out);
+        try {
+            statementRepository.forEachTransaction(userId, fundId, first.atStartOfDay(),
+                    last.plusDays(1).atStartOfDay(), writer);
+            writer.finish();
+        } catch (UncheckedIOException e) {
+            logger.info(LOG_MESSAGE + "Statement of " + owner + " aborted by the client after " + writer.rows
+                    + " rows");
+            throw e.getCause();
+        } catch (RuntimeException e) {
+            logger.error(LOG_MESSAGE + "Statement of " + owner + " failed after " + writer.rows + " rows", e);
+            throw e;
+        }
+        logger.info(LOG_MESSAGE + "Exported " + writer.rows + " transactions of " + owner + " from " + first
+                + " to " + last + " in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+    }
+
+    /**
+     * A JSON {@link ErrorResponse}, the body of a statement that cannot be exported.
+     */
+    private ResponseEntity<StreamingResponseBody> error(HttpStatus status, Integer code, String message) {
+        ErrorResponse errorResponse = new ErrorResponse();
+        errorResponse.setCode(code);
+        errorResponse.setMessage(message);
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writeValue(out, errorResponse));
+    }
+
+    /**
+     * A permit of {@link #exports}, released exactly once: by the export once it ran, or on completion of the
+     * request if it never started.
+     */
+    private final class ExportPermit {
+
+        private static final int PENDING = 0;
+        private static final int STARTED = 1;
+        private static final int RELEASED = 2;
+
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        /**
+         * @return whether the export may run, {@code false} if the permit was already released
+         */
+        boolean start() {
+            return state.compareAndSet(PENDING, STARTED);
+        }
+
+        /**
+         * Releases the permit held by a started export.
+         */
+        void release() {
+            if (state.compareAndSet(STARTED, RELEASED)) {
+                exports.release();
+            }
+        }
+
+        /**
+         * Releases the permit if the export never started.
+         */
+        void releaseUnlessStarted() {
+            if (state.compareAndSet(PENDING, RELEASED)) {
+                exports.release();
+            }
+        }
+    }
+
+    /**
+     * Statement formats, selected by the {@code format} parameter.
+     */
+    enum Format {
+        CSV("csv", TEXT_CSV),
+        NDJSON("ndjson", APPLICATION_NDJSON);
+
+        private final String extension;
+        private final MediaType mediaType;
+
+        Format(String extension, MediaType mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        /**
+         * @return the format, {@link #CSV} if {@code null}, or {@code null} if unknown
+         */
+        static Format parse(String format) {
+            if (format == null) {
+                return CSV;
+            }
+            try {
+                return valueOf(format.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Writes each transaction as it is read, counting the rows.
+     */
+    private abstract static class RowWriter implements ObjLongConsumer<TransactionSummary> {
+
+        private long rows;
+
+        @Override
+        public final void accept(TransactionSummary transaction, long userId) {
+            try {
+                write(transaction, userId);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            rows++;
+        }
+
+        abstract void write(TransactionSummary transaction, long userId) throws IOException;
+
+        /**
+         * Flushes the rows still buffered.
+         */
+        abstract void finish() throws IOException;
+    }
+
+    /**
+     * RFC 4180 CSV with a header line; amounts are written with their two decimals.
+     */
+    private static final class CsvWriter extends RowWriter {
+
+        private final Writer writer;
+
+        private CsvWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            writer.write(CSV_HEADER);
+        }
+
+        @Override
+        void write(TransactionSummary transaction, long userId) throws IOException {
+            writer.write(Long.toString(transaction.id()));
+            writer.write(',');
+            writer.write(Long.toString(userId));
+            writer.write(',');
+            writeText(transaction.fundId());
+            writer.write(',');
+            writeText(transaction.type());
+            writer.write(',');
+            writer.write(transaction.units().toPlainString());
+            writer.write(',');
+            writer.write(transaction.nav().toPlainString());
+            writer.write(',');
+            writer.write(transaction.amount().toPlainString());
+            writer.write(',');
+            writer.write(transaction.timestamp().toString());
+            writer.write('\n');
+        }
+
+        /**
+         * Quotes a value holding a separator, quote or line break, doubling its quotes.
+         */
+        private void writeText(String value) throws IOException {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                    && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        void finish() throws IOException {
+            writer.flush();
+        }
+    }
+
+    /**
+     * One JSON object per line, with the field names of {@code TransactionView} plus {@code userId}.
+     */
+    private static final class NdjsonWriter extends RowWriter {
+
+        private final JsonGenerator generator;
+
+        private NdjsonWriter(ObjectMapper objectMapper, OutputStream out) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+            // Lines are ended explicitly instead of separating root values with a space
+            generator.setRootValueSeparator(null);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        void write(TransactionSummary transaction, long userId) throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("id", transaction.id());
+            generator.writeNumberField("userId", userId);
+            generator.writeStringField("fundId", transaction.fundId());
+            generator.writeStringField("type", transaction.type());
+            generator.writeNumberField("units", transaction.units());
+            generator.writeNumberField("nav", transaction.nav());
+            generator.writeNumberField("amount", transaction.amount());
+            generator.writeStringField("timestamp", transaction.timestamp().toString());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        void finish() throws IOException {
+            generator.flush();
+        }
+    }
+}
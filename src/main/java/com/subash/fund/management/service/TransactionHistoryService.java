@@ -0,0 +1,32 @@
+package com.subash.fund.management.service;
+
+import com.subash.fund.management.model.TransactionHistoryResponse;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Service interface for reading the transaction history of a user.
+ * <p>
+ * The history is returned newest first in pages of bounded size. Each page carries an opaque cursor to the next
+ * one, which resumes after the last transaction of the page instead of counting an offset from the start.
+ * </p>
+ *
+ * @author Subash
+ * @see com.subash.fund.management.model.TransactionHistoryResponse
+ */
+public interface TransactionHistoryService {
+
+    /**
+     * Returns a page of the transactions of a user.
+     *
+     * @param uuid     Unique identifier for the request (used for logging and tracing)
+     * @param username The user whose transactions are returned
+     * @param fundId   Only transactions of this fund, or {@code null} for all funds
+     * @param type     Only transactions of this type ({@code BUY} or {@code REDEEM}), or {@code null} for both
+     * @param limit    Requested page size, or {@code null} for the default; capped at the maximum page size
+     * @param cursor   The {@code nextCursor} of the previous page, or {@code null} for the first page
+     * @return A {@link ResponseEntity} containing the page and the HTTP status code
+     * @throws Exception if the history cannot be read
+     */
+    ResponseEntity<TransactionHistoryResponse> getTransactions(String uuid, String username, String fundId, String type,
+                                                               Integer limit, String cursor) throws Exception;
+}
@@ -0,0 +1,159 @@
+package com.subash.fund.management.service;
+
+import com.subash.fund.management.model.TransactionHistoryResponse;
+import com.subash.fund.management.model.TransactionSummary;
+import com.subash.fund.management.model.TransactionView;
+import com.subash.fund.management.model.User;
+import com.subash.fund.management.repository.TransactionRepository;
+import com.subash.fund.management.repository.UserRepository;
+import com.subash.fund.management.util.Constants;
+import com.subash.fund.management.util.GenericLogger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+import static com.subash.fund.management.util.Constants.*;
+
+/**
+ * Implementation of {@link TransactionHistoryService} with keyset pagination on {@code (timestamp, id)}.
+ * <p>
+ * The cursor is the URL-safe Base64 of the timestamp and ID of the last transaction of the page; the next page
+ * seeks to it through the {@code (user_id, timestamp, id)} index, see {@link TransactionRepository#findHistory}.
+ * One more row than the page size is read to know whether a next page exists. Rows are projected to
+ * {@link TransactionSummary}, so no entity is loaded.
+ * </p>
+ *
+ * @author Subash
+ * @see TransactionHistoryService
+ */
+@Service
+public class TransactionHistoryServiceImpl implements TransactionHistoryService {
+    private static final Logger logger = LogManager.getLogger(TransactionHistoryServiceImpl.class);
+
+    /**
+     * Cursor of the first page: after every transaction.
+     */
+    private static final LocalDateTime FIRST_PAGE_TIMESTAMP = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private final UserRepository userRepository;
+    private final TransactionRepository transactionRepository;
+    private final GenericLogger genericLogger;
+
+    @Value("${transaction.history.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${transaction.history.max-page-size:200}")
+    private int maxPageSize;
+
+    /**
+     * Constructor-based dependency injection for the transaction history.
+     */
+    public TransactionHistoryServiceImpl(UserRepository userRepository, TransactionRepository transactionRepository,
+                                         GenericLogger genericLogger) {
+        this.userRepository = userRepository;
+        this.transactionRepository = transactionRepository;
+        this.genericLogger = genericLogger;
+    }
+
+    /**
+     * Reads the page of the user's transactions after the cursor.
+     *
+     * @param uuid     Unique identifier for tracking the request.
+     * @param username The user whose transactions are returned.
+     * @param fundId   Fund filter, or {@code null}.
+     * @param type     Transaction type filter, or {@code null}.
+     * @param limit    Requested page size, or {@code null}.
+     * @param cursor   Cursor of the page, or {@code null} for the first page.
+     * @return {@link ResponseEntity} containing the page, or the reason it cannot be read.
+     * @throws Exception if the database query fails.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ResponseEntity<TransactionHistoryResponse> getTransactions(String uuid, String username, String fundId,
+                                                                      String type, Integer limit, String cursor)
+            throws Exception {
+        logger.info(LOG_MESSAGE + "Reading transactions of user " + username);
+        TransactionHistoryResponse transactionHistoryResponse = new TransactionHistoryResponse();
+        try {
+            Cursor after = cursor == null ? new Cursor(FIRST_PAGE_TIMESTAMP, Long.MAX_VALUE) : Cursor.decode(cursor);
+            if (after == null) {
+                transactionHistoryResponse.setCode(INVALID_CURSOR_CODE);
+                transactionHistoryResponse.setMessage(INVALID_CURSOR);
+                return new ResponseEntity<>(transactionHistoryResponse, HttpStatus.BAD_REQUEST);
+            }
+            Optional<User> userOptional = userRepository.findByUsername(username);
+            if (userOptional.isEmpty()) {
+                transactionHistoryResponse.setCode(USER_RECORD_NOT_FOUND_CODE);
+                transactionHistoryResponse.setMessage(USER_RECORD_NOT_FOUND);
+                return new ResponseEntity<>(transactionHistoryResponse, HttpStatus.NOT_FOUND);
+            }
+
+            int pageSize = Math.max(1, Math.min(limit == null ? defaultPageSize : limit, maxPageSize));
+            List<TransactionSummary> rows = transactionRepository.findHistory(userOptional.get().getId(),
+                    after.timestamp(), after.id(), fundId, type == null ? null : type.toUpperCase(Locale.ROOT),
+                    Limit.of(pageSize + 1));
+            List<TransactionSummary> page = rows.size() > pageSize ? rows.subList(0, pageSize) : rows;
+            ZoneId zone = ZoneId.systemDefault();
+            for (TransactionSummary row : page) {
+                transactionHistoryResponse.addTransactionsItem(new TransactionView()
+                        .transactionId(row.id())
+                        .fundId(row.fundId())
+                        .type(row.type())
+                        .units(row.units())
+                        .nav(row.nav())
+                        .amount(row.amount())
+                        .timestamp(row.timestamp().atZone(zone).toOffsetDateTime()));
+            }
+            if (rows.size() > pageSize) {
+                TransactionSummary last = page.get(page.size() - 1);
+                transactionHistoryResponse.setNextCursor(new Cursor(last.timestamp(), last.id()).encode());
+            }
+            logger.info(LOG_MESSAGE + "Read " + page.size() + " transactions of user " + username);
+        } catch (Exception e) {
+            // Logger error response
+            genericLogger.logResponse(logger, uuid, "ERROR", Constants.API_PROCESSED_FAILURE);
+            throw new Exception(e);
+        }
+        transactionHistoryResponse.setCode(TRANSACTIONS_RETRIEVED_CODE);
+        transactionHistoryResponse.setMessage(TRANSACTIONS_RETRIEVED);
+        return new ResponseEntity<>(transactionHistoryResponse, HttpStatus.OK);
+    }
+
+    /**
+     * Position after a transaction, in the descending {@code (timestamp, id)} order of the history.
+     */
+    record Cursor(LocalDateTime timestamp, long id) {
+
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((timestamp + "|" + id).getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * @return the cursor, or {@code null} if the value was not produced by {@link #encode()}
+         */
+        static Cursor decode(String value) {
+            try {
+                String decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+                int separator = decoded.indexOf('|');
+                return new Cursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                        Long.parseLong(decoded.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+    }
+}
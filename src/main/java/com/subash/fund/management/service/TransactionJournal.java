@@ -0,0 +1,759 @@
+package com.subash.fund.management.service;
+
+import com.subash.fund.management.model.FundScript;
+import com.subash.fund.management.model.JournalCheckpoint;
+import com.subash.fund.management.model.Transaction;
+import com.subash.fund.management.model.User;
+import com.subash.fund.management.repository.JournalCheckpointRepository;
+import com.subash.fund.management.repository.OrderBatchRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static com.subash.fund.management.util.Constants.LOG_MESSAGE;
+
+/**
+ * Write-behind journal of {@link Transaction} rows, taking the {@code transactions} insert off the order path.
+ * <p>
+ * Inserting the history row is a statement of every order's database transaction, which batching across
+ * orders cannot remove. With {@code transaction.journal.enabled=true}, {@link OrderServiceImpl} appends the row
+ * to this journal instead, and a background thread inserts the journaled rows in JDBC batches:
+ * <ul>
+ *     <li>records are appended to memory-mapped segment files of {@code segment-size} in {@code directory},
+ *     each with its length, a CRC32 and a sequence number; a torn record at the end of a segment is ignored</li>
+ *     <li>{@code fsync} decides when appended records are forced to disk: {@code always} before the order
+ *     commits (concurrent appends share one force), {@code interval} on every flush cycle, {@code none} leaves
+ *     it to the OS. Records survive a crash of the process in every mode, as they are in the page cache</li>
+ *     <li>the flusher inserts up to {@code batch-size} records every {@code flush-interval} (sooner when a batch
+ *     is full) and advances the journal's {@link JournalCheckpoint} in the same database transaction, so each
+ *     record is inserted exactly once; a failed batch is retried on the next cycle</li>
+ *     <li>a batch failing {@code max-attempts} times in a row is inserted record by record; a record rejected by
+ *     the database on its own ({@link DataIntegrityViolationException}) is moved to the
+ *     {@value #DEAD_LETTER_FILE} file of the directory and counted by {@code transaction.journal.dead.letters},
+ *     so it no longer holds back the records after it</li>
+ *     <li>at start-up the records after the checkpoint are replayed, and segments whose records are all
+ *     inserted are deleted</li>
+ * </ul>
+ * Rows show up in {@code transactions} up to a flush cycle after the order was answered;
+ * {@code transaction.journal.pending} reports the backlog.
+ * </p>
+ * <p>
+ * Ordering with the order's database transaction: the record is appended, and forced with {@code fsync=always},
+ * in {@code beforeCommit}, so an order commits only once its row is durable, and a failed append rolls the order
+ * back. The flusher does not insert a record until its order completed. If the commit then fails, a cancel
+ * record is appended and the row is never inserted; an unknown commit outcome counts as committed. A crash
+ * between the append and the commit leaves a record whose order may not have committed; it is replayed like
+ * the others, so such an unanswered order can leave a history row.
+ * </p>
+ * <p>
+ * The directory belongs to one application node: it identifies its journal with the {@code node-id} file.
+ * </p>
+ *
+ * @see OrderBatchRepository#insertTransactions
+ */
+@Component
+public class TransactionJournal {
+
+    private static final Logger logger = LogManager.getLogger(TransactionJournal.class);
+
+    /**
+     * Record header: payload length and CRC32 of the payload.
+     */
+    private static final int HEADER_BYTES = 8;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String NODE_ID_FILE = "node-id";
+    private static final String DEAD_LETTER_FILE = "dead-letters.log";
+    /**
+     * Payload length of a cancel record: its sequence and the sequence of the cancelled record.
+     */
+    private static final int CANCEL_PAYLOAD_BYTES = 16;
+    private static final long SHUTDOWN_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(30);
+
+    /**
+     * When appended records are forced to disk.
+     */
+    enum Fsync {
+        ALWAYS,
+        INTERVAL,
+        NONE
+    }
+
+    /**
+     * Outcome of the order of a record.
+     */
+    private enum State {
+        /**
+         * The order has not completed yet; the flusher waits for it.
+         */
+        OPEN,
+        COMMITTED,
+        CANCELLED
+    }
+
+    private final OrderBatchRepository orderBatchRepository;
+    private final JournalCheckpointRepository journalCheckpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate fallbackTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${transaction.journal.enabled:false}")
+    private boolean enabled;
+    @Value("${transaction.journal.directory:journal}")
+    private String directory;
+    @Value("${transaction.journal.segment-size:64MB}")
+    private DataSize segmentSize;
+    @Value("${transaction.journal.fsync:always}")
+    private Fsync fsync;
+    @Value("${transaction.journal.flush-interval:50ms}")
+    private Duration flushInterval;
+    @Value("${transaction.journal.batch-size:1000}")
+    private int batchSize;
+    @Value("${transaction.journal.max-attempts:5}")
+    private int maxAttempts;
+
+    /**
+     * Guards {@link #active}, {@link #segments} and {@link #nextSequence}, and keeps {@link #pending} in sequence
+     * order.
+     */
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Queue<Entry> pending = new ConcurrentLinkedQueue<>();
+    /**
+     * Records appended but not inserted yet, including the batch being inserted.
+     */
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final Deque<Segment> segments = new ArrayDeque<>();
+
+    private Path journalDirectory;
+    private String nodeId;
+    private Segment active;
+    private long nextSequence;
+    private volatile long flushedSequence;
+    private volatile boolean running;
+    private Thread flusher;
+    private Counter deadLetters;
+    /**
+     * Consecutive failures of the batch at the head of the journal; used by the flusher only.
+     */
+    private int failedAttempts;
+
+    /**
+     * Constructor to inject required dependencies.
+     *
+     * @param orderBatchRepository        JDBC repository inserting the transaction rows in batches
+     * @param journalCheckpointRepository Repository of the flushed sequence of each journal
+     * @param transactionManager          Transaction manager used by the flushes
+     * @param meterRegistry               Registry for the backlog gauge
+     */
+    public TransactionJournal(OrderBatchRepository orderBatchRepository,
+                              JournalCheckpointRepository journalCheckpointRepository,
+                              PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.orderBatchRepository = orderBatchRepository;
+        this.journalCheckpointRepository = journalCheckpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.fallbackTemplate = new TransactionTemplate(transactionManager);
+        this.fallbackTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Replays the records not inserted before the last stop, opens a new segment and starts the flusher.
+     *
+     * @throws IOException if the journal directory cannot be read or written
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        journalDirectory = Path.of(directory).toAbsolutePath();
+        Files.createDirectories(journalDirectory);
+        nodeId = readNodeId();
+        flushedSequence = journalCheckpointRepository.findById(nodeId)
+                .map(JournalCheckpoint::getFlushedSequence).orElse(0L);
+        long lastSequence = recover();
+        appendLock.lock();
+        try {
+            nextSequence = Math.max(lastSequence, flushedSequence) + 1;
+            active = openSegment(nextSequence);
+            segments.add(active);
+        } finally {
+            appendLock.unlock();
+        }
+        Gauge.builder("transaction.journal.pending", pendingCount, AtomicInteger::get).register(meterRegistry);
+        deadLetters = Counter.builder("transaction.journal.dead.letters")
+                .description("Journaled rows the database rejected, moved to " + DEAD_LETTER_FILE)
+                .register(meterRegistry);
+        running = true;
+        flusher = new Thread(this::runFlusher, "transaction-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        logger.info(LOG_MESSAGE + "Transaction journal " + nodeId + " started in " + journalDirectory + " with "
+                + pendingCount.get() + " records to replay");
+    }
+
+    /**
+     * Stops the flusher once every record is inserted, waiting at most 30 seconds. Records left are replayed at
+     * the next start.
+     */
+    @PreDestroy
+    public void stop() {
+        if (flusher == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join(SHUTDOWN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (fsync != Fsync.NONE) {
+            Segment segment = currentSegment();
+            sync(segment, segment.written);
+        }
+        logger.info(LOG_MESSAGE + "Transaction journal stopped with " + pendingCount.get() + " records pending");
+    }
+
+    /**
+     * @return {@code true} when transaction rows should be appended to the journal
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Journals a transaction row just before the caller's transaction commits, or right away outside a
+     * transaction.
+     * <p>
+     * In a transaction the record is appended, and forced with {@code fsync=always}, in {@code beforeCommit}: if
+     * that fails the exception rolls the transaction back. The flusher inserts the record once the transaction
+     * completed, unless it rolled back.
+     * </p>
+     *
+     * @param transaction the row to insert; its user and fund need their IDs only
+     */
+    public void append(Transaction transaction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            appendOrInsert(transaction);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private Entry entry;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                entry = appendNow(transaction, State.OPEN);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (entry == null) {
+                    return;
+                }
+                if (status == STATUS_ROLLED_BACK) {
+                    cancel(entry);
+                } else {
+                    entry.state = State.COMMITTED;
+                }
+            }
+        });
+    }
+
+    /**
+     * Waits until every appended record is inserted.
+     *
+     * @param timeout maximum time to wait
+     * @return {@code true} if nothing is pending
+     */
+    public boolean awaitFlushed(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (pendingCount.get() > 0 && System.nanoTime() - deadline < 0) {
+            LockSupport.unpark(flusher);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        return pendingCount.get() == 0;
+    }
+
+    private void appendOrInsert(Transaction transaction) {
+        try {
+            appendNow(transaction, State.COMMITTED);
+        } catch (RuntimeException e) {
+            // Without a transaction to roll back, the row must not be lost with the journal
+            logger.error(LOG_MESSAGE + "Transaction journal append failed, inserting the row directly", e);
+            fallbackTemplate.executeWithoutResult(status ->
+                    orderBatchRepository.insertTransactions(List.of(transaction)));
+        }
+    }
+
+    /**
+     * Writes the record to the active segment and queues it for the flusher.
+     *
+     * @return the queued record
+     */
+    private Entry appendNow(Transaction transaction, State state) {
+        return write(encode(transaction), transaction, state);
+    }
+
+    /**
+     * Marks the record of a rolled back order as cancelled and journals that, so that it is not replayed either.
+     */
+    private void cancel(Entry entry) {
+        entry.state = State.CANCELLED;
+        ByteBuffer payload = ByteBuffer.allocate(CANCEL_PAYLOAD_BYTES);
+        payload.putLong(8, entry.sequence);
+        try {
+            write(payload, null, null);
+        } catch (RuntimeException e) {
+            logger.error(LOG_MESSAGE + "Could not journal the cancellation of record " + entry.sequence
+                    + "; it is skipped but would be replayed after a restart", e);
+        }
+    }
+
+    /**
+     * Writes a record payload to the active segment, queuing a transaction record for the flusher.
+     *
+     * @param payload     the payload; its first 8 bytes receive the sequence number
+     * @param transaction the row of the record, or {@code null} for a cancel record
+     * @param state       the state of the queued record
+     * @return the queued record, or {@code null} for a cancel record
+     */
+    private Entry write(ByteBuffer payload, Transaction transaction, State state) {
+        CRC32 crc = new CRC32();
+        Segment segment;
+        int end;
+        Entry entry = null;
+        appendLock.lock();
+        try {
+            long sequence = nextSequence++;
+            payload.putLong(0, sequence);
+            crc.update(payload.duplicate());
+            if (active.buffer.remaining() < HEADER_BYTES + payload.limit()) {
+                roll(sequence);
+            }
+            // Payload first, so that a record is never visible with its header but without its content
+            int start = active.buffer.position();
+            active.buffer.position(start + HEADER_BYTES);
+            active.buffer.put(payload);
+            active.buffer.putInt(start, payload.limit());
+            active.buffer.putInt(start + 4, (int) crc.getValue());
+            active.lastSequence = sequence;
+            active.written = active.buffer.position();
+            segment = active;
+            end = active.written;
+            if (transaction != null) {
+                entry = new Entry(sequence, transaction, state);
+                pending.add(entry);
+            }
+        } finally {
+            appendLock.unlock();
+        }
+        if (entry != null && pendingCount.incrementAndGet() == batchSize) {
+            LockSupport.unpark(flusher);
+        }
+        if (fsync == Fsync.ALWAYS) {
+            sync(segment, end);
+        }
+        return entry;
+    }
+
+    /**
+     * Seals the active segment and continues in a new one starting at the given sequence.
+     */
+    private void roll(long sequence) {
+        if (fsync != Fsync.NONE) {
+            sync(active, active.written);
+        }
+        active = openSegment(sequence);
+        segments.add(active);
+    }
+
+    /**
+     * Forces the segment to disk up to at least the given position. Appends waiting here are covered by the
+     * force of whichever of them gets the lock first.
+     */
+    private void sync(Segment segment, int end) {
+        if (segment.synced >= end) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            int from = segment.synced;
+            int to = segment.written;
+            if (from < end) {
+                segment.buffer.force(from, to - from);
+                segment.synced = to;
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private Segment currentSegment() {
+        appendLock.lock();
+        try {
+            return active;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void runFlusher() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (running || pendingCount.get() > 0) {
+            if (running && pendingCount.get() < batchSize) {
+                LockSupport.parkNanos(flushInterval.toNanos());
+            }
+            if (fsync == Fsync.INTERVAL) {
+                Segment segment = currentSegment();
+                sync(segment, segment.written);
+            }
+            Entry entry;
+            // Records are taken in sequence order, stopping at one whose order is still open
+            while (batch.size() < batchSize && (entry = pending.peek()) != null && entry.state != State.OPEN) {
+                pending.poll();
+                if (entry.state == State.CANCELLED) {
+                    pendingCount.decrementAndGet();
+                } else {
+                    batch.add(entry);
+                }
+            }
+            if (batch.isEmpty()) {
+                continue;
+            }
+            try {
+                if (failedAttempts >= maxAttempts) {
+                    flushEach(batch);
+                } else {
+                    flush(batch);
+                    pendingCount.addAndGet(-batch.size());
+                    batch.clear();
+                }
+                failedAttempts = 0;
+                deleteFlushedSegments();
+            } catch (RuntimeException e) {
+                failedAttempts++;
+                logger.error(LOG_MESSAGE + "Transaction journal flush failed " + failedAttempts
+                        + " times, retrying on next cycle", e);
+                if (!running) {
+                    LockSupport.parkNanos(flushInterval.toNanos());
+                }
+            }
+        }
+    }
+
+    /**
+     * Inserts a batch that keeps failing record by record, moving the records the database rejects to the
+     * dead-letter file. Stops at the first other failure, leaving the rest of the batch for the next cycle.
+     */
+    private void flushEach(List<Entry> batch) {
+        Iterator<Entry> iterator = batch.iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            try {
+                flush(List.of(entry));
+            } catch (DataIntegrityViolationException e) {
+                deadLetter(entry, e);
+            }
+            iterator.remove();
+            pendingCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Appends a rejected record to the dead-letter file, in the segment format, and advances the checkpoint
+     * past it.
+     */
+    private void deadLetter(Entry entry, DataIntegrityViolationException cause) {
+        ByteBuffer payload = encode(entry.transaction);
+        payload.putLong(0, entry.sequence);
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(payload.limit()).putInt((int) crc.getValue())
+                .flip();
+        try (FileChannel channel = FileChannel.open(journalDirectory.resolve(DEAD_LETTER_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(new ByteBuffer[]{header, payload});
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        transactionTemplate.executeWithoutResult(status ->
+                journalCheckpointRepository.saveFlushedSequence(nodeId, entry.sequence, LocalDateTime.now()));
+        flushedSequence = entry.sequence;
+        deadLetters.increment();
+        logger.error(LOG_MESSAGE + "Transaction journal record " + entry.sequence + " rejected by the database, moved to "
+                + DEAD_LETTER_FILE, cause);
+    }
+
+    /**
+     * Inserts a batch of records and advances the checkpoint past them in one database transaction.
+     */
+    private void flush(List<Entry> batch) {
+        long lastSequence = batch.get(batch.size() - 1).sequence;
+        List<Transaction> transactions = new ArrayList<>(batch.size());
+        for (Entry entry : batch) {
+            transactions.add(entry.transaction);
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            orderBatchRepository.insertTransactions(transactions);
+            journalCheckpointRepository.saveFlushedSequence(nodeId, lastSequence, LocalDateTime.now());
+        });
+        flushedSequence = lastSequence;
+    }
+
+    private void deleteFlushedSegments() {
+        List<Segment> flushed = new ArrayList<>();
+        appendLock.lock();
+        try {
+            while (segments.size() > 1 && segments.peekFirst().lastSequence <= flushedSequence) {
+                flushed.add(segments.pollFirst());
+            }
+        } finally {
+            appendLock.unlock();
+        }
+        for (Segment segment : flushed) {
+            deleteSegment(segment.path);
+        }
+    }
+
+    /**
+     * Queues the records of every segment that are after the checkpoint and were not cancelled, and deletes
+     * segments without any.
+     *
+     * @return the highest sequence found, or the checkpoint if there is none
+     */
+    private long recover() throws IOException {
+        long lastSequence = flushedSequence;
+        List<Path> files;
+        try (Stream<Path> list = Files.list(journalDirectory)) {
+            files = list.filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .sorted().toList();
+        }
+        // A cancel record follows the record it cancels, possibly in a later segment
+        Map<Long, Entry> replayed = new LinkedHashMap<>();
+        for (Path file : files) {
+            Segment segment;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                segment = new Segment(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+            boolean unflushed = false;
+            Entry entry;
+            while ((entry = read(segment.buffer)) != null) {
+                lastSequence = Math.max(lastSequence, entry.sequence);
+                segment.lastSequence = entry.sequence;
+                if (entry.transaction == null) {
+                    replayed.remove(entry.cancelled);
+                } else if (entry.sequence > flushedSequence) {
+                    replayed.put(entry.sequence, entry);
+                    unflushed = true;
+                }
+            }
+            if (unflushed) {
+                segments.add(segment);
+            } else {
+                deleteSegment(file);
+            }
+        }
+        pending.addAll(replayed.values());
+        pendingCount.addAndGet(replayed.size());
+        return lastSequence;
+    }
+
+    private Segment openSegment(long firstSequence) {
+        Path path = journalDirectory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence,
+                SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed
+            return new Segment(path, channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    Math.toIntExact(segmentSize.toBytes())));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteSegment(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.error(LOG_MESSAGE + "Could not delete flushed journal segment " + path, e);
+        }
+    }
+
+    private String readNodeId() throws IOException {
+        Path file = journalDirectory.resolve(NODE_ID_FILE);
+        if (Files.exists(file)) {
+            return Files.readString(file).trim();
+        }
+        String id = UUID.randomUUID().toString();
+        Files.writeString(file, id, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE,
+                StandardOpenOption.SYNC);
+        return id;
+    }
+
+    /**
+     * Encodes a record payload; the first 8 bytes are left for the sequence number.
+     */
+    private static ByteBuffer encode(Transaction transaction) {
+        byte[] fundId = transaction.getFund().getFundId().getBytes(StandardCharsets.UTF_8);
+        byte[] type = transaction.getType().getBytes(StandardCharsets.UTF_8);
+        byte[] units = transaction.getUnits().unscaledValue().toByteArray();
+        byte[] nav = transaction.getNav().unscaledValue().toByteArray();
+        byte[] amount = transaction.getAmount().unscaledValue().toByteArray();
+        ByteBuffer payload = ByteBuffer.allocate(8 + 8 + 8 + 4 + 2 + fundId.length + 2 + type.length
+                + 3 * (4 + 2) + units.length + nav.length + amount.length);
+        payload.putLong(0L)
+                .putLong(transaction.getUser().getId())
+                .putLong(transaction.getTimestamp().toEpochSecond(ZoneOffset.UTC))
+                .putInt(transaction.getTimestamp().getNano());
+        putBytes(payload, fundId);
+        putBytes(payload, type);
+        putDecimal(payload, transaction.getUnits().scale(), units);
+        putDecimal(payload, transaction.getNav().scale(), nav);
+        putDecimal(payload, transaction.getAmount().scale(), amount);
+        return payload.flip();
+    }
+
+    /**
+     * Reads the next record of a segment.
+     *
+     * @return the record, with a {@code null} transaction for a cancel record, or {@code null} at the end of the
+     * written part or at a torn record
+     */
+    private static Entry read(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_BYTES) {
+            return null;
+        }
+        int start = buffer.position();
+        int length = buffer.getInt(start);
+        if (length <= 0 || length > buffer.remaining() - HEADER_BYTES) {
+            return null;
+        }
+        ByteBuffer payload = buffer.slice(start + HEADER_BYTES, length);
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != buffer.getInt(start + 4)) {
+            return null;
+        }
+        buffer.position(start + HEADER_BYTES + length);
+
+        long sequence = payload.getLong();
+        if (length == CANCEL_PAYLOAD_BYTES) {
+            return new Entry(sequence, payload.getLong());
+        }
+        User user = new User();
+        user.setId(payload.getLong());
+        Transaction transaction = new Transaction();
+        transaction.setUser(user);
+        transaction.setTimestamp(LocalDateTime.ofEpochSecond(payload.getLong(), payload.getInt(), ZoneOffset.UTC));
+        FundScript fund = new FundScript();
+        fund.setFundId(new String(getBytes(payload), StandardCharsets.UTF_8));
+        transaction.setFund(fund);
+        transaction.setType(new String(getBytes(payload), StandardCharsets.UTF_8));
+        transaction.setUnits(getDecimal(payload));
+        transaction.setNav(getDecimal(payload));
+        transaction.setAmount(getDecimal(payload));
+        return new Entry(sequence, transaction, State.COMMITTED);
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static byte[] getBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static void putDecimal(ByteBuffer buffer, int scale, byte[] unscaled) {
+        buffer.putInt(scale);
+        putBytes(buffer, unscaled);
+    }
+
+    private static BigDecimal getDecimal(ByteBuffer buffer) {
+        int scale = buffer.getInt();
+        return new BigDecimal(new BigInteger(getBytes(buffer)), scale);
+    }
+
+    /**
+     * A journaled row waiting to be inserted, or a read cancel record.
+     */
+    private static final class Entry {
+        private final long sequence;
+        private final Transaction transaction;
+        /**
+         * Sequence of the record cancelled by a cancel record.
+         */
+        private final long cancelled;
+        private volatile State state;
+
+        private Entry(long sequence, Transaction transaction, State state) {
+            this.sequence = sequence;
+            this.transaction = transaction;
+            this.cancelled = 0;
+            this.state = state;
+        }
+
+        private Entry(long sequence, long cancelled) {
+            this.sequence = sequence;
+            this.transaction = null;
+            this.cancelled = cancelled;
+            this.state = State.CANCELLED;
+        }
+    }
+
+    /**
+     * A mapped segment file. {@link #written} and {@link #synced} are positions in its buffer.
+     */
+    private static final class Segment {
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private long lastSequence;
+        private volatile int written;
+        private volatile int synced;
+
+        private Segment(Path path, MappedByteBuffer buffer) {
+            this.path = path;
+            this.buffer = buffer;
+        }
+    }
+}
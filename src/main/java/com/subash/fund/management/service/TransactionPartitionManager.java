@@ -0,0 +1,121 @@
+package com.subash.fund.management.service;
+
+import com.subash.fund.management.repository.TransactionPartitionRepository;
+import com.subash.fund.management.repository.TransactionPartitionRepository.Partition;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Objects;
+
+import static com.subash.fund.management.util.Constants.LOG_MESSAGE;
+
+/**
+ * Maintains the monthly partitions of the {@code transactions} table.
+ * <p>
+ * Runs at startup and on {@code transaction.partition.cron} (daily by default):
+ * <ul>
+ *     <li>creates the partitions of the current month and of the next {@code transaction.partition.premake-months}
+ *     months, so that a partition always exists well before the first order of the month; there is no default
+ *     partition, which every new partition would have to scan</li>
+ *     <li>when {@code transaction.partition.retention-months} is set, detaches the partitions ending before the
+ *     first day of the month that many months back and moves them to {@code transaction.partition.archive-schema};
+ *     by default nothing is archived</li>
+ * </ul>
+ * A failed step is logged and retried on the next run. Every node runs the maintenance; creating a partition that
+ * exists is a no-op and a partition detached by another node is no longer listed.
+ * </p>
+ */
+@Component
+public class TransactionPartitionManager {
+
+    private static final Logger logger = LogManager.getLogger(TransactionPartitionManager.class);
+
+    private final TransactionPartitionRepository transactionPartitionRepository;
+
+    @Value("${transaction.partition.premake-months:3}")
+    private int premakeMonths;
+
+    @Value("${transaction.partition.retention-months:0}")
+    private int retentionMonths;
+
+    @Value("${transaction.partition.archive-schema:transactions_archive}")
+    private String archiveSchema;
+
+    @Value("${transaction.partition.lock-timeout:5s}")
+    private String lockTimeout;
+
+    /**
+     * Constructs the manager with the partition repository.
+     *
+     * @param transactionPartitionRepository repository of the partitions
+     */
+    public TransactionPartitionManager(TransactionPartitionRepository transactionPartitionRepository) {
+        this.transactionPartitionRepository = transactionPartitionRepository;
+    }
+
+    /**
+     * Creates the partitions of the coming months and archives the expired ones.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${transaction.partition.cron:0 0 3 * * *}")
+    public void maintainPartitions() {
+        List<Partition> partitions;
+        try {
+            partitions = transactionPartitionRepository.findPartitions();
+        } catch (Exception e) {
+            logger.error(LOG_MESSAGE + "Failed to list the transaction partitions", e);
+            return;
+        }
+        YearMonth currentMonth = YearMonth.now();
+        createPartitions(partitions, currentMonth);
+        if (retentionMonths > 0) {
+            archivePartitions(partitions, currentMonth.minusMonths(retentionMonths).atDay(1).atStartOfDay());
+        }
+    }
+
+    /**
+     * Creates the monthly partitions from the end of the last one up to the premake horizon, leaving no gap.
+     */
+    private void createPartitions(List<Partition> partitions, YearMonth currentMonth) {
+        LocalDateTime end = partitions.stream().map(Partition::to).filter(Objects::nonNull)
+                .max(LocalDateTime::compareTo).orElse(null);
+        YearMonth month = end == null ? currentMonth : YearMonth.from(end.minusNanos(1)).plusMonths(1);
+        YearMonth last = currentMonth.plusMonths(premakeMonths);
+        for (; !month.isAfter(last); month = month.plusMonths(1)) {
+            try {
+                transactionPartitionRepository.createPartition(month);
+                logger.info(LOG_MESSAGE + "Created transaction partition "
+                        + TransactionPartitionRepository.partitionName(month));
+            } catch (Exception e) {
+                logger.error(LOG_MESSAGE + "Failed to create the transaction partition of " + month, e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Archives the partitions holding only rows before {@code cutoff}.
+     */
+    private void archivePartitions(List<Partition> partitions, LocalDateTime cutoff) {
+        for (Partition partition : partitions) {
+            if (partition.to() == null || partition.to().isAfter(cutoff)) {
+                continue;
+            }
+            try {
+                transactionPartitionRepository.archivePartition(partition.name(), archiveSchema, lockTimeout);
+                logger.info(LOG_MESSAGE + "Archived transaction partition " + partition.name() + " to "
+                        + archiveSchema);
+            } catch (Exception e) {
+                logger.error(LOG_MESSAGE + "Failed to archive the transaction partition " + partition.name(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.subash.fund.management.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Lock-free pool of reusable, non thread-safe objects such as buffers or {@link javax.crypto.Mac} instances.
+ * <p>
+ * Used instead of {@link ThreadLocal} caches, which do not work with virtual threads: every request runs on a
+ * new virtual thread, so a thread-local object would be created for each request and never reused. At most
+ * {@code maxIdle} objects are kept; objects created beyond that while the pool is exhausted are dropped when
+ * released.
+ * </p>
+ *
+ * @param <T> pooled object type
+ */
+public class BoundedPool<T> {
+
+    private final Queue<T> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final Supplier<T> factory;
+    private final int maxIdle;
+
+    /**
+     * Creates an empty pool.
+     *
+     * @param factory creates a new object when the pool is empty
+     * @param maxIdle maximum number of objects kept for reuse
+     */
+    public BoundedPool(Supplier<T> factory, int maxIdle) {
+        this.factory = factory;
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * @return an idle object, or a new one if none is idle
+     */
+    public T acquire() {
+        T object = idle.poll();
+        if (object == null) {
+            return factory.get();
+        }
+        idleCount.decrementAndGet();
+        return object;
+    }
+
+    /**
+     * Returns an object for reuse; the caller must not use it afterwards.
+     *
+     * @param object the object obtained from {@link #acquire()}
+     */
+    public void release(T object) {
+        if (idleCount.incrementAndGet() <= maxIdle) {
+            idle.offer(object);
+        } else {
+            idleCount.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.subash.fund.management.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import com.subash.fund.management.service.ReturnsBatch;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static com.subash.fund.management.util.Constants.SERVICE_BUSY;
+import static com.subash.fund.management.util.Constants.SERVICE_BUSY_CODE;
+
+/**
+ * Limits the number of API requests processed at once to what the database connection pool can serve.
+ * <p>
+ * With virtual threads ({@code spring.threads.virtual.enabled=true}) Tomcat no longer caps concurrency with its
+ * thread pool, so thousands of requests could queue inside Hikari for one of its connections and fail with a
+ * connection timeout. This filter admits at most {@code concurrency.limit.permits} requests under
+ * {@code /v1/api/}; others wait up to {@code concurrency.limit.acquire-timeout} and are then answered with
+ * {@code 503} and {@code Retry-After}. Waiting here is cheap on a virtual thread and fair, unlike waiting in the
+ * pool.
+ * </p>
+ * <p>
+ * Background work takes its connections from the same pool without a permit, so by default the permits are the
+ * Hikari {@code maximum-pool-size} minus the connections it may hold at once (see
+ * {@link #reservedConnections(Environment, int)}). The application fails to start when none are left for
+ * requests.
+ * </p>
+ * <p>
+ * Enabled by default together with virtual threads, or explicitly with {@code concurrency.limit.enabled}.
+ * Published meters: {@code http.concurrency.limit.in-flight} and {@code http.concurrency.limit.rejected}.
+ * </p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnExpression("${concurrency.limit.enabled:${spring.threads.virtual.enabled:false}}")
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String API_PATH = "/v1/api/";
+
+    private final Semaphore permits;
+    private final int maxPermits;
+    private final long acquireTimeoutNanos;
+    private final Counter rejected;
+
+    /**
+     * Creates the filter, defaulting the permits to the connections left to requests.
+     *
+     * @param permits        maximum number of requests processed at once, {@code 0} for the pool size minus the
+     *                       reserved connections
+     * @param poolSize       the Hikari {@code maximum-pool-size}
+     * @param environment    environment holding the settings of the background work
+     * @param acquireTimeout how long a request waits for a permit before it is rejected
+     * @param meterRegistry  registry for the in-flight and rejection meters
+     */
+    @Autowired
+    public ConcurrencyLimitFilter(
+            @Value("${concurrency.limit.permits:0}") int permits,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+            Environment environment,
+            @Value("${concurrency.limit.acquire-timeout:2s}") Duration acquireTimeout,
+            MeterRegistry meterRegistry) {
+        this(permits > 0 ? permits : defaultPermits(poolSize, reservedConnections(environment, poolSize)),
+                acquireTimeout, meterRegistry);
+    }
+
+    /**
+     * Creates the filter.
+     *
+     * @param maxPermits     maximum number of requests processed at once
+     * @param acquireTimeout how long a request waits for a permit before it is rejected
+     * @param meterRegistry  registry for the in-flight and rejection meters
+     */
+    public ConcurrencyLimitFilter(int maxPermits, Duration acquireTimeout, MeterRegistry meterRegistry) {
+        this.permits = new Semaphore(maxPermits, true);
+        this.maxPermits = maxPermits;
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        this.rejected = Counter.builder("http.concurrency.limit.rejected").register(meterRegistry);
+        Gauge.builder("http.concurrency.limit.in-flight", permits, p -> maxPermits - p.availablePermits())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the permits left to requests once the background connections are reserved.
+     *
+     * @param poolSize the Hikari {@code maximum-pool-size}
+     * @param reserved the connections held by background work
+     * @return the permits
+     * @throws IllegalStateException if no connection is left to requests
+     */
+    static int defaultPermits(int poolSize, int reserved) {
+        int permits = poolSize - reserved;
+        if (permits <= 0) {
+            throw new IllegalStateException("spring.datasource.hikari.maximum-pool-size (" + poolSize
+                    + ") leaves no connection to requests once " + reserved
+                    + " are reserved for background work; raise it or set concurrency.limit.permits");
+        }
+        return permits;
+    }
+
+    /**
+     * Counts the pool connections background work may hold at once without a permit:
+     * <ul>
+     *     <li>one for the scheduler thread, which runs the scheduled jobs one at a time, including the advisory
+     *     lock holder of {@link ReturnsBatch};</li>
+     *     <li>the {@link ReturnsBatch} workers;</li>
+     *     <li>one for the {@code LISTEN} connection, when the NAV cache or the portfolio index invalidates across
+     *     nodes;</li>
+     *     <li>{@code statement.max-concurrent} for the statement exports, which stream after the request
+     *     returned;</li>
+     *     <li>one for the transaction journal flusher, when enabled;</li>
+     *     <li>one per order engine lane, when enabled.</li>
+     * </ul>
+     *
+     * @param environment environment holding the settings of the background work
+     * @param poolSize    the Hikari {@code maximum-pool-size}
+     * @return the reserved connections
+     */
+    static int reservedConnections(Environment environment, int poolSize) {
+        int reserved = 1;
+        if (environment.getProperty("returns.batch.enabled", Boolean.class, true)) {
+            reserved += ReturnsBatch.threads(environment.getProperty("returns.batch.parallelism", Integer.class, 2),
+                    poolSize);
+        }
+        if (environment.getProperty("nav.cache.enabled", Boolean.class, true)
+                && environment.getProperty("nav.cache.invalidation.enabled", Boolean.class, true)
+                || environment.getProperty("portfolio.index.enabled", Boolean.class, true)
+                && environment.getProperty("portfolio.index.invalidation.enabled", Boolean.class, true)) {
+            reserved++;
+        }
+        reserved += environment.getProperty("statement.max-concurrent", Integer.class, 2);
+        if (environment.getProperty("transaction.journal.enabled", Boolean.class, false)) {
+            reserved++;
+        }
+        if (environment.getProperty("order.engine.enabled", Boolean.class, false)) {
+            int lanes = environment.getProperty("order.engine.lanes", Integer.class, 0);
+            reserved += lanes > 0 ? lanes : Runtime.getRuntime().availableProcessors();
+        }
+        return reserved;
+    }
+
+    /**
+     * Only API requests are limited; documentation and actuator endpoints are always served.
+     *
+     * @param request the request
+     * @return {@code true} for requests outside {@code /v1/api/}
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + API_PATH);
+    }
+
+    /**
+     * Processes the request while holding a permit, or rejects it if none becomes available in time.
+     *
+     * @param request     the request
+     * @param response    the response
+     * @param filterChain the remaining filters
+     * @throws ServletException if a later filter fails
+     * @throws IOException      if a later filter fails
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.increment();
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"code\":" + SERVICE_BUSY_CODE + ",\"message\":\"" + SERVICE_BUSY + "\"}");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * @return number of requests currently holding a permit
+     */
+    public int inFlight() {
+        return maxPermits - permits.availablePermits();
+    }
+}
@@ -0,0 +1,264 @@
+package com.subash.fund.management.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongConsumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Concurrent map keyed by primitive {@code long}, without boxing keys or allocating an entry per mapping.
+ * <p>
+ * The keys are spread over {@value #STRIPES} stripes, each an open-addressing table with linear probing held in
+ * two parallel arrays. Reads take no lock: a slot is claimed by writing its key before its value and keeps its key
+ * until the table is resized, so a reader either sees the value or an empty slot. Writes lock their stripe only.
+ * Removed mappings leave a {@code null} value behind, dropped at the next resize; a table is resized once half of
+ * its slots are used. Key {@code 0}, which marks an empty slot, is held in a field of its own.
+ * </p>
+ *
+ * @param <V> value type
+ */
+public class ConcurrentLongMap<V> {
+
+    private static final int STRIPES = 64;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Stripe<V>[] stripes;
+    private volatile V zeroValue;
+
+    /**
+     * Creates an empty map.
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentLongMap() {
+        stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe<>();
+        }
+    }
+
+    /**
+     * @param key the key
+     * @return the value of the key, or {@code null} if absent
+     */
+    public V get(long key) {
+        if (key == 0) {
+            return zeroValue;
+        }
+        long hash = hash(key);
+        return stripe(hash).table.get(key, hash);
+    }
+
+    /**
+     * Maps a key to a value, replacing any previous value.
+     *
+     * @param key   the key
+     * @param value the value, not {@code null}
+     * @return the previous value, or {@code null} if absent
+     */
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        return compute(key, current -> value);
+    }
+
+    /**
+     * Replaces the value of a key with the result of a function, atomically with respect to the other writes of the
+     * key. The function must be quick, as it runs under the lock of the stripe.
+     *
+     * @param key       the key
+     * @param remapping receives the current value, or {@code null} if absent, and returns the new value, or
+     *                  {@code null} to remove the key
+     * @return the previous value, or {@code null} if absent
+     */
+    public V compute(long key, UnaryOperator<V> remapping) {
+        if (key == 0) {
+            synchronized (this) {
+                V previous = zeroValue;
+                zeroValue = remapping.apply(previous);
+                return previous;
+            }
+        }
+        long hash = hash(key);
+        Stripe<V> stripe = stripe(hash);
+        synchronized (stripe) {
+            return stripe.compute(key, hash, remapping);
+        }
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @param key the key
+     * @return the previous value, or {@code null} if absent
+     */
+    public V remove(long key) {
+        return compute(key, current -> null);
+    }
+
+    /**
+     * @return the number of mappings, exact only when no write is running
+     */
+    public int size() {
+        int size = zeroValue == null ? 0 : 1;
+        for (Stripe<V> stripe : stripes) {
+            size += stripe.size;
+        }
+        return size;
+    }
+
+    /**
+     * Passes every key to an action, without locking: a key put or removed meanwhile may or may not be passed.
+     *
+     * @param action receives the keys
+     */
+    public void forEachKey(LongConsumer action) {
+        if (zeroValue != null) {
+            action.accept(0);
+        }
+        for (Stripe<V> stripe : stripes) {
+            Table<V> table = stripe.table;
+            for (int i = 0; i < table.capacity(); i++) {
+                if (table.values.get(i) != null) {
+                    action.accept(table.keys.get(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes every mapping.
+     */
+    public void clear() {
+        synchronized (this) {
+            zeroValue = null;
+        }
+        for (Stripe<V> stripe : stripes) {
+            synchronized (stripe) {
+                stripe.table = new Table<>(INITIAL_CAPACITY);
+                stripe.size = 0;
+                stripe.used = 0;
+            }
+        }
+    }
+
+    private Stripe<V> stripe(long hash) {
+        return stripes[(int) (hash >>> 58)];
+    }
+
+    /**
+     * Spreads the key over all bits: the top bits pick the stripe, the bottom bits the slot.
+     */
+    private static long hash(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 29);
+    }
+
+    /**
+     * A stripe of the map; its fields other than {@code table} are only read and written under its lock.
+     */
+    private static final class Stripe<V> {
+
+        private volatile Table<V> table = new Table<>(INITIAL_CAPACITY);
+
+        /**
+         * Number of mappings.
+         */
+        private volatile int size;
+
+        /**
+         * Number of claimed slots, including removed mappings.
+         */
+        private int used;
+
+        private V compute(long key, long hash, UnaryOperator<V> remapping) {
+            Table<V> current = table;
+            int slot = current.find(key, hash);
+            V previous = current.keys.get(slot) == key ? current.values.get(slot) : null;
+            V value = remapping.apply(previous);
+            if (value == previous) {
+                return previous;
+            }
+            if (current.keys.get(slot) == 0) {
+                if ((used + 1) * 2 > current.capacity()) {
+                    current = resize(current, size + 1);
+                    slot = current.find(key, hash);
+                }
+                used++;
+                current.keys.set(slot, key);
+            }
+            current.values.set(slot, value);
+            size += (previous == null ? 1 : 0) - (value == null ? 1 : 0);
+            return previous;
+        }
+
+        /**
+         * Copies the live mappings to a table with room for twice {@code minSize} mappings.
+         */
+        private Table<V> resize(Table<V> current, int minSize) {
+            int capacity = INITIAL_CAPACITY;
+            while (capacity < minSize * 4) {
+                capacity <<= 1;
+            }
+            Table<V> resized = new Table<>(capacity);
+            int live = 0;
+            for (int i = 0; i < current.capacity(); i++) {
+                V value = current.values.get(i);
+                if (value != null) {
+                    long key = current.keys.get(i);
+                    int slot = resized.find(key, hash(key));
+                    resized.keys.set(slot, key);
+                    resized.values.set(slot, value);
+                    live++;
+                }
+            }
+            used = live;
+            table = resized;
+            return resized;
+        }
+    }
+
+    /**
+     * Open-addressing table; a slot with key {@code 0} is empty.
+     */
+    private static final class Table<V> {
+
+        private final AtomicLongArray keys;
+        private final AtomicReferenceArray<V> values;
+        private final int mask;
+
+        private Table(int capacity) {
+            keys = new AtomicLongArray(capacity);
+            values = new AtomicReferenceArray<>(capacity);
+            mask = capacity - 1;
+        }
+
+        private int capacity() {
+            return mask + 1;
+        }
+
+        private V get(long key, long hash) {
+            for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+                long slotKey = keys.get(slot);
+                if (slotKey == key) {
+                    return values.get(slot);
+                }
+                if (slotKey == 0) {
+                    return null;
+                }
+            }
+        }
+
+        /**
+         * @return the slot of the key, or the empty slot ending its probe sequence
+         */
+        private int find(long key, long hash) {
+            for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+                long slotKey = keys.get(slot);
+                if (slotKey == key || slotKey == 0) {
+                    return slot;
+                }
+            }
+        }
+    }
+}
@@ -30,7 +30,16 @@ public class Constants {
     // Operation Id
     public final static String CREATE_FUND = "createFund";
     public final static String UPDATE_FUND = "updateFund";
+    public final static String UPLOAD_NAVS = "uploadNavs";
     public final static String CREATE_ORDER = "createOrder";
+    public final static String CREATE_ORDERS = "createOrders";
+    public final static String CREATE_TOKEN = "createToken";
+    public final static String GET_TRANSACTIONS = "getTransactions";
+    public final static String GET_PORTFOLIO = "getPortfolio";
+    public final static String GET_NAVS = "getNavs";
+    public final static String GET_RETURNS = "getReturns";
+    public final static String GET_STATEMENT = "getStatement";
+    public final static String GET_ALL_STATEMENTS = "getAllStatements";
 
 
     // API response
@@ -57,12 +66,60 @@ public class Constants {
 
     public static final Integer ORDER_COMPLETED_CODE = 5010;
     public static final String ORDER_COMPLETED = "Order completed successfully";
+    public static final Integer BATCH_ORDER_COMPLETED_CODE = 5011;
+    public static final String BATCH_ORDER_COMPLETED = "Batch processed, refer to the result of each order";
+    public static final Integer NAV_UPLOAD_SUCCESS_CODE = 5012;
+    public static final String NAV_UPLOAD_SUCCESS = "NAV file processed.";
+    public static final Integer TOKEN_CREATED_CODE = 5013;
+    public static final String TOKEN_CREATED = "Token issued.";
+    public static final Integer INVALID_CREDENTIALS_CODE = 401;
+    public static final String INVALID_CREDENTIALS = "Invalid username or password.";
+    public static final Integer SERVICE_BUSY_CODE = 503;
+    public static final String SERVICE_BUSY = "Server is busy, please retry.";
+    public static final String ORDER_LANE_UNAVAILABLE = "Orders on this fund are paused until their changes are saved, please retry.";
+    public static final Integer ORDER_CONFLICT_CODE = 409;
+    public static final String ORDER_CONFLICT = "The fund is being updated by other orders, please retry.";
+    public static final Integer IDEMPOTENCY_KEY_INVALID_CODE = 5014;
+    public static final String IDEMPOTENCY_KEY_INVALID = "Idempotency-Key must be 1 to 255 characters.";
+    public static final Integer IDEMPOTENCY_KEY_REUSED_CODE = 5015;
+    public static final String IDEMPOTENCY_KEY_REUSED = "Idempotency-Key was already used for a different order.";
+    public static final Integer IDEMPOTENCY_KEY_IN_PROGRESS_CODE = 5016;
+    public static final String IDEMPOTENCY_KEY_IN_PROGRESS = "An order with this Idempotency-Key is still being processed, please retry.";
+    public static final Integer TRANSACTIONS_RETRIEVED_CODE = 5017;
+    public static final String TRANSACTIONS_RETRIEVED = "Transactions retrieved.";
+    public static final Integer INVALID_CURSOR_CODE = 5018;
+    public static final String INVALID_CURSOR = "Invalid cursor: use the nextCursor of the previous page.";
+    public static final String TRANSACTIONS_ACCESS_DENIED = "Access denied: You are not authorized to view another user's transactions.";
+    public static final Integer PORTFOLIO_RETRIEVED_CODE = 5019;
+    public static final String PORTFOLIO_RETRIEVED = "Portfolio retrieved.";
+    public static final String PORTFOLIO_ACCESS_DENIED = "Access denied: You are not authorized to view another user's portfolio.";
+    public static final Integer NAVS_RETRIEVED_CODE = 5020;
+    public static final String NAVS_RETRIEVED = "NAVs retrieved.";
+    public static final Integer INVALID_NAV_QUERY_CODE = 5021;
+    public static final String INVALID_NAV_QUERY = "Invalid NAV query: from must not be after to, and interval must be one of DAY, WEEK, MONTH, YEAR.";
+    public static final Integer RETURNS_RETRIEVED_CODE = 5022;
+    public static final String RETURNS_RETRIEVED = "Returns retrieved.";
+    public static final String RETURNS_ACCESS_DENIED = "Access denied: You are not authorized to view another user's returns.";
+    public static final Integer INVALID_STATEMENT_QUERY_CODE = 5023;
+    public static final String INVALID_STATEMENT_QUERY = "Invalid statement query: from must not be after to, and format must be csv or ndjson.";
+    public static final String STATEMENT_ACCESS_DENIED = "Access denied: You are not authorized to export another user's statement.";
     public final static String API_PROCESSED_FAILURE = "Error while processing the request";
 
 
+    // Persistence
+    /**
+     * IDs reserved per sequence call; with the pooled-lo optimizer a call returns the first ID of the block.
+     */
+    public static final int ID_ALLOCATION_SIZE = 100;
+
     // Method
     public static final String POST_METHOD = "POST";
     public static final String PUT_METHOD = "PUT";
+    public static final String GET_METHOD = "GET";
+
+    // Header
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
 
     //Response
     public static final String BAD_REQUEST = "[BAD REQUEST] : ";
@@ -0,0 +1,92 @@
+package com.subash.fund.management.util;
+
+import org.apache.logging.log4j.ThreadContext;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Correlation ID of the current request flow, kept in the logging {@link ThreadContext} (MDC) under
+ * {@value #CONTEXT_KEY} so that every log line of the flow carries it through the log pattern
+ * ({@code logging.pattern.correlation}) instead of concatenating it into each message.
+ * <p>
+ * New IDs are version 7 UUIDs: a millisecond timestamp followed by random bits from
+ * {@link ThreadLocalRandom}, so they sort by creation time and are generated without the shared
+ * {@link java.security.SecureRandom} behind {@link UUID#randomUUID()}.
+ * </p>
+ *
+ * @see CorrelationIdFilter
+ */
+public final class CorrelationId {
+
+    /**
+     * Header carrying the correlation ID in requests and responses.
+     */
+    public static final String HEADER = "X-Correlation-ID";
+
+    /**
+     * Key of the correlation ID in the logging context.
+     */
+    public static final String CONTEXT_KEY = "correlationId";
+
+    private static final int MAX_LENGTH = 64;
+
+    private CorrelationId() {
+    }
+
+    /**
+     * Generates a new time-ordered ID.
+     *
+     * @return a version 7 UUID string
+     */
+    public static String next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSigBits = (System.currentTimeMillis() << 16) | 0x7000L | (random.nextInt() & 0x0FFFL);
+        long leastSigBits = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits).toString();
+    }
+
+    /**
+     * @return the correlation ID of the current flow, or a new one if none is set
+     */
+    public static String current() {
+        String correlationId = ThreadContext.get(CONTEXT_KEY);
+        return correlationId != null ? correlationId : next();
+    }
+
+    /**
+     * Uses the given ID for the current thread's log lines.
+     *
+     * @param correlationId the correlation ID
+     */
+    public static void set(String correlationId) {
+        ThreadContext.put(CONTEXT_KEY, correlationId);
+    }
+
+    /**
+     * Removes the correlation ID from the current thread.
+     */
+    public static void clear() {
+        ThreadContext.remove(CONTEXT_KEY);
+    }
+
+    /**
+     * Accepts an incoming ID if it is safe to log: 1 to 64 letters, digits, {@code .}, {@code _} or
+     * {@code -}.
+     *
+     * @param candidate the incoming value, may be {@code null}
+     * @return the candidate, or {@code null} if it is missing or unsafe
+     */
+    public static String sanitize(String candidate) {
+        if (candidate == null || candidate.isEmpty() || candidate.length() > MAX_LENGTH) {
+            return null;
+        }
+        for (int i = 0; i < candidate.length(); i++) {
+            char c = candidate.charAt(i);
+            if (!(Character.isLetterOrDigit(c) && c < 128) && c != '-' && c != '_' && c != '.') {
+                return null;
+            }
+        }
+        return candidate;
+    }
+}
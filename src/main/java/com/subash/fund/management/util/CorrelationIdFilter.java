@@ -0,0 +1,74 @@
+package com.subash.fund.management.util;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Servlet filter that assigns every request its {@link CorrelationId}.
+ * <p>
+ * The ID of the caller is honoured when present, taken from {@value CorrelationId#HEADER},
+ * {@code X-Request-ID} or the trace ID of a W3C {@code traceparent} header, in that order; otherwise a new one
+ * is generated. The ID is returned in the {@value CorrelationId#HEADER} response header and removed from the
+ * thread when the request completes. Runs before Spring Security so that authentication failures are
+ * correlated too.
+ * </p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CorrelationIdFilter extends OncePerRequestFilter {
+
+    private static final String REQUEST_ID_HEADER = "X-Request-ID";
+    private static final String TRACEPARENT_HEADER = "traceparent";
+
+    /**
+     * Sets the correlation ID for the duration of the request.
+     *
+     * @param request     the request
+     * @param response    the response
+     * @param filterChain the remaining filters
+     * @throws ServletException if a later filter fails
+     * @throws IOException      if a later filter fails
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String correlationId = resolve(request);
+        CorrelationId.set(correlationId);
+        response.setHeader(CorrelationId.HEADER, correlationId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            CorrelationId.clear();
+        }
+    }
+
+    private static String resolve(HttpServletRequest request) {
+        String correlationId = CorrelationId.sanitize(request.getHeader(CorrelationId.HEADER));
+        if (correlationId == null) {
+            correlationId = CorrelationId.sanitize(request.getHeader(REQUEST_ID_HEADER));
+        }
+        if (correlationId == null) {
+            correlationId = traceId(request.getHeader(TRACEPARENT_HEADER));
+        }
+        return correlationId != null ? correlationId : CorrelationId.next();
+    }
+
+    /**
+     * @return the trace ID of a {@code version-traceid-parentid-flags} header, or {@code null}
+     */
+    private static String traceId(String traceparent) {
+        if (traceparent == null) {
+            return null;
+        }
+        String[] parts = traceparent.trim().split("-");
+        return parts.length >= 4 && parts[1].length() == 32 ? CorrelationId.sanitize(parts[1]) : null;
+    }
+}
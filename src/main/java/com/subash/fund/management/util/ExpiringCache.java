@@ -0,0 +1,142 @@
+package com.subash.fund.management.util;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiPredicate;
+import java.util.function.LongSupplier;
+
+/**
+ * Small bounded in-memory cache whose entries expire a fixed time after they were written.
+ * <p>
+ * Reads are a single {@link ConcurrentHashMap} lookup plus a clock read. When the cache is full, a write first
+ * drops the expired entries and, if that is not enough, an arbitrary tenth of the remaining ones; only one
+ * thread evicts at a time, the others write without waiting.
+ * </p>
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class ExpiringCache<K, V> {
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final long ttlNanos;
+    private final int maxSize;
+    private final LongSupplier nanoClock;
+
+    /**
+     * Creates a cache.
+     *
+     * @param ttl     time an entry stays valid after it was written
+     * @param maxSize maximum number of entries
+     */
+    public ExpiringCache(Duration ttl, int maxSize) {
+        this(ttl, maxSize, System::nanoTime);
+    }
+
+    /**
+     * Creates a cache reading time from the given clock.
+     *
+     * @param ttl       time an entry stays valid after it was written
+     * @param maxSize   maximum number of entries
+     * @param nanoClock monotonic clock in nanoseconds
+     */
+    public ExpiringCache(Duration ttl, int maxSize, LongSupplier nanoClock) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxSize = maxSize;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @param key the key
+     * @return the cached value, or {@code null} if absent or expired
+     */
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(nanoClock.getAsLong())) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Caches a value, replacing any previous value of the key.
+     *
+     * @param key   the key
+     * @param value the value
+     */
+    public void put(K key, V value) {
+        if (maxSize <= 0) {
+            return;
+        }
+        if (entries.size() >= maxSize && !entries.containsKey(key)) {
+            evict();
+        }
+        entries.put(key, new Entry<>(value, nanoClock.getAsLong() + ttlNanos));
+    }
+
+    /**
+     * @param key the key to remove
+     */
+    public void remove(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Removes every entry matching the predicate. Runs in time linear to the cache size.
+     *
+     * @param predicate test on key and value
+     */
+    public void removeIf(BiPredicate<K, V> predicate) {
+        entries.entrySet().removeIf(entry -> predicate.test(entry.getKey(), entry.getValue().value));
+    }
+
+    /**
+     * Removes every entry.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @return number of entries, including expired entries not yet removed
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            long now = nanoClock.getAsLong();
+            entries.values().removeIf(entry -> entry.isExpired(now));
+            if (entries.size() < maxSize) {
+                return;
+            }
+            int excess = entries.size() - maxSize + Math.max(1, maxSize / 10);
+            Iterator<K> keys = entries.keySet().iterator();
+            while (excess-- > 0 && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+
+        private boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
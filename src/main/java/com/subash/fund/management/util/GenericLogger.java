@@ -1,20 +1,36 @@
 package com.subash.fund.management.util;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import jakarta.annotation.PostConstruct;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.util.UUID;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Utility component for structured and conditional logging of API requests and responses.
  * <p>
- * This class uses Jackson's {@link ObjectMapper} to serialize objects and Log4j for logging.
- * Logging is controlled via application properties:
+ * Bodies are serialized with one {@link ObjectWriter} derived from the application's {@link ObjectMapper} and
+ * written, together with the message prefix, into a pooled buffer that is reused across calls; the only
+ * allocation left per call is the final message string. Log events are written by an asynchronous appender
+ * (see {@code logback-spring.xml}). Logging is controlled via application properties:
  * <ul>
  *     <li>{@code print.log.enable.request=true} to enable request logging</li>
  *     <li>{@code print.log.enable.response=true} to enable response logging</li>
+ *     <li>{@code print.log.sample-rate} fraction of requests whose bodies are logged, decided per request UUID
+ *     so that a request and its response are kept together; error responses are always logged</li>
+ *     <li>{@code print.log.redact-fields} JSON field names whose values are replaced with {@value #REDACTED}</li>
  * </ul>
  *
  */
@@ -23,13 +39,64 @@ public class GenericLogger {
 
     private final static String COMMA = ", ";
 
+    /**
+     * Replacement for the values of redacted fields.
+     */
+    static final String REDACTED = "***";
+
+    private static final String REDACTION_FILTER = "redaction";
+
+    /**
+     * Buffers larger than this are not kept for reuse, so one huge body does not pin memory in the pool.
+     */
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    private static final String REQUEST_PREFIX = Constants.LOG_APP + Constants.LOG_APP_NAME + COMMA
+            + Constants.LOG_OPERATION_ID;
+    private static final String RESPONSE_PREFIX = Constants.LOG_APP + Constants.LOG_APP_NAME + COMMA
+            + Constants.LOG_STATUS;
+
+    private static final BoundedPool<BufferWriter> buffers = new BoundedPool<>(BufferWriter::new, 256);
+
+    private final ObjectMapper objectMapper;
+    private ObjectWriter writer;
+
     @Value("${print.log.enable.request}")
     private boolean logRequest;
     @Value("${print.log.enable.response}")
     private boolean logResponse;
+    @Value("${print.log.sample-rate:1.0}")
+    private double sampleRate;
+    @Value("${print.log.redact-fields:}")
+    private List<String> redactFields;
+
+    /**
+     * Constructs the logger with the application's {@link ObjectMapper}, so that bodies are logged the way they
+     * are sent over the wire.
+     *
+     * @param objectMapper the shared object mapper
+     */
+    public GenericLogger(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Builds the shared writer, with a filter applied to every bean that redacts the configured fields.
+     */
+    @PostConstruct
+    public void init() {
+        Set<String> redacted = new HashSet<>();
+        if (redactFields != null) {
+            redactFields.stream().map(String::trim).filter(field -> !field.isEmpty()).forEach(redacted::add);
+        }
+        writer = objectMapper.copy()
+                .addMixIn(Object.class, RedactionMixin.class)
+                .writer(new SimpleFilterProvider().addFilter(REDACTION_FILTER, new RedactionFilter(redacted)));
+    }
 
     /**
-     * Logs incoming API requests with UUID, operation ID, HTTP method, and request body.
+     * Logs incoming API requests with operation ID, HTTP method, and request body. The correlation ID is added
+     * by the log pattern.
      *
      * @param logger       the {@link Logger} to log into
      * @param UUID         the unique identifier for this request flow
@@ -38,24 +105,26 @@ public class GenericLogger {
      * @param requestBody  the actual request body object
      */
     public void logRequest(Logger logger, String UUID, String operationId, String method, Object requestBody) {
-        if (logRequest) {
+        if (logRequest && sampled(UUID) && logger.isInfoEnabled()) {
+            BufferWriter logMsg = buffers.acquire();
             try {
-                ObjectMapper mapper = new ObjectMapper();
-                String requestBodyString = mapper.writeValueAsString(requestBody);
-                StringBuffer logMsg = new StringBuffer(UUID);
-                logMsg.append(COMMA).append(Constants.LOG_APP).append(Constants.LOG_APP_NAME).append(COMMA).append(Constants.LOG_OPERATION_ID)
-                        .append(operationId).append(COMMA).append(Constants.LOG_METHOD).append(method)
-                        .append(COMMA).append(Constants.LOG_REQUEST)
-                        .append(requestBodyString);
+                logMsg.reset();
+                logMsg.append(REQUEST_PREFIX).append(operationId).append(COMMA)
+                        .append(Constants.LOG_METHOD).append(method).append(COMMA).append(Constants.LOG_REQUEST);
+                writer.writeValue(logMsg, requestBody);
                 logger.info(logMsg.toString());
             } catch (Exception e) {
-                logger.info(UUID + COMMA + Constants.LOG_FAILURE_MSG + e.getMessage());
+                logger.info(Constants.LOG_FAILURE_MSG + e.getMessage());
+            } finally {
+                logMsg.trim();
+                buffers.release(logMsg);
             }
         }
     }
 
     /**
-     * Logs outgoing API responses with UUID, status, and response object.
+     * Logs outgoing API responses with status and response object. The correlation ID is added by the log
+     * pattern.
      *
      * @param logger          the {@link Logger} to log into
      * @param UUID            the unique identifier for this request flow
@@ -63,29 +132,122 @@ public class GenericLogger {
      * @param responseObject  the actual response object to be logged
      */
     public void logResponse(Logger logger, String UUID, String status, Object responseObject) {
-        if (logResponse) {
+        if (logResponse && (isError(status) || sampled(UUID)) && logger.isInfoEnabled()) {
+            BufferWriter logMsg = buffers.acquire();
             try {
-                StringBuffer logMsg = new StringBuffer(UUID);
-                ObjectMapper mapper = new ObjectMapper();
-                String responseObjectString = mapper.writeValueAsString(responseObject);
-                logMsg.append(COMMA).append(Constants.LOG_APP).append(Constants.LOG_APP_NAME).append(COMMA).append(Constants.LOG_STATUS)
-                        .append(status).append(COMMA).append(Constants.LOG_RESPONSE).append(responseObjectString);
+                logMsg.reset();
+                logMsg.append(RESPONSE_PREFIX).append(status).append(COMMA)
+                        .append(Constants.LOG_RESPONSE);
+                writer.writeValue(logMsg, responseObject);
                 logger.info(logMsg.toString());
             } catch (Exception e) {
-                logger.info(UUID + COMMA + Constants.LOG_FAILURE_MSG + e.getMessage());
+                logger.info(Constants.LOG_FAILURE_MSG + e.getMessage());
+            } finally {
+                logMsg.trim();
+                buffers.release(logMsg);
             }
         }
     }
 
     /**
-     * Generates a formatted UUID string for tracing API requests across logs.
+     * Returns the ID for tracing the current API request across logs.
      *
-     * @return a formatted string like {@code [UUID] : 123e4567-e89b-12d3-a456-426614174000}
+     * @return the {@link CorrelationId} of the current request, or a new one outside of a request
      */
     public static String getUUID() {
-        StringBuffer UUIDString = new StringBuffer(Constants.LOG_UUID);
-        UUID uuid = UUID.randomUUID();
-        UUIDString.append(uuid);
-        return UUIDString.toString();
+        return CorrelationId.current();
+    }
+
+    private boolean sampled(String uuid) {
+        if (sampleRate >= 1.0) {
+            return true;
+        }
+        // Same decision for the request and the response of one flow
+        int bucket = (uuid == null ? 0 : uuid.hashCode() & Integer.MAX_VALUE) % 10_000;
+        return bucket < sampleRate * 10_000;
+    }
+
+    private static boolean isError(String status) {
+        return status == null || !status.startsWith("2");
+    }
+
+    /**
+     * Attaches {@link RedactionFilter} to every serialized bean.
+     */
+    @JsonFilter(REDACTION_FILTER)
+    private static abstract class RedactionMixin {
+    }
+
+    /**
+     * Writes {@value #REDACTED} instead of the value of the configured field names.
+     */
+    private static final class RedactionFilter extends SimpleBeanPropertyFilter {
+
+        private final Set<String> redacted;
+
+        private RedactionFilter(Set<String> redacted) {
+            this.redacted = redacted;
+        }
+
+        @Override
+        public void serializeAsField(Object pojo, JsonGenerator jgen, SerializerProvider provider,
+                                     PropertyWriter writer) throws Exception {
+            if (redacted.contains(writer.getName())) {
+                jgen.writeStringField(writer.getName(), REDACTED);
+            } else {
+                writer.serializeAsField(pojo, jgen, provider);
+            }
+        }
+    }
+
+    /**
+     * Unsynchronized {@link Writer} over a reusable {@link StringBuilder}.
+     */
+    private static final class BufferWriter extends Writer {
+
+        private StringBuilder buffer = new StringBuilder(512);
+
+        private BufferWriter append(String value) {
+            buffer.append(value);
+            return this;
+        }
+
+        private void reset() {
+            buffer.setLength(0);
+        }
+
+        private void trim() {
+            if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+                buffer = new StringBuilder(512);
+            }
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            buffer.append(chars, offset, length);
+        }
+
+        @Override
+        public void write(String value, int offset, int length) {
+            buffer.append(value, offset, offset + length);
+        }
+
+        @Override
+        public void write(int c) {
+            buffer.append((char) c);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String toString() {
+            return buffer.toString();
+        }
     }
 }
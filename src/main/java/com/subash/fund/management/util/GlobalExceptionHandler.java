@@ -8,6 +8,7 @@ import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -63,4 +64,16 @@ public class GlobalExceptionHandler {
         logger.error(MALFORMED_JSON + ex.getMessage());
         return new ResponseEntity<>(MALFORMED_JSON + ex.getMessage(), HttpStatus.BAD_REQUEST);
     }
+
+    /**
+     * Handles path variables and query parameters that cannot be converted, such as a malformed date.
+     *
+     * @param ex {@link MethodArgumentTypeMismatchException}
+     * @return 400 BAD_REQUEST naming the parameter
+     */
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<String> handleTypeMismatch(MethodArgumentTypeMismatchException ex) {
+        logger.error(BAD_REQUEST + ex.getMessage());
+        return new ResponseEntity<>(BAD_REQUEST + "Invalid value for parameter " + ex.getName(), HttpStatus.BAD_REQUEST);
+    }
 }
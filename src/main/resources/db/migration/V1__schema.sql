@@ -0,0 +1,61 @@
+-- Schema of the entities in com.subash.fund.management.model as Hibernate created it with ddl-auto: update before
+-- the schema moved to Flyway: users, funds_scripts, fund_navs, user_holdings and transactions with identity IDs.
+-- Databases created that way are baselined at this version (spring.flyway.baseline-on-migrate) and skip it, so it
+-- must not change: everything added since goes into a later migration that also applies to those databases.
+--
+-- Amounts keep Hibernate's default numeric(38,2).
+
+CREATE TABLE users (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    username      VARCHAR(255) NOT NULL,
+    password_hash VARCHAR(255) NOT NULL,
+    role          VARCHAR(255) NOT NULL CHECK (role IN ('ROLE_ADMIN', 'ROLE_USER')),
+    email_id      VARCHAR(255),
+    phone_number  VARCHAR(255),
+    CONSTRAINT pk_users PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email_id UNIQUE (email_id)
+);
+
+CREATE TABLE funds_scripts (
+    fund_id     VARCHAR(255)   NOT NULL,
+    fund_name   VARCHAR(255)   NOT NULL,
+    total_units NUMERIC(38, 2) NOT NULL,
+    CONSTRAINT pk_funds_scripts PRIMARY KEY (fund_id)
+);
+
+CREATE TABLE fund_navs (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    fund_id  VARCHAR(255)   NOT NULL,
+    nav      NUMERIC(38, 2) NOT NULL,
+    nav_date DATE           NOT NULL,
+    CONSTRAINT pk_fund_navs PRIMARY KEY (id),
+    CONSTRAINT uk_fund_navs_fund_id_nav_date UNIQUE (fund_id, nav_date),
+    CONSTRAINT fk_fund_navs_fund FOREIGN KEY (fund_id) REFERENCES funds_scripts (fund_id)
+);
+
+CREATE TABLE user_holdings (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    user_id     BIGINT         NOT NULL,
+    fund_id     VARCHAR(255)   NOT NULL,
+    units       NUMERIC(38, 2) NOT NULL,
+    total_value NUMERIC(38, 2) NOT NULL,
+    CONSTRAINT pk_user_holdings PRIMARY KEY (id),
+    CONSTRAINT uk_user_holdings_user_id_fund_id UNIQUE (user_id, fund_id),
+    CONSTRAINT fk_user_holdings_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_user_holdings_fund FOREIGN KEY (fund_id) REFERENCES funds_scripts (fund_id)
+);
+
+CREATE TABLE transactions (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    user_id     BIGINT         NOT NULL,
+    fund_id     VARCHAR(255)   NOT NULL,
+    type        VARCHAR(255)   NOT NULL,
+    units       NUMERIC(38, 2) NOT NULL,
+    nav         NUMERIC(38, 2) NOT NULL,
+    amount      NUMERIC(38, 2) NOT NULL,
+    "timestamp" TIMESTAMP(6)   NOT NULL,
+    CONSTRAINT pk_transactions PRIMARY KEY (id),
+    CONSTRAINT fk_transactions_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_transactions_fund FOREIGN KEY (fund_id) REFERENCES funds_scripts (fund_id)
+);
@@ -0,0 +1,33 @@
+-- Moves the primary keys of users, fund_navs, user_holdings and transactions to the sequences Hibernate
+-- allocates IDs from (pooled-lo, blocks of Constants.ID_ALLOCATION_SIZE), from the identity columns of V1 or the
+-- identity or serial columns Hibernate's ddl-auto created. Only changes a table whose ID is not yet defaulted to
+-- its sequence.
+--
+-- The sequence continues after the highest existing ID and becomes the column default, so that JDBC and native
+-- inserts without an ID draw from it as well. Every nextval() reserves a whole block, so such inserts never
+-- collide with IDs Hibernate hands out from its blocks.
+DO $$
+DECLARE
+    t RECORD;
+BEGIN
+    FOR t IN SELECT * FROM (VALUES ('users', 'users_seq'), ('fund_navs', 'fund_navs_seq'),
+                                   ('user_holdings', 'user_holdings_seq'), ('transactions', 'transactions_seq'))
+                 AS ids (table_name, sequence_name)
+    LOOP
+        IF EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = current_schema() AND table_name = t.table_name AND column_name = 'id'
+                     AND (is_identity = 'YES' OR column_default IS NULL
+                          OR column_default NOT LIKE '%' || t.sequence_name || '%')) THEN
+            EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I INCREMENT BY 100', t.sequence_name);
+            IF EXISTS (SELECT 1 FROM information_schema.columns
+                       WHERE table_schema = current_schema() AND table_name = t.table_name
+                         AND column_name = 'id' AND is_identity = 'YES') THEN
+                EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY', t.table_name);
+            END IF;
+            EXECUTE format('SELECT setval(%L, COALESCE((SELECT MAX(id) FROM %I), 0) + 1, false)',
+                           t.sequence_name, t.table_name);
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET DEFAULT nextval(%L)', t.table_name, t.sequence_name);
+            EXECUTE format('ALTER SEQUENCE %I OWNED BY %I.id', t.sequence_name, t.table_name);
+        END IF;
+    END LOOP;
+END $$;
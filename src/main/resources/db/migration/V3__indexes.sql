@@ -0,0 +1,19 @@
+-- Indexes of the order, history and NAV queries. Built concurrently so that existing databases keep taking
+-- orders while they are created; the script therefore runs outside a transaction (V3__indexes.sql.conf), and
+-- Flyway must not hold its lock in an open transaction (spring.flyway.postgresql.transactional-lock: false), as
+-- a concurrent build waits for every transaction older than itself to end.
+--
+-- fund_navs needs no (fund_id, nav_date DESC) index: the unique (fund_id, nav_date) index already serves the
+-- NAV lookups of a fund and its time series, scanned backwards for the latest first.
+
+-- Transaction history of a user, newest first, with id as the tie-breaker of equal timestamps
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transactions_user_id_timestamp
+    ON transactions (user_id, "timestamp", id);
+
+-- Transactions of a fund, and the foreign key checks of funds_scripts
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transactions_fund_id
+    ON transactions (fund_id);
+
+-- NAVs of all funds on a date (FundNavRepository.findByNavDate)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_fund_navs_nav_date
+    ON fund_navs (nav_date);
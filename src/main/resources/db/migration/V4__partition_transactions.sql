@@ -0,0 +1,67 @@
+-- Range-partitions transactions by month on "timestamp", so that inserts and recent history only touch the
+-- partitions of the current months whatever the size of the history.
+--
+-- The existing table is kept as the partition transactions_legacy, covering everything before the month after its
+-- last row, so no rows are copied; its indexes become the partitions of the new ones. Monthly partitions
+-- transactions_YYYY_MM follow up to 3 months ahead. From then on TransactionPartitionManager creates the partitions
+-- of the coming months and archives old ones.
+--
+-- The primary key of a partitioned table must include the partition key: it is (id, "timestamp"), and IDs stay
+-- unique because they all come from transactions_seq. The primary key of transactions_legacy is rebuilt on
+-- (id, "timestamp") before it is attached, as a partition cannot keep a primary key of its own.
+
+ALTER TABLE transactions RENAME TO transactions_legacy;
+ALTER INDEX idx_transactions_user_id_timestamp RENAME TO transactions_legacy_user_id_timestamp_idx;
+ALTER INDEX idx_transactions_fund_id RENAME TO transactions_legacy_fund_id_idx;
+
+-- The primary key was named by V1 or, on baselined databases, by Hibernate
+DO $$
+BEGIN
+    EXECUTE format('ALTER TABLE transactions_legacy DROP CONSTRAINT %I',
+                   (SELECT conname FROM pg_constraint
+                    WHERE conrelid = 'transactions_legacy'::regclass AND contype = 'p'));
+END $$;
+ALTER TABLE transactions_legacy ADD CONSTRAINT transactions_legacy_pkey PRIMARY KEY (id, "timestamp");
+
+CREATE TABLE transactions (
+    id          BIGINT         NOT NULL DEFAULT nextval('transactions_seq'),
+    user_id     BIGINT         NOT NULL,
+    fund_id     VARCHAR(255)   NOT NULL,
+    type        VARCHAR(255)   NOT NULL,
+    units       NUMERIC(38, 2) NOT NULL,
+    nav         NUMERIC(38, 2) NOT NULL,
+    amount      NUMERIC(38, 2) NOT NULL,
+    "timestamp" TIMESTAMP(6)   NOT NULL,
+    CONSTRAINT pk_transactions PRIMARY KEY (id, "timestamp"),
+    CONSTRAINT fk_transactions_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_transactions_fund FOREIGN KEY (fund_id) REFERENCES funds_scripts (fund_id)
+) PARTITION BY RANGE ("timestamp");
+
+-- The sequence would otherwise be dropped with the legacy partition once it is archived and dropped
+ALTER SEQUENCE transactions_seq OWNED BY transactions.id;
+
+DO $$
+DECLARE
+    upper_bound TIMESTAMP;
+    month       TIMESTAMP;
+BEGIN
+    SELECT date_trunc('month', MAX("timestamp")) + INTERVAL '1 month' INTO upper_bound FROM transactions_legacy;
+    IF upper_bound IS NULL THEN
+        DROP TABLE transactions_legacy;
+        upper_bound := date_trunc('month', LOCALTIMESTAMP);
+    ELSE
+        EXECUTE format('ALTER TABLE transactions ATTACH PARTITION transactions_legacy '
+                       'FOR VALUES FROM (MINVALUE) TO (%L)', upper_bound);
+    END IF;
+
+    month := upper_bound;
+    WHILE month < date_trunc('month', LOCALTIMESTAMP) + INTERVAL '4 months' LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF transactions FOR VALUES FROM (%L) TO (%L)',
+                       'transactions_' || to_char(month, 'YYYY_MM'), month, month + INTERVAL '1 month');
+        month := month + INTERVAL '1 month';
+    END LOOP;
+END $$;
+
+-- Created on every partition; the equivalent indexes of transactions_legacy are attached instead of rebuilt
+CREATE INDEX idx_transactions_user_id_timestamp ON transactions (user_id, "timestamp", id);
+CREATE INDEX idx_transactions_fund_id ON transactions (fund_id);
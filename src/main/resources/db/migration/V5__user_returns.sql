@@ -0,0 +1,20 @@
+-- Returns of the portfolio of every user, written by ReturnsBatch each night from the transaction ledger and the
+-- latest NAVs, one row per user replaced at every run.
+--
+-- Amounts keep the numeric(38,2) of the ledger. Returns are fractions (0.125 for 12.5%), NULL where undefined:
+-- nothing bought, within the first year for annualized_return, no rate netting the cash flows to zero for xirr.
+
+CREATE TABLE user_returns (
+    user_id           BIGINT           NOT NULL,
+    valuation_date    DATE             NOT NULL,
+    invested          NUMERIC(38, 2)   NOT NULL,
+    redeemed          NUMERIC(38, 2)   NOT NULL,
+    current_value     NUMERIC(38, 2)   NOT NULL,
+    since             DATE,
+    absolute_return   DOUBLE PRECISION,
+    annualized_return DOUBLE PRECISION,
+    xirr              DOUBLE PRECISION,
+    computed_at       TIMESTAMP(6)     NOT NULL,
+    CONSTRAINT pk_user_returns PRIMARY KEY (user_id),
+    CONSTRAINT fk_user_returns_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
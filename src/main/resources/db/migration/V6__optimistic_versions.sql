@@ -0,0 +1,13 @@
+-- Optimistic lock versions of funds_scripts and user_holdings (@Version). Every writer of units increments them,
+-- so that orders in order.concurrency.mode=optimistic detect concurrent changes. Existing rows start at 0.
+--
+-- IF NOT EXISTS: databases baselined at V1 may have the columns already, from ddl-auto, which gave them no
+-- default; JDBC inserts of holdings rely on it, so it is set in any case.
+
+ALTER TABLE funds_scripts ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE user_holdings ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+UPDATE funds_scripts SET version = 0 WHERE version IS NULL;
+UPDATE user_holdings SET version = 0 WHERE version IS NULL;
+ALTER TABLE funds_scripts ALTER COLUMN version SET DEFAULT 0, ALTER COLUMN version SET NOT NULL;
+ALTER TABLE user_holdings ALTER COLUMN version SET DEFAULT 0, ALTER COLUMN version SET NOT NULL;
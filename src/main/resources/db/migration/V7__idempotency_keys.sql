@@ -0,0 +1,21 @@
+-- Responses of POST /v1/api/funds/order by username and Idempotency-Key, kept for idempotency.ttl
+-- (IdempotencyStore).
+--
+-- IF NOT EXISTS: databases baselined at V1 may have the table already, from ddl-auto.
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    username        VARCHAR(255)   NOT NULL,
+    idempotency_key VARCHAR(255)   NOT NULL,
+    request_hash    VARCHAR(64)    NOT NULL,
+    status          INTEGER,
+    code            INTEGER,
+    message         VARCHAR(255),
+    total_value     NUMERIC(38, 2),
+    created_at      TIMESTAMP(6)   NOT NULL,
+    CONSTRAINT pk_idempotency_keys PRIMARY KEY (id),
+    CONSTRAINT uk_idempotency_keys_username_key UNIQUE (username, idempotency_key)
+);
+
+-- Purge of expired idempotency keys (IdempotencyRecordRepository.deleteExpired)
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_created_at ON idempotency_keys (created_at);
@@ -0,0 +1,11 @@
+-- Last sequence of each node's TransactionJournal inserted into transactions, advanced in the transaction of
+-- every flush.
+--
+-- IF NOT EXISTS: databases baselined at V1 may have the table already, from ddl-auto.
+
+CREATE TABLE IF NOT EXISTS transaction_journal_checkpoints (
+    node_id          VARCHAR(255) NOT NULL,
+    flushed_sequence BIGINT       NOT NULL,
+    updated_at       TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_transaction_journal_checkpoints PRIMARY KEY (node_id)
+);
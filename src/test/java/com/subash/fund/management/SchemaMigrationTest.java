@@ -0,0 +1,141 @@
+package com.subash.fund.management;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the Flyway migrations of {@code db/migration} on an embedded PostgreSQL, configured as in
+ * {@code application.yaml} ({@code baseline-on-migrate}, baseline version 1, no transactional lock).
+ * <p>
+ * Verifies that a database shaped as Hibernate's {@code ddl-auto: update} created it before Flyway, with rows, is
+ * baselined at V1 and upgraded by the later migrations, and that it ends up with the same columns as a database
+ * created by the migrations from scratch.
+ * </p>
+ */
+class SchemaMigrationTest {
+
+    /**
+     * Schema and rows of a database created by {@code ddl-auto: update} before Flyway, with Hibernate's names.
+     */
+    private static final String BASELINE_SCHEMA = """
+            create table funds_scripts (total_units numeric(38,2) not null, fund_id varchar(255) not null,
+                fund_name varchar(255) not null, primary key (fund_id));
+            create table users (id bigint generated by default as identity, email_id varchar(255) unique,
+                password_hash varchar(255) not null, phone_number varchar(255),
+                role varchar(255) not null check (role in ('ROLE_ADMIN','ROLE_USER')),
+                username varchar(255) not null unique, primary key (id));
+            create table fund_navs (nav numeric(38,2) not null, nav_date date not null,
+                id bigint generated by default as identity, fund_id varchar(255) not null, primary key (id),
+                constraint UK6s8b7ql9xwpl9qwa8h1mnd0bx unique (fund_id, nav_date));
+            create table user_holdings (total_value numeric(38,2) not null, units numeric(38,2) not null,
+                id bigint generated by default as identity, user_id bigint not null, fund_id varchar(255) not null,
+                primary key (id), constraint UKk0b9wq4xs3x9c8b5t0f8kf2yq unique (user_id, fund_id));
+            create table transactions (amount numeric(38,2) not null, nav numeric(38,2) not null,
+                units numeric(38,2) not null, id bigint generated by default as identity,
+                timestamp timestamp(6) not null, user_id bigint not null, fund_id varchar(255) not null,
+                type varchar(255) not null, primary key (id));
+            alter table if exists fund_navs add constraint FKq2ckxd2xw4ml3mp1vd5l3c0fs
+                foreign key (fund_id) references funds_scripts;
+            alter table if exists user_holdings add constraint FK8tbynhm8ejv3yd1o3k7r9qvxg
+                foreign key (fund_id) references funds_scripts;
+            alter table if exists user_holdings add constraint FKd7fq4drmrgkhvwwgiqmb9kfba
+                foreign key (user_id) references users;
+            alter table if exists transactions add constraint FKjo2l4fa2jmgxn6vdw1ls8cpyq
+                foreign key (fund_id) references funds_scripts;
+            alter table if exists transactions add constraint FKqwv7rmvc8va8rep7piikrojds
+                foreign key (user_id) references users;
+            insert into funds_scripts (fund_id, fund_name, total_units)
+                values ('2342323545', 'Nippon Index Fund', 4820);
+            insert into users (username, password_hash, role) values ('subish12396', 'hash', 'ROLE_USER');
+            insert into fund_navs (fund_id, nav, nav_date) values ('2342323545', 232.10, date '2025-06-13');
+            insert into user_holdings (user_id, fund_id, units, total_value)
+                values (1, '2342323545', 10, 2321.00);
+            insert into transactions (user_id, fund_id, type, units, nav, amount, timestamp)
+                values (1, '2342323545', 'BUY', 10, 232.10, 2321.00, timestamp '2025-06-13 10:30:00');
+            """;
+
+    private static final List<String> TABLES = List.of("users", "funds_scripts", "fund_navs", "user_holdings",
+            "transactions", "idempotency_keys", "transaction_journal_checkpoints", "user_returns");
+
+    private static EmbeddedPostgres postgres;
+
+    @BeforeAll
+    static void startPostgres() throws Exception {
+        postgres = EmbeddedPostgres.builder().start();
+        JdbcTemplate admin = new JdbcTemplate(postgres.getPostgresDatabase());
+        admin.execute("CREATE DATABASE baselined");
+        admin.execute("CREATE DATABASE fresh");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws Exception {
+        postgres.close();
+    }
+
+    private static void migrate(DataSource dataSource) {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+                .load()
+                .migrate();
+    }
+
+    /**
+     * @return name, type, nullability, identity and default of every column of the application tables
+     */
+    private static List<String> columns(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForList("SELECT concat_ws(' ', table_name || '.' || column_name, data_type, "
+                + "is_nullable, is_identity, column_default) FROM information_schema.columns "
+                + "WHERE table_schema = current_schema() AND table_name IN ('" + String.join("', '", TABLES) + "') "
+                + "ORDER BY table_name, column_name", String.class);
+    }
+
+    /**
+     * Test case: A ddl-auto database with rows is baselined at V1 and upgraded by V2 onwards, and ends up with the
+     * columns of a database created by the migrations.
+     */
+    @Test
+    void migrate_shouldUpgradeBaselinedDdlAutoSchema() {
+        DataSource dataSource = postgres.getDatabase("postgres", "baselined");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute(BASELINE_SCHEMA);
+
+        migrate(dataSource);
+
+        assertEquals("1", jdbcTemplate.queryForObject(
+                "SELECT version FROM flyway_schema_history WHERE type = 'BASELINE'", String.class));
+        assertEquals(0L, jdbcTemplate.queryForObject("SELECT version FROM funds_scripts", Long.class));
+        assertEquals(0L, jdbcTemplate.queryForObject("SELECT version FROM user_holdings", Long.class));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM transactions", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM idempotency_keys", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM transaction_journal_checkpoints", Integer.class));
+        // JDBC inserts rely on the sequence and version defaults
+        jdbcTemplate.update("INSERT INTO users (username, password_hash, role) VALUES (?, ?, ?)",
+                "second", "hash", "ROLE_USER");
+        Long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'second'", Long.class);
+        assertTrue(userId > 1);
+        jdbcTemplate.update("INSERT INTO user_holdings (user_id, fund_id, units, total_value) VALUES (?, ?, ?, ?)",
+                userId, "2342323545", BigDecimal.ONE, BigDecimal.TEN);
+        assertEquals(0L, jdbcTemplate.queryForObject(
+                "SELECT version FROM user_holdings WHERE user_id = ?", Long.class, userId));
+
+        JdbcTemplate fresh = new JdbcTemplate(postgres.getDatabase("postgres", "fresh"));
+        migrate(fresh.getDataSource());
+        assertEquals(columns(fresh), columns(jdbcTemplate));
+    }
+}
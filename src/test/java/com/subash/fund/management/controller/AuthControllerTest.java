@@ -0,0 +1,101 @@
+package com.subash.fund.management.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.subash.fund.management.config.TestSecurityConfig;
+import com.subash.fund.management.model.LoginView;
+import com.subash.fund.management.security.TokenService;
+import com.subash.fund.management.util.GenericLogger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Unit test class for {@link com.subash.fund.management.controller.AuthController}.
+ * <p>
+ * Verifies that valid credentials are exchanged for a token and invalid credentials are answered with
+ * {@code 401 UNAUTHORIZED}. {@link AuthenticationManager} and {@link TokenService} are mocked using
+ * {@link MockitoBean}.
+ * </p>
+ */
+@WebMvcTest(controllers = AuthController.class, properties = "security.auth.mode=token")
+@Import(TestSecurityConfig.class)
+class AuthControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private AuthenticationManager authenticationManager;
+
+    @MockitoBean
+    private TokenService tokenService;
+
+    @MockitoBean
+    private GenericLogger genericLogger;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private LoginView loginView(String password) {
+        LoginView loginView = new LoginView();
+        loginView.setUsername("subish12396");
+        loginView.setPassword(password);
+        return loginView;
+    }
+
+    /**
+     * Tests that valid credentials return a bearer token.
+     */
+    @Test
+    @DisplayName("POST /v1/api/auth/token - Create Token - Success")
+    void testCreateToken_Success() throws Exception {
+        Mockito.when(authenticationManager.authenticate(any())).thenReturn(UsernamePasswordAuthenticationToken
+                .authenticated("subish12396", null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+        Mockito.when(tokenService.issue(any())).thenReturn("header.claims.signature");
+        Mockito.when(tokenService.getTtl()).thenReturn(Duration.ofMinutes(15));
+
+        mockMvc.perform(post("/v1/api/auth/token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginView("secret"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessToken").value("header.claims.signature"))
+                .andExpect(jsonPath("$.tokenType").value("Bearer"))
+                .andExpect(jsonPath("$.expiresIn").value(900))
+                .andExpect(jsonPath("$.code").value(5013));
+    }
+
+    /**
+     * Tests that invalid credentials are rejected without a token.
+     */
+    @Test
+    @DisplayName("POST /v1/api/auth/token - Invalid Credentials")
+    void testCreateToken_Unauthorized() throws Exception {
+        Mockito.when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("Bad credentials"));
+
+        mockMvc.perform(post("/v1/api/auth/token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginView("wrong"))))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.code").value(401))
+                .andExpect(jsonPath("$.accessToken").doesNotExist());
+        Mockito.verifyNoInteractions(tokenService);
+    }
+}
@@ -5,7 +5,9 @@ import com.subash.fund.management.config.TestSecurityConfig;
 import com.subash.fund.management.model.FundNavView;
 import com.subash.fund.management.model.FundResponse;
 import com.subash.fund.management.model.FundView;
+import com.subash.fund.management.model.NavSeriesResponse;
 import com.subash.fund.management.service.FundService;
+import com.subash.fund.management.service.NavImportService;
 import com.subash.fund.management.util.GenericLogger;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -24,6 +26,9 @@ import java.time.LocalDate;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -43,6 +48,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * <ul>
  *   <li>Successful fund creation</li>
  *   <li>Successful fund NAV update</li>
+ *   <li>Reading the NAV history of a fund</li>
  *   <li>Bad requests due to invalid or missing input</li>
  * </ul>
  */
@@ -56,6 +62,9 @@ class FundControllerTest {
     @MockitoBean
     private FundService fundService;
 
+    @MockitoBean
+    private NavImportService navImportService;
+
     @MockitoBean
     private GenericLogger genericLogger;
 
@@ -157,4 +166,44 @@ class FundControllerTest {
                         .content(objectMapper.writeValueAsString(invalidNav)))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    /**
+     * Test for reading the NAV history of a fund.
+     * <p>
+     * Verifies that the query parameters are parsed and passed to the service, and that its NAVs are returned.
+     * </p>
+     */
+    @Test
+    @DisplayName("GET /v1/api/funds/{fundId}/navs - Read NAVs - Success")
+    void testGetNavs_Success() throws Exception {
+        String fundId = "35435343633";
+        LocalDate from = LocalDate.of(2025, 1, 1);
+        NavSeriesResponse response = new NavSeriesResponse();
+        response.setFundId(fundId);
+        response.setInterval("MONTH");
+        response.addNavsItem(new FundNavView().navDate(LocalDate.of(2025, 1, 31)).nav(new BigDecimal("200.50")));
+        response.setCode(5020);
+        response.setMessage("NAVs retrieved.");
+
+        Mockito.when(fundService.getNavs(anyString(), eq(fundId), eq(from), isNull(), isNull(), eq("MONTH")))
+                .thenReturn(new ResponseEntity<>(response, HttpStatus.OK));
+
+        mockMvc.perform(get("/v1/api/funds/{fundId}/navs", fundId)
+                        .param("from", "2025-01-01")
+                        .param("interval", "MONTH"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value(5020))
+                .andExpect(jsonPath("$.navs[0].navDate").value("2025-01-31"))
+                .andExpect(jsonPath("$.navs[0].nav").value(200.50));
+    }
+
+    /**
+     * Test for bad request when a date parameter is malformed.
+     */
+    @Test
+    @DisplayName("GET /v1/api/funds/{fundId}/navs - Read NAVs - Bad Request (Invalid Date)")
+    void testGetNavs_BadRequest() throws Exception {
+        mockMvc.perform(get("/v1/api/funds/1/navs").param("asOf", "31-01-2025"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -2,8 +2,9 @@ package com.subash.fund.management.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.subash.fund.management.config.TestSecurityConfig;
-import com.subash.fund.management.model.OrderResponse;
-import com.subash.fund.management.model.OrderView;
+import com.subash.fund.management.model.*;
+import com.subash.fund.management.service.IdempotencyStore;
+import com.subash.fund.management.service.OrderBatchService;
 import com.subash.fund.management.service.OrderService;
 import com.subash.fund.management.util.GenericLogger;
 import org.junit.jupiter.api.BeforeEach;
@@ -24,7 +25,9 @@ import java.math.BigDecimal;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -54,9 +57,15 @@ class OrderControllerTest {
     @MockitoBean
     private OrderService orderService;
 
+    @MockitoBean
+    private OrderBatchService orderBatchService;
+
     @MockitoBean
     private GenericLogger genericLogger;
 
+    @MockitoBean
+    private IdempotencyStore idempotencyStore;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -99,6 +108,30 @@ class OrderControllerTest {
                 .andExpect(jsonPath("$.message").value("Order Placed Successfully"));
     }
 
+    /**
+     * Tests that an order with an Idempotency-Key is processed through the idempotency store, for the
+     * authenticated user.
+     */
+    @WithMockUser(username = "subish12396", roles = "USER")
+    @Test
+    @DisplayName("POST /v1/api/funds/order - Create Order - Idempotency-Key")
+    void testCreateOrder_WithIdempotencyKey() throws Exception {
+        OrderResponse response = new OrderResponse();
+        response.setCode(5010);
+        Mockito.when(idempotencyStore.execute(eq("subish12396"), eq("order-1"), eq("BUY"), any(OrderView.class), any()))
+                .thenReturn(ResponseEntity.status(HttpStatus.CREATED).header("Idempotent-Replayed", "true").body(response));
+
+        mockMvc.perform(post("/v1/api/funds/order")
+                        .param("orderType", "BUY")
+                        .header("Idempotency-Key", "order-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validOrderView)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.code").value(5010));
+        Mockito.verify(orderService, Mockito.never()).createOrder(anyString(), anyString(), any(OrderView.class));
+    }
+
     /**
      * Tests forbidden access scenario when the request's username doesn't match the authenticated user.
      * Expects 403 Forbidden with relevant error message.
@@ -152,4 +185,52 @@ class OrderControllerTest {
                         .content(objectMapper.writeValueAsString(validOrderView)))
                 .andExpect(status().isInternalServerError());
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests batch order creation by the owner of every order in the batch.
+     * Expects the service response to be returned unchanged.
+     */
+    @WithMockUser(username = "subish12396", roles = "USER")
+    @Test
+    @DisplayName("POST /v1/api/funds/orders:batch - Create Orders - Success")
+    void testCreateOrders_Success() throws Exception {
+        BatchOrderResponse response = new BatchOrderResponse();
+        response.setCode(5011);
+        Mockito.when(orderBatchService.createOrders(anyString(), any(BatchOrderView.class)))
+                .thenReturn(new ResponseEntity<>(response, HttpStatus.CREATED));
+
+        BatchOrderView batchOrderView = new BatchOrderView();
+        batchOrderView.addOrdersItem(new BatchOrderItem().orderType("BUY").order(validOrderView));
+
+        mockMvc.perform(post("/v1/api/funds/orders:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batchOrderView)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.code").value(5011));
+    }
+
+    /**
+     * Tests that a non-admin user cannot place batch orders on behalf of another user.
+     * Expects 403 Forbidden without invoking the service.
+     */
+    @WithMockUser(username = "subish12396", roles = "USER")
+    @Test
+    @DisplayName("POST /v1/api/funds/orders:batch - Forbidden When Username Mismatch")
+    void testCreateOrders_Forbidden_UsernameMismatch() throws Exception {
+        OrderView otherOrder = new OrderView();
+        otherOrder.setUsername("otherUser");
+        otherOrder.setFundId("749739330349");
+        otherOrder.setUnits(BigDecimal.valueOf(10));
+        otherOrder.setNav(BigDecimal.valueOf(127.89));
+        BatchOrderView batchOrderView = new BatchOrderView();
+        batchOrderView.addOrdersItem(new BatchOrderItem().orderType("BUY").order(validOrderView));
+        batchOrderView.addOrdersItem(new BatchOrderItem().orderType("BUY").order(otherOrder));
+
+        mockMvc.perform(post("/v1/api/funds/orders:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batchOrderView)))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.code").value("403"));
+        Mockito.verifyNoInteractions(orderBatchService);
+    }
+}
@@ -0,0 +1,244 @@
+package com.subash.fund.management.controller;
+
+import com.subash.fund.management.config.TestSecurityConfig;
+import com.subash.fund.management.model.PortfolioResponse;
+import com.subash.fund.management.model.ReturnsResponse;
+import com.subash.fund.management.model.TransactionHistoryResponse;
+import com.subash.fund.management.service.PortfolioService;
+import com.subash.fund.management.service.ReturnsService;
+import com.subash.fund.management.service.StatementService;
+import com.subash.fund.management.service.TransactionHistoryService;
+import com.subash.fund.management.util.GenericLogger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Unit test class for {@link com.subash.fund.management.controller.UserController}.
+ * <p>
+ * Verifies that users read their own transaction history, that admins read any user's, and that a user reading
+ * another user's history is rejected.
+ * </p>
+ */
+@WebMvcTest(UserController.class)
+@Import(TestSecurityConfig.class)
+class UserControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private TransactionHistoryService transactionHistoryService;
+
+    @MockitoBean
+    private PortfolioService portfolioService;
+
+    @MockitoBean
+    private ReturnsService returnsService;
+
+    @MockitoBean
+    private StatementService statementService;
+
+    @MockitoBean
+    private GenericLogger genericLogger;
+
+    private static ResponseEntity<StreamingResponseBody> streamed(HttpStatus status, String body) {
+        return ResponseEntity.status(status).contentType(MediaType.TEXT_PLAIN)
+                .body(out -> out.write(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Tests that a user reads their own history with the query parameters passed through.
+     */
+    @WithMockUser(username = "subish12396", roles = "USER")
+    @Test
+    @DisplayName("GET /v1/api/users/{username}/transactions - Own history - Success")
+    void testGetTransactions_Success() throws Exception {
+        TransactionHistoryResponse response = new TransactionHistoryResponse();
+        response.setCode(5017);
+        response.setNextCursor("next");
+        Mockito.when(transactionHistoryService.getTransactions(anyString(), eq("subish12396"), eq("2342323545"),
+                eq("BUY"), eq(20), eq("cursor"))).thenReturn(new ResponseEntity<>(response, HttpStatus.OK));
+
+        mockMvc.perform(get("/v1/api/users/subish12396/transactions")
+                        .param("fundId", "2342323545")
+                        .param("type", "BUY")
+                        .param("limit", "20")
+                        .param("cursor", "cursor"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value(5017))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    /**
+     * Tests that an admin reads the history of any user.
+     */
+    @WithMockUser(username = "support", roles = "ADMIN")
+    @Test
+    @DisplayName("GET /v1/api/users/{username}/transactions - Admin - Success")
+    void testGetTransactions_Admin() throws Exception {
+        TransactionHistoryResponse response = new TransactionHistoryResponse();
+        response.setCode(5017);
+        Mockito.when(transactionHistoryService.getTransactions(anyString(), eq("subish12396"), any(), any(), any(),
+                any())).thenReturn(new ResponseEntity<>(response, HttpStatus.OK));
+
+        mockMvc.perform(get("/v1/api/users/subish12396/transactions"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value(5017));
+    }
+
+    /**
+     * Tests that a user cannot read another user's history.
+     */
+    @WithMockUser(username = "misMatchUser", roles = "USER")
+    @Test
+    @DisplayName("GET /v1/api/users/{username}/transactions - Forbidden")
+    void testGetTransactions_Forbidden() throws Exception {
+        mockMvc.perform(get("/v1/api/users/subish12396/transactions"))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.code").value(403));
+        Mockito.verifyNoInteractions(transactionHistoryService);
+    }
+
+    /**
+     * Tests that a user reads their own portfolio.
+     */
+    @WithMockUser(username = "subish12396", roles = "USER")
+    @Test
+    @DisplayName("GET /v1/api/users/{username}/portfolio - Own portfolio - Success")
+    void testGetPortfolio_Success() throws Exception {
+        PortfolioResponse response = new PortfolioResponse();
+        response.setCode(5019);
+        response.setCurrentValue(new BigDecimal("2321.00"));
+        Mockito.when(portfolioService.getPortfolio(anyString(), eq("subish12396")))
+                .thenReturn(new ResponseEntity<>(response, HttpStatus.OK));
+
+        mockMvc.perform(get("/v1/api/users/subish12396/portfolio"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value(5019))
+                .andExpect(jsonPath("$.currentValue").value(2321.00));
+    }
+
+    /**
+     * Tests that a user cannot read another user's portfolio.
+     */
+    @WithMockUser(username = "misMatchUser", roles = "USER")
+    @Test
+    @DisplayName("GET /v1/api/users/{username}/portfolio - Forbidden")
+    void testGetPortfolio_Forbidden() throws Exception {
+        mockMvc.perform(get("/v1/api/users/subish12396/portfolio"))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.code").value(403));
+        Mockito.verifyNoInteractions(portfolioService);
+    }
+
+    /**
+     * Tests that an admin reads the returns of any user.
+     */
+    @WithMockUser(username = "support", roles = "ADMIN")
+    @Test
+    @DisplayName("GET /v1/api/users/{username}/returns - Admin - Success")
+    void testGetReturns_Admin() throws Exception {
+        ReturnsResponse response = new ReturnsResponse();
+        response.setCode(5022);
+        response.setXirr(new BigDecimal("12.35"));
+        Mockito.when(returnsService.getReturns(anyString(), eq("subish12396")))
+                .thenReturn(new ResponseEntity<>(response, HttpStatus.OK));
+
+        mockMvc.perform(get("/v1/api/users/subish12396/returns"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value(5022))
+                .andExpect(jsonPath("$.xirr").value(12.35));
+    }
+
+    /**
+     * Tests that a user cannot read another user's returns.
+     */
+    @WithMockUser(username = "misMatchUser", roles = "USER")
+    @Test
+    @DisplayName("GET /v1/api/users/{username}/returns - Forbidden")
+    void testGetReturns_Forbidden() throws Exception {
+        mockMvc.perform(get("/v1/api/users/subish12396/returns"))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.code").value(403));
+        Mockito.verifyNoInteractions(returnsService);
+    }
+
+    /**
+     * Tests that a user exports their own statement, streamed with the query parameters passed through.
+     */
+    @WithMockUser(username = "subish12396", roles = "USER")
+    @Test
+    @DisplayName("GET /v1/api/users/{username}/statement - Success")
+    void testGetStatement_Success() throws Exception {
+        Mockito.when(statementService.getStatement(anyString(), eq("subish12396"), isNull(),
+                        eq(LocalDate.parse("2025-01-01")), eq(LocalDate.parse("2025-12-31")), eq("csv")))
+                .thenReturn(streamed(HttpStatus.OK, "id,user_id\n"));
+
+        MvcResult result = mockMvc.perform(get("/v1/api/users/subish12396/statement")
+                        .param("from", "2025-01-01")
+                        .param("to", "2025-12-31")
+                        .param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string("id,user_id\n"));
+    }
+
+    /**
+     * Tests that a user cannot export another user's statement.
+     */
+    @WithMockUser(username = "misMatchUser", roles = "USER")
+    @Test
+    @DisplayName("GET /v1/api/users/{username}/statement - Forbidden")
+    void testGetStatement_Forbidden() throws Exception {
+        Mockito.when(statementService.accessDenied(anyString())).thenReturn(streamed(HttpStatus.FORBIDDEN, ""));
+
+        mockMvc.perform(get("/v1/api/users/subish12396/statement"))
+                .andExpect(status().isForbidden());
+        Mockito.verify(statementService, Mockito.never())
+                .getStatement(any(), any(), any(), any(), any(), any());
+    }
+
+    /**
+     * Tests that only admins export the statement of all users.
+     */
+    @WithMockUser(username = "subish12396", roles = "USER")
+    @Test
+    @DisplayName("GET /v1/api/users/statement - Forbidden for users")
+    void testGetAllStatements_Forbidden() throws Exception {
+        Mockito.when(statementService.accessDenied(anyString())).thenReturn(streamed(HttpStatus.FORBIDDEN, ""));
+
+        mockMvc.perform(get("/v1/api/users/statement"))
+                .andExpect(status().isForbidden());
+        Mockito.verify(statementService, Mockito.never())
+                .getStatement(any(), any(), any(), any(), any(), any());
+    }
+}
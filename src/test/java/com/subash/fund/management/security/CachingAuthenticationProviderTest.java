@@ -0,0 +1,118 @@
+package com.subash.fund.management.security;
+
+import com.subash.fund.management.model.Role;
+import com.subash.fund.management.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserCache;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test class for {@link com.subash.fund.management.security.CachingAuthenticationProvider}.
+ * <p>
+ * Verifies that verified credentials are served from the cache, that failures and other passwords still reach
+ * the delegate, and that eviction forces a new verification.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+class CachingAuthenticationProviderTest {
+
+    @Mock
+    private AuthenticationProvider delegate;
+    @Mock
+    private UserCache userCache;
+
+    private CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        provider = new CachingAuthenticationProvider(delegate, userCache, Duration.ofMinutes(5), 100, true);
+    }
+
+    private static Authentication request(String username, String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(username, password);
+    }
+
+    private void stubSuccess() {
+        User user = new User();
+        user.setUsername("john");
+        user.setRole(Role.ROLE_USER);
+        CustomUserDetails userDetails = new CustomUserDetails(user);
+        when(delegate.authenticate(any())).thenReturn(
+                UsernamePasswordAuthenticationToken.authenticated(userDetails, null, userDetails.getAuthorities()));
+    }
+
+    /**
+     * Test case: Repeated credentials are verified once.
+     */
+    @Test
+    void authenticate_shouldServeRepeatedCredentialsFromCache() {
+        stubSuccess();
+
+        provider.authenticate(request("john", "secret"));
+        Authentication result = provider.authenticate(request("john", "secret"));
+
+        assertTrue(result.isAuthenticated());
+        assertEquals("john", result.getName());
+        assertNull(result.getCredentials());
+        assertEquals("ROLE_USER", result.getAuthorities().iterator().next().getAuthority());
+        verify(delegate, times(1)).authenticate(any());
+        assertEquals(1, provider.size());
+    }
+
+    /**
+     * Test case: A different password is not served from the cache.
+     */
+    @Test
+    void authenticate_shouldVerifyOtherPasswordWithDelegate() {
+        stubSuccess();
+        provider.authenticate(request("john", "secret"));
+        when(delegate.authenticate(any())).thenThrow(new BadCredentialsException("Bad credentials"));
+
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(request("john", "wrong")));
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(request("john", "wrong")));
+        verify(delegate, times(3)).authenticate(any());
+    }
+
+    /**
+     * Test case: Eviction forces verification by the delegate and clears its user cache.
+     */
+    @Test
+    void evict_shouldForceNewVerification() {
+        stubSuccess();
+        provider.authenticate(request("john", "secret"));
+
+        provider.evict("john");
+        provider.authenticate(request("john", "secret"));
+
+        verify(userCache).removeUserFromCache("john");
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    /**
+     * Test case: Disabled cache always delegates.
+     */
+    @Test
+    void authenticate_shouldAlwaysDelegateWhenDisabled() {
+        provider = new CachingAuthenticationProvider(delegate, null, Duration.ofMinutes(5), 100, false);
+        stubSuccess();
+
+        provider.authenticate(request("john", "secret"));
+        provider.authenticate(request("john", "secret"));
+
+        verify(delegate, times(2)).authenticate(any());
+        assertEquals(0, provider.size());
+    }
+}
@@ -0,0 +1,95 @@
+package com.subash.fund.management.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test class for {@link com.subash.fund.management.security.TokenService}.
+ * <p>
+ * Verifies that issued tokens carry the username and role, and that tampered, foreign and expired tokens are
+ * rejected.
+ * </p>
+ */
+class TokenServiceTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+    private static final Instant NOW = Instant.parse("2025-06-14T10:00:00Z");
+
+    private final TokenService tokenService =
+            new TokenService(SECRET, Duration.ofMinutes(15), Clock.fixed(NOW, ZoneOffset.UTC));
+
+    private static Authentication user() {
+        return UsernamePasswordAuthenticationToken.authenticated("subish12396", null,
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+
+    /**
+     * Test case: Issued token is verified with its username and role.
+     */
+    @Test
+    void verify_shouldReturnUserAndRoleOfIssuedToken() {
+        Authentication authentication = tokenService.verify(tokenService.issue(user()));
+
+        assertNotNull(authentication);
+        assertTrue(authentication.isAuthenticated());
+        assertEquals("subish12396", authentication.getName());
+        assertEquals("ROLE_USER", authentication.getAuthorities().iterator().next().getAuthority());
+    }
+
+    /**
+     * Test case: Changing the claims invalidates the signature.
+     */
+    @Test
+    void verify_shouldRejectTamperedToken() {
+        String[] parts = tokenService.issue(user()).split("\\.");
+        String claims = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                "{\"sub\":\"subish12396\",\"role\":\"ROLE_ADMIN\",\"exp\":9999999999}".getBytes());
+
+        assertNull(tokenService.verify(parts[0] + "." + claims + "." + parts[2]));
+        assertNull(tokenService.verify(parts[0] + "." + parts[1] + "."));
+        assertNull(tokenService.verify("not-a-token"));
+    }
+
+    /**
+     * Test case: Token signed with another secret is rejected.
+     */
+    @Test
+    void verify_shouldRejectTokenOfOtherSecret() {
+        TokenService other = new TokenService("", Duration.ofMinutes(15), Clock.fixed(NOW, ZoneOffset.UTC));
+
+        assertNull(tokenService.verify(other.issue(user())));
+    }
+
+    /**
+     * Test case: Token is rejected once expired.
+     */
+    @Test
+    void verify_shouldRejectExpiredToken() {
+        String token = tokenService.issue(user());
+        TokenService later = new TokenService(SECRET, Duration.ofMinutes(15),
+                Clock.fixed(NOW.plus(Duration.ofMinutes(15)), ZoneOffset.UTC));
+
+        assertNull(later.verify(token));
+    }
+
+    /**
+     * Test case: Too short secret is refused at startup.
+     */
+    @Test
+    void constructor_shouldRejectShortSecret() {
+        String shortSecret = Base64.getEncoder().encodeToString(new byte[16]);
+
+        assertThrows(IllegalStateException.class, () -> new TokenService(shortSecret, Duration.ofMinutes(15)));
+    }
+}
@@ -3,7 +3,9 @@ package com.subash.fund.management.service;
 import com.subash.fund.management.model.*;
 import com.subash.fund.management.repository.FundNavRepository;
 import com.subash.fund.management.repository.FundRepository;
+import com.subash.fund.management.repository.NavBatchRepository;
 import com.subash.fund.management.util.GenericLogger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,14 +17,15 @@ import org.springframework.http.ResponseEntity;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 /**
  * Unit test class for {@link com.subash.fund.management.service.FundServiceImpl}.
@@ -40,6 +43,7 @@ import static org.mockito.Mockito.when;
  *   <li>Updating NAV for an existing fund</li>
  *   <li>Attempting to update NAV for a non-existent fund</li>
  *   <li>Exception handling during NAV update</li>
+ *   <li>Reading a downsampled NAV history, a NAV as of a date, and invalid NAV queries</li>
  * </ul>
  *
  * <p>Frameworks used:</p>
@@ -66,6 +70,12 @@ class FundServiceImplTest {
     @Mock
     private GenericLogger genericLogger;
 
+    @Mock
+    private NavCache navCache;
+
+    @Mock
+    private NavSeries navSeries;
+
     @InjectMocks
     private FundServiceImpl fundService;
 
@@ -150,6 +160,42 @@ class FundServiceImplTest {
         ResponseEntity<FundResponse> response = fundService.updateFund(uuid, fundId, navView);
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
         assertEquals(5003, response.getBody().getCode());
+        verify(navCache).put(fundId, navView.getNavDate(), navView.getNav());
+    }
+
+    /**
+     * Test case: A NAV with more decimals than the column is cached as the database stores it.
+     * Verifies that 23.4567 is saved and cached as 23.46.
+     */
+    @Test
+    void testUpdateFund_shouldCacheNavAtColumnScale() throws Exception {
+        FundNavView amfiNav = new FundNavView();
+        amfiNav.setNavDate(LocalDate.now());
+        amfiNav.setNav(new BigDecimal("23.4567"));
+        when(fundRepository.findById(fundId)).thenReturn(Optional.of(fundScript));
+        fundService.updateFund(uuid, fundId, amfiNav);
+        verify(fundNavRepository).save(argThat(saved -> new BigDecimal("23.46").equals(saved.getNav())));
+        verify(navCache).put(fundId, amfiNav.getNavDate(), new BigDecimal("23.46"));
+    }
+
+    /**
+     * Test case: Updates the NAV of a date that already has one.
+     * Verifies that the existing row is updated instead of inserting a duplicate.
+     */
+    @Test
+    void testUpdateFund_whenNavExistsForDate_shouldUpdateExistingRow() throws Exception {
+        FundNav existing = new FundNav();
+        existing.setId(7L);
+        existing.setFundId(fundScript);
+        existing.setNavDate(navView.getNavDate());
+        existing.setNav(new BigDecimal("1.00"));
+        when(fundRepository.findById(fundId)).thenReturn(Optional.of(fundScript));
+        when(fundNavRepository.findByFundIdAndNavDate(fundScript, navView.getNavDate()))
+                .thenReturn(Optional.of(existing));
+        ResponseEntity<FundResponse> response = fundService.updateFund(uuid, fundId, navView);
+        assertEquals(5003, response.getBody().getCode());
+        assertEquals(navView.getNav(), existing.getNav());
+        verify(fundNavRepository).save(existing);
     }
 
     /**
@@ -174,4 +220,76 @@ class FundServiceImplTest {
         assertThrows(Exception.class, () -> fundService.updateFund(uuid, fundId, navView));
         verify(genericLogger).logResponse(any(), eq(uuid), eq("ERROR"), any());
     }
+
+    /**
+     * Builds the NAV series of the fund from the given NAVs, as loaded from the database.
+     */
+    private static NavSeries.Series series(NavPoint... navs) {
+        NavBatchRepository navBatchRepository = mock(NavBatchRepository.class);
+        doAnswer(invocation -> {
+            Consumer<NavPoint> consumer = invocation.getArgument(1);
+            List.of(navs).forEach(consumer);
+            return null;
+        }).when(navBatchRepository).forEachNav(eq(fundId), any());
+        return new NavSeries(navBatchRepository, new SimpleMeterRegistry()).find(fundId);
+    }
+
+    /**
+     * Test case: Reads the last NAV of each month within the range.
+     */
+    @Test
+    void testGetNavs_shouldReturnMonthlyNavsInRange() throws Exception {
+        LocalDate start = LocalDate.of(2025, 1, 30);
+        NavSeries.Series series = series(new NavPoint(fundId, start, new BigDecimal("10.00")),
+                new NavPoint(fundId, start.plusDays(1), new BigDecimal("10.10")),
+                new NavPoint(fundId, start.plusDays(2), new BigDecimal("10.20")),
+                new NavPoint(fundId, start.plusDays(3), new BigDecimal("10.30")));
+        when(navSeries.find(fundId)).thenReturn(series);
+
+        ResponseEntity<NavSeriesResponse> response = fundService.getNavs(uuid, fundId, start.plusDays(1),
+                start.plusDays(2), null, "month");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(5020, response.getBody().getCode());
+        assertEquals("MONTH", response.getBody().getInterval());
+        assertEquals(2, response.getBody().getNavs().size());
+        assertEquals(start.plusDays(1), response.getBody().getNavs().get(0).getNavDate());
+        assertEquals(new BigDecimal("10.20"), response.getBody().getNavs().get(1).getNav());
+    }
+
+    /**
+     * Test case: Reads the latest NAV on or before a date without a NAV.
+     */
+    @Test
+    void testGetNavs_shouldReturnNavAsOfDate() throws Exception {
+        LocalDate start = LocalDate.of(2025, 1, 30);
+        NavSeries.Series series = series(new NavPoint(fundId, start, new BigDecimal("10.00")),
+                new NavPoint(fundId, start.plusDays(3), new BigDecimal("10.30")));
+        when(navSeries.find(fundId)).thenReturn(series);
+
+        ResponseEntity<NavSeriesResponse> response = fundService.getNavs(uuid, fundId, null, null,
+                start.plusDays(2), null);
+
+        assertEquals(1, response.getBody().getNavs().size());
+        assertEquals(start, response.getBody().getNavs().get(0).getNavDate());
+        assertEquals(new BigDecimal("10.00"), response.getBody().getNavs().get(0).getNav());
+    }
+
+    /**
+     * Test case: An unknown interval or an inverted range is rejected, and a fund without NAVs is not found.
+     */
+    @Test
+    void testGetNavs_shouldRejectInvalidQueries() throws Exception {
+        LocalDate today = LocalDate.now();
+        NavSeries.Series empty = series();
+        when(navSeries.find(fundId)).thenReturn(empty);
+
+        assertEquals(HttpStatus.BAD_REQUEST,
+                fundService.getNavs(uuid, fundId, null, null, null, "hour").getStatusCode());
+        assertEquals(5021, fundService.getNavs(uuid, fundId, today, today.minusDays(1), null, null).getBody()
+                .getCode());
+        ResponseEntity<NavSeriesResponse> response = fundService.getNavs(uuid, fundId, null, null, null, null);
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(5006, response.getBody().getCode());
+    }
 }
@@ -0,0 +1,162 @@
+package com.subash.fund.management.service;
+
+import com.subash.fund.management.model.IdempotencyRecord;
+import com.subash.fund.management.model.OrderResponse;
+import com.subash.fund.management.model.OrderView;
+import com.subash.fund.management.repository.IdempotencyRecordRepository;
+import com.subash.fund.management.util.Constants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test class for {@link com.subash.fund.management.service.IdempotencyStore}.
+ * <p>
+ * Verifies that an order is processed once per key and replayed afterwards, from memory or from the database,
+ * that a key reused for another order or still in progress is rejected, and that failed orders release the key.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+class IdempotencyStoreTest {
+
+    private static final String USERNAME = "subish12396";
+    private static final String KEY = "order-1";
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private IdempotencyStore idempotencyStore;
+    private OrderView orderView;
+
+    /**
+     * Creates the store and a valid order.
+     */
+    @BeforeEach
+    void setUp() {
+        idempotencyStore = new IdempotencyStore(idempotencyRecordRepository, Duration.ofHours(24), 100);
+        orderView = new OrderView();
+        orderView.setUsername(USERNAME);
+        orderView.setFundId("2342323545");
+        orderView.setUnits(BigDecimal.valueOf(10));
+        orderView.setNav(BigDecimal.valueOf(232.1));
+    }
+
+    private static ResponseEntity<OrderResponse> completed() {
+        OrderResponse orderResponse = new OrderResponse();
+        orderResponse.setCode(Constants.ORDER_COMPLETED_CODE);
+        orderResponse.setMessage(Constants.ORDER_COMPLETED);
+        orderResponse.setTotalValue(BigDecimal.valueOf(2321));
+        return new ResponseEntity<>(orderResponse, HttpStatus.CREATED);
+    }
+
+    /**
+     * Test case: A retry with the same key gets the original response from memory without placing the order.
+     */
+    @Test
+    void execute_shouldReplayRetryFromMemory() throws Exception {
+        when(idempotencyRecordRepository.claim(eq(USERNAME), eq(KEY), anyString(), any())).thenReturn(1);
+        AtomicInteger orders = new AtomicInteger();
+
+        idempotencyStore.execute(USERNAME, KEY, "BUY", orderView, () -> {
+            orders.incrementAndGet();
+            return completed();
+        });
+        orderView.setUnits(new BigDecimal("10.00"));
+        ResponseEntity<OrderResponse> replay = idempotencyStore.execute(USERNAME, KEY, "buy", orderView, () -> {
+            orders.incrementAndGet();
+            return completed();
+        });
+
+        assertEquals(1, orders.get());
+        assertEquals(HttpStatus.CREATED, replay.getStatusCode());
+        assertEquals("true", replay.getHeaders().getFirst(Constants.IDEMPOTENT_REPLAYED_HEADER));
+        assertEquals(BigDecimal.valueOf(2321), replay.getBody().getTotalValue());
+        verify(idempotencyRecordRepository).complete(USERNAME, KEY, 201, Constants.ORDER_COMPLETED_CODE,
+                Constants.ORDER_COMPLETED, BigDecimal.valueOf(2321));
+        verify(idempotencyRecordRepository, times(1)).claim(any(), any(), any(), any());
+    }
+
+    /**
+     * Test case: A key completed by another node is replayed from the database.
+     */
+    @Test
+    void execute_shouldReplayStoredResponse() throws Exception {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setRequestHash(IdempotencyStore.requestHash("BUY", orderView));
+        record.setStatus(400);
+        record.setCode(Constants.INSUFFICIENT_UNITS_FUNDS_CODE);
+        record.setMessage(Constants.INSUFFICIENT_UNITS_FUNDS);
+        when(idempotencyRecordRepository.findByUsernameAndIdempotencyKey(USERNAME, KEY))
+                .thenReturn(Optional.of(record));
+
+        ResponseEntity<OrderResponse> response = idempotencyStore.execute(USERNAME, KEY, "BUY", orderView,
+                () -> fail("order must not be placed again"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(Constants.INSUFFICIENT_UNITS_FUNDS_CODE, response.getBody().getCode());
+    }
+
+    /**
+     * Test case: A key used for another order is rejected with 422, a key still in progress with 409.
+     */
+    @Test
+    void execute_shouldRejectReusedOrInProgressKey() throws Exception {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setRequestHash(IdempotencyStore.requestHash("REDEEM", orderView));
+        when(idempotencyRecordRepository.findByUsernameAndIdempotencyKey(USERNAME, KEY))
+                .thenReturn(Optional.of(record));
+
+        ResponseEntity<OrderResponse> reused = idempotencyStore.execute(USERNAME, KEY, "BUY", orderView,
+                () -> fail("order must not be placed"));
+        ResponseEntity<OrderResponse> inProgress = idempotencyStore.execute(USERNAME, KEY, "REDEEM", orderView,
+                () -> fail("order must not be placed"));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, reused.getStatusCode());
+        assertEquals(Constants.IDEMPOTENCY_KEY_REUSED_CODE, reused.getBody().getCode());
+        assertEquals(HttpStatus.CONFLICT, inProgress.getStatusCode());
+        assertEquals(Constants.IDEMPOTENCY_KEY_IN_PROGRESS_CODE, inProgress.getBody().getCode());
+    }
+
+    /**
+     * Test case: A failed order releases the key so that the client can retry it.
+     */
+    @Test
+    void execute_shouldReleaseKeyWhenOrderFails() {
+        when(idempotencyRecordRepository.claim(eq(USERNAME), eq(KEY), anyString(), any())).thenReturn(1);
+
+        assertThrows(Exception.class, () -> idempotencyStore.execute(USERNAME, KEY, "BUY", orderView, () -> {
+            throw new Exception("database down");
+        }));
+
+        verify(idempotencyRecordRepository).release(USERNAME, KEY);
+        verify(idempotencyRecordRepository, never()).complete(any(), any(), any(), any(), any(), any());
+    }
+
+    /**
+     * Test case: An oversized key is rejected without touching the database.
+     */
+    @Test
+    void execute_shouldRejectInvalidKey() throws Exception {
+        ResponseEntity<OrderResponse> response = idempotencyStore.execute(USERNAME, "k".repeat(256), "BUY",
+                orderView, () -> fail("order must not be placed"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(Constants.IDEMPOTENCY_KEY_INVALID_CODE, response.getBody().getCode());
+        verifyNoInteractions(idempotencyRecordRepository);
+    }
+}
@@ -0,0 +1,126 @@
+package com.subash.fund.management.service;
+
+import com.subash.fund.management.model.FundNav;
+import com.subash.fund.management.model.FundScript;
+import com.subash.fund.management.model.NavPoint;
+import com.subash.fund.management.repository.FundNavRepository;
+import com.subash.fund.management.repository.NavBatchRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test class for {@link NavCache}.
+ * <p>
+ * Verifies read-through caching of NAVs, missing NAVs and latest NAVs, population by NAV writes, the events they
+ * publish and the hit/miss metrics. Cross-node invalidation is disabled as it requires a PostgreSQL connection.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+class NavCacheTest {
+
+    @Mock
+    private FundNavRepository fundNavRepository;
+    @Mock
+    private NavBatchRepository navBatchRepository;
+    @Mock
+    private PgNotifications pgNotifications;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private NavSeries navSeries;
+
+    private SimpleMeterRegistry meterRegistry;
+    private NavCache navCache;
+    private FundScript fundScript;
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        navCache = new NavCache(fundNavRepository, navBatchRepository, pgNotifications, eventPublisher, navSeries,
+                meterRegistry);
+        ReflectionTestUtils.setField(navCache, "enabled", true);
+        ReflectionTestUtils.setField(navCache, "invalidationEnabled", false);
+
+        fundScript = new FundScript();
+        fundScript.setFundId("2342323545");
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("nav.cache.requests").tag("result", result).counter().count();
+    }
+
+    /**
+     * Test case: The second lookup is served from memory with the exact NAV value and scale.
+     */
+    @Test
+    void find_shouldLoadOnceAndServeFromMemory() {
+        FundNav fundNav = new FundNav();
+        fundNav.setFundId(fundScript);
+        fundNav.setNavDate(today);
+        fundNav.setNav(new BigDecimal("232.10"));
+        when(fundNavRepository.findByFundIdAndNavDate(fundScript, today)).thenReturn(Optional.of(fundNav));
+
+        navCache.find(fundScript, today);
+        Optional<FundNav> cached = navCache.find(fundScript, today);
+
+        assertEquals(new BigDecimal("232.10"), cached.get().getNav());
+        verify(fundNavRepository, times(1)).findByFundIdAndNavDate(fundScript, today);
+        assertEquals(1, requests("hit"));
+        assertEquals(1, requests("miss"));
+    }
+
+    /**
+     * Test case: A missing NAV is cached until a NAV is written for the fund.
+     */
+    @Test
+    void find_shouldCacheMissingNavUntilPut() {
+        when(fundNavRepository.findByFundIdAndNavDate(fundScript, today)).thenReturn(Optional.empty());
+
+        assertTrue(navCache.find(fundScript, today).isEmpty());
+        assertTrue(navCache.find(fundScript, today).isEmpty());
+        navCache.put(fundScript.getFundId(), today, BigDecimal.valueOf(10.5));
+
+        assertEquals(BigDecimal.valueOf(10.5), navCache.find(fundScript, today).get().getNav());
+        verify(fundNavRepository, times(1)).findByFundIdAndNavDate(fundScript, today);
+        verifyNoInteractions(pgNotifications);
+    }
+
+    /**
+     * Test case: Latest NAVs are loaded in one query for the funds not in memory, and a later NAV write replaces
+     * the latest NAV and announces the change.
+     */
+    @Test
+    void findLatest_shouldLoadMissingFundsOnceAndFollowWrites() {
+        NavPoint latest = new NavPoint(fundScript.getFundId(), today.minusDays(1), new BigDecimal("231.00"));
+        when(navBatchRepository.findLatestNavs(List.of(fundScript.getFundId(), "unknown"))).thenReturn(List.of(latest));
+
+        navCache.findLatest(List.of(fundScript.getFundId(), "unknown"));
+        Map<String, NavPoint> cached = navCache.findLatest(List.of(fundScript.getFundId(), "unknown"));
+        navCache.put(fundScript.getFundId(), today, new BigDecimal("232.10"));
+
+        assertEquals(Map.of(fundScript.getFundId(), latest), cached);
+        assertEquals(new NavPoint(fundScript.getFundId(), today, new BigDecimal("232.10")),
+                navCache.findLatest(List.of(fundScript.getFundId())).get(fundScript.getFundId()));
+        verify(navBatchRepository, times(1)).findLatestNavs(anyCollection());
+        verify(eventPublisher).publishEvent(new NavChangedEvent(List.of(fundScript.getFundId())));
+        verify(navSeries).put(fundScript.getFundId(), today, new BigDecimal("232.10"));
+    }
+}
@@ -0,0 +1,153 @@
+package com.subash.fund.management.service;
+
+import com.subash.fund.management.model.FundNav;
+import com.subash.fund.management.model.NavUploadResponse;
+import com.subash.fund.management.repository.FundRepository;
+import com.subash.fund.management.repository.NavBatchRepository;
+import com.subash.fund.management.util.GenericLogger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test class for {@link com.subash.fund.management.service.NavImportServiceImpl}.
+ * <p>
+ * Verifies parsing of AMFI and CSV NAV files, skipping of non-data lines, rejection of unknown funds and
+ * invalid values, and chunked upserts.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+class NavImportServiceImplTest {
+
+    @Mock
+    private FundRepository fundRepository;
+    @Mock
+    private NavBatchRepository navBatchRepository;
+    @Mock
+    private GenericLogger genericLogger;
+
+    @Mock
+    private NavCache navCache;
+
+    @InjectMocks
+    private NavImportServiceImpl navImportService;
+
+    private final String uuid = "test-uuid";
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(navImportService, "chunkSize", 2);
+    }
+
+    private static InputStream file(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Test case: AMFI file with headers and section titles; one unknown fund and one N.A. NAV.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void importNavs_shouldUpsertKnownFundsFromAmfiFile() throws Exception {
+        when(fundRepository.findExistingFundIds(anyCollection())).thenReturn(Set.of("1000000001", "1000000002"));
+        String content = """
+                Scheme Code;ISIN Div Payout/ ISIN Growth;ISIN Div Reinvestment;Scheme Name;Net Asset Value;Date
+
+                Open Ended Schemes(Debt Scheme - Banking and PSU Fund)
+
+                1000000001;INF209K01XX1;-;Fund One;101.25;14-Jun-2025
+                1000000002;INF209K01XX2;-;Fund Two;55.5;14-Jun-2025
+                1000000003;INF209K01XX3;-;Fund Three;12.10;14-Jun-2025
+                1000000004;INF209K01XX4;-;Fund Four;N.A.;14-Jun-2025
+                """;
+
+        ResponseEntity<NavUploadResponse> response = navImportService.importNavs(uuid, file(content));
+
+        assertEquals(2, response.getBody().getUpserted());
+        assertEquals(2, response.getBody().getRejected());
+        assertEquals(4, response.getBody().getSkipped());
+        assertEquals(2, response.getBody().getErrors().size());
+
+        ArgumentCaptor<Collection<FundNav>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(navBatchRepository, times(1)).upsert(captor.capture());
+        FundNav first = captor.getValue().iterator().next();
+        assertEquals("1000000001", first.getFundId().getFundId());
+        assertEquals(new BigDecimal("101.25"), first.getNav());
+        assertEquals(LocalDate.of(2025, 6, 14), first.getNavDate());
+    }
+
+    /**
+     * Test case: An AMFI NAV with four decimals is upserted and cached rounded to the two of the column.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void importNavs_shouldRoundNavToColumnScale() throws Exception {
+        when(fundRepository.findExistingFundIds(anyCollection())).thenReturn(Set.of("1000000001"));
+        String content = "1000000001;INF209K01XX1;-;Fund One;23.4567;14-Jun-2025\n";
+
+        navImportService.importNavs(uuid, file(content));
+
+        ArgumentCaptor<Collection<FundNav>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(navCache).putAll(captor.capture());
+        assertEquals(new BigDecimal("23.46"), captor.getValue().iterator().next().getNav());
+    }
+
+    /**
+     * Test case: Plain CSV file is written in chunks of the configured size.
+     */
+    @Test
+    void importNavs_shouldUpsertCsvInChunks() throws Exception {
+        when(fundRepository.findExistingFundIds(anyCollection()))
+                .thenAnswer(invocation -> Set.copyOf(invocation.<Collection<String>>getArgument(0)));
+        String content = """
+                fundId,nav,navDate
+                1000000001,10.5,2025-06-14
+                1000000002,11.5,2025-06-14
+                1000000003,12.5,2025-06-14
+                """;
+
+        ResponseEntity<NavUploadResponse> response = navImportService.importNavs(uuid, file(content));
+
+        assertEquals(3, response.getBody().getUpserted());
+        assertEquals(0, response.getBody().getRejected());
+        verify(navBatchRepository, times(2)).upsert(anyCollection());
+        verify(fundRepository, times(2)).findExistingFundIds(anyCollection());
+    }
+
+    /**
+     * Test case: Read failure is logged and rethrown.
+     */
+    @Test
+    void importNavs_shouldHandleExceptionDuringProcessing() {
+        InputStream broken = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset");
+            }
+        };
+
+        assertThrows(Exception.class, () -> navImportService.importNavs(uuid, broken));
+        verify(genericLogger).logResponse(any(), eq(uuid), eq("ERROR"), any());
+        verifyNoInteractions(navBatchRepository);
+    }
+}
@@ -0,0 +1,171 @@
+package com.subash.fund.management.service;
+
+import com.subash.fund.management.model.FundNav;
+import com.subash.fund.management.model.FundScript;
+import com.subash.fund.management.model.NavPoint;
+import com.subash.fund.management.repository.NavBatchRepository;
+import com.subash.fund.management.service.NavSeries.Interval;
+import com.subash.fund.management.service.NavSeries.Series;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test class for {@link NavSeries}.
+ * <p>
+ * Verifies that the NAV history is preloaded or loaded once per fund, that NAV writes append, insert and correct
+ * NAVs, and the range, point-in-time and downsampling queries.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+class NavSeriesTest {
+
+    private static final String FUND_ID = "2342323545";
+
+    @Mock
+    private NavBatchRepository navBatchRepository;
+
+    private NavSeries navSeries;
+
+    // Monday
+    private final LocalDate monday = LocalDate.of(2025, 1, 27);
+
+    @BeforeEach
+    void setUp() {
+        navSeries = new NavSeries(navBatchRepository, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(navSeries, "enabled", true);
+        ReflectionTestUtils.setField(navSeries, "preload", true);
+    }
+
+    private static NavPoint nav(LocalDate navDate, String nav) {
+        return new NavPoint(FUND_ID, navDate, new BigDecimal(nav));
+    }
+
+    private void stream(String fundId, NavPoint... navs) {
+        doAnswer(invocation -> {
+            Consumer<NavPoint> consumer = invocation.getArgument(1);
+            List.of(navs).forEach(consumer);
+            return null;
+        }).when(navBatchRepository).forEachNav(fundId == null ? isNull() : eq(fundId), any());
+    }
+
+    private static FundNav fundNav(LocalDate navDate, String nav) {
+        FundScript fundScript = new FundScript();
+        fundScript.setFundId(FUND_ID);
+        FundNav fundNav = new FundNav();
+        fundNav.setFundId(fundScript);
+        fundNav.setNavDate(navDate);
+        fundNav.setNav(new BigDecimal(nav));
+        return fundNav;
+    }
+
+    /**
+     * Test case: Preloaded NAVs are served from memory and follow appends, back-dated NAVs and corrections.
+     */
+    @Test
+    void put_shouldKeepPreloadedSeriesSorted() {
+        stream(null, new NavPoint("1000000001", monday, new BigDecimal("10.00")), nav(monday, "100.00"),
+                nav(monday.plusDays(2), "102.00"));
+        navSeries.start();
+
+        navSeries.put(FUND_ID, monday.plusDays(3), new BigDecimal("103.005"));
+        navSeries.put(FUND_ID, monday.plusDays(1), new BigDecimal("101.00"));
+        navSeries.put(FUND_ID, monday, new BigDecimal("99.50"));
+        navSeries.putAll(List.of(fundNav(monday.plusDays(5), "105.00"), fundNav(monday.plusDays(4), "104.00")));
+        Series series = navSeries.find(FUND_ID);
+
+        assertEquals(6, series.size());
+        for (int i = 0; i < 6; i++) {
+            assertEquals(monday.plusDays(i), series.navDate(i));
+        }
+        assertEquals(new BigDecimal("99.50"), series.nav(0));
+        assertEquals(new BigDecimal("103.01"), series.nav(3));
+        assertEquals(1, navSeries.find("1000000001").size());
+        verify(navBatchRepository, times(1)).forEachNav(any(), any());
+    }
+
+    /**
+     * Test case: A fund is loaded on its first query only, and an unknown fund is not cached.
+     */
+    @Test
+    void find_shouldLoadFundOnce() {
+        stream(FUND_ID, nav(monday, "100.00"));
+        stream("unknown");
+
+        assertEquals(1, navSeries.find(FUND_ID).size());
+        assertEquals(1, navSeries.find(FUND_ID).size());
+        assertEquals(0, navSeries.find("unknown").size());
+        assertEquals(0, navSeries.find("unknown").size());
+
+        verify(navBatchRepository, times(1)).forEachNav(eq(FUND_ID), any());
+        verify(navBatchRepository, times(2)).forEachNav(eq("unknown"), any());
+    }
+
+    /**
+     * Test case: floor and ceiling find the NAV on or before and on or after a date, including past both ends.
+     */
+    @Test
+    void floorAndCeiling_shouldFindNearestNavs() {
+        stream(FUND_ID, nav(monday, "100.00"), nav(monday.plusDays(2), "102.00"));
+        Series series = navSeries.find(FUND_ID);
+
+        assertEquals(-1, series.floor(monday.minusDays(1)));
+        assertEquals(0, series.floor(monday.plusDays(1)));
+        assertEquals(1, series.floor(monday.plusYears(1)));
+        assertEquals(0, series.ceiling(monday.minusYears(1)));
+        assertEquals(1, series.ceiling(monday.plusDays(1)));
+        assertEquals(2, series.ceiling(monday.plusDays(3)));
+    }
+
+    /**
+     * Test case: Downsampling keeps the last NAV of each week, month or year holding one.
+     */
+    @Test
+    void sample_shouldKeepLastNavOfEachPeriod() {
+        // Mon 27 Jan, Fri 31 Jan, Mon 3 Feb, Tue 4 Feb, Mon 17 Feb, Thu 1 Jan 2026
+        stream(FUND_ID, nav(monday, "1.00"), nav(monday.plusDays(4), "2.00"), nav(monday.plusDays(7), "3.00"),
+                nav(monday.plusDays(8), "4.00"), nav(monday.plusDays(21), "5.00"),
+                nav(LocalDate.of(2026, 1, 1), "6.00"));
+        Series series = navSeries.find(FUND_ID);
+
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5}, series.sample(0, 5, Interval.DAY));
+        assertArrayEquals(new int[]{1, 3, 4, 5}, series.sample(0, 5, Interval.WEEK));
+        assertArrayEquals(new int[]{1, 4, 5}, series.sample(0, 5, Interval.MONTH));
+        assertArrayEquals(new int[]{4, 5}, series.sample(0, 5, Interval.YEAR));
+        assertArrayEquals(new int[]{3}, series.sample(2, 3, Interval.YEAR));
+        assertArrayEquals(new int[0], series.sample(3, 2, Interval.MONTH));
+    }
+
+    /**
+     * Test case: A NAV written on another node is read back for the funds in memory only.
+     */
+    @Test
+    void reload_shouldReadBackNavsOfTheDate() {
+        stream(FUND_ID, nav(monday, "100.00"));
+        navSeries.find(FUND_ID);
+        when(navBatchRepository.findNavs(monday.plusDays(1), null)).thenReturn(List.of(
+                nav(monday.plusDays(1), "101.00"), new NavPoint("1000000001", monday.plusDays(1), BigDecimal.TEN)));
+
+        navSeries.reload(null, monday.plusDays(1));
+        navSeries.reload("1000000001", monday.plusDays(2));
+
+        Series series = navSeries.find(FUND_ID);
+        assertEquals(2, series.size());
+        assertEquals(new BigDecimal("101.00"), series.nav(1));
+        verify(navBatchRepository, never()).findNavs(monday.plusDays(2), "1000000001");
+    }
+}
@@ -0,0 +1,77 @@
+package com.subash.fund.management.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test class for {@link com.subash.fund.management.service.OptimisticRetry}.
+ * <p>
+ * Verifies that conflicting attempts are retried up to the limit and that the contention meters are published
+ * per fund.
+ * </p>
+ */
+class OptimisticRetryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OptimisticRetry retry = new OptimisticRetry(meterRegistry, 3, Duration.ofMillis(1),
+            Duration.ofMillis(2));
+
+    /**
+     * Test case: An attempt that conflicts twice succeeds on the third attempt.
+     */
+    @Test
+    void execute_shouldRetryConflicts() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = retry.execute("F1", attempt -> {
+            calls.incrementAndGet();
+            if (attempt < 3) {
+                throw new OptimisticLockingFailureException("conflict");
+            }
+            return "done";
+        });
+
+        assertEquals("done", result);
+        assertEquals(3, calls.get());
+        assertEquals(3.0, meterRegistry.get("order.contention.attempts").tag("fund", "F1").counter().count());
+        assertEquals(2.0, meterRegistry.get("order.contention.conflicts").tag("fund", "F1").counter().count());
+        assertEquals(2.0, meterRegistry.get("order.contention.retries").tag("fund", "F1").summary().totalAmount());
+    }
+
+    /**
+     * Test case: The conflict of the last attempt is rethrown and counted as exhausted.
+     */
+    @Test
+    void execute_shouldRethrowWhenAttemptsExhausted() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(OptimisticLockingFailureException.class, () -> retry.execute("F1", attempt -> {
+            calls.incrementAndGet();
+            throw new OptimisticLockingFailureException("conflict");
+        }));
+
+        assertEquals(3, calls.get());
+        assertEquals(1.0, meterRegistry.get("order.contention.exhausted").tag("fund", "F1").counter().count());
+    }
+
+    /**
+     * Test case: Other failures are not retried.
+     */
+    @Test
+    void execute_shouldNotRetryOtherFailures() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> retry.execute("F1", attempt -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals(1, calls.get());
+    }
+}
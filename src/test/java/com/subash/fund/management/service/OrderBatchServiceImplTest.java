@@ -0,0 +1,204 @@
+package com.subash.fund.management.service;
+
+import com.subash.fund.management.model.*;
+import com.subash.fund.management.repository.*;
+import com.subash.fund.management.util.GenericLogger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit test class for {@link com.subash.fund.management.service.OrderBatchServiceImpl}.
+ * <p>
+ * Verifies that a batch resolves its reference data with set-based lookups, applies the orders in request
+ * order through {@link OrderBatchRepository} and records the transactions of the orders it applied.
+ * </p>
+ *
+ * <p>Key Scenarios Covered:</p>
+ * <ul>
+ *     <li>Buy followed by redeem of the same holding within one batch</li>
+ *     <li>Rejection of the order whose guarded update applies to no row, without failing the batch</li>
+ *     <li>Per-order rejection for unknown users and NAV mismatch</li>
+ *     <li>Exception handling during batch processing</li>
+ * </ul>
+ *
+ * @see com.subash.fund.management.service.OrderBatchServiceImpl
+ */
+@ExtendWith(MockitoExtension.class)
+class OrderBatchServiceImplTest {
+
+    @Mock
+    private FundRepository fundRepository;
+    @Mock
+    private FundNavRepository fundNavRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private OrderBatchRepository orderBatchRepository;
+    @Mock
+    private GenericLogger genericLogger;
+    @Mock
+    private OrderEngine orderEngine;
+    @Mock
+    private PortfolioIndex portfolioIndex;
+
+    @InjectMocks
+    private OrderBatchServiceImpl orderBatchService;
+
+    private final String uuid = "uuid123";
+    private final static String fundId = "2342323545";
+    private final static String username = "subish12396";
+
+    private User user;
+    private FundScript fundScript;
+    private FundNav fundNav;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(orderBatchService, "lookupChunkSize", 1000);
+        user = new User();
+        user.setId(7L);
+        user.setUsername(username);
+
+        fundScript = new FundScript();
+        fundScript.setFundName("Nippon Index Fund");
+        fundScript.setFundId(fundId);
+        fundScript.setTotalUnits(BigDecimal.valueOf(4820));
+
+        fundNav = new FundNav();
+        fundNav.setFundId(fundScript);
+        fundNav.setNavDate(LocalDate.now());
+        fundNav.setNav(BigDecimal.valueOf(232.1));
+    }
+
+    private static BatchOrderItem item(String orderType, String username, long units, double nav) {
+        OrderView orderView = new OrderView();
+        orderView.setUsername(username);
+        orderView.setFundId(fundId);
+        orderView.setUnits(BigDecimal.valueOf(units));
+        orderView.setNav(BigDecimal.valueOf(nav));
+        return new BatchOrderItem().orderType(orderType).order(orderView);
+    }
+
+    /**
+     * Test case: A buy followed by a partial redeem is applied in request order and records two transactions.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void createOrders_shouldApplyOrdersInRequestOrder() throws Exception {
+        when(userRepository.findByUsernameIn(anyCollection())).thenReturn(List.of(user));
+        when(fundRepository.findAllById(anyIterable())).thenReturn(List.of(fundScript));
+        when(fundNavRepository.findByFundIdInAndNavDate(anyCollection(), eq(LocalDate.now()))).thenReturn(List.of(fundNav));
+
+        when(orderBatchRepository.applyOrders(anyList())).thenReturn(new boolean[]{true, true});
+
+        BatchOrderView batchOrderView = new BatchOrderView();
+        batchOrderView.addOrdersItem(item("BUY", username, 10, 232.1));
+        batchOrderView.addOrdersItem(item("REDEEM", username, 4, 232.1));
+
+        ResponseEntity<BatchOrderResponse> response = orderBatchService.createOrders(uuid, batchOrderView);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(201, response.getBody().getResults().get(0).getStatus());
+        assertEquals(201, response.getBody().getResults().get(1).getStatus());
+        assertEquals(0, new BigDecimal("2321.0").compareTo(response.getBody().getResults().get(0).getResponse()
+                .getTotalValue()));
+
+        ArgumentCaptor<List<Transaction>> orders = ArgumentCaptor.forClass(List.class);
+        verify(orderBatchRepository).applyOrders(orders.capture());
+        assertEquals(List.of("BUY", "REDEEM"), orders.getValue().stream().map(Transaction::getType).toList());
+        assertEquals(0, BigDecimal.valueOf(4).compareTo(orders.getValue().get(1).getUnits()));
+
+        ArgumentCaptor<Collection<Transaction>> transactions = ArgumentCaptor.forClass(Collection.class);
+        verify(orderBatchRepository).insertTransactions(transactions.capture());
+        assertEquals(2, transactions.getValue().size());
+        // The loaded entity itself is never mutated
+        assertEquals(0, BigDecimal.valueOf(4820).compareTo(fundScript.getTotalUnits()));
+    }
+
+    /**
+     * Test case: An order whose guarded update finds too few units, e.g. taken by a concurrent order, is rejected
+     * alone and records no transaction.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void createOrders_shouldRejectOrderWithoutUnitsIndividually() throws Exception {
+        when(userRepository.findByUsernameIn(anyCollection())).thenReturn(List.of(user));
+        when(fundRepository.findAllById(anyIterable())).thenReturn(List.of(fundScript));
+        when(fundNavRepository.findByFundIdInAndNavDate(anyCollection(), eq(LocalDate.now()))).thenReturn(List.of(fundNav));
+        when(orderBatchRepository.applyOrders(anyList())).thenReturn(new boolean[]{true, false, false});
+
+        BatchOrderView batchOrderView = new BatchOrderView();
+        batchOrderView.addOrdersItem(item("BUY", username, 10, 232.1));
+        batchOrderView.addOrdersItem(item("BUY", username, 5000, 232.1));
+        batchOrderView.addOrdersItem(item("REDEEM", username, 20, 232.1));
+
+        ResponseEntity<BatchOrderResponse> response = orderBatchService.createOrders(uuid, batchOrderView);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(201, response.getBody().getResults().get(0).getStatus());
+        assertEquals(400, response.getBody().getResults().get(1).getStatus());
+        assertEquals(5009, response.getBody().getResults().get(1).getResponse().getCode());
+        assertEquals(5008, response.getBody().getResults().get(2).getResponse().getCode());
+
+        ArgumentCaptor<Collection<Transaction>> transactions = ArgumentCaptor.forClass(Collection.class);
+        verify(orderBatchRepository).insertTransactions(transactions.capture());
+        assertEquals(1, transactions.getValue().size());
+    }
+
+    /**
+     * Test case: Unknown users, NAV mismatches and orders without a NAV are rejected per order.
+     */
+    @Test
+    void createOrders_shouldRejectInvalidOrdersIndividually() throws Exception {
+        when(userRepository.findByUsernameIn(anyCollection())).thenReturn(List.of(user));
+        when(fundRepository.findAllById(anyIterable())).thenReturn(List.of(fundScript));
+        when(fundNavRepository.findByFundIdInAndNavDate(anyCollection(), eq(LocalDate.now()))).thenReturn(List.of(fundNav));
+
+        BatchOrderView batchOrderView = new BatchOrderView();
+        batchOrderView.addOrdersItem(item("BUY", "unknownUser", 10, 232.1));
+        batchOrderView.addOrdersItem(item("BUY", username, 10, 100));
+        BatchOrderItem noNav = item("BUY", username, 10, 232.1);
+        noNav.getOrder().setNav(null);
+        batchOrderView.addOrdersItem(noNav);
+
+        ResponseEntity<BatchOrderResponse> response = orderBatchService.createOrders(uuid, batchOrderView);
+
+        assertEquals(5004, response.getBody().getResults().get(0).getResponse().getCode());
+        assertEquals(5005, response.getBody().getResults().get(1).getResponse().getCode());
+        assertEquals(400, response.getBody().getResults().get(1).getStatus());
+        assertEquals(5005, response.getBody().getResults().get(2).getResponse().getCode());
+        assertEquals(400, response.getBody().getResults().get(2).getStatus());
+    }
+
+    /**
+     * Test case: Handles unexpected exception during batch processing and logs error.
+     */
+    @Test
+    void createOrders_shouldHandleExceptionDuringProcessing() {
+        when(userRepository.findByUsernameIn(anyCollection())).thenThrow(new RuntimeException("DB Failure"));
+        BatchOrderView batchOrderView = new BatchOrderView();
+        batchOrderView.addOrdersItem(item("BUY", username, 10, 232.1));
+
+        assertThrows(Exception.class, () -> orderBatchService.createOrders(uuid, batchOrderView));
+        verify(genericLogger).logResponse(any(), eq(uuid), eq("ERROR"), any());
+    }
+}
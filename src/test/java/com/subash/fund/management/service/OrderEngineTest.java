@@ -0,0 +1,236 @@
+package com.subash.fund.management.service;
+
+import com.subash.fund.management.model.*;
+import com.subash.fund.management.repository.FundRepository;
+import com.subash.fund.management.repository.TransactionRepository;
+import com.subash.fund.management.repository.UserHoldingRepository;
+import com.subash.fund.management.util.Constants.OrderType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test class for {@link OrderEngine}.
+ * <p>
+ * Runs the engine with two real lanes against mocked repositories and verifies that orders on one fund are
+ * applied against the lane-owned unit balance and flushed to the database when the engine stops, that a fund
+ * changed outside the engine is reloaded with the pending changes applied on top, and that a lane whose flushes
+ * keep failing stops acknowledging orders.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+class OrderEngineTest {
+
+    @Mock
+    private FundRepository fundRepository;
+    @Mock
+    private UserHoldingRepository userHoldingRepository;
+    @Mock
+    private TransactionRepository transactionRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private PortfolioIndex portfolioIndex;
+
+    private OrderEngine orderEngine;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final static String fundId = "2342323545";
+    private User user;
+    private FundScript fundScript;
+    private FundNav fundNav;
+
+    @BeforeEach
+    void setUp() {
+        orderEngine = new OrderEngine(fundRepository, userHoldingRepository, transactionRepository, transactionManager,
+                portfolioIndex, meterRegistry);
+        ReflectionTestUtils.setField(orderEngine, "enabled", true);
+        ReflectionTestUtils.setField(orderEngine, "laneCount", 2);
+        ReflectionTestUtils.setField(orderEngine, "queueCapacity", 128);
+        ReflectionTestUtils.setField(orderEngine, "batchSize", 16);
+        // Flushes against the unstubbed repositories fail; only the stuck lane test counts them
+        ReflectionTestUtils.setField(orderEngine, "maxFlushRetries", Integer.MAX_VALUE);
+        ReflectionTestUtils.setField(orderEngine, "maxBooks", 100);
+        ReflectionTestUtils.setField(orderEngine, "maxHoldingsPerBook", 100);
+
+        user = new User();
+        user.setId(1L);
+        user.setUsername("subish12396");
+
+        fundScript = new FundScript();
+        fundScript.setFundId(fundId);
+        fundScript.setFundName("Nippon Index Fund");
+        fundScript.setTotalUnits(BigDecimal.valueOf(100));
+
+        fundNav = new FundNav();
+        fundNav.setFundId(fundScript);
+        fundNav.setNavDate(LocalDate.now());
+        fundNav.setNav(BigDecimal.valueOf(10));
+        orderEngine.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderEngine.stop();
+    }
+
+    private OrderView orderView(long units) {
+        OrderView orderView = new OrderView();
+        orderView.setUsername(user.getUsername());
+        orderView.setFundId(fundId);
+        orderView.setNav(fundNav.getNav());
+        orderView.setUnits(BigDecimal.valueOf(units));
+        return orderView;
+    }
+
+    /**
+     * Test case: Buy orders on one fund consume the lane-owned balance and reject once it is exhausted.
+     */
+    @Test
+    void submit_shouldSerializeBuyOrdersAgainstLaneBalance() throws Exception {
+        when(fundRepository.findById(fundId)).thenReturn(Optional.of(fundScript));
+        when(userHoldingRepository.findByUserAndFund(user, fundScript)).thenReturn(Optional.empty());
+
+        List<CompletableFuture<ResponseEntity<OrderResponse>>> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            results.add(orderEngine.submit("uuid" + i, OrderType.BUY, user, fundNav, orderView(10)));
+        }
+        long completed = 0;
+        for (CompletableFuture<ResponseEntity<OrderResponse>> result : results) {
+            if (result.get().getStatusCode() == HttpStatus.CREATED) {
+                completed++;
+            }
+        }
+
+        // Fund starts with 100 units and a buy must leave at least one unit behind
+        assertEquals(9, completed);
+        assertEquals(BigDecimal.valueOf(10), fundScript.getTotalUnits());
+        verify(fundRepository, times(1)).findById(fundId);
+        verify(userHoldingRepository, times(1)).findByUserAndFund(user, fundScript);
+    }
+
+    /**
+     * Test case: Redeem without holdings is rejected and nothing is written.
+     */
+    @Test
+    void submit_shouldRejectRedeemWithoutHolding() throws Exception {
+        when(fundRepository.findById(fundId)).thenReturn(Optional.of(fundScript));
+        when(userHoldingRepository.findByUserAndFund(user, fundScript)).thenReturn(Optional.empty());
+
+        ResponseEntity<OrderResponse> response = orderEngine.submit("uuid", OrderType.REDEEM, user, fundNav, orderView(5)).get();
+        orderEngine.stop();
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(5008, response.getBody().getCode());
+        verify(transactionRepository, never()).saveAll(anyIterable());
+    }
+
+    /**
+     * Test case: Applied orders are flushed to the repositories by the owning lane.
+     */
+    @Test
+    void stop_shouldFlushAppliedOrders() throws Exception {
+        when(fundRepository.findById(fundId)).thenReturn(Optional.of(fundScript));
+        when(userHoldingRepository.findByUserAndFund(user, fundScript)).thenReturn(Optional.empty());
+
+        orderEngine.submit("uuid", OrderType.BUY, user, fundNav, orderView(10)).get();
+        orderEngine.stop();
+
+        verify(fundRepository, atLeastOnce()).save(fundScript);
+        verify(userHoldingRepository, atLeastOnce()).save(any(UserHolding.class));
+        verify(transactionRepository, atLeastOnce()).saveAll(anyIterable());
+    }
+
+    /**
+     * Test case: Versions incremented on the merged copies at commit are carried back to the lane's instances,
+     * so the next flush does not fail its optimistic lock check.
+     */
+    @Test
+    void stop_shouldKeepVersionsOfFlushedRows() throws Exception {
+        when(fundRepository.findById(fundId)).thenReturn(Optional.of(fundScript));
+        when(userHoldingRepository.findByUserAndFund(user, fundScript)).thenReturn(Optional.empty());
+        when(fundRepository.save(fundScript)).thenAnswer(invocation -> {
+            FundScript merged = new FundScript();
+            merged.setVersion(4L);
+            return merged;
+        });
+        when(userHoldingRepository.save(any(UserHolding.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        orderEngine.submit("uuid", OrderType.BUY, user, fundNav, orderView(10)).get();
+        orderEngine.stop();
+
+        assertEquals(4L, fundScript.getVersion());
+    }
+
+    /**
+     * Test case: A flush failing on a fund changed outside the engine reloads the fund and applies the pending
+     * change to the stored units, so the retried flush does not overwrite the other change.
+     */
+    @Test
+    void flush_shouldReloadFundChangedOutsideEngine() throws Exception {
+        FundScript stored = new FundScript();
+        stored.setFundId(fundId);
+        stored.setTotalUnits(BigDecimal.valueOf(50));
+        stored.setVersion(7L);
+        when(fundRepository.findById(fundId)).thenReturn(Optional.of(fundScript), Optional.of(stored));
+        when(userHoldingRepository.findByUserAndFund(user, fundScript)).thenReturn(Optional.empty());
+        when(fundRepository.save(fundScript))
+                .thenThrow(new ObjectOptimisticLockingFailureException(FundScript.class, fundId))
+                .thenReturn(fundScript);
+        when(userHoldingRepository.save(any(UserHolding.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        orderEngine.submit("uuid", OrderType.BUY, user, fundNav, orderView(10)).get();
+        orderEngine.stop();
+
+        assertEquals(BigDecimal.valueOf(40), fundScript.getTotalUnits());
+        assertEquals(7L, fundScript.getVersion());
+        verify(fundRepository, times(2)).save(fundScript);
+    }
+
+    /**
+     * Test case: After max-flush-retries failed flushes the lane answers its orders with 503 and is counted as
+     * stuck.
+     */
+    @Test
+    void submit_shouldRejectOrdersOfStuckLane() throws Exception {
+        ReflectionTestUtils.setField(orderEngine, "maxFlushRetries", 2);
+        when(fundRepository.findById(fundId)).thenReturn(Optional.of(fundScript));
+        when(userHoldingRepository.findByUserAndFund(user, fundScript)).thenReturn(Optional.empty());
+        when(fundRepository.save(fundScript)).thenThrow(new DataAccessResourceFailureException("down"));
+
+        ResponseEntity<OrderResponse> acknowledged =
+                orderEngine.submit("uuid1", OrderType.BUY, user, fundNav, orderView(10)).get();
+        for (int i = 0; i < 100 && orderEngine.stuckLanes() == 0; i++) {
+            Thread.sleep(20);
+        }
+        ResponseEntity<OrderResponse> rejected =
+                orderEngine.submit("uuid2", OrderType.BUY, user, fundNav, orderView(10)).get();
+
+        assertEquals(HttpStatus.CREATED, acknowledged.getStatusCode());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getStatusCode());
+        assertEquals(1, meterRegistry.get("order.engine.lanes.stuck").gauge().value());
+        assertEquals(BigDecimal.valueOf(90), fundScript.getTotalUnits());
+    }
+}
@@ -2,6 +2,7 @@ package com.subash.fund.management.service;
 
 import com.subash.fund.management.model.*;
 import com.subash.fund.management.repository.*;
+import com.subash.fund.management.util.Constants;
 import com.subash.fund.management.util.GenericLogger;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -9,16 +10,22 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntFunction;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -37,9 +44,10 @@ import static org.mockito.Mockito.when;
  * <ul>
  *     <li>Successful fund buy order</li>
  *     <li>Invalid user or fund ID</li>
- *     <li>NAV mismatch during transaction</li>
+ *     <li>NAV mismatch during transaction, or no NAV for today</li>
  *     <li>Insufficient fund units for buy or redeem</li>
  *     <li>Exception handling during order processing</li>
+ *     <li>Optimistic mode: versioned updates, and conflicts that outlast the retries</li>
  * </ul>
  *
  * @see com.subash.fund.management.service.OrderServiceImpl
@@ -52,15 +60,23 @@ class OrderServiceImplTest {
     @Mock
     private FundRepository fundRepository;
     @Mock
-    private FundNavRepository fundNavRepository;
-    @Mock
     private UserHoldingRepository userHoldingRepository;
     @Mock
-    private UserRepository userRepository;
-    @Mock
     private TransactionRepository transactionRepository;
     @Mock
     private GenericLogger genericLogger;
+    @Mock
+    private OrderEngine orderEngine;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private OptimisticRetry optimisticRetry;
+    @Mock
+    private TransactionJournal transactionJournal;
+    @Mock
+    private PortfolioIndex portfolioIndex;
+    @Mock
+    private NavCache navCache;
 
     @InjectMocks
     private OrderServiceImpl orderService;
@@ -87,6 +103,7 @@ class OrderServiceImplTest {
         orderView.setFundId(fundId);
         orderView.setUnits(BigDecimal.valueOf(10));
         user = new User();
+        user.setId(1L);
         user.setUsername(username);
 
         fundScript = new FundScript();
@@ -100,6 +117,7 @@ class OrderServiceImplTest {
         fundNav.setNav(BigDecimal.valueOf(232.1));
 
         userHolding = new UserHolding();
+        userHolding.setId(11L);
         userHolding.setTotalValue(BigDecimal.valueOf(729.33));
         userHolding.setFund(fundScript);
         userHolding.setUser(user);
@@ -112,15 +130,37 @@ class OrderServiceImplTest {
      */
     @Test
     void createOrder_shouldProcessBuyOrderSuccessfully() throws Exception {
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
-        when(fundRepository.findById(fundId)).thenReturn(Optional.of(fundScript));
-        when(fundNavRepository.findByFundIdAndNavDate(any(), eq(today))).thenReturn(Optional.of(fundNav));
-        when(userHoldingRepository.findByUserAndFund(user, fundScript)).thenReturn(Optional.empty());
+        when(fundRepository.findOrderContext(fundId, username))
+                .thenReturn(Optional.of(new OrderContext(fundScript, user, null)));
+        when(navCache.find(fundScript, today)).thenReturn(Optional.of(fundNav));
+        when(fundRepository.subtractUnits(fundId, orderView.getUnits())).thenReturn(1);
 
         ResponseEntity<OrderResponse> response = orderService.createOrder(uuid, "BUY", orderView);
 
         assertEquals(HttpStatus.CREATED, ((ResponseEntity<?>) response).getStatusCode());
         assertEquals(5010, response.getBody().getCode()); // ORDER_COMPLETED_CODE
+        verify(userHoldingRepository).addUnits(eq(user.getId()), eq(fundId), eq(orderView.getUnits()), any());
+        verify(transactionRepository).save(any(Transaction.class));
+        verify(portfolioIndex).record(any(Transaction.class));
+    }
+
+    /**
+     * Test case: Successfully processes a REDEEM order, returning the units to the fund.
+     */
+    @Test
+    void createOrder_shouldProcessRedeemOrderSuccessfully() throws Exception {
+        when(fundRepository.findOrderContext(fundId, username))
+                .thenReturn(Optional.of(new OrderContext(fundScript, user, userHolding)));
+        when(navCache.find(fundScript, today)).thenReturn(Optional.of(fundNav));
+        when(userHoldingRepository.subtractUnits(eq(userHolding.getId()), eq(orderView.getUnits()), any()))
+                .thenReturn(1);
+
+        ResponseEntity<OrderResponse> response = orderService.createOrder(uuid, "REDEEM", orderView);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(5010, response.getBody().getCode()); // ORDER_COMPLETED_CODE
+        verify(fundRepository).addUnits(fundId, orderView.getUnits());
+        verify(transactionRepository).save(any(Transaction.class));
     }
 
     /**
@@ -128,7 +168,8 @@ class OrderServiceImplTest {
      */
     @Test
     void createOrder_shouldReturnBadRequest_ifUserNotFound() throws Exception {
-        when(userRepository.findByUsername(username)).thenReturn(Optional.empty());
+        when(fundRepository.findOrderContext(fundId, username))
+                .thenReturn(Optional.of(new OrderContext(fundScript, null, null)));
         ResponseEntity<OrderResponse> response = orderService.createOrder(uuid, "BUY", orderView);
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertEquals(5004, response.getBody().getCode()); // USER_RECORD_NOT_FOUND_CODE
@@ -139,8 +180,7 @@ class OrderServiceImplTest {
      */
     @Test
     void createOrder_shouldReturnBadRequest_ifFundNotFound() throws Exception {
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(new User()));
-        when(fundRepository.findById(fundId)).thenReturn(Optional.empty());
+        when(fundRepository.findOrderContext(fundId, username)).thenReturn(Optional.empty());
         ResponseEntity<OrderResponse> response = orderService.createOrder(uuid, "BUY", orderView);
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertEquals(5006, response.getBody().getCode()); // RECORD_NOT_FOUND_CODE
@@ -156,9 +196,63 @@ class OrderServiceImplTest {
         FundNav fundNav = new FundNav();
         fundNav.setNav(BigDecimal.valueOf(100));
 
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
-        when(fundRepository.findById(fundId)).thenReturn(Optional.of(fundScript));
-        when(fundNavRepository.findByFundIdAndNavDate(any(), eq(today))).thenReturn(Optional.of(fundNav));
+        when(fundRepository.findOrderContext(fundId, username))
+                .thenReturn(Optional.of(new OrderContext(fundScript, user, null)));
+        when(navCache.find(fundScript, today)).thenReturn(Optional.of(fundNav));
+
+        ResponseEntity<OrderResponse> response = orderService.createOrder(uuid, "BUY", orderView);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(5005, response.getBody().getCode()); // FUND_NAV_VALUE_CODE
+    }
+
+    /**
+     * Test case: A NAV equal to today's but written with another scale (232.1 against 232.10) is accepted.
+     */
+    @Test
+    void createOrder_shouldAcceptNavOfAnotherScale() throws Exception {
+        FundNav storedNav = new FundNav();
+        storedNav.setFundId(fundScript);
+        storedNav.setNavDate(today);
+        storedNav.setNav(new BigDecimal("232.10"));
+        when(fundRepository.findOrderContext(fundId, username))
+                .thenReturn(Optional.of(new OrderContext(fundScript, user, null)));
+        when(navCache.find(fundScript, today)).thenReturn(Optional.of(storedNav));
+        when(fundRepository.subtractUnits(fundId, orderView.getUnits())).thenReturn(1);
+
+        ResponseEntity<OrderResponse> response = orderService.createOrder(uuid, "BUY", orderView);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(5010, response.getBody().getCode()); // ORDER_COMPLETED_CODE
+    }
+
+    /**
+     * Test case: An order without a NAV is rejected like a mismatching one.
+     */
+    @Test
+    void createOrder_shouldReturnBadRequest_ifNavMissing() throws Exception {
+        OrderView noNav = new OrderView();
+        noNav.setUsername(username);
+        noNav.setFundId(fundId);
+        noNav.setUnits(BigDecimal.valueOf(10));
+        when(fundRepository.findOrderContext(fundId, username))
+                .thenReturn(Optional.of(new OrderContext(fundScript, user, null)));
+        when(navCache.find(fundScript, today)).thenReturn(Optional.of(fundNav));
+
+        ResponseEntity<OrderResponse> response = orderService.createOrder(uuid, "BUY", noNav);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(5005, response.getBody().getCode()); // FUND_NAV_VALUE_CODE
+    }
+
+    /**
+     * Test case: No NAV has been recorded for today, so the order cannot be priced.
+     */
+    @Test
+    void createOrder_shouldReturnBadRequest_ifNoNavForToday() throws Exception {
+        when(fundRepository.findOrderContext(fundId, username))
+                .thenReturn(Optional.of(new OrderContext(fundScript, user, null)));
+        when(navCache.find(fundScript, today)).thenReturn(Optional.empty());
 
         ResponseEntity<OrderResponse> response = orderService.createOrder(uuid, "BUY", orderView);
 
@@ -171,16 +265,17 @@ class OrderServiceImplTest {
      */
     @Test
     void createOrder_shouldReturnBadRequest_ifInsufficientFundUnitsOnBuy() throws Exception {
-        fundScript.setTotalUnits(BigDecimal.valueOf(1));
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
-        when(fundRepository.findById(fundId)).thenReturn(Optional.of(fundScript));
-        when(fundNavRepository.findByFundIdAndNavDate(fundScript, today)).thenReturn(Optional.of(fundNav));
-        when(userHoldingRepository.findByUserAndFund(user, fundScript)).thenReturn(Optional.of(userHolding));
+        when(fundRepository.findOrderContext(fundId, username))
+                .thenReturn(Optional.of(new OrderContext(fundScript, user, userHolding)));
+        when(navCache.find(fundScript, today)).thenReturn(Optional.of(fundNav));
+        when(fundRepository.subtractUnits(fundId, orderView.getUnits())).thenReturn(0);
 
         ResponseEntity<OrderResponse> response = orderService.createOrder(uuid, "BUY", orderView);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertEquals(5009, response.getBody().getCode()); // INSUFFICIENT_UNITS_FUNDS_CODE
+        verify(userHoldingRepository, never()).addUnits(any(), any(), any(), any());
+        verify(transactionRepository, never()).save(any());
     }
 
     /**
@@ -188,16 +283,33 @@ class OrderServiceImplTest {
      */
     @Test
     void createOrder_shouldReturnBadRequest_ifInsufficientUnitsOnRedeem() throws Exception {
-        userHolding.setUnits(BigDecimal.valueOf(1));
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
-        when(fundRepository.findById(fundId)).thenReturn(Optional.of(fundScript));
-        when(fundNavRepository.findByFundIdAndNavDate(fundScript, today)).thenReturn(Optional.of(fundNav));
-        when(userHoldingRepository.findByUserAndFund(user, fundScript)).thenReturn(Optional.of(userHolding));
+        when(fundRepository.findOrderContext(fundId, username))
+                .thenReturn(Optional.of(new OrderContext(fundScript, user, userHolding)));
+        when(navCache.find(fundScript, today)).thenReturn(Optional.of(fundNav));
+        when(userHoldingRepository.subtractUnits(eq(userHolding.getId()), eq(orderView.getUnits()), any()))
+                .thenReturn(0);
+
+        ResponseEntity<OrderResponse> response = orderService.createOrder(uuid, "REDEEM", orderView);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(5008, response.getBody().getCode());
+        verify(fundRepository, never()).addUnits(any(), any());
+    }
+
+    /**
+     * Test case: Redeem fails when the user holds no units of the fund at all.
+     */
+    @Test
+    void createOrder_shouldReturnBadRequest_ifNoHoldingOnRedeem() throws Exception {
+        when(fundRepository.findOrderContext(fundId, username))
+                .thenReturn(Optional.of(new OrderContext(fundScript, user, null)));
+        when(navCache.find(fundScript, today)).thenReturn(Optional.of(fundNav));
 
         ResponseEntity<OrderResponse> response = orderService.createOrder(uuid, "REDEEM", orderView);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertEquals(5008, response.getBody().getCode());
+        verify(userHoldingRepository, never()).subtractUnits(any(), any(), any());
     }
 
     /**
@@ -205,9 +317,91 @@ class OrderServiceImplTest {
      */
     @Test
     void createOrder_shouldHandleExceptionDuringProcessing() {
-        when(userRepository.findByUsername(anyString())).thenThrow(new RuntimeException("DB Failure"));
+        when(fundRepository.findOrderContext(anyString(), anyString())).thenThrow(new RuntimeException("DB Failure"));
 
         assertThrows(Exception.class, () -> orderService.createOrder(uuid, "BUY", orderView));
         verify(genericLogger).logResponse(any(), eq(uuid), eq("ERROR"), any());
     }
-}
\ No newline at end of file
+
+    /**
+     * Test case: Routes a validated order to the order engine when it is enabled.
+     */
+    @Test
+    void createOrder_shouldRouteToOrderEngine_whenEnabled() throws Exception {
+        OrderResponse engineResponse = new OrderResponse();
+        engineResponse.setCode(5010);
+        when(orderEngine.isEnabled()).thenReturn(true);
+        when(fundRepository.findOrderContext(fundId, username))
+                .thenReturn(Optional.of(new OrderContext(fundScript, user, null)));
+        when(navCache.find(fundScript, today)).thenReturn(Optional.of(fundNav));
+        when(orderEngine.submit(eq(uuid), eq(Constants.OrderType.BUY), eq(user), eq(fundNav), eq(orderView)))
+                .thenReturn(CompletableFuture.completedFuture(new ResponseEntity<>(engineResponse, HttpStatus.CREATED)));
+
+        ResponseEntity<OrderResponse> response = orderService.createOrder(uuid, "BUY", orderView);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(5010, response.getBody().getCode());
+        verify(fundRepository, never()).subtractUnits(any(), any());
+    }
+
+    /**
+     * Test case: In optimistic mode a BUY updates the loaded fund and creates the holding through the retry.
+     */
+    @Test
+    void createOrder_shouldSaveVersionedRows_inOptimisticMode() throws Exception {
+        ReflectionTestUtils.setField(orderService, "concurrencyMode", "optimistic");
+        FundScript fund = new FundScript();
+        fund.setFundId(fundId);
+        fund.setTotalUnits(BigDecimal.valueOf(4820));
+        when(fundRepository.findOrderContext(fundId, username))
+                .thenReturn(Optional.of(new OrderContext(fund, user, null)));
+        when(navCache.find(fund, today)).thenReturn(Optional.of(fundNav));
+        when(optimisticRetry.execute(eq(fundId), any()))
+                .thenAnswer(invocation -> invocation.<IntFunction<?>>getArgument(1).apply(1));
+
+        ResponseEntity<OrderResponse> response = orderService.createOrder(uuid, "BUY", orderView);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(5010, response.getBody().getCode());
+        assertEquals(BigDecimal.valueOf(4810), fund.getTotalUnits());
+        verify(fundRepository).save(fund);
+        verify(userHoldingRepository).saveAndFlush(any(UserHolding.class));
+        verify(fundRepository, never()).subtractUnits(any(), any());
+    }
+
+    /**
+     * Test case: In optimistic mode an order still conflicting after the last retry is answered with 409.
+     */
+    @Test
+    void createOrder_shouldReturnConflict_ifRetriesExhaustedInOptimisticMode() throws Exception {
+        ReflectionTestUtils.setField(orderService, "concurrencyMode", "optimistic");
+        when(fundRepository.findOrderContext(fundId, username))
+                .thenReturn(Optional.of(new OrderContext(fundScript, user, userHolding)));
+        when(navCache.find(fundScript, today)).thenReturn(Optional.of(fundNav));
+        when(optimisticRetry.execute(eq(fundId), any()))
+                .thenThrow(new OptimisticLockingFailureException("conflict"));
+
+        ResponseEntity<OrderResponse> response = orderService.createOrder(uuid, "REDEEM", orderView);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals(Constants.ORDER_CONFLICT_CODE, response.getBody().getCode());
+    }
+
+    /**
+     * Test case: With the journal enabled the transaction row is journaled instead of inserted.
+     */
+    @Test
+    void createOrder_shouldJournalTransaction_whenJournalEnabled() throws Exception {
+        when(transactionJournal.isEnabled()).thenReturn(true);
+        when(fundRepository.findOrderContext(fundId, username))
+                .thenReturn(Optional.of(new OrderContext(fundScript, user, null)));
+        when(navCache.find(fundScript, today)).thenReturn(Optional.of(fundNav));
+        when(fundRepository.subtractUnits(fundId, orderView.getUnits())).thenReturn(1);
+
+        ResponseEntity<OrderResponse> response = orderService.createOrder(uuid, "BUY", orderView);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        verify(transactionJournal).append(any(Transaction.class));
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+}
@@ -0,0 +1,212 @@
+package com.subash.fund.management.service;
+
+import com.subash.fund.management.model.FundScript;
+import com.subash.fund.management.model.HoldingSummary;
+import com.subash.fund.management.model.NavPoint;
+import com.subash.fund.management.model.Transaction;
+import com.subash.fund.management.model.User;
+import com.subash.fund.management.repository.UserHoldingRepository;
+import com.subash.fund.management.repository.UserRepository;
+import com.subash.fund.management.service.PortfolioIndex.Holdings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test class for {@link PortfolioIndex}.
+ * <p>
+ * Verifies that holdings are served from memory once preloaded or loaded, that recorded transactions change them
+ * only once their database transaction commits and that a NAV change revalues the holders of the fund on the
+ * revaluation pool. Cross-node invalidation is disabled as it requires a PostgreSQL connection.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+class PortfolioIndexTest {
+
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private UserHoldingRepository userHoldingRepository;
+    @Mock
+    private NavCache navCache;
+    @Mock
+    private PgNotifications pgNotifications;
+
+    private PortfolioIndex portfolioIndex;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        portfolioIndex = new PortfolioIndex(userRepository, userHoldingRepository, navCache,
+                pgNotifications, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(portfolioIndex, "enabled", true);
+        ReflectionTestUtils.setField(portfolioIndex, "preload", true);
+        ReflectionTestUtils.setField(portfolioIndex, "invalidationEnabled", false);
+        ReflectionTestUtils.setField(portfolioIndex, "revaluationParallelism", 2);
+
+        user = new User();
+        user.setId(1L);
+        user.setUsername("subish12396");
+    }
+
+    private Transaction transaction(String fundId, String type, String units, String amount) {
+        FundScript fundScript = new FundScript();
+        fundScript.setFundId(fundId);
+        Transaction transaction = new Transaction();
+        transaction.setUser(user);
+        transaction.setFund(fundScript);
+        transaction.setType(type);
+        transaction.setUnits(new BigDecimal(units));
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setNav(new BigDecimal("100.00"));
+        return transaction;
+    }
+
+    /**
+     * Waits for the revaluations handed to the revaluation pool.
+     */
+    private void awaitRevaluations() {
+        ForkJoinPool pool = (ForkJoinPool) ReflectionTestUtils.getField(portfolioIndex, "revaluationPool");
+        assertTrue(pool.awaitQuiescence(5, TimeUnit.SECONDS));
+    }
+
+    private static NavPoint nav(String fundId, LocalDate navDate, String nav) {
+        return new NavPoint(fundId, navDate, new BigDecimal(nav));
+    }
+
+    /**
+     * Test case: Preloaded holdings are served from memory and follow buys of new funds and redeems.
+     */
+    @Test
+    void record_shouldUpdatePreloadedHoldings() {
+        when(userHoldingRepository.findAllSummaries()).thenReturn(List.of(
+                new HoldingSummary(1L, "subish12396", "2342323545", new BigDecimal("10.00"), new BigDecimal("2321.00"))));
+        portfolioIndex.start();
+
+        portfolioIndex.record(transaction("1000000001", "BUY", "2", "200.005"));
+        portfolioIndex.record(transaction("2342323545", "REDEEM", "4", "928.40"));
+        Holdings holdings = portfolioIndex.find(1L);
+
+        assertEquals(2, holdings.size());
+        assertEquals("1000000001", holdings.fundId(0));
+        assertEquals(200, holdings.units(0));
+        assertEquals(20001, holdings.invested(0));
+        assertEquals("2342323545", holdings.fundId(1));
+        assertEquals(600, holdings.units(1));
+        assertEquals(139260, holdings.invested(1));
+        assertEquals(1L, portfolioIndex.findUserId("subish12396").get());
+        verify(userHoldingRepository, never()).findSummariesByUserId(anyLong());
+        verifyNoInteractions(userRepository);
+    }
+
+    /**
+     * Test case: A user is loaded once, and a transaction is applied only after its commit.
+     */
+    @Test
+    void record_shouldApplyAfterCommit() {
+        when(userHoldingRepository.findSummariesByUserId(1L)).thenReturn(List.of());
+        assertEquals(0, portfolioIndex.find(1L).size());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            portfolioIndex.record(transaction("2342323545", "BUY", "10", "2321.00"));
+            assertEquals(0, portfolioIndex.find(1L).size());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        Holdings holdings = portfolioIndex.find(1L);
+        assertEquals(1, holdings.size());
+        assertEquals(1000, holdings.units(0));
+        assertEquals(232100, holdings.invested(0));
+        verify(userHoldingRepository, times(1)).findSummariesByUserId(1L);
+    }
+
+    /**
+     * Test case: A NAV change moves the value of each holder of the fund by units times the NAV change, and an
+     * older NAV is ignored.
+     */
+    @Test
+    void onNavChanged_shouldRevalueHoldersOfTheFund() {
+        LocalDate today = LocalDate.now();
+        when(userHoldingRepository.findAllSummaries()).thenReturn(List.of(
+                new HoldingSummary(1L, "subish12396", "2342323545", new BigDecimal("10.00"), new BigDecimal("2321.00")),
+                new HoldingSummary(1L, "subish12396", "1000000001", new BigDecimal("2.50"), new BigDecimal("250.00")),
+                new HoldingSummary(2L, "other", "2342323545", new BigDecimal("1.25"), new BigDecimal("290.00"))));
+        when(navCache.findLatest(anyCollection())).thenReturn(Map.of(
+                "2342323545", nav("2342323545", today.minusDays(1), "232.10"),
+                "1000000001", nav("1000000001", today.minusDays(1), "100.00")));
+        portfolioIndex.start();
+        assertEquals(232100 + 25000, portfolioIndex.find(1L).marketValue());
+        assertEquals(29013, portfolioIndex.find(2L).marketValue());
+
+        when(navCache.findLatest(List.of("2342323545")))
+                .thenReturn(Map.of("2342323545", nav("2342323545", today, "240.15")));
+        portfolioIndex.onNavChanged(new NavChangedEvent(List.of("2342323545")));
+        awaitRevaluations();
+
+        Holdings holdings = portfolioIndex.find(1L);
+        assertEquals(24015, holdings.nav(1));
+        assertEquals(today, holdings.navDate(1));
+        assertEquals(240150, holdings.value(1));
+        assertEquals(240150 + 25000, holdings.marketValue());
+        assertEquals(30019, portfolioIndex.find(2L).marketValue());
+
+        when(navCache.findLatest(List.of("2342323545")))
+                .thenReturn(Map.of("2342323545", nav("2342323545", today.minusDays(2), "200.00")));
+        portfolioIndex.onNavChanged(new NavChangedEvent(List.of("2342323545")));
+        awaitRevaluations();
+
+        assertEquals(240150 + 25000, portfolioIndex.find(1L).marketValue());
+        verify(userHoldingRepository, never()).findSummariesByUserId(anyLong());
+    }
+
+    /**
+     * Test case: The thread publishing a NAV change returns while the holders are still being revalued, and they
+     * are revalued once the pool gets to it.
+     */
+    @Test
+    void onNavChanged_shouldNotWaitForTheRevaluation() throws InterruptedException {
+        LocalDate today = LocalDate.now();
+        when(userHoldingRepository.findAllSummaries()).thenReturn(List.of(
+                new HoldingSummary(1L, "subish12396", "2342323545", new BigDecimal("10.00"), new BigDecimal("2321.00"))));
+        when(navCache.findLatest(anyCollection())).thenReturn(Map.of(
+                "2342323545", nav("2342323545", today.minusDays(1), "232.10")));
+        portfolioIndex.start();
+
+        CountDownLatch released = new CountDownLatch(1);
+        when(navCache.findLatest(List.of("2342323545"))).thenAnswer(invocation -> {
+            released.await();
+            return Map.of("2342323545", nav("2342323545", today, "240.15"));
+        });
+        assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> portfolioIndex.onNavChanged(new NavChangedEvent(List.of("2342323545"))));
+        assertEquals(232100, portfolioIndex.find(1L).marketValue());
+
+        released.countDown();
+        awaitRevaluations();
+        assertEquals(240150, portfolioIndex.find(1L).marketValue());
+    }
+}
@@ -0,0 +1,91 @@
+package com.subash.fund.management.service;
+
+import com.subash.fund.management.model.HoldingSummary;
+import com.subash.fund.management.model.PortfolioHolding;
+import com.subash.fund.management.model.PortfolioResponse;
+import com.subash.fund.management.service.PortfolioIndex.Holdings;
+import com.subash.fund.management.util.Constants;
+import com.subash.fund.management.util.GenericLogger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test class for {@link com.subash.fund.management.service.PortfolioServiceImpl}.
+ * <p>
+ * Verifies that holdings are reported at the NAV the index valued them at, that a fund without a NAV is valued at
+ * the amount invested and that unknown users are rejected.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+class PortfolioServiceImplTest {
+
+    @Mock
+    private PortfolioIndex portfolioIndex;
+    @Mock
+    private GenericLogger genericLogger;
+
+    @InjectMocks
+    private PortfolioServiceImpl portfolioService;
+
+    private final String uuid = "uuid123";
+    private final static String username = "subish12396";
+
+    /**
+     * Test case: Holdings are reported at their NAV, or at cost without one, and totalled.
+     */
+    @Test
+    void getPortfolio_shouldMarkHoldingsToLatestNav() throws Exception {
+        LocalDate navDate = LocalDate.now().minusDays(1);
+        when(portfolioIndex.findUserId(username)).thenReturn(Optional.of(1L));
+        when(portfolioIndex.find(1L)).thenReturn(Holdings.of(List.of(
+                new HoldingSummary(1L, username, "2342323545", new BigDecimal("10.00"), new BigDecimal("2321.00")),
+                new HoldingSummary(1L, username, "1000000001", new BigDecimal("2.50"), new BigDecimal("250.00"))),
+                Map.of("2342323545", new PortfolioIndex.FundNav(24015, navDate.toEpochDay()))));
+
+        ResponseEntity<PortfolioResponse> response = portfolioService.getPortfolio(uuid, username);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        PortfolioResponse portfolio = response.getBody();
+        assertEquals(Constants.PORTFOLIO_RETRIEVED_CODE, portfolio.getCode());
+        PortfolioHolding unpriced = portfolio.getHoldings().get(0);
+        assertNull(unpriced.getNav());
+        assertEquals(new BigDecimal("250.00"), unpriced.getCurrentValue());
+        PortfolioHolding priced = portfolio.getHoldings().get(1);
+        assertEquals(new BigDecimal("240.15"), priced.getNav());
+        assertEquals(navDate, priced.getNavDate());
+        assertEquals(new BigDecimal("2401.50"), priced.getCurrentValue());
+        assertEquals(new BigDecimal("80.50"), priced.getGain());
+        assertEquals(new BigDecimal("2571.00"), portfolio.getInvested());
+        assertEquals(new BigDecimal("2651.50"), portfolio.getCurrentValue());
+        assertEquals(new BigDecimal("80.50"), portfolio.getGain());
+    }
+
+    /**
+     * Test case: An unknown user is answered with 404.
+     */
+    @Test
+    void getPortfolio_shouldReturnNotFound_ifUserUnknown() throws Exception {
+        when(portfolioIndex.findUserId(username)).thenReturn(Optional.empty());
+
+        ResponseEntity<PortfolioResponse> response = portfolioService.getPortfolio(uuid, username);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(Constants.USER_RECORD_NOT_FOUND_CODE, response.getBody().getCode());
+        verify(portfolioIndex, never()).find(anyLong());
+    }
+}
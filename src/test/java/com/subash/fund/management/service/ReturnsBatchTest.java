@@ -0,0 +1,145 @@
+package com.subash.fund.management.service;
+
+import com.subash.fund.management.model.LedgerEntry;
+import com.subash.fund.management.model.NavPoint;
+import com.subash.fund.management.model.UserReturns;
+import com.subash.fund.management.repository.NavBatchRepository;
+import com.subash.fund.management.repository.ReturnsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test class for {@link ReturnsBatch}.
+ * <p>
+ * Verifies that the users are computed slice by slice at the latest NAVs, that a user beyond the range of the
+ * calculator does not fail the others, and that the batch runs on one node only.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+class ReturnsBatchTest {
+
+    private static final String FUND_ID = "2342323545";
+
+    @Mock
+    private ReturnsRepository returnsRepository;
+    @Mock
+    private NavBatchRepository navBatchRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ReturnsBatch returnsBatch;
+
+    private final LocalDate valuationDate = LocalDate.now();
+
+    /**
+     * Creates the batch with slices of 10 user IDs on 2 threads.
+     */
+    @BeforeEach
+    void setUp() {
+        returnsBatch = new ReturnsBatch(returnsRepository, navBatchRepository, transactionManager,
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(returnsBatch, "enabled", true);
+        ReflectionTestUtils.setField(returnsBatch, "parallelism", 2);
+        ReflectionTestUtils.setField(returnsBatch, "sliceSize", 10);
+        ReflectionTestUtils.setField(returnsBatch, "connectionPoolSize", 10);
+    }
+
+    private static LedgerEntry buy(long userId, long amount) {
+        return new LedgerEntry(userId, FUND_ID, false, amount / 100, 10000, amount, LocalDate.now().minusYears(1));
+    }
+
+    /**
+     * Streams the entries whose user falls in the requested ID range.
+     */
+    private void stream(LedgerEntry... entries) {
+        doAnswer(invocation -> {
+            long from = invocation.getArgument(0);
+            long to = invocation.getArgument(1);
+            Consumer<LedgerEntry> consumer = invocation.getArgument(2);
+            for (LedgerEntry entry : entries) {
+                if (entry.userId() >= from && entry.userId() < to) {
+                    consumer.accept(entry);
+                }
+            }
+            return null;
+        }).when(returnsRepository).forEachEntry(anyLong(), anyLong(), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<UserReturns> upserted(int slices) {
+        ArgumentCaptor<Collection<UserReturns>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(returnsRepository, times(slices)).upsert(captor.capture());
+        List<UserReturns> upserted = new ArrayList<>();
+        captor.getAllValues().forEach(upserted::addAll);
+        upserted.sort((a, b) -> Long.compare(a.userId(), b.userId()));
+        return upserted;
+    }
+
+    /**
+     * Test case: Every slice of the user IDs is streamed and its users stored, valued at the latest NAVs.
+     */
+    @Test
+    void computeAll_shouldComputeEverySlice() {
+        when(returnsRepository.findUserIdRange()).thenReturn(new long[]{1, 25});
+        when(navBatchRepository.findLatestNavs(null))
+                .thenReturn(List.of(new NavPoint(FUND_ID, valuationDate, new BigDecimal("110.00"))));
+        stream(buy(3, 100000), buy(3, 100000), buy(4, 50000), buy(12, 100000), buy(25, 100000));
+
+        assertEquals(4, returnsBatch.computeAll(valuationDate));
+
+        verify(returnsRepository).forEachEntry(eq(1L), eq(11L), any());
+        verify(returnsRepository).forEachEntry(eq(11L), eq(21L), any());
+        verify(returnsRepository).forEachEntry(eq(21L), eq(26L), any());
+        List<UserReturns> upserted = upserted(3);
+        assertEquals(List.of(3L, 4L, 12L, 25L), upserted.stream().map(UserReturns::userId).toList());
+        assertEquals(200000, upserted.get(0).returns().invested());
+        assertEquals(220000, upserted.get(0).returns().currentValue());
+        assertEquals(0.1, upserted.get(0).returns().absoluteReturn(), 1e-9);
+        assertEquals(valuationDate, upserted.get(0).valuationDate());
+    }
+
+    /**
+     * Test case: A user whose amounts overflow is skipped, the other users of the slice are stored.
+     */
+    @Test
+    void computeAll_shouldSkipUserBeyondRange() {
+        when(returnsRepository.findUserIdRange()).thenReturn(new long[]{1, 5});
+        stream(buy(1, Long.MAX_VALUE), buy(1, Long.MAX_VALUE), buy(2, 100000));
+
+        assertEquals(1, returnsBatch.computeAll(valuationDate));
+
+        assertEquals(List.of(2L), upserted(1).stream().map(UserReturns::userId).toList());
+    }
+
+    /**
+     * Test case: The batch is skipped while another node holds its lock.
+     */
+    @Test
+    void run_shouldSkipWhenLockedByAnotherNode() {
+        when(returnsRepository.tryLock(ReturnsBatch.LOCK_KEY)).thenReturn(false);
+
+        returnsBatch.run();
+
+        verify(returnsRepository, never()).findUserIdRange();
+        verify(returnsRepository, never()).upsert(any());
+    }
+}
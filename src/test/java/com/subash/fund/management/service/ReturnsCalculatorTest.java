@@ -0,0 +1,137 @@
+package com.subash.fund.management.service;
+
+import com.subash.fund.management.model.LedgerEntry;
+import com.subash.fund.management.model.NavPoint;
+import com.subash.fund.management.model.Returns;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test class for {@link ReturnsCalculator}.
+ * <p>
+ * Verifies the XIRR against known cash flows, the absolute and annualized returns, the valuation of funds with
+ * and without a NAV, and the returns left undefined.
+ * </p>
+ */
+class ReturnsCalculatorTest {
+
+    private static final String FUND_ID = "2342323545";
+    private static final String OTHER_FUND_ID = "1000000001";
+
+    private final ReturnsCalculator calculator = new ReturnsCalculator();
+
+    private static LedgerEntry buy(String fundId, long units, long nav, String date) {
+        return new LedgerEntry(1L, fundId, false, units, nav, units * nav / 100, LocalDate.parse(date));
+    }
+
+    private static LedgerEntry redeem(String fundId, long units, long nav, String date) {
+        return new LedgerEntry(1L, fundId, true, units, nav, units * nav / 100, LocalDate.parse(date));
+    }
+
+    private static Map<String, NavPoint> navs(String fundId, String nav) {
+        return Map.of(fundId, new NavPoint(fundId, LocalDate.now(), new BigDecimal(nav)));
+    }
+
+    /**
+     * Test case: The XIRR of partial redemptions matches the reference value of the same cash flows.
+     */
+    @Test
+    void portfolio_shouldComputeXirrOfCashFlows() {
+        // -10000, +2750, +4250, +3250 and a value of 2750: XIRR 37.336%
+        calculator.add(buy(FUND_ID, 1000000, 100, "2008-01-01"));
+        calculator.add(redeem(FUND_ID, 275000, 100, "2008-03-01"));
+        calculator.add(redeem(FUND_ID, 425000, 100, "2008-10-30"));
+        calculator.add(redeem(FUND_ID, 25000, 1300, "2009-02-15"));
+
+        Returns returns = calculator.portfolio(LocalDate.parse("2009-04-01"), navs(FUND_ID, "1.00"));
+
+        assertEquals(1000000, returns.invested());
+        assertEquals(1025000, returns.redeemed());
+        assertEquals(275000, returns.currentValue());
+        assertEquals(LocalDate.parse("2008-01-01"), returns.since());
+        assertEquals(0.3, returns.absoluteReturn(), 1e-9);
+        assertEquals(0.373362535, returns.xirr(), 1e-8);
+    }
+
+    /**
+     * Test case: A single purchase held a year has an XIRR equal to its annualized return.
+     */
+    @Test
+    void portfolio_shouldAnnualizeSinglePurchase() {
+        calculator.add(buy(FUND_ID, 10000, 10000, "2024-01-01"));
+
+        Returns returns = calculator.portfolio(LocalDate.parse("2025-01-01"), navs(FUND_ID, "110.00"));
+
+        double expected = Math.pow(1.1, 365.0 / 366) - 1;
+        assertEquals(1100000, returns.currentValue());
+        assertEquals(0.1, returns.absoluteReturn(), 1e-9);
+        assertEquals(expected, returns.annualizedReturn(), 1e-9);
+        assertEquals(expected, returns.xirr(), 1e-9);
+    }
+
+    /**
+     * Test case: Within the first year there is no annualized return, and a ledger valued on the day of its only
+     * purchase has no XIRR.
+     */
+    @Test
+    void portfolio_shouldLeaveUndefinedReturnsEmpty() {
+        calculator.add(buy(FUND_ID, 10000, 10000, "2024-01-01"));
+
+        Returns sameDay = calculator.portfolio(LocalDate.parse("2024-01-01"), navs(FUND_ID, "100.00"));
+        Returns withinYear = calculator.portfolio(LocalDate.parse("2024-07-01"), navs(FUND_ID, "105.00"));
+
+        assertNull(sameDay.xirr());
+        assertNull(sameDay.annualizedReturn());
+        assertNull(withinYear.annualizedReturn());
+        assertEquals(0.05, withinYear.absoluteReturn(), 1e-9);
+        assertTrue(withinYear.xirr() > 0.05);
+    }
+
+    /**
+     * Test case: Holdings are sorted by fund, valued at the NAV of their last transaction without a latest NAV,
+     * and kept with no units once fully redeemed.
+     */
+    @Test
+    void holdings_shouldValueEachFund() {
+        calculator.add(buy(OTHER_FUND_ID, 1000, 5000, "2024-01-01"));
+        calculator.add(buy(FUND_ID, 1000, 10000, "2024-01-01"));
+        calculator.add(redeem(OTHER_FUND_ID, 1000, 4000, "2024-02-01"));
+        calculator.add(buy(FUND_ID, 1000, 12000, "2024-03-01"));
+
+        List<Returns> holdings = calculator.holdings(LocalDate.parse("2024-06-01"), Map.of());
+
+        assertEquals(List.of(OTHER_FUND_ID, FUND_ID), holdings.stream().map(Returns::fundId).toList());
+        Returns redeemed = holdings.get(0);
+        assertEquals(0, redeemed.units());
+        assertEquals(0, redeemed.currentValue());
+        assertEquals(-0.2, redeemed.absoluteReturn(), 1e-9);
+        assertTrue(redeemed.xirr() < -0.2);
+        Returns held = holdings.get(1);
+        assertEquals(2000, held.units());
+        assertEquals(12000, held.nav());
+        assertEquals(240000, held.currentValue());
+        assertEquals(220000, held.invested());
+    }
+
+    /**
+     * Test case: A cleared calculator starts the next user from scratch.
+     */
+    @Test
+    void clear_shouldForgetPreviousUser() {
+        calculator.add(buy(FUND_ID, 1000, 10000, "2024-01-01"));
+        calculator.clear();
+
+        assertTrue(calculator.isEmpty());
+        Returns returns = calculator.portfolio(LocalDate.parse("2024-06-01"), Map.of());
+        assertEquals(0, returns.invested());
+        assertNull(returns.since());
+        assertNull(returns.absoluteReturn());
+        assertNull(returns.xirr());
+    }
+}
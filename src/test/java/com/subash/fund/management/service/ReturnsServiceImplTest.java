@@ -0,0 +1,102 @@
+package com.subash.fund.management.service;
+
+import com.subash.fund.management.model.HoldingReturn;
+import com.subash.fund.management.model.LedgerEntry;
+import com.subash.fund.management.model.NavPoint;
+import com.subash.fund.management.model.ReturnsResponse;
+import com.subash.fund.management.repository.ReturnsRepository;
+import com.subash.fund.management.util.Constants;
+import com.subash.fund.management.util.GenericLogger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test class for {@link com.subash.fund.management.service.ReturnsServiceImpl}.
+ * <p>
+ * Verifies that the ledger of the user is valued at the latest NAVs and reported in percent, and that unknown
+ * users are rejected.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+class ReturnsServiceImplTest {
+
+    @Mock
+    private ReturnsRepository returnsRepository;
+    @Mock
+    private PortfolioIndex portfolioIndex;
+    @Mock
+    private NavCache navCache;
+    @Mock
+    private GenericLogger genericLogger;
+
+    @InjectMocks
+    private ReturnsServiceImpl returnsService;
+
+    private final String uuid = "uuid123";
+    private final static String username = "subish12396";
+
+    /**
+     * Test case: A purchase made two years ago is valued at the latest NAV, with its returns in percent.
+     */
+    @Test
+    void getReturns_shouldValueLedgerAtLatestNav() throws Exception {
+        LocalDate bought = LocalDate.now().minusYears(2);
+        when(portfolioIndex.findUserId(username)).thenReturn(Optional.of(1L));
+        doAnswer(invocation -> {
+            Consumer<LedgerEntry> consumer = invocation.getArgument(1);
+            consumer.accept(new LedgerEntry(1L, "2342323545", false, 1000, 10000, 100000, bought));
+            return null;
+        }).when(returnsRepository).forEachEntry(eq(1L), any());
+        when(navCache.findLatest(Set.of("2342323545"))).thenReturn(Map.of("2342323545",
+                new NavPoint("2342323545", LocalDate.now(), new BigDecimal("121.00"))));
+
+        ResponseEntity<ReturnsResponse> response = returnsService.getReturns(uuid, username);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        ReturnsResponse returns = response.getBody();
+        assertEquals(Constants.RETURNS_RETRIEVED_CODE, returns.getCode());
+        assertEquals(LocalDate.now(), returns.getValuationDate());
+        assertEquals(new BigDecimal("1000.00"), returns.getInvested());
+        assertEquals(new BigDecimal("1210.00"), returns.getCurrentValue());
+        assertEquals(new BigDecimal("210.00"), returns.getGain());
+        assertEquals(new BigDecimal("21.00"), returns.getAbsoluteReturn());
+        assertEquals(bought, returns.getSince());
+        assertNotNull(returns.getAnnualizedReturn());
+        assertNotNull(returns.getXirr());
+        HoldingReturn holding = returns.getHoldings().get(0);
+        assertEquals(new BigDecimal("10.00"), holding.getUnits());
+        assertEquals(new BigDecimal("121.00"), holding.getNav());
+        assertEquals(returns.getXirr(), holding.getXirr());
+    }
+
+    /**
+     * Test case: An unknown user is answered with 404.
+     */
+    @Test
+    void getReturns_shouldRejectUnknownUser() throws Exception {
+        when(portfolioIndex.findUserId(username)).thenReturn(Optional.empty());
+
+        ResponseEntity<ReturnsResponse> response = returnsService.getReturns(uuid, username);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(Constants.USER_RECORD_NOT_FOUND_CODE, response.getBody().getCode());
+        verify(returnsRepository, never()).forEachEntry(anyLong(), any());
+    }
+}
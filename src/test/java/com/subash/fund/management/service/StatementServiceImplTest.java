@@ -0,0 +1,230 @@
+package com.subash.fund.management.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.cfg.JsonNodeFeature;
+import com.subash.fund.management.model.TransactionSummary;
+import com.subash.fund.management.repository.StatementRepository;
+import com.subash.fund.management.util.Constants;
+import com.subash.fund.management.util.GenericLogger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.ObjLongConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test class for {@link StatementServiceImpl}.
+ * <p>
+ * Verifies that the transactions are written as CSV and NDJSON over whole days, and that invalid queries, unknown
+ * users and exports beyond the concurrency limit are answered with a JSON error, and that the permit of an export is
+ * released once, whether its body ran or not.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+class StatementServiceImplTest {
+
+    @Mock
+    private StatementRepository statementRepository;
+    @Mock
+    private PortfolioIndex portfolioIndex;
+    @Mock
+    private GenericLogger genericLogger;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private StatementServiceImpl statementService;
+
+    private final String uuid = "uuid123";
+    private final static String username = "subish12396";
+    private final LocalDate from = LocalDate.parse("2025-01-01");
+    private final LocalDate to = LocalDate.parse("2025-01-31");
+
+    /**
+     * Creates the service allowing one export at a time.
+     */
+    @BeforeEach
+    void setUp() {
+        statementService = new StatementServiceImpl(statementRepository, portfolioIndex, objectMapper, genericLogger,
+                1);
+        ReflectionTestUtils.setField(statementService, "defaultMonths", 12);
+    }
+
+    /**
+     * Streams two transactions of user 1, the second with a fund ID to be quoted in CSV.
+     */
+    private void stream() {
+        doAnswer(invocation -> {
+            ObjLongConsumer<TransactionSummary> consumer = invocation.getArgument(4);
+            consumer.accept(new TransactionSummary(10L, "2342323545", "BUY", new BigDecimal("10.00"),
+                    new BigDecimal("100.00"), new BigDecimal("1000.00"),
+                    LocalDateTime.parse("2025-01-02T10:15:30")), 1L);
+            consumer.accept(new TransactionSummary(11L, "23,\"42\"", "REDEEM", new BigDecimal("2.50"),
+                    new BigDecimal("110.00"), new BigDecimal("275.00"),
+                    LocalDateTime.parse("2025-01-31T23:59:59")), 1L);
+            return null;
+        }).when(statementRepository).forEachTransaction(eq(1L), isNull(), eq(from.atStartOfDay()),
+                eq(LocalDate.parse("2025-02-01").atStartOfDay()), any());
+    }
+
+    private static String write(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Test case: The statement is written as CSV over the whole last day, quoting the values holding separators.
+     */
+    @Test
+    void getStatement_shouldWriteCsv() throws Exception {
+        when(portfolioIndex.findUserId(username)).thenReturn(Optional.of(1L));
+        stream();
+
+        ResponseEntity<StreamingResponseBody> response =
+                statementService.getStatement(uuid, username, null, from, to, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("text/csv;charset=UTF-8", response.getHeaders().getContentType().toString());
+        assertTrue(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION)
+                .contains("statement-subish12396-2025-01-01-2025-01-31.csv"));
+        assertEquals("id,user_id,fund_id,type,units,nav,amount,timestamp\n"
+                + "10,1,2342323545,BUY,10.00,100.00,1000.00,2025-01-02T10:15:30\n"
+                + "11,1,\"23,\"\"42\"\"\",REDEEM,2.50,110.00,275.00,2025-01-31T23:59:59\n", write(response));
+    }
+
+    /**
+     * Test case: The statement is written as one JSON object per line.
+     */
+    @Test
+    void getStatement_shouldWriteNdjson() throws Exception {
+        when(portfolioIndex.findUserId(username)).thenReturn(Optional.of(1L));
+        stream();
+
+        ResponseEntity<StreamingResponseBody> response =
+                statementService.getStatement(uuid, username, null, from, to, "ndjson");
+
+        assertEquals("application/x-ndjson", response.getHeaders().getContentType().toString());
+        String[] lines = write(response).split("\n");
+        assertEquals(2, lines.length);
+        // Numbers are read as written, with their scale
+        JsonNode first = objectMapper.reader(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+                .without(JsonNodeFeature.STRIP_TRAILING_BIGDECIMAL_ZEROES).readTree(lines[0]);
+        assertEquals(10, first.get("id").asLong());
+        assertEquals(1, first.get("userId").asLong());
+        assertEquals("BUY", first.get("type").asText());
+        assertEquals(new BigDecimal("1000.00"), first.get("amount").decimalValue());
+        assertEquals("2025-01-02T10:15:30", first.get("timestamp").asText());
+        assertEquals("23,\"42\"", objectMapper.readTree(lines[1]).get("fundId").asText());
+    }
+
+    /**
+     * Test case: A range ending before it starts, or an unknown format, is answered with 400.
+     */
+    @Test
+    void getStatement_shouldRejectInvalidQuery() throws Exception {
+        ResponseEntity<StreamingResponseBody> reversed =
+                statementService.getStatement(uuid, username, null, to, from, "csv");
+        ResponseEntity<StreamingResponseBody> unknownFormat =
+                statementService.getStatement(uuid, username, null, from, to, "xml");
+
+        assertEquals(HttpStatus.BAD_REQUEST, reversed.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, unknownFormat.getStatusCode());
+        assertEquals(Constants.INVALID_STATEMENT_QUERY_CODE,
+                objectMapper.readTree(write(reversed)).get("code").asInt());
+        verifyNoInteractions(portfolioIndex, statementRepository);
+    }
+
+    /**
+     * Test case: An unknown user is answered with 404.
+     */
+    @Test
+    void getStatement_shouldRejectUnknownUser() throws Exception {
+        when(portfolioIndex.findUserId(username)).thenReturn(Optional.empty());
+
+        ResponseEntity<StreamingResponseBody> response =
+                statementService.getStatement(uuid, username, null, from, to, null);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(Constants.USER_RECORD_NOT_FOUND_CODE, objectMapper.readTree(write(response)).get("code").asInt());
+        verifyNoInteractions(statementRepository);
+    }
+
+    /**
+     * Test case: An export beyond the concurrency limit is answered with 503 until the running one completes.
+     */
+    @Test
+    void getStatement_shouldRejectExportBeyondLimit() throws Exception {
+        ResponseEntity<StreamingResponseBody> running =
+                statementService.getStatement(uuid, null, null, from, to, null);
+
+        ResponseEntity<StreamingResponseBody> busy = statementService.getStatement(uuid, null, null, from, to, null);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, busy.getStatusCode());
+        assertEquals("1", busy.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(Constants.SERVICE_BUSY_CODE, objectMapper.readTree(write(busy)).get("code").asInt());
+
+        write(running);
+        verify(statementRepository).forEachTransaction(isNull(), isNull(), any(), any(), any());
+        assertEquals(HttpStatus.OK, statementService.getStatement(uuid, null, null, from, to, null).getStatusCode());
+    }
+
+    /**
+     * Test case: The permit of an export whose body never ran is released when the async request completes, and
+     * the body no longer runs the query; the permit of an export that ran is not released twice.
+     */
+    @Test
+    void getStatement_shouldReleasePermitWhenBodyNeverRan() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            ResponseEntity<StreamingResponseBody> abandoned =
+                    statementService.getStatement(uuid, null, null, from, to, null);
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE,
+                    statementService.getStatement(uuid, null, null, from, to, null).getStatusCode());
+
+            WebAsyncUtils.getAsyncManager(request).getCallableInterceptor(StatementServiceImpl.PERMIT_INTERCEPTOR)
+                    .afterCompletion(new ServletWebRequest(request), () -> null);
+            write(abandoned);
+            verify(statementRepository, never()).forEachTransaction(any(), any(), any(), any(), any());
+
+            ResponseEntity<StreamingResponseBody> completed =
+                    statementService.getStatement(uuid, null, null, from, to, null);
+            assertEquals(HttpStatus.OK, completed.getStatusCode());
+            write(completed);
+            WebAsyncUtils.getAsyncManager(request).getCallableInterceptor(StatementServiceImpl.PERMIT_INTERCEPTOR)
+                    .afterCompletion(new ServletWebRequest(request), () -> null);
+
+            assertEquals(HttpStatus.OK, statementService.getStatement(uuid, null, null, from, to, null).getStatusCode());
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE,
+                    statementService.getStatement(uuid, null, null, from, to, null).getStatusCode());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+}
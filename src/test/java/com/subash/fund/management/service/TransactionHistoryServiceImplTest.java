@@ -0,0 +1,130 @@
+package com.subash.fund.management.service;
+
+import com.subash.fund.management.model.TransactionHistoryResponse;
+import com.subash.fund.management.model.TransactionSummary;
+import com.subash.fund.management.model.User;
+import com.subash.fund.management.repository.TransactionRepository;
+import com.subash.fund.management.repository.UserRepository;
+import com.subash.fund.management.util.Constants;
+import com.subash.fund.management.util.GenericLogger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test class for {@link com.subash.fund.management.service.TransactionHistoryServiceImpl}.
+ * <p>
+ * Verifies that pages are capped, that the cursor of a page seeks the next one after its last transaction, and
+ * that unknown users and invalid cursors are rejected.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+class TransactionHistoryServiceImplTest {
+
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private TransactionRepository transactionRepository;
+    @Mock
+    private GenericLogger genericLogger;
+
+    @InjectMocks
+    private TransactionHistoryServiceImpl transactionHistoryService;
+
+    private final String uuid = "uuid123";
+    private final static String username = "subish12396";
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(transactionHistoryService, "defaultPageSize", 50);
+        ReflectionTestUtils.setField(transactionHistoryService, "maxPageSize", 2);
+        user = new User();
+        user.setId(7L);
+        user.setUsername(username);
+    }
+
+    private static TransactionSummary row(long id, LocalDateTime timestamp) {
+        return new TransactionSummary(id, "2342323545", "BUY", BigDecimal.TEN, new BigDecimal("232.10"),
+                new BigDecimal("2321.00"), timestamp);
+    }
+
+    /**
+     * Test case: The page size is capped, and the cursor of a full page seeks after its last transaction.
+     */
+    @Test
+    void getTransactions_shouldReturnCappedPageWithCursor() throws Exception {
+        LocalDateTime timestamp = LocalDateTime.of(2026, 10, 16, 10, 30, 0, 123456000);
+        when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
+        when(transactionRepository.findHistory(eq(7L), any(), eq(Long.MAX_VALUE), isNull(), eq("BUY"),
+                eq(Limit.of(3)))).thenReturn(List.of(row(30, timestamp), row(20, timestamp), row(10, timestamp)));
+
+        ResponseEntity<TransactionHistoryResponse> response =
+                transactionHistoryService.getTransactions(uuid, username, null, "buy", 500, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(Constants.TRANSACTIONS_RETRIEVED_CODE, response.getBody().getCode());
+        assertEquals(List.of(30L, 20L), response.getBody().getTransactions().stream()
+                .map(transaction -> transaction.getTransactionId()).toList());
+        assertNotNull(response.getBody().getNextCursor());
+
+        when(transactionRepository.findHistory(7L, timestamp, 20L, null, null, Limit.of(3)))
+                .thenReturn(List.of(row(10, timestamp)));
+        ResponseEntity<TransactionHistoryResponse> next = transactionHistoryService.getTransactions(uuid, username,
+                null, null, 500, response.getBody().getNextCursor());
+
+        assertEquals(List.of(10L), next.getBody().getTransactions().stream()
+                .map(transaction -> transaction.getTransactionId()).toList());
+        assertNull(next.getBody().getNextCursor());
+    }
+
+    /**
+     * Test case: An unknown user gets 404 and an invalid cursor 400, without reading transactions.
+     */
+    @Test
+    void getTransactions_shouldRejectUnknownUserAndInvalidCursor() throws Exception {
+        when(userRepository.findByUsername(username)).thenReturn(Optional.empty());
+
+        ResponseEntity<TransactionHistoryResponse> unknownUser =
+                transactionHistoryService.getTransactions(uuid, username, null, null, null, null);
+        ResponseEntity<TransactionHistoryResponse> invalidCursor =
+                transactionHistoryService.getTransactions(uuid, username, null, null, null, "not-a-cursor");
+
+        assertEquals(HttpStatus.NOT_FOUND, unknownUser.getStatusCode());
+        assertEquals(Constants.USER_RECORD_NOT_FOUND_CODE, unknownUser.getBody().getCode());
+        assertEquals(HttpStatus.BAD_REQUEST, invalidCursor.getStatusCode());
+        assertEquals(Constants.INVALID_CURSOR_CODE, invalidCursor.getBody().getCode());
+        verify(transactionRepository, never()).findHistory(anyLong(), any(), anyLong(), any(), any(), any());
+    }
+
+    /**
+     * Test case: A database failure is rethrown.
+     */
+    @Test
+    void getTransactions_shouldThrowWhenQueryFails() {
+        when(userRepository.findByUsername(username)).thenThrow(new RuntimeException("database down"));
+
+        assertThrows(Exception.class,
+                () -> transactionHistoryService.getTransactions(uuid, username, null, null, null, null));
+    }
+}
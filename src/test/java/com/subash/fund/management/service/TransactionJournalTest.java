@@ -0,0 +1,217 @@
+package com.subash.fund.management.service;
+
+import com.subash.fund.management.model.FundScript;
+import com.subash.fund.management.model.JournalCheckpoint;
+import com.subash.fund.management.model.Transaction;
+import com.subash.fund.management.model.User;
+import com.subash.fund.management.repository.JournalCheckpointRepository;
+import com.subash.fund.management.repository.OrderBatchRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test class for {@link com.subash.fund.management.service.TransactionJournal}.
+ * <p>
+ * Runs the journal on a temporary directory with mocked repositories and verifies that journaled rows are
+ * inserted with their checkpoint, that segments roll over, that rows not inserted before a crash are
+ * replayed, and only those, that rows of rolled back orders are skipped, and that rows the database rejects are
+ * moved to the dead-letter file.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+class TransactionJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private OrderBatchRepository orderBatchRepository;
+    @Mock
+    private JournalCheckpointRepository journalCheckpointRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private TransactionJournal journal(OrderBatchRepository repository, Duration flushInterval) {
+        TransactionJournal journal = new TransactionJournal(repository, journalCheckpointRepository,
+                transactionManager, meterRegistry);
+        ReflectionTestUtils.setField(journal, "enabled", true);
+        ReflectionTestUtils.setField(journal, "directory", directory.toString());
+        ReflectionTestUtils.setField(journal, "segmentSize", DataSize.ofBytes(256));
+        ReflectionTestUtils.setField(journal, "fsync", TransactionJournal.Fsync.ALWAYS);
+        ReflectionTestUtils.setField(journal, "flushInterval", flushInterval);
+        ReflectionTestUtils.setField(journal, "batchSize", 100);
+        ReflectionTestUtils.setField(journal, "maxAttempts", 2);
+        return journal;
+    }
+
+    private static Transaction transaction(long userId, String units) {
+        User user = new User();
+        user.setId(userId);
+        FundScript fund = new FundScript();
+        fund.setFundId("2342323545");
+        Transaction transaction = new Transaction();
+        transaction.setUser(user);
+        transaction.setFund(fund);
+        transaction.setType("BUY");
+        transaction.setUnits(new BigDecimal(units));
+        transaction.setNav(new BigDecimal("232.10"));
+        transaction.setAmount(new BigDecimal(units).multiply(new BigDecimal("232.10")));
+        transaction.setTimestamp(LocalDateTime.of(2025, 6, 15, 10, 30, 0, 123456789));
+        return transaction;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Transaction> inserted(OrderBatchRepository repository) {
+        ArgumentCaptor<Collection<Transaction>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(repository, atLeastOnce()).insertTransactions(captor.capture());
+        List<Transaction> transactions = new ArrayList<>();
+        captor.getAllValues().forEach(transactions::addAll);
+        return transactions;
+    }
+
+    /**
+     * Test case: Appended rows are inserted in order with their checkpoint, and segments are rolled over.
+     */
+    @Test
+    void append_shouldInsertJournaledRows() throws Exception {
+        TransactionJournal journal = journal(orderBatchRepository, Duration.ofMillis(10));
+        journal.start();
+        for (int i = 1; i <= 5; i++) {
+            journal.append(transaction(i, "10"));
+        }
+
+        assertTrue(journal.awaitFlushed(Duration.ofSeconds(10)));
+        journal.stop();
+
+        List<Transaction> inserted = inserted(orderBatchRepository);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), inserted.stream().map(t -> t.getUser().getId()).toList());
+        verify(journalCheckpointRepository).saveFlushedSequence(anyString(), eq(5L), any());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.filter(path -> path.getFileName().toString().startsWith("segment-")).count(),
+                    "flushed segments are deleted");
+        }
+    }
+
+    /**
+     * Test case: Rows journaled but not inserted before a crash are replayed at the next start, exactly as
+     * appended, while rows after the checkpoint only are inserted.
+     */
+    @Test
+    void start_shouldReplayRowsAfterCheckpoint() throws Exception {
+        // Never flushes on its own: the rows stay in the journal as if the node crashed
+        TransactionJournal crashed = journal(mock(OrderBatchRepository.class), Duration.ofHours(1));
+        crashed.start();
+        Transaction first = transaction(1, "10");
+        crashed.append(first);
+        crashed.append(transaction(2, "20.5"));
+        crashed.append(transaction(3, "0.125"));
+
+        JournalCheckpoint checkpoint = new JournalCheckpoint();
+        checkpoint.setFlushedSequence(1L);
+        when(journalCheckpointRepository.findById(anyString())).thenReturn(Optional.of(checkpoint));
+        TransactionJournal restarted = journal(orderBatchRepository, Duration.ofMillis(10));
+        restarted.start();
+
+        assertTrue(restarted.awaitFlushed(Duration.ofSeconds(10)));
+        restarted.stop();
+        List<Transaction> replayed = inserted(orderBatchRepository);
+        assertEquals(2, replayed.size());
+        Transaction second = replayed.get(0);
+        assertEquals(2L, second.getUser().getId());
+        assertEquals(first.getFund().getFundId(), second.getFund().getFundId());
+        assertEquals("BUY", second.getType());
+        assertEquals(new BigDecimal("20.5"), second.getUnits());
+        assertEquals(new BigDecimal("232.10"), second.getNav());
+        assertEquals(first.getTimestamp(), second.getTimestamp());
+        assertEquals(new BigDecimal("0.125"), replayed.get(1).getUnits());
+        verify(journalCheckpointRepository).saveFlushedSequence(anyString(), eq(3L), any());
+    }
+
+    /**
+     * Test case: A row is appended before its order commits, and a row whose order rolls back is neither inserted
+     * nor replayed after a restart.
+     */
+    @Test
+    void append_shouldSkipRowsOfRolledBackOrders() throws Exception {
+        TransactionJournal crashed = journal(mock(OrderBatchRepository.class), Duration.ofHours(1));
+        crashed.start();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            crashed.append(transaction(1, "10"));
+            assertEquals(0.0, meterRegistry.get("transaction.journal.pending").gauge().value(),
+                    "appended at commit only");
+            TransactionSynchronizationUtils.triggerBeforeCommit(false);
+            assertEquals(1.0, meterRegistry.get("transaction.journal.pending").gauge().value());
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        crashed.append(transaction(2, "20"));
+
+        TransactionJournal restarted = journal(orderBatchRepository, Duration.ofMillis(10));
+        restarted.start();
+
+        assertTrue(restarted.awaitFlushed(Duration.ofSeconds(10)));
+        restarted.stop();
+        assertEquals(List.of(2L), inserted(orderBatchRepository).stream().map(t -> t.getUser().getId()).toList());
+    }
+
+    /**
+     * Test case: A row the database keeps rejecting is moved to the dead-letter file once its batch failed
+     * max-attempts times, and the rows after it are inserted.
+     */
+    @Test
+    void flush_shouldMoveRejectedRowToDeadLetters() throws Exception {
+        doAnswer(invocation -> {
+            Collection<Transaction> transactions = invocation.getArgument(0);
+            if (transactions.stream().anyMatch(t -> t.getUser().getId() == 2L)) {
+                throw new DataIntegrityViolationException("no partition of relation \"transactions\" found for row");
+            }
+            return null;
+        }).when(orderBatchRepository).insertTransactions(anyCollection());
+        TransactionJournal journal = journal(orderBatchRepository, Duration.ofMillis(10));
+        journal.start();
+        for (int i = 1; i <= 3; i++) {
+            journal.append(transaction(i, "10"));
+        }
+
+        assertTrue(journal.awaitFlushed(Duration.ofSeconds(10)));
+        journal.stop();
+
+        assertEquals(1.0, meterRegistry.get("transaction.journal.dead.letters").counter().count());
+        assertTrue(Files.size(directory.resolve("dead-letters.log")) > 0);
+        verify(journalCheckpointRepository).saveFlushedSequence(anyString(), eq(2L), any());
+        verify(journalCheckpointRepository).saveFlushedSequence(anyString(), eq(3L), any());
+    }
+}
@@ -0,0 +1,91 @@
+package com.subash.fund.management.service;
+
+import com.subash.fund.management.repository.TransactionPartitionRepository;
+import com.subash.fund.management.repository.TransactionPartitionRepository.Partition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test class for {@link com.subash.fund.management.service.TransactionPartitionManager}.
+ * <p>
+ * Verifies that the partitions of the coming months are created without gaps and that only partitions past the
+ * retention are archived.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+class TransactionPartitionManagerTest {
+
+    @Mock
+    private TransactionPartitionRepository transactionPartitionRepository;
+
+    @InjectMocks
+    private TransactionPartitionManager transactionPartitionManager;
+
+    private final YearMonth currentMonth = YearMonth.now();
+
+    /**
+     * Sets the configuration defaults.
+     */
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(transactionPartitionManager, "premakeMonths", 3);
+        ReflectionTestUtils.setField(transactionPartitionManager, "retentionMonths", 0);
+        ReflectionTestUtils.setField(transactionPartitionManager, "archiveSchema", "transactions_archive");
+        ReflectionTestUtils.setField(transactionPartitionManager, "lockTimeout", "5s");
+    }
+
+    private static Partition partition(YearMonth month) {
+        return new Partition(TransactionPartitionRepository.partitionName(month), month.atDay(1).atStartOfDay(),
+                month.plusMonths(1).atDay(1).atStartOfDay());
+    }
+
+    /**
+     * Test case: The months after the last partition are created up to the premake horizon.
+     */
+    @Test
+    void maintainPartitions_shouldCreateComingMonths() {
+        when(transactionPartitionRepository.findPartitions())
+                .thenReturn(List.of(partition(currentMonth.minusMonths(1)), partition(currentMonth)));
+
+        transactionPartitionManager.maintainPartitions();
+
+        verify(transactionPartitionRepository).createPartition(currentMonth.plusMonths(1));
+        verify(transactionPartitionRepository).createPartition(currentMonth.plusMonths(2));
+        verify(transactionPartitionRepository).createPartition(currentMonth.plusMonths(3));
+        verify(transactionPartitionRepository, times(3)).createPartition(any());
+        verify(transactionPartitionRepository, never()).archivePartition(anyString(), anyString(), anyString());
+    }
+
+    /**
+     * Test case: Partitions ending before the retention cutoff are archived, including the legacy partition.
+     */
+    @Test
+    void maintainPartitions_shouldArchiveExpiredPartitions() {
+        ReflectionTestUtils.setField(transactionPartitionManager, "retentionMonths", 12);
+        YearMonth expired = currentMonth.minusMonths(13);
+        YearMonth retained = currentMonth.minusMonths(12);
+        Partition legacy = new Partition("transactions_legacy", null, expired.atDay(1).atStartOfDay());
+        when(transactionPartitionRepository.findPartitions()).thenReturn(List.of(legacy, partition(expired),
+                partition(retained), partition(currentMonth.plusMonths(3))));
+
+        transactionPartitionManager.maintainPartitions();
+
+        verify(transactionPartitionRepository).archivePartition("transactions_legacy", "transactions_archive", "5s");
+        verify(transactionPartitionRepository).archivePartition(TransactionPartitionRepository.partitionName(expired),
+                "transactions_archive", "5s");
+        verify(transactionPartitionRepository, times(2)).archivePartition(anyString(), anyString(), anyString());
+        verify(transactionPartitionRepository, never()).createPartition(any());
+    }
+}
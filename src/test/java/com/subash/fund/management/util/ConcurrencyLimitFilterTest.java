@@ -0,0 +1,123 @@
+package com.subash.fund.management.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test class for {@link com.subash.fund.management.util.ConcurrencyLimitFilter}.
+ * <p>
+ * Verifies that API requests beyond the permits are rejected with {@code 503}, that permits are released, that
+ * non-API requests are not limited, and that the default permits leave out the connections of background work.
+ * </p>
+ */
+class ConcurrencyLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ConcurrencyLimitFilter filter =
+            new ConcurrencyLimitFilter(1, Duration.ofMillis(10), meterRegistry);
+
+    private static MockHttpServletRequest request(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.setRequestURI(uri);
+        return request;
+    }
+
+    /**
+     * Test case: A request arriving while the only permit is held is rejected.
+     */
+    @Test
+    void doFilter_shouldRejectWhenPermitsExhausted() throws Exception {
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        AtomicInteger inFlight = new AtomicInteger();
+
+        filter.doFilter(request("/v1/api/funds/order"), new MockHttpServletResponse(), new MockFilterChain() {
+            @Override
+            public void doFilter(jakarta.servlet.ServletRequest req, jakarta.servlet.ServletResponse res) {
+                inFlight.set(filter.inFlight());
+                try {
+                    filter.doFilter(request("/v1/api/funds/order"), second, new MockFilterChain());
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+
+        assertEquals(1, inFlight.get());
+        assertEquals(503, second.getStatus());
+        assertEquals("1", second.getHeader("Retry-After"));
+        assertTrue(second.getContentAsString().contains("\"code\":503"));
+        assertEquals(0, filter.inFlight());
+        assertEquals(1.0, meterRegistry.get("http.concurrency.limit.rejected").counter().count());
+    }
+
+    /**
+     * Test case: Requests outside the API are not limited.
+     */
+    @Test
+    void doFilter_shouldNotLimitNonApiRequests() throws Exception {
+        MockHttpServletResponse second = new MockHttpServletResponse();
+
+        filter.doFilter(request("/v1/api/funds"), new MockHttpServletResponse(), new MockFilterChain() {
+            @Override
+            public void doFilter(jakarta.servlet.ServletRequest req, jakarta.servlet.ServletResponse res) {
+                try {
+                    filter.doFilter(request("/actuator/health"), second, new MockFilterChain());
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+
+        assertEquals(200, second.getStatus());
+    }
+
+    /**
+     * Test case: The default permits are the pool size minus the connections of background work.
+     */
+    @Test
+    void constructor_shouldReserveBackgroundConnections() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("transaction.journal.enabled", "true")
+                .withProperty("order.engine.enabled", "true")
+                .withProperty("order.engine.lanes", "3");
+
+        // scheduler 1, returns batch workers 2, LISTEN 1, statement exports 2, journal flusher 1, lanes 3
+        assertEquals(10, ConcurrencyLimitFilter.reservedConnections(environment, 16));
+        assertEquals(6, ConcurrencyLimitFilter.reservedConnections(new MockEnvironment(), 16));
+        ConcurrencyLimitFilter defaulted =
+                new ConcurrencyLimitFilter(0, 16, environment, Duration.ofMillis(10), new SimpleMeterRegistry());
+        ConcurrencyLimitFilter explicit =
+                new ConcurrencyLimitFilter(4, 16, environment, Duration.ofMillis(10), new SimpleMeterRegistry());
+
+        assertEquals(6, permits(defaulted));
+        assertEquals(4, permits(explicit));
+    }
+
+    /**
+     * Test case: Startup fails when the background work leaves no connection to requests.
+     */
+    @Test
+    void constructor_shouldFailWhenNoConnectionLeft() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("order.engine.enabled", "true")
+                .withProperty("order.engine.lanes", "8");
+
+        assertThrows(IllegalStateException.class, () ->
+                new ConcurrencyLimitFilter(0, 10, environment, Duration.ofMillis(10), new SimpleMeterRegistry()));
+    }
+
+    private static int permits(ConcurrencyLimitFilter filter) {
+        return ((Semaphore) ReflectionTestUtils.getField(filter, "permits")).availablePermits();
+    }
+}
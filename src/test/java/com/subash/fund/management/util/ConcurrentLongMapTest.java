@@ -0,0 +1,80 @@
+package com.subash.fund.management.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test class for {@link ConcurrentLongMap}.
+ * <p>
+ * Verifies the map operations across resizes, including key {@code 0} and keys removed before a resize, and
+ * that concurrent updates of the same keys are not lost.
+ * </p>
+ */
+class ConcurrentLongMapTest {
+
+    /**
+     * Test case: Values survive the resizes, removed keys stay removed and key 0 is a regular key.
+     */
+    @Test
+    void putGetRemove_shouldKeepMappingsAcrossResizes() {
+        ConcurrentLongMap<String> map = new ConcurrentLongMap<>();
+        for (long key = -5000; key <= 5000; key++) {
+            assertNull(map.put(key, "v" + key));
+        }
+        for (long key = -5000; key <= 5000; key += 2) {
+            assertEquals("v" + key, map.remove(key));
+        }
+        for (long key = 5001; key <= 20000; key++) {
+            map.put(key, "v" + key);
+        }
+
+        assertEquals(5000 + 15000, map.size());
+        assertNull(map.get(-5000));
+        assertEquals("v-4999", map.get(-4999));
+        assertNull(map.get(0));
+        assertEquals("v1", map.get(1));
+        assertEquals("v20000", map.get(20000));
+        assertEquals("v1", map.put(1, "w1"));
+        assertEquals("w1", map.get(1));
+
+        map.clear();
+        assertEquals(0, map.size());
+        assertNull(map.get(1));
+    }
+
+    /**
+     * Test case: Concurrent compute calls on shared keys are applied one at a time.
+     */
+    @Test
+    void compute_shouldNotLoseConcurrentUpdates() throws Exception {
+        ConcurrentLongMap<Long> map = new ConcurrentLongMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10000; i++) {
+                        map.compute(i % 100, current -> current == null ? 1L : current + 1);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(100, map.size());
+        for (long key = 0; key < 100; key++) {
+            assertEquals(400L, map.get(key));
+        }
+    }
+}
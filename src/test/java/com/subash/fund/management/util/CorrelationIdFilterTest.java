@@ -0,0 +1,85 @@
+package com.subash.fund.management.util;
+
+import org.apache.logging.log4j.ThreadContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test class for {@link com.subash.fund.management.util.CorrelationIdFilter}.
+ * <p>
+ * Verifies that incoming correlation and trace headers are honoured, unsafe values are replaced, and the ID is
+ * available in the logging context only for the duration of the request.
+ * </p>
+ */
+class CorrelationIdFilterTest {
+
+    private final CorrelationIdFilter filter = new CorrelationIdFilter();
+
+    private String filter(MockHttpServletRequest request, MockHttpServletResponse response) throws Exception {
+        AtomicReference<String> inRequest = new AtomicReference<>();
+        filter.doFilter(request, response, new MockFilterChain() {
+            @Override
+            public void doFilter(jakarta.servlet.ServletRequest req, jakarta.servlet.ServletResponse res) {
+                inRequest.set(ThreadContext.get(CorrelationId.CONTEXT_KEY));
+            }
+        });
+        return inRequest.get();
+    }
+
+    /**
+     * Test case: Incoming correlation ID is used and echoed.
+     */
+    @Test
+    void doFilter_shouldHonourIncomingCorrelationId() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(CorrelationId.HEADER, "order-run-42");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertEquals("order-run-42", filter(request, response));
+        assertEquals("order-run-42", response.getHeader(CorrelationId.HEADER));
+        assertNull(ThreadContext.get(CorrelationId.CONTEXT_KEY));
+    }
+
+    /**
+     * Test case: Trace ID of a W3C traceparent header is used.
+     */
+    @Test
+    void doFilter_shouldUseTraceparentTraceId() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("traceparent", "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01");
+
+        assertEquals("4bf92f3577b34da6a3ce929d0e0e4736", filter(request, new MockHttpServletResponse()));
+    }
+
+    /**
+     * Test case: Unsafe header values are replaced with a generated version 7 UUID.
+     */
+    @Test
+    void doFilter_shouldGenerateIdForUnsafeHeader() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(CorrelationId.HEADER, "abc\nFAKE LOG LINE");
+
+        String correlationId = filter(request, new MockHttpServletResponse());
+
+        assertEquals(36, correlationId.length());
+        assertEquals('7', correlationId.charAt(14));
+    }
+
+    /**
+     * Test case: Generated IDs are ordered by creation time.
+     */
+    @Test
+    void next_shouldBeTimeOrdered() throws Exception {
+        String first = CorrelationId.next();
+        Thread.sleep(2);
+        String second = CorrelationId.next();
+
+        assertTrue(first.compareTo(second) < 0);
+    }
+}
@@ -0,0 +1,101 @@
+package com.subash.fund.management.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.subash.fund.management.model.OrderResponse;
+import com.subash.fund.management.model.OrderView;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test class for {@link com.subash.fund.management.util.GenericLogger}.
+ * <p>
+ * Verifies the logged message format, redaction of configured fields, reuse of the per-thread buffer and
+ * sampling by request UUID.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+class GenericLoggerTest {
+
+    @Mock
+    private Logger logger;
+
+    private GenericLogger genericLogger;
+
+    @BeforeEach
+    void setUp() {
+        genericLogger = new GenericLogger(new ObjectMapper());
+        ReflectionTestUtils.setField(genericLogger, "logRequest", true);
+        ReflectionTestUtils.setField(genericLogger, "logResponse", true);
+        ReflectionTestUtils.setField(genericLogger, "sampleRate", 1.0);
+        ReflectionTestUtils.setField(genericLogger, "redactFields", List.of("username"));
+        genericLogger.init();
+        lenient().when(logger.isInfoEnabled()).thenReturn(true);
+    }
+
+    private static OrderView orderView() {
+        OrderView orderView = new OrderView();
+        orderView.setUsername("subish12396");
+        orderView.setFundId("749739330349");
+        orderView.setUnits(BigDecimal.TEN);
+        return orderView;
+    }
+
+    /**
+     * Test case: Request is logged with its prefix and redacted body, twice with the same buffer.
+     */
+    @Test
+    void logRequest_shouldLogRedactedBody() {
+        genericLogger.logRequest(logger, "uuid-1", "createOrder", "POST", orderView());
+        genericLogger.logRequest(logger, "uuid-2", "createOrder", "POST", orderView());
+
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(logger, times(2)).info(captor.capture());
+        String message = captor.getAllValues().get(1);
+        assertTrue(message.startsWith("[APPLICATION] : Fund Management, [OPERATION ID] : createOrder, "
+                + "[HTTP METHOD] : POST, [REQUEST BODY] : {"));
+        assertTrue(message.contains("\"username\":\"***\""));
+        assertTrue(message.contains("\"fundId\":\"749739330349\""));
+        assertEquals(message, captor.getAllValues().get(0));
+    }
+
+    /**
+     * Test case: Sampled out flows log nothing, except error responses.
+     */
+    @Test
+    void logResponse_shouldAlwaysLogErrorsWhenSampledOut() {
+        ReflectionTestUtils.setField(genericLogger, "sampleRate", 0.0);
+
+        genericLogger.logRequest(logger, "uuid-1", "createOrder", "POST", orderView());
+        genericLogger.logResponse(logger, "uuid-1", "200 OK", new OrderResponse());
+        genericLogger.logResponse(logger, "uuid-1", "ERROR", Constants.API_PROCESSED_FAILURE);
+
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(logger, times(1)).info(captor.capture());
+        assertTrue(captor.getValue().contains("[STATUS] : ERROR"));
+    }
+
+    /**
+     * Test case: Nothing is serialized when logging is disabled.
+     */
+    @Test
+    void logResponse_shouldSkipWhenDisabled() {
+        ReflectionTestUtils.setField(genericLogger, "logResponse", false);
+
+        genericLogger.logResponse(logger, "uuid-1", "200 OK", new OrderResponse());
+
+        verify(logger, never()).info(anyString());
+    }
+}